@@ -0,0 +1,76 @@
+#!/bin/bash
+# Stand-in for JPF (java -jar RunJPF.jar) in tests: prints JPF-style output for a .jpf file
+# without running anything, so JpfProcessPool can be exercised without jpf-core/jpf-symbc.
+# Like SPF it prints a solved path condition (passing runs) and a method summary, with made-up
+# values (x = length of the .jpf file name, y = 0.5).
+# Usage: ./jpf-stub.sh [+key=value ...] <file.jpf>
+#   JPF_STUB_DELAY_MS      pretend the search takes this long (default 0)
+#   JPF_STUB_ERROR_PATTERN report an assertion error for .jpf files whose name matches (grep -E)
+#   JPF_STUB_HANG_PATTERN  never finish for .jpf files whose name matches (for time limit tests)
+
+JPF_FILE=""
+for arg in "$@"; do
+    case "$arg" in
+        +*) ;;
+        *) JPF_FILE="$arg" ;;
+    esac
+done
+
+if [ -z "$JPF_FILE" ] || [ ! -f "$JPF_FILE" ]; then
+    echo "gov.nasa.jpf.JPFConfigException: application property file not found: $JPF_FILE" >&2
+    exit 1
+fi
+
+TARGET=$(sed -n 's/^target *= *//p' "$JPF_FILE")
+METHOD=$(sed -n 's/^symbolic.method *= *//p' "$JPF_FILE")
+NAME=$(basename "$JPF_FILE")
+
+echo "JavaPathfinder core system v8.0 (stub)"
+echo ""
+echo "====================================================== system under test"
+echo "${TARGET}.main()"
+echo ""
+echo "====================================================== search started"
+
+if [ -n "$JPF_STUB_HANG_PATTERN" ] && echo "$NAME" | grep -Eq "$JPF_STUB_HANG_PATTERN"; then
+    while true; do sleep 1; done
+fi
+if [ -n "$JPF_STUB_DELAY_MS" ]; then
+    sleep "$(awk "BEGIN { print $JPF_STUB_DELAY_MS / 1000 }")"
+fi
+ERROR=""
+if [ -n "$JPF_STUB_ERROR_PATTERN" ] && echo "$NAME" | grep -Eq "$JPF_STUB_ERROR_PATTERN"; then
+    ERROR="java.lang.AssertionError at ${TARGET}"
+fi
+if [ -n "$METHOD" ]; then
+    echo "Test Input: ${METHOD}"
+fi
+if [ -n "$METHOD" ] && [ -z "$ERROR" ]; then
+    # Debug.printPC at the end of a path that passed
+    echo "=== TEST CASE ==="
+    echo "constraint # = 2"
+    echo "x_1_SYMINT[${#NAME}] > CONST_0 &&"
+    echo "y_2_SYMREAL[0.5] < CONST_1.0"
+fi
+
+echo ""
+echo "====================================================== results"
+if [ -n "$ERROR" ]; then
+    echo "error #1: gov.nasa.jpf.vm.NoUncaughtExceptionsProperty \"${ERROR}...\""
+else
+    echo "no errors detected"
+fi
+echo ""
+echo "====================================================== search finished"
+if [ -n "$METHOD" ]; then
+    echo ""
+    echo "====================================================== Method Summaries"
+    echo "Inputs: x_1_SYMINT,y_2_SYMREAL"
+    echo ""
+    if [ -n "$ERROR" ]; then
+        echo "${METHOD%()}(${#NAME},0.5)  --> \"${ERROR}\""
+    else
+        echo "${METHOD%()}(${#NAME},0.5)  --> Return Value: --"
+    fi
+fi
+exit 0
@@ -1,6 +1,6 @@
 @echo off
 REM Batch file to compile and run tests using javac directly (fallback when Maven is broken)
-REM Usage: run-tests-javac.bat [simple|complex|all]
+REM Usage: run-tests-javac.bat [simple|complex|parser|scan|cache|intern|printer|rewrite|parallel|symbols|stream|concurrent|cse|shard|loops|trie|manifest|watch|daemon|compile|jpf|backend|inputs|spfcache|ranges|overloads|all]
 
 setlocal
 
@@ -1,6 +1,6 @@
 @echo off
 REM Batch file to compile and run tests using javac directly (no Maven dependency)
-REM Usage: run-tests.bat [simple|complex|all]
+REM Usage: run-tests.bat [simple|complex|parser|scan|cache|intern|printer|rewrite|parallel|symbols|stream|concurrent|cse|shard|loops|trie|manifest|watch|daemon|compile|jpf|backend|inputs|spfcache|ranges|overloads|all]
 REM Run from project root or scripts folder
 
 setlocal
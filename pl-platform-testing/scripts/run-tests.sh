@@ -1,6 +1,6 @@
 #!/bin/bash
 # Shell script to compile and run tests using javac directly (for WSL when Maven has issues)
-# Usage: ./run-tests.sh [simple|complex|all]
+# Usage: ./run-tests.sh [simple|complex|parser|scan|cache|intern|printer|rewrite|parallel|symbols|stream|concurrent|cse|shard|loops|trie|manifest|watch|daemon|compile|jpf|backend|inputs|spfcache|ranges|overloads|all]
 
 # Change to project root directory
 cd "$(dirname "$0")/.."
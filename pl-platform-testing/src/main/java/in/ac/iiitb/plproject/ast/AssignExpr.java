@@ -0,0 +1,38 @@
+package in.ac.iiitb.plproject.ast;
+
+import java.util.Objects;
+
+/**
+ * Public class for assignment expressions (target = value).
+ * This allows other packages (like IR classes) to reference AssignExpr types.
+ */
+public class AssignExpr extends Expr {
+    public final Expr target;
+    public final Expr value;
+
+    public AssignExpr(Expr target, Expr value) {
+        this.target = target;
+        this.value = value;
+    }
+
+    @Override
+    public <R> R accept(ExprVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    protected int computeHash() {
+        return 31 * Objects.hashCode(target) + Objects.hashCode(value);
+    }
+
+    @Override
+    protected boolean structurallyEquals(Expr other) {
+        AssignExpr o = (AssignExpr) other;
+        return Objects.equals(target, o.target) && Objects.equals(value, o.value);
+    }
+
+    @Override
+    public String toString() {
+        return target + " = " + value;
+    }
+}
@@ -0,0 +1,48 @@
+package in.ac.iiitb.plproject.ast;
+
+import java.util.Objects;
+
+/**
+ * Public class for binary expressions.
+ * This allows other packages (like IR classes) to reference BinaryExpr types.
+ */
+public class BinaryExpr extends Expr {
+    public enum Operator {
+        PLUS, MINUS, MULTIPLY, DIVIDE,
+        AND, OR,
+        EQUALS, NOT_EQUALS,
+        GREATER_THAN, GREATER_THAN_OR_EQUAL,
+        LESS_THAN, LESS_THAN_OR_EQUAL
+    }
+
+    public final Expr left, right;
+    public final Operator op;
+
+    public BinaryExpr(Expr left, Expr right, Operator op) {
+        this.left = left;
+        this.right = right;
+        this.op = op;
+    }
+
+    @Override
+    public <R> R accept(ExprVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    protected int computeHash() {
+        return (31 * Objects.hashCode(left) + Objects.hashCode(right)) * 31 + op.hashCode();
+    }
+
+    @Override
+    protected boolean structurallyEquals(Expr other) {
+        BinaryExpr o = (BinaryExpr) other;
+        return op == o.op && Objects.equals(left, o.left) && Objects.equals(right, o.right);
+    }
+
+    @Override
+    public String toString() {
+        String opStr = op.toString().toLowerCase().replace("_", " ");
+        return "(" + left + " " + opStr + " " + right + ")";
+    }
+}
@@ -0,0 +1,33 @@
+package in.ac.iiitb.plproject.ast;
+
+/**
+ * Public class for boolean literal expressions.
+ * This allows other packages (like IR classes) to reference BooleanLiteralExpr types.
+ */
+public class BooleanLiteralExpr extends Expr {
+    public final boolean value;
+
+    public BooleanLiteralExpr(boolean value) {
+        this.value = value;
+    }
+
+    @Override
+    public <R> R accept(ExprVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    protected int computeHash() {
+        return Boolean.hashCode(value);
+    }
+
+    @Override
+    protected boolean structurallyEquals(Expr other) {
+        return value == ((BooleanLiteralExpr) other).value;
+    }
+
+    @Override
+    public String toString() {
+        return Boolean.toString(value);
+    }
+}
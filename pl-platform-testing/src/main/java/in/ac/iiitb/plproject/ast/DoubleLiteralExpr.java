@@ -0,0 +1,33 @@
+package in.ac.iiitb.plproject.ast;
+
+/**
+ * Public class for double literal expressions.
+ * This allows other packages (like IR classes) to reference DoubleLiteralExpr types.
+ */
+public class DoubleLiteralExpr extends Expr {
+    public final double value;
+
+    public DoubleLiteralExpr(double value) {
+        this.value = value;
+    }
+
+    @Override
+    public <R> R accept(ExprVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    protected int computeHash() {
+        return Double.hashCode(value);
+    }
+
+    @Override
+    protected boolean structurallyEquals(Expr other) {
+        return Double.compare(value, ((DoubleLiteralExpr) other).value) == 0;
+    }
+
+    @Override
+    public String toString() {
+        return Double.toString(value);
+    }
+}
@@ -1,10 +1,70 @@
 package in.ac.iiitb.plproject.ast;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Public abstract base class for all expressions in the AST.
  * This allows other packages (like IR classes) to reference Expr types.
+ *
+ * Expressions are immutable and compare structurally. The hash code is computed once from
+ * the children's (cached) hashes, and nodes created through AstHelper are interned by
+ * ExprInterner, so equal expressions from the factories are usually the same instance and
+ * equals() returns on the identity check.
  */
 public abstract class Expr extends Node {
     // This is the public Expr class that extends the package-private Node
-}
 
+    private int hash; // 0 = not computed yet
+
+    /**
+     * Dispatch to the matching visit method of the visitor (double dispatch, no reflection).
+     */
+    public abstract <R> R accept(ExprVisitor<R> visitor);
+
+    /**
+     * Hash of this node's own fields combined with the hashes of its children.
+     */
+    protected abstract int computeHash();
+
+    /**
+     * Field-by-field comparison with a node of the same class.
+     */
+    protected abstract boolean structurallyEquals(Expr other);
+
+    @Override
+    public final int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = computeHash();
+            if (h == 0) {
+                h = 1;
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public final boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        Expr other = (Expr) obj;
+        return hashCode() == other.hashCode() && structurallyEquals(other);
+    }
+
+    /**
+     * Defensive, unmodifiable copy of a child list (null becomes an empty list).
+     */
+    protected static <T> List<T> immutableList(List<T> list) {
+        if (list == null || list.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(new ArrayList<>(list));
+    }
+}
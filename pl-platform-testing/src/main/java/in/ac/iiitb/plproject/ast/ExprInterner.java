@@ -0,0 +1,68 @@
+package in.ac.iiitb.plproject.ast;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Hash-consing table for expression nodes.
+ *
+ * intern(e) returns the live node that is structurally equal to e if there is one, and
+ * registers e otherwise. All AstHelper factories and ExprTransformer go through it, so
+ * repeated subexpressions (x, null, 0, ...) are stored once and equal trees are usually the
+ * same instance. Entries are weak: a node leaves the table when nothing else refers to it.
+ *
+ * The table is split into independently locked stripes so that parallel parsing and
+ * generation do not contend on a single lock.
+ */
+public final class ExprInterner {
+    private static final int STRIPES = 32; // power of two
+
+    private static final Stripe[] stripes = new Stripe[STRIPES];
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    private static final class Stripe {
+        final Map<Expr, WeakReference<Expr>> table = new WeakHashMap<>();
+    }
+
+    private ExprInterner() {
+    }
+
+    /**
+     * Canonical instance for the given node (null stays null).
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Expr> T intern(T expr) {
+        if (expr == null) {
+            return null;
+        }
+        int h = expr.hashCode();
+        Stripe stripe = stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+        synchronized (stripe) {
+            WeakReference<Expr> ref = stripe.table.get(expr);
+            Expr existing = ref != null ? ref.get() : null;
+            if (existing != null) {
+                return (T) existing; // equals() implies the same class
+            }
+            stripe.table.put(expr, new WeakReference<Expr>(expr));
+            return expr;
+        }
+    }
+
+    /**
+     * Number of distinct live nodes currently interned (for statistics).
+     */
+    public static int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.table.size();
+            }
+        }
+        return size;
+    }
+}
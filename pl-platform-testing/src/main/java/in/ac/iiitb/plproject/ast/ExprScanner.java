@@ -0,0 +1,119 @@
+package in.ac.iiitb.plproject.ast;
+
+import java.util.List;
+
+/**
+ * Base visitor that walks every child of every node and stops at the first non-null result.
+ *
+ * Subclasses override only the nodes they care about and call super (or scan()) to keep
+ * descending. Searches return the first match; collectors simply return null everywhere
+ * and accumulate into their own state.
+ *
+ * @param <R> Result type of the search (null means "not found, keep going")
+ */
+public abstract class ExprScanner<R> implements ExprVisitor<R> {
+
+    /**
+     * Visit an expression, tolerating null (e.g., a method call without scope).
+     */
+    public R scan(Expr expr) {
+        return expr == null ? null : expr.accept(this);
+    }
+
+    protected R scanAll(List<? extends Expr> exprs) {
+        for (Expr expr : exprs) {
+            R result = scan(expr);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public R visit(IntegerLiteralExpr expr) {
+        return null;
+    }
+
+    @Override
+    public R visit(DoubleLiteralExpr expr) {
+        return null;
+    }
+
+    @Override
+    public R visit(StringLiteralExpr expr) {
+        return null;
+    }
+
+    @Override
+    public R visit(BooleanLiteralExpr expr) {
+        return null;
+    }
+
+    @Override
+    public R visit(NameExpr expr) {
+        return null;
+    }
+
+    @Override
+    public R visit(FieldAccessExpr expr) {
+        return scan(expr.scope);
+    }
+
+    @Override
+    public R visit(ThisExpr expr) {
+        return null;
+    }
+
+    @Override
+    public R visit(BinaryExpr expr) {
+        R result = scan(expr.left);
+        return result != null ? result : scan(expr.right);
+    }
+
+    @Override
+    public R visit(AssignExpr expr) {
+        R result = scan(expr.target);
+        return result != null ? result : scan(expr.value);
+    }
+
+    @Override
+    public R visit(ObjectCreationExpr expr) {
+        return scanAll(expr.args);
+    }
+
+    @Override
+    public R visit(MethodCallExpr expr) {
+        R result = scan(expr.scope);
+        return result != null ? result : scanAll(expr.args);
+    }
+
+    @Override
+    public R visit(UnaryExpr expr) {
+        return scan(expr.expr);
+    }
+
+    @Override
+    public R visit(SetExpr expr) {
+        return scanAll(expr.elements);
+    }
+
+    @Override
+    public R visit(TupleExpr expr) {
+        return scanAll(expr.elements);
+    }
+
+    @Override
+    public R visit(MapExpr expr) {
+        for (Pair<NameExpr, Expr> entry : expr.entries) {
+            R result = scan(entry.key);
+            if (result == null) {
+                result = scan(entry.value);
+            }
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,151 @@
+package in.ac.iiitb.plproject.ast;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base visitor for rewriting expression trees.
+ *
+ * Every visit method transforms the children and rebuilds the node only if at least one
+ * child changed; otherwise the original node is returned. Subclasses override the nodes
+ * they rewrite and delegate to super for everything else, so untouched subtrees are shared
+ * between the input and the output. Rebuilt nodes are interned like factory-made ones.
+ */
+public abstract class ExprTransformer implements ExprVisitor<Expr> {
+
+    /**
+     * Transform an expression, tolerating null (e.g., a method call without scope).
+     */
+    public Expr transform(Expr expr) {
+        return expr == null ? null : expr.accept(this);
+    }
+
+    /**
+     * Transform a list of expressions.
+     * Returns the same list instance if no element changed.
+     */
+    protected List<Expr> transformAll(List<Expr> exprs) {
+        List<Expr> result = null;
+        for (int i = 0; i < exprs.size(); i++) {
+            Expr original = exprs.get(i);
+            Expr transformed = transform(original);
+            if (result == null && transformed != original) {
+                result = new ArrayList<>(exprs.size());
+                result.addAll(exprs.subList(0, i));
+            }
+            if (result != null) {
+                result.add(transformed);
+            }
+        }
+        return result != null ? result : exprs;
+    }
+
+    @Override
+    public Expr visit(IntegerLiteralExpr expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visit(DoubleLiteralExpr expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visit(StringLiteralExpr expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visit(BooleanLiteralExpr expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visit(NameExpr expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visit(FieldAccessExpr expr) {
+        Expr scope = transform(expr.scope);
+        return scope == expr.scope ? expr : ExprInterner.intern(new FieldAccessExpr(scope, expr.field));
+    }
+
+    @Override
+    public Expr visit(ThisExpr expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visit(BinaryExpr expr) {
+        Expr left = transform(expr.left);
+        Expr right = transform(expr.right);
+        if (left == expr.left && right == expr.right) {
+            return expr;
+        }
+        return ExprInterner.intern(new BinaryExpr(left, right, expr.op));
+    }
+
+    @Override
+    public Expr visit(AssignExpr expr) {
+        Expr target = transform(expr.target);
+        Expr value = transform(expr.value);
+        if (target == expr.target && value == expr.value) {
+            return expr;
+        }
+        return ExprInterner.intern(new AssignExpr(target, value));
+    }
+
+    @Override
+    public Expr visit(ObjectCreationExpr expr) {
+        List<Expr> args = transformAll(expr.args);
+        return args == expr.args ? expr : ExprInterner.intern(new ObjectCreationExpr(expr.type, args));
+    }
+
+    @Override
+    public Expr visit(MethodCallExpr expr) {
+        Expr scope = transform(expr.scope);
+        List<Expr> args = transformAll(expr.args);
+        if (scope == expr.scope && args == expr.args) {
+            return expr;
+        }
+        return ExprInterner.intern(new MethodCallExpr(scope, expr.name, args));
+    }
+
+    @Override
+    public Expr visit(UnaryExpr expr) {
+        Expr inner = transform(expr.expr);
+        return inner == expr.expr ? expr : ExprInterner.intern(new UnaryExpr(inner, expr.op));
+    }
+
+    @Override
+    public Expr visit(SetExpr expr) {
+        List<Expr> elements = transformAll(expr.elements);
+        return elements == expr.elements ? expr : ExprInterner.intern(new SetExpr(elements));
+    }
+
+    @Override
+    public Expr visit(TupleExpr expr) {
+        List<Expr> elements = transformAll(expr.elements);
+        return elements == expr.elements ? expr : ExprInterner.intern(new TupleExpr(elements));
+    }
+
+    @Override
+    public Expr visit(MapExpr expr) {
+        List<Pair<NameExpr, Expr>> entries = null;
+        for (int i = 0; i < expr.entries.size(); i++) {
+            Pair<NameExpr, Expr> entry = expr.entries.get(i);
+            // Keys must stay names, same restriction as the MapExpr constructor
+            NameExpr key = (NameExpr) transform(entry.key);
+            Expr value = transform(entry.value);
+            if (entries == null && (key != entry.key || value != entry.value)) {
+                entries = new ArrayList<>(expr.entries.size());
+                entries.addAll(expr.entries.subList(0, i));
+            }
+            if (entries != null) {
+                entries.add(key == entry.key && value == entry.value ? entry : new Pair<>(key, value));
+            }
+        }
+        return entries == null ? expr : ExprInterner.intern(new MapExpr(entries));
+    }
+}
@@ -0,0 +1,42 @@
+package in.ac.iiitb.plproject.ast;
+
+/**
+ * Visitor over every expression node of the AST (NewGrammar.java and the collection
+ * expressions SetExpr, TupleExpr and MapExpr).
+ *
+ * Traversal goes through Expr.accept(), so walking a tree is plain virtual dispatch
+ * instead of instanceof chains or reflective field access.
+ *
+ * @param <R> Result type of the visit
+ */
+public interface ExprVisitor<R> {
+    R visit(IntegerLiteralExpr expr);
+
+    R visit(DoubleLiteralExpr expr);
+
+    R visit(StringLiteralExpr expr);
+
+    R visit(BooleanLiteralExpr expr);
+
+    R visit(NameExpr expr);
+
+    R visit(FieldAccessExpr expr);
+
+    R visit(ThisExpr expr);
+
+    R visit(BinaryExpr expr);
+
+    R visit(AssignExpr expr);
+
+    R visit(ObjectCreationExpr expr);
+
+    R visit(MethodCallExpr expr);
+
+    R visit(UnaryExpr expr);
+
+    R visit(SetExpr expr);
+
+    R visit(TupleExpr expr);
+
+    R visit(MapExpr expr);
+}
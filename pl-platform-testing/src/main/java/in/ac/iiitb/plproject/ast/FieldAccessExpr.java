@@ -0,0 +1,38 @@
+package in.ac.iiitb.plproject.ast;
+
+import java.util.Objects;
+
+/**
+ * Public class for field access expressions (scope.field).
+ * This allows other packages (like IR classes) to reference FieldAccessExpr types.
+ */
+public class FieldAccessExpr extends Expr {
+    public final Expr scope;
+    public final SimpleName field;
+
+    public FieldAccessExpr(Expr scope, SimpleName field) {
+        this.scope = scope;
+        this.field = field;
+    }
+
+    @Override
+    public <R> R accept(ExprVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    protected int computeHash() {
+        return 31 * Objects.hashCode(scope) + Objects.hashCode(field);
+    }
+
+    @Override
+    protected boolean structurallyEquals(Expr other) {
+        FieldAccessExpr o = (FieldAccessExpr) other;
+        return Objects.equals(scope, o.scope) && Objects.equals(field, o.field);
+    }
+
+    @Override
+    public String toString() {
+        return scope + "." + field;
+    }
+}
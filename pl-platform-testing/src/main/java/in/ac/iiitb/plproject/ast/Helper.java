@@ -6,21 +6,7 @@ import java.util.*;
 // Utility Classes
 // ===================================
 
-// Replacement for std::pair
-class Pair<K, V> {
-    public K key;
-    public V value;
-
-    public Pair(K key, V value) {
-        this.key = key;
-        this.value = value;
-    }
-
-    @Override
-    public String toString() {
-        return "(" + key + ", " + value + ")";
-    }
-}
+// Pair is now public and moved to Pair.java (used by MapExpr entries)
 
 // ===================================
 // Program Structure
@@ -116,24 +102,5 @@ class TypeMap {
 // Compatibility Classes for Collections
 // ===================================
 
-// These classes extend NewGrammar's Expr for backward compatibility
-// with code that uses SetExpr, TupleExpr, and MapExpr
-
-class SetExpr extends Expr {
-    final List<Expr> elements;
-    public SetExpr(List<Expr> elements) { this.elements = elements; }
-    @Override public String toString() { return "{" + elements + "}"; }
-}
-
-class TupleExpr extends Expr {
-    final List<Expr> elements;
-    public TupleExpr(List<Expr> elements) { this.elements = elements; }
-    @Override public String toString() { return "(" + elements + ")"; }
-}
-
-class MapExpr extends Expr {
-    final List<Pair<NameExpr, Expr>> entries; // Using NameExpr instead of Var
-    public MapExpr(List<Pair<NameExpr, Expr>> entries) { this.entries = entries; }
-    @Override public String toString() { return "{" + entries + "}"; }
-}
-
+// SetExpr, TupleExpr and MapExpr are now public and moved to their own files
+// so that ExprVisitor implementations in other packages can reference them
@@ -0,0 +1,33 @@
+package in.ac.iiitb.plproject.ast;
+
+/**
+ * Public class for integer literal expressions.
+ * This allows other packages (like IR classes) to reference IntegerLiteralExpr types.
+ */
+public class IntegerLiteralExpr extends Expr {
+    public final int value;
+
+    public IntegerLiteralExpr(int value) {
+        this.value = value;
+    }
+
+    @Override
+    public <R> R accept(ExprVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    protected int computeHash() {
+        return Integer.hashCode(value);
+    }
+
+    @Override
+    protected boolean structurallyEquals(Expr other) {
+        return value == ((IntegerLiteralExpr) other).value;
+    }
+
+    @Override
+    public String toString() {
+        return Integer.toString(value);
+    }
+}
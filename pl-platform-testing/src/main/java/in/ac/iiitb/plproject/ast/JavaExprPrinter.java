@@ -0,0 +1,505 @@
+package in.ac.iiitb.plproject.ast;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Prints expressions as Java source code.
+ *
+ * The printer is iterative: pending work (subexpressions and text fragments) lives on an
+ * explicit stack, so arbitrarily deep trees (e.g. a 100k-term AND chain) neither overflow
+ * the call stack nor get rescanned. Output goes straight to an Appendable in a single pass.
+ *
+ * Parentheses are emitted only where Java precedence requires them. && and || chains are
+ * printed flat in either nesting direction since those operators are associative; all other
+ * binary operators are left-associative, so a right operand of equal precedence is wrapped.
+ *
+ * Comparisons are printed by the static types of their operands, as far as a TypeLookup knows
+ * them (unknown names and calls count as objects):
+ * - x == null / x != null for comparisons with null
+ * - ==, != when both sides are primitive
+ * - java.util.Objects.equals(l, r) / !java.util.Objects.equals(l, r) otherwise
+ * Each operand is printed, and so evaluated, exactly once.
+ */
+public final class JavaExprPrinter {
+    // Precedence levels, loosest first
+    private static final int LOWEST = 0;
+    private static final int OR = 1;
+    private static final int AND = 2;
+    private static final int EQUALITY = 3;
+    private static final int RELATIONAL = 4;
+    private static final int ADDITIVE = 5;
+    private static final int MULTIPLICATIVE = 6;
+    private static final int UNARY = 7;
+    private static final int POSTFIX = 8;
+
+    // How a BinaryExpr is rendered
+    private static final int OPERATOR = 0;        // left op right
+    private static final int NULL_CHECK = 1;      // x == null, x != null
+    private static final int OBJECTS_EQUALS = 2;  // java.util.Objects.equals(l, r)
+    private static final int OBJECTS_NOT_EQUALS = 3;
+
+    /**
+     * Static types of the names and calls in an expression, as far as the caller knows them.
+     */
+    public interface TypeLookup {
+        /**
+         * True if expr (a name, field access or method call) has a primitive Java type
+         * (int, double, boolean, ...); false for references and expressions of unknown type.
+         */
+        boolean isPrimitive(Expr expr);
+    }
+
+    // No type information: every name and call is an object
+    private static final TypeLookup NO_TYPES = expr -> false;
+
+    private JavaExprPrinter() {
+    }
+
+    /**
+     * Java code for an expression (null prints as "true", e.g. a missing precondition).
+     */
+    public static String toJavaCode(Expr expr) {
+        return toJavaCode(expr, NO_TYPES);
+    }
+
+    /**
+     * Java code for an expression whose names and calls are typed by types.
+     */
+    public static String toJavaCode(Expr expr, TypeLookup types) {
+        StringBuilder sb = new StringBuilder();
+        print(expr, types, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Append the Java code for an expression to a StringBuilder.
+     */
+    public static void print(Expr expr, StringBuilder out) {
+        print(expr, NO_TYPES, out);
+    }
+
+    /**
+     * Append the Java code for an expression whose names and calls are typed by types.
+     */
+    public static void print(Expr expr, TypeLookup types, StringBuilder out) {
+        try {
+            print(expr, types, (Appendable) out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder does not throw
+        }
+    }
+
+    /**
+     * Append the Java code for an expression to any Appendable (Writer, StringBuilder, ...).
+     */
+    public static void print(Expr expr, Appendable out) throws IOException {
+        print(expr, NO_TYPES, out);
+    }
+
+    /**
+     * Append the Java code for an expression whose names and calls are typed by types.
+     */
+    public static void print(Expr expr, TypeLookup types, Appendable out) throws IOException {
+        WorkStack stack = new WorkStack();
+        Expander expander = new Expander(stack, types);
+        stack.push(expr, LOWEST);
+        while (!stack.isEmpty()) {
+            int minPrecedence = stack.topPrecedence();
+            Object item = stack.pop();
+            if (item instanceof String) {
+                out.append((String) item);
+            } else {
+                expander.minPrecedence = minPrecedence;
+                ((Expr) item).accept(expander);
+            }
+        }
+    }
+
+    /**
+     * Replaces a node on the stack by its pieces: text fragments and subexpressions, pushed
+     * in reverse order so they pop in print order.
+     */
+    private static final class Expander implements ExprVisitor<Void> {
+        private final WorkStack stack;
+        private final TypeLookup types;
+        // Loosest precedence the node being expanded may be printed at without parentheses
+        int minPrecedence;
+
+        Expander(WorkStack stack, TypeLookup types) {
+            this.stack = stack;
+            this.types = types;
+        }
+
+        @Override
+        public Void visit(IntegerLiteralExpr expr) {
+            pushLiteral(String.valueOf(expr.value), expr.value < 0);
+            return null;
+        }
+
+        @Override
+        public Void visit(DoubleLiteralExpr expr) {
+            pushLiteral(String.valueOf(expr.value), expr.value < 0);
+            return null;
+        }
+
+        @Override
+        public Void visit(StringLiteralExpr expr) {
+            stack.push("\"" + expr.value + "\"");
+            return null;
+        }
+
+        @Override
+        public Void visit(BooleanLiteralExpr expr) {
+            stack.push(String.valueOf(expr.value));
+            return null;
+        }
+
+        @Override
+        public Void visit(NameExpr expr) {
+            stack.push(((SimpleName) expr.name).identifier);
+            return null;
+        }
+
+        @Override
+        public Void visit(FieldAccessExpr expr) {
+            stack.push(expr.field.identifier);
+            stack.push(".");
+            stack.push(expr.scope, POSTFIX);
+            return null;
+        }
+
+        @Override
+        public Void visit(ThisExpr expr) {
+            stack.push("this");
+            return null;
+        }
+
+        @Override
+        public Void visit(BinaryExpr expr) {
+            int form = formOf(expr, types);
+            int precedence = precedenceOf(expr, form);
+            boolean parens = precedence < minPrecedence;
+            if (parens) {
+                stack.push(")");
+            }
+            pushBinary(expr, form, precedence, stack);
+            if (parens) {
+                stack.push("(");
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(AssignExpr expr) {
+            // Not valid inside a generated condition; printed as is
+            stack.push(String.valueOf(expr));
+            return null;
+        }
+
+        @Override
+        public Void visit(ObjectCreationExpr expr) {
+            String typeName = expr.getTypeName();
+            if (typeName.endsWith("[]")) {
+                // Array types: "int[]" -> "new int[]{x}"
+                stack.push("}");
+                pushList(expr.args, ", ", stack);
+                stack.push("new " + typeName + "{");
+            } else if (typeName.equals("Set")) {
+                // Set is an interface, so build a HashSet instead
+                stack.push("))");
+                pushList(expr.args, ", ", stack);
+                stack.push("new HashSet<>(Arrays.asList(");
+            } else {
+                stack.push(")");
+                pushList(expr.args, ", ", stack);
+                stack.push("new " + typeName + "(");
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(MethodCallExpr expr) {
+            stack.push(")");
+            pushList(expr.args, ", ", stack);
+            stack.push("(");
+            stack.push(expr.name.identifier);
+            if (expr.scope != null) {
+                stack.push(".");
+                stack.push(expr.scope, POSTFIX);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(UnaryExpr expr) {
+            boolean parens = UNARY < minPrecedence;
+            if (parens) {
+                stack.push(")");
+            }
+            // Keep "- -x" from turning into "--x"
+            boolean sign = expr.op != UnaryExpr.Operator.LOGICAL_COMPLEMENT;
+            stack.push(expr.expr, sign && startsWithSign(expr.expr) ? POSTFIX : UNARY);
+            stack.push(unaryOperator(expr.op));
+            if (parens) {
+                stack.push("(");
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(SetExpr expr) {
+            stack.push("))");
+            pushList(expr.elements, ", ", stack);
+            stack.push("new HashSet<>(Arrays.asList(");
+            return null;
+        }
+
+        @Override
+        public Void visit(TupleExpr expr) {
+            stack.push("}");
+            pushList(expr.elements, ", ", stack);
+            stack.push("new Object[] {");
+            return null;
+        }
+
+        @Override
+        public Void visit(MapExpr expr) {
+            List<Pair<NameExpr, Expr>> entries = expr.entries;
+            stack.push("}}");
+            for (int i = entries.size() - 1; i >= 0; i--) {
+                stack.push(");");
+                stack.push(entries.get(i).value, LOWEST);
+                stack.push(", ");
+                stack.push(entries.get(i).key, LOWEST);
+                stack.push(" put(");
+            }
+            stack.push("new HashMap<>() {{");
+            return null;
+        }
+
+        private void pushLiteral(String text, boolean negative) {
+            stack.push(negative && UNARY < minPrecedence ? "(" + text + ")" : text);
+        }
+    }
+
+    private static void pushBinary(BinaryExpr binExpr, int form, int precedence, WorkStack stack) {
+        Expr left = binExpr.left;
+        Expr right = binExpr.right;
+        switch (form) {
+            case NULL_CHECK: {
+                Expr operand = isNullLiteral(left) ? right : left;
+                stack.push(binExpr.op == BinaryExpr.Operator.EQUALS ? " == null" : " != null");
+                stack.push(operand, EQUALITY);
+                break;
+            }
+            case OBJECTS_EQUALS:
+            case OBJECTS_NOT_EQUALS:
+                stack.push(")");
+                stack.push(right, LOWEST);
+                stack.push(", ");
+                stack.push(left, LOWEST);
+                stack.push(form == OBJECTS_EQUALS ? "java.util.Objects.equals(" : "!java.util.Objects.equals(");
+                break;
+            default: {
+                boolean associative = binExpr.op == BinaryExpr.Operator.AND || binExpr.op == BinaryExpr.Operator.OR;
+                stack.push(right, associative ? precedence : precedence + 1);
+                stack.push(binaryOperator(binExpr.op));
+                stack.push(left, precedence);
+            }
+        }
+    }
+
+    /**
+     * Push list elements (in reverse) with a separator between them.
+     */
+    private static void pushList(List<? extends Expr> exprs, String separator, WorkStack stack) {
+        for (int i = exprs.size() - 1; i >= 0; i--) {
+            stack.push(exprs.get(i), LOWEST);
+            if (i > 0) {
+                stack.push(separator);
+            }
+        }
+    }
+
+    private static int formOf(BinaryExpr binExpr, TypeLookup types) {
+        BinaryExpr.Operator op = binExpr.op;
+        if (op != BinaryExpr.Operator.EQUALS && op != BinaryExpr.Operator.NOT_EQUALS) {
+            return OPERATOR;
+        }
+        if (isNullLiteral(binExpr.left) || isNullLiteral(binExpr.right)) {
+            return NULL_CHECK;
+        }
+        if (isPrimitiveExpression(binExpr.left, types) && isPrimitiveExpression(binExpr.right, types)) {
+            return OPERATOR;
+        }
+        return op == BinaryExpr.Operator.EQUALS ? OBJECTS_EQUALS : OBJECTS_NOT_EQUALS;
+    }
+
+    private static int precedenceOf(BinaryExpr binExpr, int form) {
+        switch (form) {
+            case NULL_CHECK:
+                return EQUALITY;
+            case OBJECTS_EQUALS:
+                return POSTFIX;
+            case OBJECTS_NOT_EQUALS:
+                return UNARY;
+            default:
+                switch (binExpr.op) {
+                    case OR:
+                        return OR;
+                    case AND:
+                        return AND;
+                    case EQUALS:
+                    case NOT_EQUALS:
+                        return EQUALITY;
+                    case LESS_THAN:
+                    case LESS_THAN_OR_EQUAL:
+                    case GREATER_THAN:
+                    case GREATER_THAN_OR_EQUAL:
+                        return RELATIONAL;
+                    case PLUS:
+                    case MINUS:
+                        return ADDITIVE;
+                    default:
+                        return MULTIPLICATIVE;
+                }
+        }
+    }
+
+    private static String binaryOperator(BinaryExpr.Operator op) {
+        switch (op) {
+            case AND: return " && ";
+            case OR: return " || ";
+            case EQUALS: return " == ";
+            case NOT_EQUALS: return " != ";
+            case LESS_THAN: return " < ";
+            case LESS_THAN_OR_EQUAL: return " <= ";
+            case GREATER_THAN: return " > ";
+            case GREATER_THAN_OR_EQUAL: return " >= ";
+            case PLUS: return " + ";
+            case MINUS: return " - ";
+            case MULTIPLY: return " * ";
+            case DIVIDE: return " / ";
+            default: return " " + op + " ";
+        }
+    }
+
+    private static String unaryOperator(UnaryExpr.Operator op) {
+        switch (op) {
+            case LOGICAL_COMPLEMENT: return "!";
+            case MINUS: return "-";
+            case PLUS: return "+";
+            default: return op.toString();
+        }
+    }
+
+    private static boolean startsWithSign(Expr expr) {
+        if (expr instanceof UnaryExpr) {
+            return ((UnaryExpr) expr).op != UnaryExpr.Operator.LOGICAL_COMPLEMENT;
+        }
+        if (expr instanceof IntegerLiteralExpr) {
+            return ((IntegerLiteralExpr) expr).value < 0;
+        }
+        if (expr instanceof DoubleLiteralExpr) {
+            return ((DoubleLiteralExpr) expr).value < 0;
+        }
+        return false;
+    }
+
+    private static boolean isNullLiteral(Expr expr) {
+        return "null".equals(AstHelper.getNameFromExpr(expr));
+    }
+
+    /**
+     * True if expr has a primitive type: literals other than strings, the results of
+     * comparisons, logical and unary operators, arithmetic on primitives, and names and
+     * calls the TypeLookup knows to be primitive. Arithmetic chains are walked without
+     * recursion (a + on a String operand is a String).
+     */
+    static boolean isPrimitiveExpression(Expr expr, TypeLookup types) {
+        if (expr == null) {
+            return false;
+        }
+        Deque<Expr> pending = new ArrayDeque<>();
+        pending.push(expr);
+        while (!pending.isEmpty()) {
+            Expr e = pending.pop();
+            if (e instanceof BinaryExpr) {
+                BinaryExpr binExpr = (BinaryExpr) e;
+                if (isArithmetic(binExpr.op)) {
+                    pending.push(binExpr.right);
+                    pending.push(binExpr.left);
+                }
+            } else if (e instanceof NameExpr || e instanceof FieldAccessExpr || e instanceof MethodCallExpr) {
+                if (!types.isPrimitive(e)) {
+                    return false;
+                }
+            } else if (!(e instanceof IntegerLiteralExpr || e instanceof DoubleLiteralExpr
+                    || e instanceof BooleanLiteralExpr || e instanceof UnaryExpr)) {
+                // Strings, object creations, collections and anything else are objects
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isArithmetic(BinaryExpr.Operator op) {
+        switch (op) {
+            case PLUS:
+            case MINUS:
+            case MULTIPLY:
+            case DIVIDE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Pending text fragments and subexpressions (with the minimum precedence they may be
+     * printed at without parentheses), kept in two parallel arrays.
+     */
+    private static final class WorkStack {
+        private Object[] items = new Object[64];
+        private int[] precedences = new int[64];
+        private int size;
+
+        void push(String text) {
+            push(text, LOWEST);
+        }
+
+        void push(Expr expr, int minPrecedence) {
+            // A missing subexpression prints as "true", like a missing precondition
+            push(expr != null ? expr : "true", minPrecedence);
+        }
+
+        private void push(Object item, int minPrecedence) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+                precedences = Arrays.copyOf(precedences, size * 2);
+            }
+            items[size] = item;
+            precedences[size] = minPrecedence;
+            size++;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int topPrecedence() {
+            return precedences[size - 1];
+        }
+
+        Object pop() {
+            Object item = items[--size];
+            items[size] = null;
+            return item;
+        }
+    }
+}
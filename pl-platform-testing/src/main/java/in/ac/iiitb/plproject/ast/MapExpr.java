@@ -0,0 +1,35 @@
+package in.ac.iiitb.plproject.ast;
+
+import java.util.List;
+
+/**
+ * Public class for map literal expressions ({k1: v1, k2: v2}).
+ * This allows other packages (like IR classes) to reference MapExpr types.
+ */
+public class MapExpr extends Expr {
+    public final List<Pair<NameExpr, Expr>> entries; // Using NameExpr instead of Var
+
+    public MapExpr(List<Pair<NameExpr, Expr>> entries) {
+        this.entries = immutableList(entries);
+    }
+
+    @Override
+    public <R> R accept(ExprVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    protected int computeHash() {
+        return entries.hashCode();
+    }
+
+    @Override
+    protected boolean structurallyEquals(Expr other) {
+        return entries.equals(((MapExpr) other).entries);
+    }
+
+    @Override
+    public String toString() {
+        return "{" + entries + "}";
+    }
+}
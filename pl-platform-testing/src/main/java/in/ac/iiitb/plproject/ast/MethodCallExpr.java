@@ -1,6 +1,7 @@
 package in.ac.iiitb.plproject.ast;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Public class for method call expressions.
@@ -14,10 +15,26 @@ public class MethodCallExpr extends Expr {
     public MethodCallExpr(Expr scope, SimpleName name, List<Expr> args) {
         this.scope = scope;
         this.name = name;
-        this.args = args;
+        this.args = immutableList(args);
     }
     
-    @Override 
+    @Override
+    public <R> R accept(ExprVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+    
+    @Override
+    protected int computeHash() {
+        return (31 * Objects.hashCode(scope) + Objects.hashCode(name)) * 31 + args.hashCode();
+    }
+
+    @Override
+    protected boolean structurallyEquals(Expr other) {
+        MethodCallExpr o = (MethodCallExpr) other;
+        return Objects.equals(name, o.name) && Objects.equals(scope, o.scope) && args.equals(o.args);
+    }
+
+    @Override
     public String toString() { 
         return (scope != null ? scope + "." : "") + name + "(" + args + ")"; 
     }
@@ -11,6 +11,23 @@ public class Name extends Node {
         this.identifier = identifier; 
     }
     
+    @Override
+    public int hashCode() {
+        return identifier == null ? 0 : identifier.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Name)) {
+            return false;
+        }
+        String other = ((Name) obj).identifier;
+        return identifier == null ? other == null : identifier.equals(other);
+    }
+
     @Override 
     public String toString() { 
         return identifier; 
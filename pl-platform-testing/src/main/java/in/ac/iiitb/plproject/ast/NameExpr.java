@@ -0,0 +1,35 @@
+package in.ac.iiitb.plproject.ast;
+
+import java.util.Objects;
+
+/**
+ * Public class for variable references.
+ * This allows other packages (like IR classes) to reference NameExpr types.
+ */
+public class NameExpr extends Expr {
+    public final Name name;
+
+    public NameExpr(Name name) {
+        this.name = name;
+    }
+
+    @Override
+    public <R> R accept(ExprVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    protected int computeHash() {
+        return Objects.hashCode(name);
+    }
+
+    @Override
+    protected boolean structurallyEquals(Expr other) {
+        return Objects.equals(name, ((NameExpr) other).name);
+    }
+
+    @Override
+    public String toString() {
+        return name.toString();
+    }
+}
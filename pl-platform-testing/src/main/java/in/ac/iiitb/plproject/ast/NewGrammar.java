@@ -18,138 +18,53 @@ abstract class Stmt extends Node { }
 // Literals
 // ===================================
 
-class IntegerLiteralExpr extends Expr {
-    final int value;
-    public IntegerLiteralExpr(int value) { this.value = value; }
-    @Override public String toString() { return Integer.toString(value); }
-}
-
-class DoubleLiteralExpr extends Expr {
-    final double value;
-    public DoubleLiteralExpr(double value) { this.value = value; }
-    @Override public String toString() { return Double.toString(value); }
-}
-
-class StringLiteralExpr extends Expr {
-    final String value;
-    public StringLiteralExpr(String value) { this.value = value; }
-    @Override public String toString() { return "\"" + value + "\""; }
-}
-
-class BooleanLiteralExpr extends Expr {
-    final boolean value;
-    public BooleanLiteralExpr(boolean value) { this.value = value; }
-    @Override public String toString() { return Boolean.toString(value); }
-}
+// IntegerLiteralExpr, DoubleLiteralExpr, StringLiteralExpr and BooleanLiteralExpr are now public
+// and moved to their own files so visitors in other packages can reference them
 
 // ===================================
 // Variable and Field Access
 // ===================================
 
-class NameExpr extends Expr {
-    final Name name;
-    public NameExpr(Name name) { this.name = name; }
-    @Override public String toString() { return name.toString(); }
-}
-
-class FieldAccessExpr extends Expr {
-    final Expr scope;
-    final SimpleName field;
-    public FieldAccessExpr(Expr scope, SimpleName field) {
-        this.scope = scope;
-        this.field = field;
-    }
-    @Override public String toString() { return scope + "." + field; }
-}
-
-class ThisExpr extends Expr {
-    @Override public String toString() { return "this"; }
-}
+// NameExpr, FieldAccessExpr and ThisExpr are now public and moved to their own files
 
 // ===================================
 // Expressions
 // ===================================
 
-class BinaryExpr extends Expr {
-    public enum Operator { 
-        PLUS, MINUS, MULTIPLY, DIVIDE, 
-        AND, OR, 
-        EQUALS, NOT_EQUALS, 
-        GREATER_THAN, GREATER_THAN_OR_EQUAL,
-        LESS_THAN, LESS_THAN_OR_EQUAL 
-    }
-    final Expr left, right;
-    final Operator op;
-    public BinaryExpr(Expr left, Expr right, Operator op) {
-        this.left = left;
-        this.right = right;
-        this.op = op;
-    }
-    @Override public String toString() { 
-        String opStr = op.toString().toLowerCase().replace("_", " ");
-        return "(" + left + " " + opStr + " " + right + ")"; 
-    }
-}
-
-class AssignExpr extends Expr {
-    final Expr target;
-    final Expr value;
-    public AssignExpr(Expr target, Expr value) {
-        this.target = target;
-        this.value = value;
-    }
-    @Override public String toString() { return target + " = " + value; }
-}
-
-class ObjectCreationExpr extends Expr {
-    final Type type;
-    final List<Expr> args;
-    public ObjectCreationExpr(Type type, List<Expr> args) {
-        this.type = type;
-        this.args = args;
-    }
-    @Override public String toString() { return "new " + type + "(" + args + ")"; }
-}
-
+// BinaryExpr, AssignExpr, ObjectCreationExpr and UnaryExpr are now public and moved to their own files
 // MethodCallExpr is now public and moved to MethodCallExpr.java for access from other packages
-
-class UnaryExpr extends Expr {
-    public enum Operator {
-        LOGICAL_COMPLEMENT, // !
-        MINUS, // - (unary minus)
-        PLUS // + (unary plus)
-    }
-    final Expr expr;
-    final Operator op;
-    public UnaryExpr(Expr expr, Operator op) {
-        this.expr = expr;
-        this.op = op;
-    }
-    @Override public String toString() {
-        String opStr = op == Operator.LOGICAL_COMPLEMENT ? "!" : 
-                       op == Operator.MINUS ? "-" : "+";
-        return opStr + expr;
-    }
-}
+// All expressions implement Expr.accept(ExprVisitor), see ExprVisitor.java
 
 // ===================================
 // Types
 // ===================================
 
+// Types compare by kind and name so ObjectCreationExpr can compare structurally
+
 class VoidType extends Type {
     @Override public String toString() { return "void"; }
+    @Override public int hashCode() { return VoidType.class.hashCode(); }
+    @Override public boolean equals(Object obj) { return obj instanceof VoidType; }
 }
 
 class PrimitiveType extends Type {
     final String name;
     public PrimitiveType(String name) { this.name = name; }
     @Override public String toString() { return name; }
+    @Override public int hashCode() { return Objects.hashCode(name); }
+    @Override public boolean equals(Object obj) {
+        return obj instanceof PrimitiveType && Objects.equals(name, ((PrimitiveType) obj).name);
+    }
 }
 
 class ClassOrInterfaceType extends Type {
     final Name name;
     public ClassOrInterfaceType(Name name) { this.name = name; }
     @Override public String toString() { return name.toString(); }
+    @Override public int hashCode() { return 31 * Objects.hashCode(name) + 1; }
+    @Override public boolean equals(Object obj) {
+        return obj instanceof ClassOrInterfaceType && Objects.equals(name, ((ClassOrInterfaceType) obj).name);
+    }
 }
 
 // ===================================
@@ -0,0 +1,46 @@
+package in.ac.iiitb.plproject.ast;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Public class for object creation expressions (new T(args)).
+ * This allows other packages (like IR classes) to reference ObjectCreationExpr types.
+ */
+public class ObjectCreationExpr extends Expr {
+    public final Type type;
+    public final List<Expr> args;
+
+    public ObjectCreationExpr(Type type, List<Expr> args) {
+        this.type = type;
+        this.args = immutableList(args);
+    }
+
+    /**
+     * Get the created type as a string, since Type itself is package-private.
+     */
+    public String getTypeName() {
+        return type.toString();
+    }
+
+    @Override
+    public <R> R accept(ExprVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    protected int computeHash() {
+        return 31 * Objects.hashCode(type) + args.hashCode();
+    }
+
+    @Override
+    protected boolean structurallyEquals(Expr other) {
+        ObjectCreationExpr o = (ObjectCreationExpr) other;
+        return Objects.equals(type, o.type) && args.equals(o.args);
+    }
+
+    @Override
+    public String toString() {
+        return "new " + type + "(" + args + ")";
+    }
+}
@@ -0,0 +1,39 @@
+package in.ac.iiitb.plproject.ast;
+
+import java.util.Objects;
+
+/**
+ * Public key/value pair (replacement for std::pair).
+ * Used by MapExpr entries, so it is public for the same reason MapExpr is.
+ */
+public class Pair<K, V> {
+    public final K key;
+    public final V value;
+
+    public Pair(K key, V value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hashCode(key) + Objects.hashCode(value);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Pair)) {
+            return false;
+        }
+        Pair<?, ?> other = (Pair<?, ?>) obj;
+        return Objects.equals(key, other.key) && Objects.equals(value, other.value);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + key + ", " + value + ")";
+    }
+}
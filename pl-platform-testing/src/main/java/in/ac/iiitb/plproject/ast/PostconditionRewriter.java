@@ -0,0 +1,165 @@
+package in.ac.iiitb.plproject.ast;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Rewrites a postcondition into the form asserted by the generated helper:
+ * - '(x)     -> result (non-void function) or x (in-place modification)
+ * - x_post   -> result (non-void function) or x
+ * - x        -> old_x, for variables snapshotted before the call (oldStateMap)
+ * - update() -> Helper.update() for known helper functions
+ *
+ * The rewrite is persistent: only the spine from the root down to a rewritten name is
+ * copied, everything else is shared with the input. Results are memoized per node, so a
+ * subtree that occurs many times (interned nodes are shared) is rewritten once. Allocation is
+ * therefore proportional to the edit, not to the size of the tree.
+ *
+ * One rewriter can be reused for several expressions with the same result variable and
+ * old-state map; the memo and the statistics accumulate across calls.
+ */
+public class PostconditionRewriter extends ExprTransformer {
+    private final String resultVarName;
+    private final Map<String, String> oldStateMap;
+    private final Map<Expr, Expr> memo = new IdentityHashMap<>();
+
+    private int nodesVisited;
+    private int memoHits;
+    private int namesRewritten;
+    private int nodesCopied;
+
+    /**
+     * @param resultVarName Variable holding the return value, or null for void functions
+     * @param oldStateMap   Pre-state variable -> name of its snapshot (may be null)
+     */
+    public PostconditionRewriter(String resultVarName, Map<String, String> oldStateMap) {
+        this.resultVarName = resultVarName;
+        this.oldStateMap = oldStateMap != null ? oldStateMap : Collections.<String, String>emptyMap();
+    }
+
+    /**
+     * Rewrite one postcondition. Returns the same instance if nothing needed rewriting.
+     */
+    public Expr rewrite(Expr postcondition) {
+        return transform(postcondition);
+    }
+
+    @Override
+    public Expr transform(Expr expr) {
+        if (expr == null) {
+            return null;
+        }
+        Expr cached = memo.get(expr);
+        if (cached != null) {
+            memoHits++;
+            return cached;
+        }
+        nodesVisited++;
+        Expr result = expr.accept(this);
+        if (result != expr && result != null && !(expr instanceof NameExpr) && !isPrime(expr)) {
+            nodesCopied++; // rebuilt because a child changed
+        }
+        if (result != null) {
+            memo.put(expr, result);
+        }
+        return result;
+    }
+
+    @Override
+    public Expr visit(NameExpr expr) {
+        String name = ((SimpleName) expr.name).identifier;
+
+        // Variable needs to be replaced with its old state (e.g., x -> old_x)
+        String oldName = oldStateMap.get(name);
+        if (oldName != null) {
+            return renamed(expr, oldName);
+        }
+
+        // Post-state variable (e.g., x_post): the result, or x itself for void functions
+        if (name.endsWith("_post")) {
+            return renamed(expr, resultVarName != null
+                ? resultVarName
+                : name.substring(0, name.length() - "_post".length()));
+        }
+        return expr;
+    }
+
+    @Override
+    public Expr visit(MethodCallExpr expr) {
+        // Prime operator: '(x) denotes the post-state of x
+        if (isPrime(expr)) {
+            if (expr.args.isEmpty()) {
+                return null; // Invalid prime operator call with no arguments
+            }
+            Expr inner = expr.args.get(0);
+            if (inner instanceof NameExpr) {
+                // Non-void: the post-state is the result; void: in-place modification, keep the name
+                return resultVarName != null ? renamed((NameExpr) inner, resultVarName) : inner;
+            }
+            return transform(inner);
+        }
+
+        // Known helper functions are called as Helper.name(...)
+        if (expr.scope == null && isKnownHelperFunction(expr.name.identifier)) {
+            return ExprInterner.intern(new MethodCallExpr(AstHelper.createNameExpr("Helper"), expr.name,
+                transformAll(expr.args)));
+        }
+        return super.visit(expr);
+    }
+
+    private static boolean isPrime(Expr expr) {
+        return expr instanceof MethodCallExpr && ((MethodCallExpr) expr).name.identifier.equals("'");
+    }
+
+    private Expr renamed(NameExpr expr, String newName) {
+        NameExpr renamed = AstHelper.createNameExpr(newName);
+        if (renamed != expr) {
+            namesRewritten++;
+        }
+        return renamed;
+    }
+
+    /**
+     * Checks if a method name is a known helper function that should be prefixed with Helper.
+     */
+    private static boolean isKnownHelperFunction(String methodName) {
+        return methodName.equals("update") ||
+               methodName.equals("increment") ||
+               methodName.equals("process");
+    }
+
+    /**
+     * Nodes actually visited (memo hits excluded).
+     */
+    public int getNodesVisited() {
+        return nodesVisited;
+    }
+
+    /**
+     * Subtrees answered from the memo instead of being walked again.
+     */
+    public int getMemoHits() {
+        return memoHits;
+    }
+
+    /**
+     * Names replaced (prime, _post and old-state rewrites).
+     */
+    public int getNamesRewritten() {
+        return namesRewritten;
+    }
+
+    /**
+     * Nodes copied because something below them was rewritten (the spine).
+     */
+    public int getNodesCopied() {
+        return nodesCopied;
+    }
+
+    @Override
+    public String toString() {
+        return "visited " + nodesVisited + " nodes, " + memoHits + " memo hits, "
+            + namesRewritten + " names rewritten, " + nodesCopied + " nodes copied";
+    }
+}
@@ -0,0 +1,35 @@
+package in.ac.iiitb.plproject.ast;
+
+import java.util.List;
+
+/**
+ * Public class for set literal expressions ({a, b, c}).
+ * This allows other packages (like IR classes) to reference SetExpr types.
+ */
+public class SetExpr extends Expr {
+    public final List<Expr> elements;
+
+    public SetExpr(List<Expr> elements) {
+        this.elements = immutableList(elements);
+    }
+
+    @Override
+    public <R> R accept(ExprVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    protected int computeHash() {
+        return 31 * elements.hashCode() + 1;
+    }
+
+    @Override
+    protected boolean structurallyEquals(Expr other) {
+        return elements.equals(((SetExpr) other).elements);
+    }
+
+    @Override
+    public String toString() {
+        return "{" + elements + "}";
+    }
+}
@@ -0,0 +1,35 @@
+package in.ac.iiitb.plproject.ast;
+
+import java.util.Objects;
+
+/**
+ * Public class for string literal expressions.
+ * This allows other packages (like IR classes) to reference StringLiteralExpr types.
+ */
+public class StringLiteralExpr extends Expr {
+    public final String value;
+
+    public StringLiteralExpr(String value) {
+        this.value = value;
+    }
+
+    @Override
+    public <R> R accept(ExprVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    protected int computeHash() {
+        return Objects.hashCode(value);
+    }
+
+    @Override
+    protected boolean structurallyEquals(Expr other) {
+        return Objects.equals(value, ((StringLiteralExpr) other).value);
+    }
+
+    @Override
+    public String toString() {
+        return "\"" + value + "\"";
+    }
+}
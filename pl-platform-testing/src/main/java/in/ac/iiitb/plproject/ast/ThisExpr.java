@@ -0,0 +1,27 @@
+package in.ac.iiitb.plproject.ast;
+
+/**
+ * Public class for the "this" expression.
+ * This allows other packages (like IR classes) to reference ThisExpr types.
+ */
+public class ThisExpr extends Expr {
+    @Override
+    public <R> R accept(ExprVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    protected int computeHash() {
+        return 1; // every "this" is equal to every other
+    }
+
+    @Override
+    protected boolean structurallyEquals(Expr other) {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "this";
+    }
+}
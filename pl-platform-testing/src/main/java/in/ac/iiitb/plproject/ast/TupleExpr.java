@@ -0,0 +1,35 @@
+package in.ac.iiitb.plproject.ast;
+
+import java.util.List;
+
+/**
+ * Public class for tuple expressions ((a, b, c)).
+ * This allows other packages (like IR classes) to reference TupleExpr types.
+ */
+public class TupleExpr extends Expr {
+    public final List<Expr> elements;
+
+    public TupleExpr(List<Expr> elements) {
+        this.elements = immutableList(elements);
+    }
+
+    @Override
+    public <R> R accept(ExprVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    protected int computeHash() {
+        return 31 * elements.hashCode() + 2;
+    }
+
+    @Override
+    protected boolean structurallyEquals(Expr other) {
+        return elements.equals(((TupleExpr) other).elements);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + elements + ")";
+    }
+}
@@ -0,0 +1,46 @@
+package in.ac.iiitb.plproject.ast;
+
+import java.util.Objects;
+
+/**
+ * Public class for unary expressions.
+ * This allows other packages (like IR classes) to reference UnaryExpr types.
+ */
+public class UnaryExpr extends Expr {
+    public enum Operator {
+        LOGICAL_COMPLEMENT, // !
+        MINUS, // - (unary minus)
+        PLUS // + (unary plus)
+    }
+
+    public final Expr expr;
+    public final Operator op;
+
+    public UnaryExpr(Expr expr, Operator op) {
+        this.expr = expr;
+        this.op = op;
+    }
+
+    @Override
+    public <R> R accept(ExprVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    protected int computeHash() {
+        return 31 * Objects.hashCode(expr) + op.hashCode();
+    }
+
+    @Override
+    protected boolean structurallyEquals(Expr other) {
+        UnaryExpr o = (UnaryExpr) other;
+        return op == o.op && Objects.equals(expr, o.expr);
+    }
+
+    @Override
+    public String toString() {
+        String opStr = op == Operator.LOGICAL_COMPLEMENT ? "!" :
+                       op == Operator.MINUS ? "-" : "+";
+        return opStr + expr;
+    }
+}
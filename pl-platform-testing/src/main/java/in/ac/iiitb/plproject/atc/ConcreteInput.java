@@ -1,5 +1,109 @@
 package in.ac.iiitb.plproject.atc;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A concrete test input found by symbolic execution: the values of a method's symbolic
+ * variables on one path, the path condition they satisfy, and how that path ended.
+ *
+ * Values are typed by their symbolic variable: Integer (or Long, outside the int range) for
+ * SYMINT, Double for SYMREAL, String for SYMSTRING; the raw text if the type is unknown.
+ */
 public class ConcreteInput {
-    // Placeholder for now
+
+    public enum Outcome {
+        /** The path completed (returned normally) */
+        PASSED,
+        /** The path ended in an exception or a property violation, e.g. a failing assert */
+        FAILED
+    }
+
+    private final String method;
+    private final Map<String, Object> values;
+    private final String pathCondition;
+    private final Outcome outcome;
+    private final String detail;
+
+    /**
+     * @param method        Method the input is for (qualified if known)
+     * @param values        Variable name -> value, in the order of the variables
+     * @param pathCondition Constraints of the path (null if not reported)
+     * @param detail        Return value or error message (may be null)
+     */
+    public ConcreteInput(String method, Map<String, Object> values, String pathCondition, Outcome outcome, String detail) {
+        this.method = method;
+        this.values = Collections.unmodifiableMap(new LinkedHashMap<>(values));
+        this.pathCondition = pathCondition;
+        this.outcome = outcome;
+        this.detail = detail;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public Map<String, Object> getValues() {
+        return values;
+    }
+
+    /**
+     * Value of one variable (null if it has none on this path).
+     */
+    public Object getValue(String name) {
+        return values.get(name);
+    }
+
+    public String getPathCondition() {
+        return pathCondition;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ConcreteInput)) {
+            return false;
+        }
+        ConcreteInput other = (ConcreteInput) o;
+        return Objects.equals(method, other.method) && values.equals(other.values)
+            && Objects.equals(pathCondition, other.pathCondition) && outcome == other.outcome
+            && Objects.equals(detail, other.detail);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(method, values, pathCondition, outcome, detail);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(method).append('(');
+        String separator = "";
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            Object value = entry.getValue();
+            sb.append(separator).append(entry.getKey()).append(" = ")
+                .append(value instanceof String ? "\"" + value + "\"" : value);
+            separator = ", ";
+        }
+        sb.append(") -> ").append(outcome);
+        if (detail != null) {
+            sb.append(": ").append(detail);
+        }
+        if (pathCondition != null) {
+            sb.append(" [").append(pathCondition).append(']');
+        }
+        return sb.toString();
+    }
 }
@@ -0,0 +1,398 @@
+package in.ac.iiitb.plproject.atc;
+
+import in.ac.iiitb.plproject.atc.ir.AtcClass;
+import in.ac.iiitb.plproject.atc.ir.AtcIrCodeGenerator;
+import in.ac.iiitb.plproject.atc.ir.AtcSuite;
+import in.ac.iiitb.plproject.parser.JmlParseException;
+import in.ac.iiitb.plproject.parser.JmlSourceScanner;
+import in.ac.iiitb.plproject.parser.JmlSpecParser;
+import in.ac.iiitb.plproject.parser.ast.JmlSpecAst;
+import in.ac.iiitb.plproject.parser.ast.TestStringAst;
+import in.ac.iiitb.plproject.symex.OutputManifest;
+import in.ac.iiitb.plproject.symex.SpfWrapper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-lived generation server: loads the generator once and serves jobs over a line protocol,
+ * so each job runs on a warm JVM instead of paying class loading and JIT warm-up.
+ *
+ * Protocol (UTF-8, one request per line, one response line per request, fields separated by
+ * tabs so that paths may contain spaces):
+ *   GENERATE <jobId> <specPath> <outputDir> <calls>
+ *       specPath is a .jml file, an annotated .java file or a source directory.
+ *       calls is a test string "a,b,c"; several test strings "a,b;a,c" are generated as one
+ *       prefix-sharing ATC (NewGenATC.generateAtcFile(spec, List)).
+ *       -> OK <jobId> <millis> <javaFile> ... <jpfFile> ...    or    ERROR <jobId> <message>
+ *       The generated sources come first, then the .jpf files, all as absolute paths.
+ *   PING -> PONG
+ *   STATS -> STATS jobs=<n> failed=<n> specCacheHits=<n>
+ *   SHUTDOWN -> BYE (stops the server)
+ *
+ * Jobs run concurrently on a fixed pool; responses carry the job id and come back in
+ * completion order. Jobs writing to the same output directory run one at a time (the output
+ * manifest is per directory). Parsed spec files are cached until their content hash changes;
+ * source directories are scanned again for every job. Generated helpers and their rendered
+ * source are reused while their spec is unchanged, as in SpecWatcher.
+ *
+ * The TCP server only listens on the loopback interface, and since a job writes wherever its
+ * request says, it only serves clients that can read its token: listen() writes a random token
+ * to ~/.atc-daemon-<port>.token, readable by the owner only, and the first line of every
+ * connection must be AUTH <token> (answered with OK, or ERROR and the connection is closed).
+ * send() and --send do this for the caller. stdin mode needs no token.
+ *
+ * Usage: java in.ac.iiitb.plproject.atc.GenerationDaemon [--port <port> | --stdin] [--threads <n>]
+ *        java in.ac.iiitb.plproject.atc.GenerationDaemon --send <port> <field> <field> ...
+ * --send joins its arguments with tabs, so a quoted path with spaces is one field.
+ */
+public class GenerationDaemon implements Closeable {
+    private static final int MAX_HELPERS_PER_CLASS = 500;
+    private static final int MAX_CALLS_PER_METHOD = 1000;
+
+    private final ExecutorService jobExecutor;
+    // Helpers are reused across jobs while their spec is unchanged (cached specs keep their identity)
+    private final NewGenATC genAtc = new NewGenATC(null, true);
+    // Stateless generator shared by every job; SpfWrapper's render cache is thread-safe
+    private final SpfWrapper spfWrapper = new SpfWrapper(new AtcIrCodeGenerator(SpfWrapper.getHelperReturnTypes()));
+    private final ConcurrentMap<Path, CachedSpecs> specCache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Path, Object> outputDirLocks = new ConcurrentHashMap<>();
+    private final AtomicLong jobCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong specCacheHits = new AtomicLong();
+    private volatile ServerSocket serverSocket;
+    private volatile byte[] token;
+    private volatile Path tokenFile;
+    private volatile boolean shutdown;
+
+    public GenerationDaemon(int threads) {
+        this.jobExecutor = Executors.newFixedThreadPool(threads);
+    }
+
+    private static final class CachedSpecs {
+        final String hash;
+        final JmlSpecAst specAst;
+
+        CachedSpecs(String hash, JmlSpecAst specAst) {
+            this.hash = hash;
+            this.specAst = specAst;
+        }
+    }
+
+    /**
+     * Listen on 127.0.0.1:port (0 = any free port) and serve each connection on its own
+     * thread until shutdown. Returns once the socket is bound and the token file written;
+     * see getPort() and tokenFile().
+     */
+    public void listen(int port) throws IOException {
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        token = OutputManifest.hash(secret).getBytes(StandardCharsets.UTF_8);
+        tokenFile = tokenFile(serverSocket.getLocalPort());
+        writeTokenFile(tokenFile, token);
+        Thread acceptThread = new Thread(() -> {
+            while (!shutdown) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    Thread connectionThread = new Thread(() -> serveConnection(socket), "atc-daemon-connection");
+                    connectionThread.setDaemon(true);
+                    connectionThread.start();
+                } catch (IOException e) {
+                    if (!shutdown) {
+                        System.err.println("Error accepting connection: " + e.getMessage());
+                    }
+                }
+            }
+        }, "atc-daemon-accept");
+        acceptThread.start();
+    }
+
+    public int getPort() {
+        return serverSocket != null ? serverSocket.getLocalPort() : -1;
+    }
+
+    /**
+     * File holding the token of the daemon listening on port.
+     */
+    public static Path tokenFile(int port) {
+        return Paths.get(System.getProperty("user.home"), ".atc-daemon-" + port + ".token");
+    }
+
+    /**
+     * Replace file by a new one only its owner can read and write, holding the token.
+     */
+    private static void writeTokenFile(Path file, byte[] token) throws IOException {
+        Files.deleteIfExists(file);
+        if (Files.getFileStore(file.toAbsolutePath().getParent()).supportsFileAttributeView(PosixFileAttributeView.class)) {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            Files.createFile(file);
+        }
+        Files.write(file, token);
+    }
+
+    private void serveConnection(Socket socket) {
+        try (Socket s = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8))) {
+            String line = in.readLine();
+            String[] auth = line != null ? line.split("\t", 2) : new String[0];
+            if (auth.length != 2 || !auth[0].equals("AUTH")
+                    || !MessageDigest.isEqual(token, auth[1].getBytes(StandardCharsets.UTF_8))) {
+                respond(out, "ERROR\t-\tauthentication required: AUTH<TAB>token from " + tokenFile);
+                return;
+            }
+            respond(out, "OK");
+            serve(in, out);
+        } catch (SocketException e) {
+            // Client went away
+        } catch (IOException e) {
+            System.err.println("Error serving connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Serve requests from in until end of input or SHUTDOWN, then wait for this stream's jobs
+     * and return. Used for stdin mode and for every socket connection.
+     */
+    public void serve(BufferedReader in, Writer out) throws IOException {
+        Phaser pendingJobs = new Phaser(1);
+        try {
+            String line;
+            while (!shutdown && (line = in.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                String[] parts = line.split("\t", -1);
+                // First word, so that a space-separated GENERATE gets the usage message
+                String request = parts[0].trim().split("\\s+", 2)[0];
+                switch (request) {
+                    case "GENERATE":
+                        if (parts.length != 5) {
+                            respond(out, "ERROR\t" + (parts.length > 1 ? parts[1] : "-")
+                                + "\tusage: GENERATE<TAB>jobId<TAB>specPath<TAB>outputDir<TAB>calls");
+                            break;
+                        }
+                        pendingJobs.register();
+                        try {
+                            jobExecutor.execute(() -> {
+                                try {
+                                    respond(out, runJob(parts[1], Paths.get(parts[2]), Paths.get(parts[3]), parts[4]));
+                                } finally {
+                                    pendingJobs.arriveAndDeregister();
+                                }
+                            });
+                        } catch (RejectedExecutionException e) {
+                            pendingJobs.arriveAndDeregister();
+                            respond(out, "ERROR\t" + parts[1] + "\tdaemon is shutting down");
+                        }
+                        break;
+                    case "PING":
+                        respond(out, "PONG");
+                        break;
+                    case "STATS":
+                        respond(out, "STATS jobs=" + jobCount.get() + " failed=" + failedCount.get()
+                            + " specCacheHits=" + specCacheHits.get());
+                        break;
+                    case "SHUTDOWN":
+                        pendingJobs.arriveAndAwaitAdvance();
+                        respond(out, "BYE");
+                        close();
+                        return;
+                    default:
+                        respond(out, "ERROR\t-\tunknown request: " + request);
+                }
+            }
+        } finally {
+            pendingJobs.arriveAndAwaitAdvance();
+        }
+    }
+
+    /**
+     * Run one job; returns its response line.
+     */
+    String runJob(String jobId, Path specPath, Path outputDir, String calls) {
+        long start = System.nanoTime();
+        jobCount.incrementAndGet();
+        try {
+            JmlSpecAst specAst = loadSpecs(specPath);
+            List<TestStringAst> testStrings = new ArrayList<>();
+            for (String testString : calls.split(";")) {
+                testStrings.add(new TestStringAst(Arrays.asList(testString.split(","))));
+            }
+            AtcSuite suite;
+            if (testStrings.size() == 1) {
+                suite = genAtc.generateAtcSuite(specAst, testStrings.get(0), MAX_HELPERS_PER_CLASS, MAX_CALLS_PER_METHOD);
+            } else {
+                AtcClass batch = genAtc.generateAtcFile(specAst, testStrings);
+                suite = new AtcSuite(batch, Collections.<AtcClass>emptyList());
+            }
+            List<String> files = new ArrayList<>();
+            List<String> jpfFiles;
+            Path normalizedDir = outputDir.toAbsolutePath().normalize();
+            synchronized (outputDirLocks.computeIfAbsent(normalizedDir, dir -> new Object())) {
+                jpfFiles = spfWrapper.saveSuite(suite, normalizedDir.toString(), files);
+            }
+            files.addAll(jpfFiles);
+            StringBuilder response = new StringBuilder("OK\t").append(jobId).append('\t')
+                .append((System.nanoTime() - start) / 1_000_000);
+            for (String file : files) {
+                response.append('\t').append(file);
+            }
+            return response.toString();
+        } catch (IOException | RuntimeException e) {
+            failedCount.incrementAndGet();
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            return "ERROR\t" + jobId + "\t" + message.replace('\n', ' ').replace('\t', ' ');
+        }
+    }
+
+    private JmlSpecAst loadSpecs(Path specPath) throws IOException {
+        Path path = specPath.toAbsolutePath().normalize();
+        if (Files.isDirectory(path)) {
+            return JmlSourceScanner.scanSpecs(path);
+        }
+        byte[] content = Files.readAllBytes(path);
+        String hash = OutputManifest.hash(content);
+        CachedSpecs cached = specCache.get(path);
+        if (cached != null && cached.hash.equals(hash)) {
+            specCacheHits.incrementAndGet();
+            return cached.specAst;
+        }
+        JmlSpecAst specAst;
+        if (path.getFileName().toString().endsWith(".java")) {
+            specAst = JmlSourceScanner.scanSpecs(path);
+        } else {
+            try (JmlSpecParser parser = new JmlSpecParser(new String(content, StandardCharsets.UTF_8))) {
+                specAst = parser.parseAll();
+                for (JmlParseException error : parser.getErrors()) {
+                    System.err.println("Warning: " + path + ": " + error.getMessage());
+                }
+            }
+        }
+        specCache.put(path, new CachedSpecs(hash, specAst));
+        return specAst;
+    }
+
+    private static void respond(Writer out, String line) {
+        synchronized (out) {
+            try {
+                out.write(line);
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                // Client went away; the job's output files are written anyway
+            }
+        }
+    }
+
+    /**
+     * Stop accepting connections and jobs; running jobs finish first.
+     */
+    @Override
+    public void close() throws IOException {
+        shutdown = true;
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+        if (tokenFile != null) {
+            Files.deleteIfExists(tokenFile);
+        }
+        jobExecutor.shutdown();
+        try {
+            jobExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Send one request to a daemon on localhost, authenticated with the token in
+     * tokenFile(port), and return its response line.
+     */
+    public static String send(int port, String request) throws IOException {
+        String token = new String(Files.readAllBytes(tokenFile(port)), StandardCharsets.UTF_8).trim();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+            out.write("AUTH\t" + token + "\n");
+            out.flush();
+            String reply = in.readLine();
+            if (!"OK".equals(reply)) {
+                return reply;
+            }
+            out.write(request + "\n");
+            out.flush();
+            return in.readLine();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Integer port = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--stdin":
+                    port = null;
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--send":
+                    System.out.println(send(Integer.parseInt(args[i + 1]),
+                        String.join("\t", Arrays.asList(args).subList(i + 2, args.length))));
+                    return;
+                default:
+                    System.out.println("Usage: GenerationDaemon [--port <port> | --stdin] [--threads <n>]");
+                    System.out.println("       GenerationDaemon --send <port> <field> <field> ...");
+                    return;
+            }
+        }
+        GenerationDaemon daemon = new GenerationDaemon(threads);
+        if (port != null) {
+            daemon.listen(port);
+            System.out.println("ATC generation daemon listening on 127.0.0.1:" + daemon.getPort()
+                + " with " + threads + " worker(s), token in " + tokenFile(daemon.getPort()));
+            return; // The accept thread keeps the JVM running until SHUTDOWN
+        }
+        try {
+            daemon.serve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+                new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+        } finally {
+            daemon.close();
+        }
+    }
+}
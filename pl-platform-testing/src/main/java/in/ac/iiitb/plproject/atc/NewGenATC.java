@@ -3,58 +3,458 @@ package in.ac.iiitb.plproject.atc;
 import in.ac.iiitb.plproject.parser.ast.*;
 import in.ac.iiitb.plproject.ast.AstHelper;
 import in.ac.iiitb.plproject.ast.Expr;
+import in.ac.iiitb.plproject.ast.ExprScanner;
+import in.ac.iiitb.plproject.ast.MethodCallExpr;
+import in.ac.iiitb.plproject.ast.NameExpr;
+import in.ac.iiitb.plproject.parser.JmlSpecAstSerializer;
+import in.ac.iiitb.plproject.symex.OutputManifest;
+import in.ac.iiitb.plproject.symex.SpfWrapper;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import in.ac.iiitb.plproject.atc.ir.*;
-import in.ac.iiitb.plproject.symex.TypeMapper;
 
 public class NewGenATC implements GenATC {
+    private static final String PACKAGE_NAME = "in.ac.iiitb.plproject.atc.generated";
+    private static final String CLASS_NAME = "GeneratedATCs";
+    // Longest choice branch kept inline in a batch ATC (see createTrieStatements)
+    private static final int MAX_INLINE_BRANCH_STATEMENTS = 64;
+
+    // Generates helper methods concurrently when set (null = sequential)
+    private final ExecutorService executor;
+    // Helpers of the last generation by source hash, reused while their spec is unchanged (null = off)
+    private final Map<String, AtcTestMethod> helperCache;
+    // Hashes of the specs of the last generation (by identity; specs are immutable), with helperCache
+    private final Map<JmlFunctionSpec, String> specHashes;
+
+    public NewGenATC() {
+        this(null);
+    }
+
+    /**
+     * Generate helper methods in parallel on the given executor (owned by the caller).
+     * Helpers are independent per spec; the output is identical to sequential mode.
+     */
+    public NewGenATC(ExecutorService executor) {
+        this(executor, false);
+    }
+
+    /**
+     * @param reuseHelpers Keep the helpers of the last generation and reuse those whose source
+     *                     hash (spec and spec return types) is unchanged, instead of generating
+     *                     them again. For long-running use, e.g. SpecWatcher.
+     */
+    public NewGenATC(ExecutorService executor, boolean reuseHelpers) {
+        this.executor = executor;
+        this.helperCache = reuseHelpers ? new ConcurrentHashMap<String, AtcTestMethod>() : null;
+        this.specHashes = reuseHelpers ? new ConcurrentHashMap<JmlFunctionSpec, String>() : null;
+    }
+
+    public boolean isParallel() {
+        return executor != null;
+    }
 
     @Override
     public AtcClass generateAtcFile(JmlSpecAst jmlSpecAst, TestStringAst testStringAst) {
         List<String> imports = new ArrayList<>();
         imports.add("java.util.*");
 
-        List<AtcTestMethod> actualTestMethods = new ArrayList<>();
         List<String> calls = testStringAst.getCalls();
-        
-        Map<String, JmlFunctionSpec> uniqueFunctionSpecs = new LinkedHashMap<>();
-        Map<String, AtcTestMethod> generatedHelperMethods = new HashMap<>();
+        Map<String, AtcTestMethod> generatedHelperMethods = generateHelperFunctions(jmlSpecAst, calls);
+        return buildAtcClass(imports, generatedHelperMethods, calls);
+    }
 
-        for (String functionName : calls) {
-            JmlFunctionSpec spec = jmlSpecAst.findSpecFor(functionName);
-            if (spec != null) {
-                uniqueFunctionSpecs.putIfAbsent(functionName, spec);
+    /**
+     * One ATC for many test strings. The test strings are merged into a prefix trie
+     * (TestStringTrie): a prefix shared by several of them is called once in main, and where
+     * they diverge main branches on a symbolic choice variable (AtcChoiceStmt), so SPF runs the
+     * shared prefix once and explores each continuation from there. The cost of exploring the
+     * batch grows with the number of trie nodes rather than the total length of the test strings.
+     * A test string that is a prefix of another one ends in an empty branch of its own.
+     */
+    public AtcClass generateAtcFile(JmlSpecAst jmlSpecAst, List<TestStringAst> testStrings) {
+        List<String> imports = new ArrayList<>();
+        imports.add("java.util.*");
+
+        TestStringTrie trie = TestStringTrie.of(testStrings);
+        Map<String, AtcTestMethod> helperMethods = generateHelperFunctions(jmlSpecAst, new ArrayList<>(trie.getDistinctCalls()));
+
+        List<AtcStatement> mainMethodStatements = new ArrayList<>();
+        mainMethodStatements.add(new AtcVarDecl(CLASS_NAME, "instance", AstHelper.createObjectCreationExpr(CLASS_NAME, new ArrayList<>())));
+        List<AtcTestMethod> branchMethods = new ArrayList<>();
+        mainMethodStatements.addAll(createTrieStatements(trie.getRoot(), helperMethods, branchMethods, new int[1]));
+
+        List<AtcTestMethod> methods = new ArrayList<>(helperMethods.values());
+        methods.addAll(branchMethods);
+        return new AtcClass(PACKAGE_NAME, CLASS_NAME, imports, methods, mainMethodStatements, null);
+    }
+
+    /**
+     * Like generateAtcFile, but split over several classes so that large suites stay within
+     * the JVM limits (64KB of bytecode per method) and compile quickly:
+     * - helpers are spread over shard classes GeneratedATCsShard0, 1, ... (at most
+     *   maxHelpersPerClass each), so each shard can be compiled and run by SPF on its own
+     * - the test sequence is cut into static methods sequence0(), sequence1(), ... of at most
+     *   maxCallsPerMethod calls in the index class GeneratedATCs, whose main runs them in order
+     * If everything fits in one class, the suite is the class generateAtcFile would produce.
+     */
+    public AtcSuite generateAtcSuite(JmlSpecAst jmlSpecAst, TestStringAst testStringAst,
+                                     int maxHelpersPerClass, int maxCallsPerMethod) {
+        if (maxHelpersPerClass < 1 || maxCallsPerMethod < 1) {
+            throw new IllegalArgumentException("Shard sizes must be positive: " + maxHelpersPerClass + ", " + maxCallsPerMethod);
+        }
+        List<String> calls = testStringAst.getCalls();
+        Map<String, AtcTestMethod> helperMethods = generateHelperFunctions(jmlSpecAst, calls);
+
+        List<String> imports = new ArrayList<>();
+        imports.add("java.util.*");
+
+        // Calls that actually run a helper (calls without a spec are skipped), repetitions as loops
+        List<TestStringAst.Segment> segments = new TestStringAst(getHelperCalls(calls, helperMethods))
+            .compress(Math.min(TestStringAst.DEFAULT_MAX_PERIOD, maxCallsPerMethod));
+        int callStatements = 0;
+        for (TestStringAst.Segment segment : segments) {
+            callStatements += segment.getCalls().size();
+        }
+        if (helperMethods.size() <= maxHelpersPerClass && callStatements <= maxCallsPerMethod) {
+            return new AtcSuite(buildAtcClass(imports, helperMethods, calls), Collections.<AtcClass>emptyList());
+        }
+
+        // Shards: consecutive helpers, in generation order
+        List<AtcClass> shards = new ArrayList<>();
+        Map<String, Integer> shardOfFunction = new HashMap<>();
+        List<AtcTestMethod> shardMethods = new ArrayList<>();
+        for (Map.Entry<String, AtcTestMethod> entry : helperMethods.entrySet()) {
+            shardOfFunction.put(entry.getKey(), shards.size());
+            shardMethods.add(entry.getValue());
+            if (shardMethods.size() == maxHelpersPerClass) {
+                shards.add(createShard(shards.size(), imports, shardMethods));
+                shardMethods = new ArrayList<>();
             }
         }
-        
-        for (Map.Entry<String, JmlFunctionSpec> entry : uniqueFunctionSpecs.entrySet()) {
-            String funcName = entry.getKey();
-            JmlFunctionSpec spec = entry.getValue();
-            AtcTestMethod helperMethod = generateHelperFunction(spec);
-            generatedHelperMethods.put(funcName, helperMethod);
-            actualTestMethods.add(helperMethod);
+        if (!shardMethods.isEmpty()) {
+            shards.add(createShard(shards.size(), imports, shardMethods));
+        }
+
+        // Sequence chunks of at most maxCallsPerMethod call statements (a loop counts its body once)
+        List<AtcTestMethod> sequenceMethods = new ArrayList<>();
+        List<AtcStatement> mainMethodStatements = new ArrayList<>();
+        List<TestStringAst.Segment> chunk = new ArrayList<>();
+        int chunkCalls = 0;
+        for (TestStringAst.Segment segment : segments) {
+            List<TestStringAst.Segment> pieces = new ArrayList<>();
+            if (segment.isLoop()) {
+                pieces.add(segment);
+            } else {
+                for (String functionName : segment.getCalls()) {
+                    pieces.add(new TestStringAst.Segment(Collections.singletonList(functionName), 1));
+                }
+            }
+            for (TestStringAst.Segment piece : pieces) {
+                if (chunkCalls + piece.getCalls().size() > maxCallsPerMethod) {
+                    addSequenceChunk(chunk, helperMethods, shardOfFunction, sequenceMethods, mainMethodStatements);
+                    chunk = new ArrayList<>();
+                    chunkCalls = 0;
+                }
+                chunk.add(piece);
+                chunkCalls += piece.getCalls().size();
+            }
         }
+        if (!chunk.isEmpty()) {
+            addSequenceChunk(chunk, helperMethods, shardOfFunction, sequenceMethods, mainMethodStatements);
+        }
+
+        AtcClass indexClass = new AtcClass(PACKAGE_NAME, CLASS_NAME, imports, sequenceMethods, mainMethodStatements, null);
+        return new AtcSuite(indexClass, shards);
+    }
 
+    /**
+     * GeneratedATCs with all helpers and a main calling them in test-string order.
+     */
+    private static AtcClass buildAtcClass(List<String> imports, Map<String, AtcTestMethod> helperMethods, List<String> calls) {
+        List<AtcStatement> mainMethodStatements = new ArrayList<>();
+        mainMethodStatements.add(new AtcVarDecl(CLASS_NAME, "instance", AstHelper.createObjectCreationExpr(CLASS_NAME, new ArrayList<>())));
+        // Repeated calls become loops
+        List<TestStringAst.Segment> segments = new TestStringAst(getHelperCalls(calls, helperMethods)).compress();
+        mainMethodStatements.addAll(createCallStatements(segments, helperMethods, Collections.<String, String>emptyMap()));
+        return new AtcClass(PACKAGE_NAME, CLASS_NAME, imports, new ArrayList<>(helperMethods.values()), mainMethodStatements, null);
+    }
+
+    /**
+     * Shard class holding some of the helpers; its main runs each of them once.
+     */
+    private static AtcClass createShard(int index, List<String> imports, List<AtcTestMethod> helperMethods) {
+        String shardName = CLASS_NAME + "Shard" + index;
         List<AtcStatement> mainMethodStatements = new ArrayList<>();
-        mainMethodStatements.add(new AtcVarDecl("GeneratedATCs", "instance", AstHelper.createObjectCreationExpr("GeneratedATCs", new ArrayList<>())));
+        mainMethodStatements.add(new AtcVarDecl(shardName, "instance", AstHelper.createObjectCreationExpr(shardName, new ArrayList<>())));
+        for (AtcTestMethod helperMethod : helperMethods) {
+            mainMethodStatements.add(new AtcMethodCallStmt(AstHelper.createMethodCallExpr(
+                AstHelper.createNameExpr("instance"), helperMethod.getMethodName(), new ArrayList<>())));
+        }
+        return new AtcClass(PACKAGE_NAME, shardName, imports, helperMethods, mainMethodStatements, null);
+    }
+
+    private static void addSequenceChunk(List<TestStringAst.Segment> chunk, Map<String, AtcTestMethod> helperMethods,
+                                         Map<String, Integer> shardOfFunction, List<AtcTestMethod> sequenceMethods,
+                                         List<AtcStatement> mainMethodStatements) {
+        // Instances of the shards this chunk uses, declared up front, then the calls
+        List<AtcStatement> statements = new ArrayList<>();
+        Map<String, String> instanceNames = new HashMap<>();
+        Set<Integer> instantiated = new HashSet<>();
+        for (TestStringAst.Segment segment : chunk) {
+            for (String functionName : segment.getCalls()) {
+                int shard = shardOfFunction.get(functionName);
+                String shardName = CLASS_NAME + "Shard" + shard;
+                String instanceName = "shard" + shard;
+                instanceNames.put(functionName, instanceName);
+                if (instantiated.add(shard)) {
+                    statements.add(new AtcVarDecl(shardName, instanceName, AstHelper.createObjectCreationExpr(shardName, new ArrayList<>())));
+                }
+            }
+        }
+        statements.addAll(createCallStatements(chunk, helperMethods, instanceNames));
+        String methodName = "sequence" + sequenceMethods.size();
+        AtcTestMethod sequenceMethod = new AtcTestMethod(methodName, statements, true, false);
+        sequenceMethod.isTestAnnotated = false; // Drives helpers, gets no .jpf file of its own
+        sequenceMethods.add(sequenceMethod);
+        mainMethodStatements.add(new AtcMethodCallStmt(AstHelper.createMethodCallExpr(null, methodName, new ArrayList<>())));
+    }
+
+    /**
+     * Calls from the given node (its own call first, none for the root) down to the next point
+     * where test strings diverge or end, then a choice with one branch per continuation.
+     * Straight runs are compressed into loops like a single test string. Branches longer than
+     * MAX_INLINE_BRANCH_STATEMENTS move into static methods branch0(), branch1(), ... so that
+     * no method grows past the JVM limit however many test strings the batch has.
+     */
+    private static List<AtcStatement> createTrieStatements(TestStringTrie.Node node, Map<String, AtcTestMethod> helperMethods,
+                                                           List<AtcTestMethod> branchMethods, int[] choiceCounter) {
+        List<String> run = new ArrayList<>();
+        if (node.getCall() != null) {
+            run.add(node.getCall());
+        }
+        while (node.getChildCount() == 1 && !node.isEnd()) {
+            node = node.getChildren().iterator().next();
+            run.add(node.getCall());
+        }
+        List<AtcStatement> statements = new ArrayList<>();
+        List<TestStringAst.Segment> segments = new TestStringAst(getHelperCalls(run, helperMethods)).compress();
+        statements.addAll(createCallStatements(segments, helperMethods, Collections.<String, String>emptyMap()));
+
+        int branchCount = node.getChildCount() + (node.isEnd() ? 1 : 0);
+        if (branchCount < 2) {
+            return statements;
+        }
+        String choiceVarName = "choice" + choiceCounter[0]++;
+        statements.add(new AtcSymbolicVarDecl(TypeDescriptor.INT, choiceVarName));
+        List<List<AtcStatement>> branches = new ArrayList<>();
+        if (node.isEnd()) {
+            branches.add(new ArrayList<>()); // A test string ends here
+        }
+        for (TestStringTrie.Node child : node.getChildren()) {
+            List<AtcStatement> branch = createTrieStatements(child, helperMethods, branchMethods, choiceCounter);
+            if (countStatements(branch) > MAX_INLINE_BRANCH_STATEMENTS) {
+                String methodName = "branch" + branchMethods.size();
+                // Helpers keep no state between calls, so the branch can use an instance of its own
+                branch.add(0, new AtcVarDecl(CLASS_NAME, "instance", AstHelper.createObjectCreationExpr(CLASS_NAME, new ArrayList<>())));
+                AtcTestMethod branchMethod = new AtcTestMethod(methodName, branch, true, false);
+                branchMethod.isTestAnnotated = false; // Drives helpers, gets no .jpf file of its own
+                branchMethods.add(branchMethod);
+                branch = new ArrayList<>();
+                branch.add(new AtcMethodCallStmt(AstHelper.createMethodCallExpr(null, methodName, new ArrayList<>())));
+            }
+            branches.add(branch);
+        }
+        statements.add(new AtcChoiceStmt(choiceVarName, branches));
+        return statements;
+    }
 
+    /**
+     * Statements including those nested in loops and choices.
+     */
+    private static int countStatements(List<AtcStatement> statements) {
+        int count = 0;
+        for (AtcStatement stmt : statements) {
+            count++;
+            if (stmt instanceof AtcLoopStmt) {
+                count += countStatements(((AtcLoopStmt) stmt).getBodyStatements());
+            } else if (stmt instanceof AtcChoiceStmt) {
+                for (List<AtcStatement> branch : ((AtcChoiceStmt) stmt).getBranches()) {
+                    count += countStatements(branch);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The calls that have a helper method, in order.
+     */
+    private static List<String> getHelperCalls(List<String> calls, Map<String, AtcTestMethod> helperMethods) {
+        List<String> helperCalls = new ArrayList<>();
         for (String functionName : calls) {
-            AtcTestMethod helperMethod = generatedHelperMethods.get(functionName);
-            if (helperMethod != null) {
-                in.ac.iiitb.plproject.ast.MethodCallExpr callExpr =
-                    AstHelper.createMethodCallExpr(AstHelper.createNameExpr("instance"), helperMethod.getMethodName(), new ArrayList<>());
-                mainMethodStatements.add(new AtcMethodCallStmt(callExpr));
+            if (helperMethods.containsKey(functionName)) {
+                helperCalls.add(functionName);
             }
         }
+        return helperCalls;
+    }
 
-        String packageName = "in.ac.iiitb.plproject.atc.generated";
-        String className = "GeneratedATCs";
-        String runWithAnnotation = null;
+    /**
+     * One helper call per call of each segment, wrapped in a loop for repeated segments.
+     * Calls go to the instance named in instanceNames (default "instance").
+     */
+    private static List<AtcStatement> createCallStatements(List<TestStringAst.Segment> segments,
+                                                           Map<String, AtcTestMethod> helperMethods,
+                                                           Map<String, String> instanceNames) {
+        List<AtcStatement> statements = new ArrayList<>();
+        for (TestStringAst.Segment segment : segments) {
+            List<AtcStatement> calls = new ArrayList<>();
+            for (String functionName : segment.getCalls()) {
+                String instanceName = instanceNames.getOrDefault(functionName, "instance");
+                calls.add(new AtcMethodCallStmt(AstHelper.createMethodCallExpr(
+                    AstHelper.createNameExpr(instanceName), helperMethods.get(functionName).getMethodName(), new ArrayList<>())));
+            }
+            if (segment.isLoop()) {
+                statements.add(new AtcLoopStmt("i", segment.getRepeats(), calls));
+            } else {
+                statements.addAll(calls);
+            }
+        }
+        return statements;
+    }
 
-        return new AtcClass(packageName, className, imports, actualTestMethods, mainMethodStatements, runWithAnnotation);
+    /**
+     * Helper methods for the specs the test string calls, keyed by function name.
+     */
+    private Map<String, AtcTestMethod> generateHelperFunctions(JmlSpecAst jmlSpecAst, List<String> calls) {
+        if (jmlSpecAst.hasDuplicateSpecNames()) {
+            System.err.println("Warning: JML specs declared more than once, using the first declaration of: "
+                + jmlSpecAst.getDuplicateSpecNames());
+        }
+        // One hash lookup per distinct call name, in first-occurrence order
+        return generateHelperFunctions(jmlSpecAst.findSpecsFor(calls));
     }
   
-    private AtcTestMethod generateHelperFunction(JmlFunctionSpec spec) {
+    /**
+     * One helper method per spec, in the iteration order of the given map.
+     * In parallel mode every helper is submitted first and the futures are collected in
+     * submission order, so scheduling never affects the order of the result.
+     */
+    private Map<String, AtcTestMethod> generateHelperFunctions(Map<String, JmlFunctionSpec> specs) {
+        Map<String, AtcTestMethod> helperMethods = new LinkedHashMap<>();
+        Map<String, String> returnTypes = getReturnTypes(specs);
+        AtcIrCseHoister hoister = new AtcIrCseHoister(returnTypes);
+        // Helpers depend on their spec and, through CSE temporaries, on the spec return types
+        String context = new TreeMap<>(returnTypes).toString();
+        if (executor == null || specs.size() < 2) {
+            for (Map.Entry<String, JmlFunctionSpec> entry : specs.entrySet()) {
+                helperMethods.put(entry.getKey(), generateHelperFunction(entry.getValue(), hoister, context));
+            }
+            return rememberHelpers(specs, helperMethods);
+        }
+
+        Map<String, Future<AtcTestMethod>> futures = new LinkedHashMap<>();
+        for (Map.Entry<String, JmlFunctionSpec> entry : specs.entrySet()) {
+            JmlFunctionSpec spec = entry.getValue();
+            futures.put(entry.getKey(), executor.submit(() -> generateHelperFunction(spec, hoister, context)));
+        }
+        try {
+            for (Map.Entry<String, Future<AtcTestMethod>> entry : futures.entrySet()) {
+                helperMethods.put(entry.getKey(), entry.getValue().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelAll(futures.values());
+            throw new IllegalStateException("Interrupted while generating helper methods", e);
+        } catch (ExecutionException e) {
+            cancelAll(futures.values());
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Helper method generation failed", cause);
+        }
+        return rememberHelpers(specs, helperMethods);
+    }
+
+    /**
+     * Keep the helpers (and spec hashes) of this generation only, for reuse by the next one.
+     * Concurrent generations may evict each other's helpers, which only costs reuse.
+     */
+    private Map<String, AtcTestMethod> rememberHelpers(Map<String, JmlFunctionSpec> specs,
+                                                       Map<String, AtcTestMethod> helperMethods) {
+        if (helperCache != null) {
+            Set<JmlFunctionSpec> current = Collections.newSetFromMap(new IdentityHashMap<JmlFunctionSpec, Boolean>());
+            current.addAll(specs.values());
+            specHashes.keySet().retainAll(current);
+            Map<String, AtcTestMethod> byHash = new HashMap<>();
+            for (AtcTestMethod helper : helperMethods.values()) {
+                byHash.put(helper.getSourceHash(), helper);
+            }
+            helperCache.keySet().retainAll(byHash.keySet());
+            helperCache.putAll(byHash);
+        }
+        return helperMethods;
+    }
+
+    private static void cancelAll(Collection<? extends Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Return type of each non-void Helper method (types of Helper.f(...) calls in conditions):
+     * the spec functions, and the Helper class's own functions (e.g. update) they may call.
+     */
+    private static Map<String, String> getReturnTypes(Map<String, JmlFunctionSpec> specs) {
+        Map<String, String> returnTypes = new HashMap<>(SpfWrapper.getHelperReturnTypes());
+        for (JmlFunctionSpec spec : specs.values()) {
+            String returnType = spec.getSignature().getReturnTypeName();
+            if (returnType != null && !returnType.equals("void")) {
+                returnTypes.put(spec.getName(), returnType);
+            }
+        }
+        return returnTypes;
+    }
+
+    /**
+     * The helper for a spec, with its source hash: a hash of the spec (binary form) and the
+     * context, so unchanged helpers can skip rendering and rewriting (see OutputManifest).
+     * With helper reuse on, a helper with the same source hash is taken from the last generation.
+     */
+    private AtcTestMethod generateHelperFunction(JmlFunctionSpec spec, AtcIrCseHoister hoister, String context) {
+        String sourceHash = OutputManifest.hash((specHash(spec) + context).getBytes(StandardCharsets.UTF_8));
+        if (helperCache != null) {
+            AtcTestMethod cached = helperCache.get(sourceHash);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        AtcTestMethod helper = generateHelperFunction(spec, hoister);
+        helper.sourceHash = sourceHash;
+        return helper;
+    }
+
+    private String specHash(JmlFunctionSpec spec) {
+        String hash = specHashes != null ? specHashes.get(spec) : null;
+        if (hash == null) {
+            hash = OutputManifest.hash(JmlSpecAstSerializer.toBytes(new JmlSpecAst(Collections.singletonList(spec))));
+            if (specHashes != null) {
+                specHashes.put(spec, hash);
+            }
+        }
+        return hash;
+    }
+
+    private AtcTestMethod generateHelperFunction(JmlFunctionSpec spec, AtcIrCseHoister hoister) {
         List<AtcStatement> statements = new ArrayList<>();
         FunctionSignature signature = spec.getSignature();
         
@@ -67,14 +467,16 @@ public class NewGenATC implements GenATC {
         
         // Detect parameters that are accessed as arrays (e.g., x[0] in pre/post conditions)
         Set<String> arrayParams = detectArrayParameters(pre, post, params);
+        // Parameter types resolved once, shared with the later passes through the AtcTestMethod
+        AtcSymbolTable symbols = AtcSymbolTable.of(params, arrayParams);
         
         for (Variable param : params) {
             String name = param.getName();
-            String type = param.getTypeName();
+            TypeDescriptor type = TypeDescriptor.of(param.getTypeName());
             paramNames.add(name);
             
             // If parameter is accessed as array, declare it as array type
-            if (arrayParams.contains(name) && isPrimitiveType(type)) {
+            if (arrayParams.contains(name) && type.isPrimitive()) {
                 // Declare as array: int[] x = new int[]{Symbolic.input("x")}
                 // Create Symbolic.input("x") as a method call
                 List<Expr> symbolicInputArgs = new ArrayList<>();
@@ -84,25 +486,16 @@ public class NewGenATC implements GenATC {
                 
                 List<Expr> arrayInitArgs = new ArrayList<>();
                 arrayInitArgs.add(symbolicInputCall);
-                Expr arrayInit = AstHelper.createObjectCreationExpr(type + "[]", arrayInitArgs);
-                statements.add(new AtcVarDecl(type + "[]", name, arrayInit));
+                String arrayType = type.arrayOf().getName();
+                Expr arrayInit = AstHelper.createObjectCreationExpr(arrayType, arrayInitArgs);
+                statements.add(new AtcVarDecl(arrayType, name, arrayInit));
             } else {
                 statements.add(new AtcSymbolicVarDecl(type, name));
             }
         }
         
         // Check if we have collection parameters
-        List<String> collectionParams = new ArrayList<>();
-        for (String pName : paramNames) {
-            String paramType = getParamType(pName, params);
-            String baseType = paramType;
-            if (paramType.contains("<")) {
-                baseType = paramType.substring(0, paramType.indexOf("<"));
-            }
-            if (TypeMapper.isCollectionType(baseType)) {
-                collectionParams.add(pName);
-            }
-        }
+        List<String> collectionParams = symbols.getCollectionNames();
         
         // For primitive-only methods: add precondition first, then snapshot old state
         // For collection methods: add null checks first, then precondition
@@ -118,27 +511,21 @@ public class NewGenATC implements GenATC {
         // Only snapshot primitive types that need old state
         // For collections, we don't need to snapshot them as _old since they're passed by reference
         for (String varName : varsToSnapshot) {
-            String varType = "Object";
-            for (Variable p : params) {
-                if (p.getName().equals(varName)) {
-                    varType = p.getTypeName();
-                    break;
-                }
-            }
+            TypeDescriptor varType = symbols.typeOf(varName, TypeDescriptor.OBJECT);
             
             // Check if this variable is accessed as an array
-            boolean isArrayParam = arrayParams.contains(varName);
+            boolean isArrayParam = symbols.isArrayAccessed(varName);
             
             // Only snapshot primitive types
-            if (isPrimitiveType(varType)) {
+            if (varType.isPrimitive()) {
                 String oldVarName = varName + "_old";
                 if (isArrayParam) {
                     // For array parameters, snapshot the array element: x_old = x[0]
                     Expr arrayAccess = AstHelper.createNameExpr(varName + "[0]");
-                    statements.add(new AtcVarDecl(varType, oldVarName, arrayAccess));
+                    statements.add(new AtcVarDecl(varType.getName(), oldVarName, arrayAccess));
                 } else {
                     // For regular primitives, snapshot the variable: x_old = x
-                    statements.add(new AtcVarDecl(varType, oldVarName, AstHelper.createNameExpr(varName)));
+                    statements.add(new AtcVarDecl(varType.getName(), oldVarName, AstHelper.createNameExpr(varName)));
                 }
                 oldStateMap.put(varName, oldVarName);
             }
@@ -186,12 +573,8 @@ public class NewGenATC implements GenATC {
         // Add print statements for collection parameters (only first input collection, not output ones)
         boolean printedCollection = false;
         for (String pName : paramNames) {
-            String paramType = getParamType(pName, params);
-            String baseType = paramType;
-            if (paramType.contains("<")) {
-                baseType = paramType.substring(0, paramType.indexOf("<"));
-            }
-            if (TypeMapper.isCollectionType(baseType) && !printedCollection) {
+            TypeDescriptor paramType = symbols.typeOf(pName, TypeDescriptor.INT);
+            if (paramType.isCollection() && !printedCollection) {
                 // Print actual variable value, not string literal
                 // Only print the first collection parameter (typically the input, not output)
                 Expr printlnArg = AstHelper.createBinaryExpr(
@@ -205,7 +588,7 @@ public class NewGenATC implements GenATC {
                 );
                 statements.add(new AtcMethodCallStmt(printlnCall));
                 printedCollection = true;
-            } else if (isPrimitiveType(paramType) || paramType.equals("String")) {
+            } else if (paramType.isPrimitive() || paramType.isString()) {
                 Expr printlnArg = AstHelper.createBinaryExpr(
                     AstHelper.createStringLiteralExpr("Test Input: " + pName + " = "),
                     AstHelper.createNameExpr(pName),
@@ -224,19 +607,17 @@ public class NewGenATC implements GenATC {
         String resultVarName = null;
         String postStateParam = null;
         if (post != null) {
-            List<String> paramNameList = new ArrayList<>();
-            for (Variable p : params) {
-                paramNameList.add(p.getName());
-            }
-            postStateParam = AstHelper.findPostStateParameter(post, paramNameList);
+            postStateParam = AstHelper.findPostStateParameter(post, paramNames);
             
             if (postStateParam == null) {
                 postStateParam = findPostStateParameter(post, params);
             }
         }
         
-        if (postStateParam != null && isPrimitiveType(getParamType(postStateParam, params))) {
-            String paramType = getParamType(postStateParam, params);
+        TypeDescriptor postStateType = postStateParam != null ? symbols.typeOf(postStateParam, TypeDescriptor.INT) : null;
+        boolean primitivePostState = postStateType != null && postStateType.isPrimitive();
+        if (primitivePostState) {
+            String arrayType = postStateType.arrayOf().getName();
             
             // Check if parameter is already declared as array
             if (arrayParams.contains(postStateParam)) {
@@ -254,8 +635,8 @@ public class NewGenATC implements GenATC {
                 
                 List<Expr> arrayInitArgs = new ArrayList<>();
                 arrayInitArgs.add(AstHelper.createNameExpr(postStateParam));
-                Expr arrayInit = AstHelper.createObjectCreationExpr(paramType + "[]", arrayInitArgs);
-                statements.add(new AtcVarDecl(paramType + "[]", refVarName, arrayInit));
+                Expr arrayInit = AstHelper.createObjectCreationExpr(arrayType, arrayInitArgs);
+                statements.add(new AtcVarDecl(arrayType, refVarName, arrayInit));
                 
                 List<Expr> callArgs = new ArrayList<>();
                 callArgs.add(AstHelper.createNameExpr(refVarName));
@@ -322,13 +703,16 @@ public class NewGenATC implements GenATC {
         }
         
         // Add assertion for primitive postStateParam case
-        if (postStateParam != null && isPrimitiveType(getParamType(postStateParam, params)) && post != null) {
+        if (primitivePostState && post != null) {
             Expr transformedPost = transformPostCondition(post, resultVarName, oldStateMap, params);
             statements.add(new AtcAssertStmt(transformedPost));
         }
         
         String helperMethodName = spec.getName() + "_helper";
-        return new AtcTestMethod(helperMethodName, statements);
+        // Evaluate repeated calls in assume/assert conditions once
+        statements = hoister.hoist(statements, symbols);
+        
+        return new AtcTestMethod(helperMethodName, statements, symbols);
     }
     
     private Set<String> collectVarsToSnapshot(Expr expr) {
@@ -366,111 +750,8 @@ public class NewGenATC implements GenATC {
         return findPostStateParameterRecursive(post, params);
     }
     
-    private String getParamType(String paramName, List<Variable> params) {
-        for (Variable p : params) {
-            if (p.getName().equals(paramName)) {
-                return p.getTypeName();
-            }
-        }
-        return "int";
-    }
-    
     private String findPostStateParameterRecursive(Expr expr, List<Variable> params) {
-        if (expr == null) {
-            return null;
-        }
-        
-        String className = expr.getClass().getSimpleName();
-        
-        if (className.equals("MethodCallExpr")) {
-            try {
-                java.lang.reflect.Field nameField = expr.getClass().getDeclaredField("name");
-                nameField.setAccessible(true);
-                Object nameObj = nameField.get(expr);
-                
-                java.lang.reflect.Field identifierField = nameObj.getClass().getDeclaredField("identifier");
-                identifierField.setAccessible(true);
-                String identifier = (String) identifierField.get(nameObj);
-                
-                java.lang.reflect.Field argsField = expr.getClass().getDeclaredField("args");
-                argsField.setAccessible(true);
-                @SuppressWarnings("unchecked")
-                List<Expr> args = (List<Expr>) argsField.get(expr);
-                
-                if ("'".equals(identifier) && !args.isEmpty()) {
-                    Expr arg = args.get(0);
-                    String varName = AstHelper.getNameFromExpr(arg);
-                    if (varName != null) {
-                        for (Variable param : params) {
-                            if (param.getName().equals(varName)) {
-                                return varName;
-                            }
-                        }
-                    }
-                }
-                
-                for (Expr arg : args) {
-                    String result = findPostStateParameterRecursive(arg, params);
-                    if (result != null) {
-                        return result;
-                    }
-                }
-            } catch (Exception e) {
-                return null;
-            }
-        } else if (className.equals("BinaryExpr")) {
-            try {
-                java.lang.reflect.Field leftField = expr.getClass().getDeclaredField("left");
-                leftField.setAccessible(true);
-                Expr left = (Expr) leftField.get(expr);
-                
-                java.lang.reflect.Field rightField = expr.getClass().getDeclaredField("right");
-                rightField.setAccessible(true);
-                Expr right = (Expr) rightField.get(expr);
-                
-                String result = findPostStateParameterRecursive(left, params);
-                if (result != null) {
-                    return result;
-                }
-                return findPostStateParameterRecursive(right, params);
-            } catch (Exception e) {
-                return null;
-            }
-        } else if (className.equals("NameExpr")) {
-            try {
-                java.lang.reflect.Field nameField = expr.getClass().getDeclaredField("name");
-                nameField.setAccessible(true);
-                Object nameObj = nameField.get(expr);
-                
-                java.lang.reflect.Field identifierField = nameObj.getClass().getDeclaredField("identifier");
-                identifierField.setAccessible(true);
-                String identifier = (String) identifierField.get(nameObj);
-                
-                if (identifier != null && identifier.endsWith("_post")) {
-                    String baseName = identifier.substring(0, identifier.length() - "_post".length());
-                    for (Variable param : params) {
-                        if (param.getName().equals(baseName)) {
-                            return baseName;
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                return null;
-            }
-        }
-        
-        return null;
-    }
-    
-    private boolean isPrimitiveType(String typeName) {
-        return typeName.equals("int") || typeName.equals("Integer") ||
-               typeName.equals("double") || typeName.equals("Double") ||
-               typeName.equals("float") || typeName.equals("Float") ||
-               typeName.equals("long") || typeName.equals("Long") ||
-               typeName.equals("short") || typeName.equals("Short") ||
-               typeName.equals("byte") || typeName.equals("Byte") ||
-               typeName.equals("boolean") || typeName.equals("Boolean") ||
-               typeName.equals("char") || typeName.equals("Character");
+        return new PostStateParameterFinder(params).scan(expr);
     }
     
     /**
@@ -498,88 +779,77 @@ public class NewGenATC implements GenATC {
     }
     
     /**
-     * Recursively detect array access patterns like x[0] in expressions.
+     * Detect array access patterns like x[0] anywhere in the expression tree.
      */
     private void detectArrayAccessRecursive(Expr expr, Set<String> paramNames, Set<String> arrayParams) {
-        if (expr == null) {
-            return;
-        }
+        new ArrayAccessCollector(paramNames, arrayParams).scan(expr);
+    }
+    
+    /**
+     * Finds the first parameter referenced in post-state: '(x) or x_post.
+     */
+    private static final class PostStateParameterFinder extends ExprScanner<String> {
+        private final List<Variable> params;
         
-        String className = expr.getClass().getSimpleName();
+        PostStateParameterFinder(List<Variable> params) {
+            this.params = params;
+        }
         
-        if (className.equals("NameExpr")) {
-            // Use reflection to access NameExpr fields since it's package-private
-            try {
-                java.lang.reflect.Field nameField = expr.getClass().getDeclaredField("name");
-                nameField.setAccessible(true);
-                Object nameObj = nameField.get(expr);
-                
-                java.lang.reflect.Field identifierField = nameObj.getClass().getDeclaredField("identifier");
-                identifierField.setAccessible(true);
-                String identifier = (String) identifierField.get(nameObj);
-                
-                // Check if identifier matches pattern paramName[0] or paramName[index]
-                for (String paramName : paramNames) {
-                    if (identifier.startsWith(paramName + "[") && identifier.contains("]")) {
-                        arrayParams.add(paramName);
-                        break;
-                    }
+        private boolean isParam(String name) {
+            for (Variable param : params) {
+                if (param.getName().equals(name)) {
+                    return true;
                 }
-            } catch (Exception e) {
-                // If reflection fails, try using AstHelper
-                String identifier = AstHelper.getNameFromExpr(expr);
-                if (identifier != null) {
-                    for (String paramName : paramNames) {
-                        if (identifier.startsWith(paramName + "[") && identifier.contains("]")) {
-                            arrayParams.add(paramName);
-                            break;
-                        }
-                    }
+            }
+            return false;
+        }
+        
+        @Override
+        public String visit(MethodCallExpr expr) {
+            if ("'".equals(expr.name.identifier) && !expr.args.isEmpty()) {
+                String varName = AstHelper.getNameFromExpr(expr.args.get(0));
+                if (varName != null && isParam(varName)) {
+                    return varName;
                 }
             }
-        } else if (className.equals("MethodCallExpr")) {
-            try {
-                java.lang.reflect.Field scopeField = expr.getClass().getDeclaredField("scope");
-                scopeField.setAccessible(true);
-                Expr scope = (Expr) scopeField.get(expr);
-                if (scope != null) {
-                    detectArrayAccessRecursive(scope, paramNames, arrayParams);
+            return super.visit(expr);
+        }
+        
+        @Override
+        public String visit(NameExpr expr) {
+            String identifier = expr.name.identifier;
+            if (identifier != null && identifier.endsWith("_post")) {
+                String baseName = identifier.substring(0, identifier.length() - "_post".length());
+                if (isParam(baseName)) {
+                    return baseName;
                 }
-                
-                java.lang.reflect.Field argsField = expr.getClass().getDeclaredField("args");
-                argsField.setAccessible(true);
-                @SuppressWarnings("unchecked")
-                List<Expr> args = (List<Expr>) argsField.get(expr);
-                for (Expr arg : args) {
-                    detectArrayAccessRecursive(arg, paramNames, arrayParams);
+            }
+            return null;
+        }
+    }
+    
+    /**
+     * Collects parameters used with array syntax (identifier paramName[index]).
+     */
+    private static final class ArrayAccessCollector extends ExprScanner<Void> {
+        private final Set<String> paramNames;
+        private final Set<String> arrayParams;
+        
+        ArrayAccessCollector(Set<String> paramNames, Set<String> arrayParams) {
+            this.paramNames = paramNames;
+            this.arrayParams = arrayParams;
+        }
+        
+        @Override
+        public Void visit(NameExpr expr) {
+            String identifier = expr.name.identifier;
+            for (String paramName : paramNames) {
+                if (identifier.startsWith(paramName + "[") && identifier.contains("]")) {
+                    arrayParams.add(paramName);
+                    break;
                 }
-            } catch (Exception e) {
-                // Ignore reflection errors
-            }
-        } else if (className.equals("BinaryExpr")) {
-            try {
-                java.lang.reflect.Field leftField = expr.getClass().getDeclaredField("left");
-                leftField.setAccessible(true);
-                Expr left = (Expr) leftField.get(expr);
-                detectArrayAccessRecursive(left, paramNames, arrayParams);
-                
-                java.lang.reflect.Field rightField = expr.getClass().getDeclaredField("right");
-                rightField.setAccessible(true);
-                Expr right = (Expr) rightField.get(expr);
-                detectArrayAccessRecursive(right, paramNames, arrayParams);
-            } catch (Exception e) {
-                // Ignore reflection errors
-            }
-        } else if (className.equals("UnaryExpr")) {
-            try {
-                java.lang.reflect.Field exprField = expr.getClass().getDeclaredField("expr");
-                exprField.setAccessible(true);
-                Expr innerExpr = (Expr) exprField.get(expr);
-                detectArrayAccessRecursive(innerExpr, paramNames, arrayParams);
-            } catch (Exception e) {
-                // Ignore reflection errors
             }
+            return null;
         }
     }
 }
-
@@ -0,0 +1,325 @@
+package in.ac.iiitb.plproject.atc;
+
+import in.ac.iiitb.plproject.atc.ir.AtcSuite;
+import in.ac.iiitb.plproject.parser.JmlParseException;
+import in.ac.iiitb.plproject.parser.JmlSourceScanner;
+import in.ac.iiitb.plproject.parser.JmlSpecParser;
+import in.ac.iiitb.plproject.parser.ast.JmlFunctionSpec;
+import in.ac.iiitb.plproject.parser.ast.JmlSpecAst;
+import in.ac.iiitb.plproject.parser.ast.TestStringAst;
+import in.ac.iiitb.plproject.symex.SpfWrapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Watch mode: regenerates the ATC suite for a test string whenever spec files change.
+ *
+ * Everything stays warm between changes: the specs of every file, the helpers of the last
+ * generation (NewGenATC with helper reuse), their rendered source and the output manifest
+ * (SpfWrapper). On a change only the touched files are parsed again, only helpers whose spec
+ * changed are generated and rendered again, and only files whose content changed are written.
+ *
+ * Specs are read from .jml files (JML text, as in JmlSpecParser) and from .java files
+ * (JML comments, as in JmlSourceScanner), in all directories under the spec root.
+ *
+ * Usage: java in.ac.iiitb.plproject.atc.SpecWatcher <specDir> <outputDir> <call,call,...|@callsFile>
+ */
+public class SpecWatcher implements Closeable {
+    // Quiet period after a change before regenerating, so an editor's burst of events is one update
+    private static final long DEBOUNCE_MILLIS = 20;
+
+    private final Path specRoot;
+    private final Path outputDir;
+    private final TestStringAst testString;
+    private final int maxHelpersPerClass;
+    private final int maxCallsPerMethod;
+    private final NewGenATC genAtc = new NewGenATC(null, true);
+    private final SpfWrapper spfWrapper = new SpfWrapper();
+    // Specs of every spec file, in path order
+    private final Map<Path, List<JmlFunctionSpec>> specsByFile = new TreeMap<>();
+    private final Map<WatchKey, Path> watchedDirs = new HashMap<>();
+    private WatchService watchService;
+    private boolean generated;
+
+    public SpecWatcher(Path specRoot, Path outputDir, TestStringAst testString) {
+        this(specRoot, outputDir, testString, 500, 1000);
+    }
+
+    /**
+     * @param maxHelpersPerClass, maxCallsPerMethod Suite limits, see NewGenATC.generateAtcSuite
+     */
+    public SpecWatcher(Path specRoot, Path outputDir, TestStringAst testString,
+                       int maxHelpersPerClass, int maxCallsPerMethod) {
+        this.specRoot = specRoot;
+        this.outputDir = outputDir;
+        this.testString = testString;
+        this.maxHelpersPerClass = maxHelpersPerClass;
+        this.maxCallsPerMethod = maxCallsPerMethod;
+    }
+
+    /**
+     * Result of one regeneration.
+     */
+    public static final class Update {
+        private final Set<Path> changedFiles;
+        private final Set<String> changedSpecs;
+        private final int specCount;
+        private final long elapsedNanos;
+
+        Update(Set<Path> changedFiles, Set<String> changedSpecs, int specCount, long elapsedNanos) {
+            this.changedFiles = Collections.unmodifiableSet(changedFiles);
+            this.changedSpecs = Collections.unmodifiableSet(changedSpecs);
+            this.specCount = specCount;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public Set<Path> getChangedFiles() {
+            return changedFiles;
+        }
+
+        /**
+         * Names of the specs added, removed or modified by the change.
+         */
+        public Set<String> getChangedSpecs() {
+            return changedSpecs;
+        }
+
+        public int getSpecCount() {
+            return specCount;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d file(s) changed, %d of %d spec(s) changed, regenerated in %d ms",
+                changedFiles.size(), changedSpecs.size(), specCount, elapsedNanos / 1_000_000);
+        }
+    }
+
+    /**
+     * Read every spec file, generate the suite and start watching the spec directories.
+     */
+    public Update start() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        registerAll(specRoot);
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(specRoot)) {
+            walk.filter(SpecWatcher::isSpecFile).forEach(files::add);
+        }
+        return update(files);
+    }
+
+    /**
+     * Re-read the given files (deleted ones are dropped) and regenerate the outputs.
+     */
+    public synchronized Update update(Collection<Path> files) throws IOException {
+        long start = System.nanoTime();
+        Set<Path> changedFiles = new TreeSet<>();
+        Set<String> changedSpecs = new TreeSet<>();
+        for (Path file : files) {
+            List<JmlFunctionSpec> specs = readSpecs(file);
+            List<JmlFunctionSpec> previous = specs != null ? specsByFile.put(file, specs) : specsByFile.remove(file);
+            if (!specTexts(previous).equals(specTexts(specs))) {
+                changedFiles.add(file);
+                changedSpecs.addAll(diffNames(previous, specs));
+            }
+        }
+
+        List<JmlFunctionSpec> allSpecs = new ArrayList<>();
+        for (List<JmlFunctionSpec> specs : specsByFile.values()) {
+            allSpecs.addAll(specs);
+        }
+        if (!changedFiles.isEmpty() || !generated) {
+            AtcSuite suite = genAtc.generateAtcSuite(new JmlSpecAst(allSpecs), testString, maxHelpersPerClass, maxCallsPerMethod);
+            spfWrapper.saveSuite(suite, outputDir.toString());
+            generated = true;
+        }
+        return new Update(changedFiles, changedSpecs, allSpecs.size(), System.nanoTime() - start);
+    }
+
+    /**
+     * Wait for changes and regenerate after each one, until close() is called.
+     */
+    public void run() throws IOException {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Set<Path> changed = new LinkedHashSet<>();
+                // Collect the burst of events, then regenerate once
+                while (key != null) {
+                    collectChanges(key, changed);
+                    key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                if (!changed.isEmpty()) {
+                    try {
+                        System.out.println("Regenerated: " + update(changed));
+                    } catch (IOException | RuntimeException e) {
+                        System.err.println("Error regenerating ATCs: " + e.getMessage());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // close() was called
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void collectChanges(WatchKey key, Set<Path> changed) throws IOException {
+        Path dir = watchedDirs.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (dir == null || event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were lost: re-read everything
+                try (Stream<Path> walk = Files.walk(specRoot)) {
+                    walk.filter(SpecWatcher::isSpecFile).forEach(changed::add);
+                }
+                changed.addAll(specsByFile.keySet());
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                registerAll(path);
+                try (Stream<Path> walk = Files.walk(path)) {
+                    walk.filter(SpecWatcher::isSpecFile).forEach(changed::add);
+                }
+            } else if (isSpecFile(path) || specsByFile.containsKey(path)) {
+                changed.add(path);
+            }
+        }
+        if (!key.reset()) {
+            watchedDirs.remove(key);
+        }
+    }
+
+    private void registerAll(Path root) throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path dir : (Iterable<Path>) walk.filter(Files::isDirectory)::iterator) {
+                WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                watchedDirs.put(key, dir);
+            }
+        }
+    }
+
+    private static boolean isSpecFile(Path path) {
+        String name = path.getFileName().toString();
+        return (name.endsWith(".jml") || name.endsWith(".java")) && !Files.isDirectory(path);
+    }
+
+    /**
+     * Specs of one file, or null if the file no longer exists.
+     */
+    private static List<JmlFunctionSpec> readSpecs(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            if (file.getFileName().toString().endsWith(".java")) {
+                JmlSourceScanner.ScanResult result = new JmlSourceScanner().scan(file);
+                for (String error : result.getErrors()) {
+                    System.err.println("Warning: " + error);
+                }
+                return result.getSpecAst().getSpecs();
+            }
+            List<JmlFunctionSpec> specs = new ArrayList<>();
+            try (JmlSpecParser parser = JmlSpecParser.open(file)) {
+                parser.forEach(specs::add);
+                for (JmlParseException error : parser.getErrors()) {
+                    System.err.println("Warning: " + file + ": " + error.getMessage());
+                }
+            }
+            return specs;
+        } catch (NoSuchFileException e) {
+            return null; // Deleted while reading
+        }
+    }
+
+    private static List<String> specTexts(List<JmlFunctionSpec> specs) {
+        List<String> texts = new ArrayList<>();
+        if (specs != null) {
+            for (JmlFunctionSpec spec : specs) {
+                texts.add(spec.toString());
+            }
+        }
+        return texts;
+    }
+
+    /**
+     * Names of the specs that are in only one of the lists or differ between them.
+     */
+    private static Set<String> diffNames(List<JmlFunctionSpec> before, List<JmlFunctionSpec> after) {
+        Map<String, String> beforeByName = new HashMap<>();
+        for (JmlFunctionSpec spec : before != null ? before : Collections.<JmlFunctionSpec>emptyList()) {
+            beforeByName.put(spec.getName(), spec.toString());
+        }
+        Set<String> names = new TreeSet<>();
+        Set<String> seen = new HashSet<>();
+        for (JmlFunctionSpec spec : after != null ? after : Collections.<JmlFunctionSpec>emptyList()) {
+            seen.add(spec.getName());
+            if (!spec.toString().equals(beforeByName.get(spec.getName()))) {
+                names.add(spec.getName());
+            }
+        }
+        for (String name : beforeByName.keySet()) {
+            if (!seen.contains(name)) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.out.println("Usage: SpecWatcher <specDir> <outputDir> <call,call,...|@callsFile>");
+            return;
+        }
+        List<String> calls;
+        if (args[2].startsWith("@")) {
+            String text = new String(Files.readAllBytes(Paths.get(args[2].substring(1))), StandardCharsets.UTF_8).trim();
+            calls = text.isEmpty() ? new ArrayList<String>() : Arrays.asList(text.split("[\\s,]+"));
+        } else {
+            calls = Arrays.asList(args[2].split(","));
+        }
+        try (SpecWatcher watcher = new SpecWatcher(Paths.get(args[0]), Paths.get(args[1]), new TestStringAst(calls))) {
+            System.out.println("Generated: " + watcher.start());
+            System.out.println("Watching " + args[0] + " for spec changes (Ctrl+C to stop)");
+            watcher.run();
+        }
+    }
+}
@@ -2,7 +2,8 @@ package in.ac.iiitb.plproject.atc;
 
 import in.ac.iiitb.plproject.parser.ast.JmlSpecAst;
 import in.ac.iiitb.plproject.parser.ast.TestStringAst;
-import in.ac.iiitb.plproject.symex.SpfWrapper;
+import in.ac.iiitb.plproject.symex.SymbolicBackend;
+import in.ac.iiitb.plproject.symex.SymbolicJob;
 import in.ac.iiitb.plproject.atc.ir.AtcClass;
 import java.util.List;
 
@@ -10,12 +11,13 @@ import java.util.List;
 public class TestGen {
 
     private GenATC genAtcAlgorithm;
-    private SpfWrapper symexWrapper;
+    private SymbolicBackend symbolicBackend;
 
-    // The concrete implementation (e.g., LibTestGenATC) is injected
-    public TestGen(GenATC genAtcAlgorithm, SpfWrapper symexWrapper) {
+    // The concrete implementations are injected: the ATC generator (e.g., LibTestGenATC) and the
+    // symbolic execution backend (SpfWrapper, or InProcessJpfBackend)
+    public TestGen(GenATC genAtcAlgorithm, SymbolicBackend symbolicBackend) {
         this.genAtcAlgorithm = genAtcAlgorithm;
-        this.symexWrapper = symexWrapper;
+        this.symbolicBackend = symbolicBackend;
     }
 
     /**
@@ -31,8 +33,9 @@ public class TestGen {
         
         // 2. Run symbolic execution using IR directly (no string conversion needed)
         // This uses the formal IR-based approach for transformation
-        List<ConcreteInput> testInputs = this.symexWrapper.run(atcClass);
-        // 4. Plug back/return results
-        return testInputs;
+        SymbolicJob job = this.symbolicBackend.prepare(atcClass, jmlSpecAst);
+        this.symbolicBackend.execute(job);
+        // 3. Plug back/return results
+        return this.symbolicBackend.collect(job);
     }
 }
@@ -0,0 +1,27 @@
+package in.ac.iiitb.plproject.atc.ir;
+
+import java.util.List;
+
+/**
+ * Branches on a symbolic int declared before it (an AtcSymbolicVarDecl of the same name):
+ *   if (choice0 == 0) { ... } else if (choice0 == 1) { ... } else { ... }
+ * SPF explores every branch once. Used where test strings sharing a prefix diverge
+ * (see NewGenATC.generateAtcFile(JmlSpecAst, List)).
+ */
+public class AtcChoiceStmt extends AtcStatement {
+    private String choiceVarName;
+    private List<List<AtcStatement>> branches;
+
+    public AtcChoiceStmt(String choiceVarName, List<List<AtcStatement>> branches) {
+        this.choiceVarName = choiceVarName;
+        this.branches = branches;
+    }
+
+    public String getChoiceVarName() {
+        return choiceVarName;
+    }
+
+    public List<List<AtcStatement>> getBranches() {
+        return branches;
+    }
+}
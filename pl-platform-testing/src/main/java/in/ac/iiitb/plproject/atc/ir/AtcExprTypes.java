@@ -0,0 +1,113 @@
+package in.ac.iiitb.plproject.atc.ir;
+
+import in.ac.iiitb.plproject.ast.AstHelper;
+import in.ac.iiitb.plproject.ast.Expr;
+import in.ac.iiitb.plproject.ast.JavaExprPrinter;
+import in.ac.iiitb.plproject.ast.MethodCallExpr;
+import in.ac.iiitb.plproject.ast.NameExpr;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Static types of the names and calls in the conditions of one method, as source text.
+ *
+ * Names are typed by their declarations: the method's parameters (as declared in the helper,
+ * see AtcSymbolTable.declaredType) and the locals declared in its statements; x[i] is the
+ * element type of x. Helper.f(...) is typed by the Helper method signatures, and x.m(...) by
+ * the type of x and the JDK signature of m (see LibraryReturnTypes), so result.get(k) on a
+ * Map<Integer, Integer> is an Integer. Receivers may be calls themselves.
+ *
+ * Used by AtcIrCseHoister to type its temporaries and by AtcIrCodeGenerator to choose between
+ * == and equals() in comparisons. Instances are immutable.
+ */
+public final class AtcExprTypes implements JavaExprPrinter.TypeLookup {
+
+    private final Map<String, String> variableTypes;
+    private final Map<String, String> helperReturnTypes;
+
+    /**
+     * @param variableTypes     Declared type of each variable in scope
+     * @param helperReturnTypes Return type of each non-void method of the Helper class
+     */
+    public AtcExprTypes(Map<String, String> variableTypes, Map<String, String> helperReturnTypes) {
+        this.variableTypes = variableTypes;
+        this.helperReturnTypes = helperReturnTypes;
+    }
+
+    /**
+     * Types of the parameters in symbols (may be null) and of the locals declared in statements
+     * (including inside if blocks; parameters win over locals of the same name).
+     */
+    public static AtcExprTypes of(AtcSymbolTable symbols, List<AtcStatement> statements,
+                                  Map<String, String> helperReturnTypes) {
+        Map<String, String> variableTypes = new HashMap<>();
+        if (symbols != null) {
+            for (String name : symbols.getNames()) {
+                variableTypes.put(name, symbols.declaredType(name).getName());
+            }
+        }
+        collectDeclaredTypes(statements, variableTypes);
+        return new AtcExprTypes(variableTypes, helperReturnTypes);
+    }
+
+    /**
+     * Type of a name or call, or null if unknown.
+     */
+    public String typeOf(Expr expr) {
+        if (expr instanceof NameExpr) {
+            return variableType(AstHelper.getNameFromExpr(expr));
+        }
+        if (expr instanceof MethodCallExpr) {
+            MethodCallExpr call = (MethodCallExpr) expr;
+            String methodName = call.name.identifier;
+            if (call.scope instanceof NameExpr) {
+                String receiver = AstHelper.getNameFromExpr(call.scope);
+                if ("Helper".equals(receiver) && !variableTypes.containsKey(receiver)) {
+                    return helperReturnTypes.get(methodName);
+                }
+            }
+            String receiverType = typeOf(call.scope);
+            return receiverType != null ? LibraryReturnTypes.returnType(receiverType, methodName, call.args.size()) : null;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isPrimitive(Expr expr) {
+        String type = typeOf(expr);
+        return type != null && TypeDescriptor.of(type).isUnboxedPrimitive();
+    }
+
+    private String variableType(String name) {
+        if (name == null) {
+            return null;
+        }
+        int bracket = name.indexOf('[');
+        if (bracket < 0) {
+            return variableTypes.get(name);
+        }
+        // x[0]: element type of the array x
+        String arrayType = variableTypes.get(name.substring(0, bracket));
+        return arrayType != null && arrayType.endsWith("[]") ? arrayType.substring(0, arrayType.length() - 2) : null;
+    }
+
+    private static void collectDeclaredTypes(List<AtcStatement> statements, Map<String, String> types) {
+        for (AtcStatement stmt : statements) {
+            if (stmt instanceof AtcVarDecl) {
+                types.putIfAbsent(((AtcVarDecl) stmt).getVarName(), ((AtcVarDecl) stmt).getTypeName());
+            } else if (stmt instanceof AtcSymbolicVarDecl) {
+                types.putIfAbsent(((AtcSymbolicVarDecl) stmt).getVarName(), ((AtcSymbolicVarDecl) stmt).getTypeName());
+            } else if (stmt instanceof AtcIfStmt) {
+                collectDeclaredTypes(((AtcIfStmt) stmt).getThenStatements(), types);
+            } else if (stmt instanceof AtcLoopStmt) {
+                collectDeclaredTypes(((AtcLoopStmt) stmt).getBodyStatements(), types);
+            } else if (stmt instanceof AtcChoiceStmt) {
+                for (List<AtcStatement> branch : ((AtcChoiceStmt) stmt).getBranches()) {
+                    collectDeclaredTypes(branch, types);
+                }
+            }
+        }
+    }
+}
@@ -2,526 +2,459 @@ package in.ac.iiitb.plproject.atc.ir;
 
 import in.ac.iiitb.plproject.ast.AstHelper;
 import in.ac.iiitb.plproject.ast.Expr;
-import in.ac.iiitb.plproject.ast.MethodCallExpr;
-import in.ac.iiitb.plproject.symex.TypeMapper;
+import in.ac.iiitb.plproject.ast.JavaExprPrinter;
+import in.ac.iiitb.plproject.ast.ObjectCreationExpr;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 import java.util.HashSet;
-import java.util.Map;
-import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
 
+/**
+ * Renders an AtcClass as Java source.
+ *
+ * Output is streamed: each method is rendered into a reusable buffer and written to the
+ * target Appendable (Writer, PrintStream, StringBuilder) before the next one is visited, so
+ * memory use is bounded by the largest method rather than by the whole class.
+ *
+ * Comparisons in conditions are printed by the declared types of their operands (see
+ * AtcExprTypes): == for primitives, java.util.Objects.equals() for everything else.
+ *
+ * The generator itself is stateless; all rendering state lives in a RenderContext created per
+ * call, so one instance can be shared and used from many threads at once.
+ */
 public class AtcIrCodeGenerator {
 
-    private StringBuilder stringBuilder;
     private static final String INDENT = "    ";
 
+    private final Map<String, String> helperReturnTypes;
+
     public AtcIrCodeGenerator() {
-        this.stringBuilder = new StringBuilder();
+        this(Collections.<String, String>emptyMap());
+    }
+
+    /**
+     * @param helperReturnTypes Return type of each non-void method of the Helper class, for
+     *                          comparing the results of Helper.f(...) calls
+     */
+    public AtcIrCodeGenerator(Map<String, String> helperReturnTypes) {
+        this.helperReturnTypes = helperReturnTypes;
     }
 
     public String generateJavaFile(AtcClass atc) {
         return generateJavaFileInternal(atc);
     }
 
-    public String generateSymbolicJavaFile(AtcClass atc) {
-        return generateJavaFileInternal(atc);
+    /**
+     * Write the Java source of an AtcClass to a file (UTF-8), one method at a time.
+     */
+    public void writeJavaFile(AtcClass atc, Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeJavaFile(atc, writer);
+        }
     }
 
-    private String generateJavaFileInternal(AtcClass atc) {
-        stringBuilder = new StringBuilder();
+    /**
+     * Write the Java source of an AtcClass to out, one method at a time.
+     * out is not flushed or closed.
+     */
+    public void writeJavaFile(AtcClass atc, Appendable out) throws IOException {
+        new RenderContext(out, null, helperReturnTypes).render(atc);
+    }
 
-        stringBuilder.append("package ").append(atc.getPackageName()).append(";\n\n");
+    /**
+     * Like writeJavaFile(atc, out), but methods whose source hash is in the cache are copied
+     * from it instead of rendered, and newly rendered ones are added.
+     */
+    public void writeJavaFile(AtcClass atc, Appendable out, AtcMethodRenderCache renderCache) throws IOException {
+        new RenderContext(out, renderCache, helperReturnTypes).render(atc);
+    }
 
-        for (String anImport : atc.getImports()) {
-            stringBuilder.append("import ").append(anImport).append(";\n");
-        }
-        stringBuilder.append("\n");
+    /**
+     * Java source of one method, exactly as writeJavaFile() renders it into its class.
+     */
+    public String renderMethod(AtcTestMethod method) {
+        RenderContext context = new RenderContext(null, null, helperReturnTypes);
+        context.visit(method);
+        return context.stringBuilder.toString();
+    }
 
-        if (atc.getRunWithAnnotationClass() != null && !atc.getRunWithAnnotationClass().isEmpty()) {
-            stringBuilder.append("@RunWith(").append(atc.getRunWithAnnotationClass()).append(")\n");
-        }
-        
-        stringBuilder.append("public class ").append(atc.getClassName()).append(" {\n");
+    /**
+     * Write every class of a suite to outputDir/<package path>/<Class>.java.
+     * Returns the written files, shards first.
+     */
+    public List<Path> writeSuite(AtcSuite suite, Path outputDir) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (AtcClass atc : suite.getClasses()) {
+            Path packageDir = outputDir.resolve(atc.getPackageName().replace('.', '/'));
+            Files.createDirectories(packageDir);
+            Path file = packageDir.resolve(atc.getClassName() + ".java");
+            writeJavaFile(atc, file);
+            files.add(file);
+        }
+        return files;
+    }
 
-        for (AtcTestMethod method : atc.getTestMethods()) {
-            visit(method);
+    private String generateJavaFileInternal(AtcClass atc) {
+        StringBuilder javaFile = new StringBuilder();
+        try {
+            writeJavaFile(atc, javaFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder does not throw
         }
+        return javaFile.toString();
+    }
 
-        generateMainMethod(atc);
+    /**
+     * State of a single rendering: the target and the buffer for the method being rendered.
+     */
+    private static final class RenderContext {
+        // Buffer for the method being rendered, flushed to out after every method
+        private final StringBuilder stringBuilder = new StringBuilder();
+        private final Appendable out;
+        // Rendered methods to reuse (null = render everything)
+        private final AtcMethodRenderCache renderCache;
+        private final Map<String, String> helperReturnTypes;
+        // Types of the variables and calls in the method being rendered
+        private AtcExprTypes types;
 
-        stringBuilder.append("}\n");
+        RenderContext(Appendable out, AtcMethodRenderCache renderCache, Map<String, String> helperReturnTypes) {
+            this.out = out;
+            this.renderCache = renderCache;
+            this.helperReturnTypes = helperReturnTypes;
+        }
 
-        return stringBuilder.toString();
-    }
+        void render(AtcClass atc) throws IOException {
+            stringBuilder.append("package ").append(atc.getPackageName()).append(";\n\n");
+
+            for (String anImport : atc.getImports()) {
+                stringBuilder.append("import ").append(anImport).append(";\n");
+            }
+            stringBuilder.append("\n");
 
-    private void visit(AtcTestMethod method) {
-        stringBuilder.append("\n");
-        stringBuilder.append(INDENT).append("public void ").append(method.getMethodName()).append("() {\n");
+            if (atc.getRunWithAnnotationClass() != null && !atc.getRunWithAnnotationClass().isEmpty()) {
+                stringBuilder.append("@RunWith(").append(atc.getRunWithAnnotationClass()).append(")\n");
+            }
+            
+            stringBuilder.append("public class ").append(atc.getClassName()).append(" {\n");
+            flush();
 
-        Set<String> declaredVars = new HashSet<>();
-        
-        for (AtcStatement stmt : method.getStatements()) {
-            if (stmt instanceof AtcSymbolicVarDecl) {
-                visit((AtcSymbolicVarDecl) stmt);
-                declaredVars.add(((AtcSymbolicVarDecl) stmt).getVarName());
-            } else if (stmt instanceof AtcVarDecl) {
-                String varName = ((AtcVarDecl) stmt).getVarName();
-                if (declaredVars.contains(varName)) {
-                    visitAsAssignment((AtcVarDecl) stmt);
+            for (AtcTestMethod method : atc.getTestMethods()) {
+                String cached = renderCache != null ? renderCache.get(method) : null;
+                if (cached != null) {
+                    stringBuilder.append(cached);
                 } else {
-                    visit((AtcVarDecl) stmt);
-                    declaredVars.add(varName);
+                    visit(method);
+                    if (renderCache != null) {
+                        renderCache.put(method, stringBuilder.toString());
+                    }
                 }
-            } else if (stmt instanceof AtcAssignStmt) {
-                visit((AtcAssignStmt) stmt);
-            } else if (stmt instanceof AtcAssumeStmt) {
-                visit((AtcAssumeStmt) stmt);
-            } else if (stmt instanceof AtcMethodCallStmt) {
-                visit((AtcMethodCallStmt) stmt);
-            } else if (stmt instanceof AtcAssertStmt) {
-                visit((AtcAssertStmt) stmt);
-            } else if (stmt instanceof AtcIfStmt) {
-                visit((AtcIfStmt) stmt, declaredVars);
+                flush();
             }
+
+            generateMainMethod(atc);
+
+            stringBuilder.append("}\n");
+            flush();
         }
 
-        stringBuilder.append(INDENT).append("}\n");
-    }
-    
-    private void visit(AtcIfStmt stmt, Set<String> declaredVars) {
-        String condCode = AstHelper.exprToJavaCode(stmt.getCondition());
-        stringBuilder.append(INDENT).append(INDENT)
-                     .append("if (").append(condCode).append(") {\n");
+        private void print(Expr expr) {
+            JavaExprPrinter.print(expr, types, stringBuilder);
+        }
+
+        private void flush() throws IOException {
+            out.append(stringBuilder);
+            stringBuilder.setLength(0);
+        }
+
+        private void visit(AtcTestMethod method) {
+            stringBuilder.append("\n");
+            stringBuilder.append(INDENT).append(method.isStatic() ? "public static void " : "public void ")
+                         .append(method.getMethodName()).append("() {\n");
+
+            types = AtcExprTypes.of(method.getSymbolTable(), method.getStatements(), helperReturnTypes);
+            Set<String> declaredVars = new HashSet<>();
         
-        if (stmt.hasReturn()) {
-            stringBuilder.append(INDENT).append(INDENT).append(INDENT)
-                         .append("return;\n");
-        } else {
-            // Use 3 levels of indentation for statements inside if block
-            for (AtcStatement thenStmt : stmt.getThenStatements()) {
-                if (thenStmt instanceof AtcSymbolicVarDecl) {
-                    visitWithIndent((AtcSymbolicVarDecl) thenStmt, 3);
-                    declaredVars.add(((AtcSymbolicVarDecl) thenStmt).getVarName());
-                } else if (thenStmt instanceof AtcVarDecl) {
-                    String varName = ((AtcVarDecl) thenStmt).getVarName();
+            for (AtcStatement stmt : method.getStatements()) {
+                if (stmt instanceof AtcSymbolicVarDecl) {
+                    visit((AtcSymbolicVarDecl) stmt);
+                    declaredVars.add(((AtcSymbolicVarDecl) stmt).getVarName());
+                } else if (stmt instanceof AtcVarDecl) {
+                    String varName = ((AtcVarDecl) stmt).getVarName();
                     if (declaredVars.contains(varName)) {
-                        visitAsAssignmentWithIndent((AtcVarDecl) thenStmt, 3);
+                        visitAsAssignment((AtcVarDecl) stmt);
                     } else {
-                        visitWithIndent((AtcVarDecl) thenStmt, 3);
+                        visit((AtcVarDecl) stmt);
                         declaredVars.add(varName);
                     }
-                } else if (thenStmt instanceof AtcAssignStmt) {
-                    visitWithIndent((AtcAssignStmt) thenStmt, 3);
-                } else if (thenStmt instanceof AtcAssumeStmt) {
-                    visitWithIndent((AtcAssumeStmt) thenStmt, 3);
-                } else if (thenStmt instanceof AtcMethodCallStmt) {
-                    visitWithIndent((AtcMethodCallStmt) thenStmt, 3);
-                } else if (thenStmt instanceof AtcAssertStmt) {
-                    visitWithIndent((AtcAssertStmt) thenStmt, 3);
+                } else if (stmt instanceof AtcAssignStmt) {
+                    visit((AtcAssignStmt) stmt);
+                } else if (stmt instanceof AtcAssumeStmt) {
+                    visit((AtcAssumeStmt) stmt);
+                } else if (stmt instanceof AtcMethodCallStmt) {
+                    visit((AtcMethodCallStmt) stmt);
+                } else if (stmt instanceof AtcAssertStmt) {
+                    visit((AtcAssertStmt) stmt);
+                } else if (stmt instanceof AtcIfStmt) {
+                    visit((AtcIfStmt) stmt, declaredVars);
+                } else if (stmt instanceof AtcLoopStmt) {
+                    visit((AtcLoopStmt) stmt, 2);
+                } else if (stmt instanceof AtcChoiceStmt) {
+                    visit((AtcChoiceStmt) stmt, 2);
                 }
             }
+
+            stringBuilder.append(INDENT).append("}\n");
         }
-        
-        stringBuilder.append(INDENT).append(INDENT).append("}\n");
-    }
-    
-    private void visitWithIndent(AtcMethodCallStmt stmt, int indentLevel) {
-        String callCode = AstHelper.exprToJavaCode(stmt.getCallExpr());
-        for (int i = 0; i < indentLevel; i++) {
-            stringBuilder.append(INDENT);
-        }
-        stringBuilder.append(callCode).append(";\n");
-    }
     
-    private void visitWithIndent(AtcVarDecl stmt, int indentLevel) {
-        String initCode = AstHelper.exprToJavaCode(stmt.getInitExpr());
-        String typeName = stmt.getTypeName();
-        String varName = stmt.getVarName();
+        private void visit(AtcIfStmt stmt, Set<String> declaredVars) {
+            stringBuilder.append(INDENT).append(INDENT).append("if (");
+            print(stmt.getCondition());
+            stringBuilder.append(") {\n");
         
-        if (typeName.endsWith("[]") && initCode.startsWith("new ")) {
-            String baseType = typeName.substring(0, typeName.length() - 2);
-            if (initCode.contains("(") && initCode.contains(")")) {
-                String args = initCode.substring(initCode.indexOf("(") + 1, initCode.indexOf(")"));
-                initCode = "new " + baseType + "[]{" + args + "}";
+            if (stmt.hasReturn()) {
+                stringBuilder.append(INDENT).append(INDENT).append(INDENT)
+                             .append("return;\n");
+            } else {
+                // Use 3 levels of indentation for statements inside if block
+                for (AtcStatement thenStmt : stmt.getThenStatements()) {
+                    if (thenStmt instanceof AtcSymbolicVarDecl) {
+                        visitWithIndent((AtcSymbolicVarDecl) thenStmt, 3);
+                        declaredVars.add(((AtcSymbolicVarDecl) thenStmt).getVarName());
+                    } else if (thenStmt instanceof AtcVarDecl) {
+                        String varName = ((AtcVarDecl) thenStmt).getVarName();
+                        if (declaredVars.contains(varName)) {
+                            visitAsAssignmentWithIndent((AtcVarDecl) thenStmt, 3);
+                        } else {
+                            visitWithIndent((AtcVarDecl) thenStmt, 3);
+                            declaredVars.add(varName);
+                        }
+                    } else if (thenStmt instanceof AtcAssignStmt) {
+                        visitWithIndent((AtcAssignStmt) thenStmt, 3);
+                    } else if (thenStmt instanceof AtcAssumeStmt) {
+                        visitWithIndent((AtcAssumeStmt) thenStmt, 3);
+                    } else if (thenStmt instanceof AtcMethodCallStmt) {
+                        visitWithIndent((AtcMethodCallStmt) thenStmt, 3);
+                    } else if (thenStmt instanceof AtcAssertStmt) {
+                        visitWithIndent((AtcAssertStmt) thenStmt, 3);
+                    }
+                }
             }
-        }
-        
-        for (int i = 0; i < indentLevel; i++) {
-            stringBuilder.append(INDENT);
-        }
-        stringBuilder.append(typeName).append(" ").append(varName)
-                     .append(" = ").append(initCode).append(";\n");
-    }
-    
-    private void visitAsAssignmentWithIndent(AtcVarDecl stmt, int indentLevel) {
-        String valueCode = AstHelper.exprToJavaCode(stmt.getInitExpr());
-        String varName = stmt.getVarName();
         
-        for (int i = 0; i < indentLevel; i++) {
-            stringBuilder.append(INDENT);
+            stringBuilder.append(INDENT).append(INDENT).append("}\n");
         }
-        stringBuilder.append(varName).append(" = ").append(valueCode).append(";\n");
-    }
-    
-    private void visitWithIndent(AtcAssignStmt stmt, int indentLevel) {
-        String valueCode = AstHelper.exprToJavaCode(stmt.getValueExpr());
-        String varName = stmt.getVarName();
-        
-        for (int i = 0; i < indentLevel; i++) {
-            stringBuilder.append(INDENT);
-        }
-        stringBuilder.append(varName).append(" = ").append(valueCode).append(";\n");
-    }
     
-    private void visitWithIndent(AtcAssumeStmt stmt, int indentLevel) {
-        String condCode = AstHelper.exprToJavaCode(stmt.getCondition());
-        if (condCode.startsWith("(") && condCode.endsWith(")") && condCode.length() > 2) {
-            String inner = condCode.substring(1, condCode.length() - 1);
-            if (inner.contains("null") && !inner.contains("(")) {
-                condCode = inner;
+        private void visit(AtcLoopStmt stmt, int indentLevel) {
+            String index = stmt.getIndexVarName();
+            for (int i = 0; i < indentLevel; i++) {
+                stringBuilder.append(INDENT);
             }
+            stringBuilder.append("for (int ").append(index).append(" = 0; ").append(index).append(" < ")
+                         .append(stmt.getIterations()).append("; ").append(index).append("++) {\n");
+            for (AtcStatement bodyStmt : stmt.getBodyStatements()) {
+                visitBlockStatement(bodyStmt, indentLevel + 1);
+            }
+            for (int i = 0; i < indentLevel; i++) {
+                stringBuilder.append(INDENT);
+            }
+            stringBuilder.append("}\n");
         }
-        for (int i = 0; i < indentLevel; i++) {
-            stringBuilder.append(INDENT);
-        }
-        stringBuilder.append("assume(").append(condCode).append(");\n");
-    }
     
-    private void visitWithIndent(AtcAssertStmt stmt, int indentLevel) {
-        // This is complex, so just use the regular visit and adjust indentation
-        // For now, assert statements shouldn't appear in if blocks, but handle it anyway
-        Expr condition = stmt.getCondition();
-        Map<String, MethodCallExpr> methodCallMap = new HashMap<>();
-        Expr processedCondition = extractMethodCallsFromAssertion(condition, methodCallMap);
-        
-        for (Map.Entry<String, MethodCallExpr> entry : methodCallMap.entrySet()) {
-            String varName = entry.getKey();
-            MethodCallExpr methodCall = entry.getValue();
-            String methodCallCode = AstHelper.exprToJavaCode(methodCall);
-            String returnType = inferReturnType(methodCall);
-            
+        private void visit(AtcChoiceStmt stmt, int indentLevel) {
+            String choice = stmt.getChoiceVarName();
+            List<List<AtcStatement>> branches = stmt.getBranches();
             for (int i = 0; i < indentLevel; i++) {
                 stringBuilder.append(INDENT);
             }
-            stringBuilder.append(returnType).append(" ").append(varName)
-                         .append(" = ").append(methodCallCode).append(";\n");
-        }
-        
-        String condCode = AstHelper.exprToJavaCode(processedCondition);
-        // Strip outer parentheses only for null checks
-        if (condCode.startsWith("(") && condCode.endsWith(")") && condCode.length() > 2) {
-            String inner = condCode.substring(1, condCode.length() - 1);
-            if (inner.contains("null") && !inner.contains("(")) {
-                condCode = inner;
+            for (int branch = 0; branch < branches.size(); branch++) {
+                if (branch == 0) {
+                    stringBuilder.append("if (").append(choice).append(" == 0) {\n");
+                } else if (branch < branches.size() - 1) {
+                    stringBuilder.append(" else if (").append(choice).append(" == ").append(branch).append(") {\n");
+                } else {
+                    // Last branch takes every other value, so SPF does not report an unexplored path
+                    stringBuilder.append(" else {\n");
+                }
+                for (AtcStatement branchStmt : branches.get(branch)) {
+                    visitBlockStatement(branchStmt, indentLevel + 1);
+                }
+                for (int i = 0; i < indentLevel; i++) {
+                    stringBuilder.append(INDENT);
+                }
+                stringBuilder.append("}");
             }
+            stringBuilder.append("\n");
         }
-        for (int i = 0; i < indentLevel; i++) {
-            stringBuilder.append(INDENT);
-        }
-        stringBuilder.append("assert(").append(condCode).append(");\n");
-    }
     
-    private void visitWithIndent(AtcSymbolicVarDecl stmt, int indentLevel) {
-        for (int i = 0; i < indentLevel; i++) {
-            stringBuilder.append(INDENT);
-        }
-        
-        String typeName = stmt.getTypeName();
-        String varName = stmt.getVarName();
-        
-        if (TypeMapper.isCollectionType(typeName)) {
-            String genericType = TypeMapper.getGenericType(typeName);
-            stringBuilder.append(genericType).append(" ").append(varName)
-                         .append(" = (").append(genericType).append(") Symbolic.input(\"").append(varName).append("\");\n");
-        } else if (typeName.equalsIgnoreCase("int") || typeName.equals("Integer")) {
-            stringBuilder.append("int ").append(varName)
-                         .append(" = Symbolic.input(\"").append(varName).append("\");\n");
-        } else if (typeName.equalsIgnoreCase("double") || typeName.equals("Double")) {
-            stringBuilder.append("double ").append(varName)
-                         .append(" = Symbolic.input(\"").append(varName).append("\");\n");
-        } else if (typeName.equalsIgnoreCase("String")) {
-            stringBuilder.append("String ").append(varName)
-                         .append(" = Symbolic.input(\"").append(varName).append("\");\n");
-        } else if (typeName.equalsIgnoreCase("boolean") || typeName.equals("Boolean")) {
-            stringBuilder.append("boolean ").append(varName)
-                         .append(" = Symbolic.input(\"").append(varName).append("\");\n");
-        } else {
-            String genericType = TypeMapper.getGenericType(typeName);
-            stringBuilder.append(genericType).append(" ").append(varName)
-                         .append(" = (").append(genericType).append(") Symbolic.input(\"").append(varName).append("\");\n");
-        }
-    }
-
-    private void visit(AtcSymbolicVarDecl stmt) {
-        String typeName = stmt.getTypeName();
-        String varName = stmt.getVarName();
-        
-        if (TypeMapper.isCollectionType(typeName)) {
-            String genericType = TypeMapper.getGenericType(typeName);
-            stringBuilder.append(INDENT).append(INDENT)
-                         .append(genericType).append(" ").append(varName)
-                         .append(" = (").append(genericType).append(") Symbolic.input(\"").append(varName).append("\");\n");
-        } else if (typeName.equalsIgnoreCase("int") || typeName.equals("Integer")) {
-            stringBuilder.append(INDENT).append(INDENT)
-                         .append("int ").append(varName)
-                         .append(" = Symbolic.input(\"").append(varName).append("\");\n");
-        } else if (typeName.equalsIgnoreCase("double") || typeName.equals("Double")) {
-            stringBuilder.append(INDENT).append(INDENT)
-                         .append("double ").append(varName)
-                         .append(" = Symbolic.input(\"").append(varName).append("\");\n");
-        } else if (typeName.equalsIgnoreCase("String")) {
-            stringBuilder.append(INDENT).append(INDENT)
-                         .append("String ").append(varName)
-                         .append(" = Symbolic.input(\"").append(varName).append("\");\n");
-        } else if (typeName.equalsIgnoreCase("boolean") || typeName.equals("Boolean")) {
-            stringBuilder.append(INDENT).append(INDENT)
-                         .append("boolean ").append(varName)
-                         .append(" = Symbolic.input(\"").append(varName).append("\");\n");
-        } else {
-            String genericType = TypeMapper.getGenericType(typeName);
-            stringBuilder.append(INDENT).append(INDENT)
-                         .append(genericType).append(" ").append(varName)
-                         .append(" = (").append(genericType).append(") Symbolic.input(\"").append(varName).append("\");\n");
-        }
-    }
-
-    private void visit(AtcVarDecl stmt) {
-        String initCode = AstHelper.exprToJavaCode(stmt.getInitExpr());
-        String typeName = stmt.getTypeName();
-        String varName = stmt.getVarName();
-        
-        if (typeName.endsWith("[]") && initCode.startsWith("new ") && 
-            initCode.contains("(") && initCode.contains(")") && !initCode.contains("{")) {
-            String baseType = typeName.substring(0, typeName.length() - 2);
-            String args = initCode.substring(initCode.indexOf("(") + 1, initCode.indexOf(")"));
-            initCode = "new " + baseType + "[]{" + args + "}";
+        /**
+         * Statements of main, loop bodies and choice branches: calls, declarations, loops, choices.
+         */
+        private void visitBlockStatement(AtcStatement statement, int indentLevel) {
+            if (statement instanceof AtcMethodCallStmt) {
+                visitWithIndent((AtcMethodCallStmt) statement, indentLevel);
+            } else if (statement instanceof AtcVarDecl) {
+                visitWithIndent((AtcVarDecl) statement, indentLevel);
+            } else if (statement instanceof AtcSymbolicVarDecl) {
+                visitWithIndent((AtcSymbolicVarDecl) statement, indentLevel);
+            } else if (statement instanceof AtcLoopStmt) {
+                visit((AtcLoopStmt) statement, indentLevel);
+            } else if (statement instanceof AtcChoiceStmt) {
+                visit((AtcChoiceStmt) statement, indentLevel);
+            }
         }
-        
-        stringBuilder.append(INDENT).append(INDENT)
-                     .append(typeName).append(" ").append(varName)
-                     .append(" = ").append(initCode).append(";\n");
-    }
     
-    private void visitAsAssignment(AtcVarDecl stmt) {
-        String valueCode = AstHelper.exprToJavaCode(stmt.getInitExpr());
-        String varName = stmt.getVarName();
-        
-        stringBuilder.append(INDENT).append(INDENT)
-                     .append(varName).append(" = ").append(valueCode).append(";\n");
-    }
-    
-    private void visit(AtcAssignStmt stmt) {
-        String valueCode = AstHelper.exprToJavaCode(stmt.getValueExpr());
-        String varName = stmt.getVarName();
-        
-        stringBuilder.append(INDENT).append(INDENT)
-                     .append(varName).append(" = ").append(valueCode).append(";\n");
-    }
-
-    private void visit(AtcAssumeStmt stmt) {
-        String condCode = AstHelper.exprToJavaCode(stmt.getCondition());
-        if (condCode.startsWith("(") && condCode.endsWith(")") && condCode.length() > 2) {
-            String inner = condCode.substring(1, condCode.length() - 1);
-            if (inner.contains("null") && !inner.contains("(")) {
-                condCode = inner;
+        private void visitWithIndent(AtcMethodCallStmt stmt, int indentLevel) {
+            for (int i = 0; i < indentLevel; i++) {
+                stringBuilder.append(INDENT);
             }
+            print(stmt.getCallExpr());
+            stringBuilder.append(";\n");
         }
-        stringBuilder.append(INDENT).append(INDENT)
-                     .append("assume(").append(condCode).append(");\n");
-    }
-
-    private void visit(AtcMethodCallStmt stmt) {
-        String callCode = AstHelper.exprToJavaCode(stmt.getCallExpr());
-        if (callCode.contains("System.out.println") && callCode.contains("Test Input:")) {
-            java.util.regex.Pattern pattern = java.util.regex.Pattern.compile("System\\.out\\.println\\(\\(([^)]+)\\)\\)");
-            java.util.regex.Matcher matcher = pattern.matcher(callCode);
-            if (matcher.find()) {
-                String inner = matcher.group(1);
-                java.util.regex.Pattern varPattern = java.util.regex.Pattern.compile("\"Test Input: [^=]+= \" \\+ ([a-zA-Z_][a-zA-Z0-9_]*)");
-                java.util.regex.Matcher varMatcher = varPattern.matcher(inner);
-                if (varMatcher.find()) {
-                    String varName = varMatcher.group(1);
-                    if (varName.matches("(data|result|map|set|list|collection|queue|deque)")) {
-                        callCode = "System.out.println(" + inner + ")";
-                    }
-                }
+    
+        /**
+         * "Type name = init;". An array variable initialized with new T(args) gets new T[]{args}.
+         */
+        private void visitWithIndent(AtcVarDecl stmt, int indentLevel) {
+            String typeName = stmt.getTypeName();
+            Expr init = stmt.getInitExpr();
+            if (typeName.endsWith("[]") && init instanceof ObjectCreationExpr
+                    && !((ObjectCreationExpr) init).getTypeName().endsWith("[]")) {
+                init = AstHelper.createObjectCreationExpr(typeName, ((ObjectCreationExpr) init).args);
             }
-        }
-        stringBuilder.append(INDENT).append(INDENT)
-                     .append(callCode).append(";\n");
-    }
 
-    private void visit(AtcAssertStmt stmt) {
-        Expr condition = stmt.getCondition();
-        
-        Map<String, MethodCallExpr> methodCallMap = new HashMap<>();
-        Expr processedCondition = extractMethodCallsFromAssertion(condition, methodCallMap);
-        
-        if (methodCallMap.isEmpty()) {
-            String originalCode = AstHelper.exprToJavaCode(condition);
-            if (originalCode.contains("Helper.update(") && countOccurrences(originalCode, "Helper.update(") > 1) {
-                extractMethodCallsFromString(originalCode, methodCallMap);
-                if (!methodCallMap.isEmpty()) {
-                    String processedCode = originalCode;
-                    for (Map.Entry<String, MethodCallExpr> entry : methodCallMap.entrySet()) {
-                        String varName = entry.getKey();
-                        String methodCallCode = AstHelper.exprToJavaCode(entry.getValue());
-                        processedCode = processedCode.replace(methodCallCode, varName);
-                    }
-                    
-                    for (Map.Entry<String, MethodCallExpr> entry : methodCallMap.entrySet()) {
-                        String varName = entry.getKey();
-                        MethodCallExpr methodCall = entry.getValue();
-                        String methodCallCode = AstHelper.exprToJavaCode(methodCall);
-                        String returnType = inferReturnType(methodCall);
-                        
-                        stringBuilder.append(INDENT).append(INDENT)
-                                     .append(returnType).append(" ").append(varName)
-                                     .append(" = ").append(methodCallCode).append(";\n");
-                    }
-                    
-                    stringBuilder.append(INDENT).append(INDENT)
-                                 .append("assert(").append(processedCode).append(");\n");
-                    return;
-                }
+            for (int i = 0; i < indentLevel; i++) {
+                stringBuilder.append(INDENT);
             }
+            stringBuilder.append(typeName).append(" ").append(stmt.getVarName()).append(" = ");
+            print(init);
+            stringBuilder.append(";\n");
         }
-        
-        for (Map.Entry<String, MethodCallExpr> entry : methodCallMap.entrySet()) {
-            String varName = entry.getKey();
-            MethodCallExpr methodCall = entry.getValue();
-            String methodCallCode = AstHelper.exprToJavaCode(methodCall);
-            String returnType = inferReturnType(methodCall);
-            
-            stringBuilder.append(INDENT).append(INDENT)
-                         .append(returnType).append(" ").append(varName)
-                         .append(" = ").append(methodCallCode).append(";\n");
-        }
-        
-        String condCode = AstHelper.exprToJavaCode(processedCondition);
-        if (condCode.startsWith("(") && condCode.endsWith(")") && condCode.length() > 2) {
-            String inner = condCode.substring(1, condCode.length() - 1);
-            if (inner.contains("null") && !inner.contains("(")) {
-                condCode = inner;
+    
+        private void visitAsAssignmentWithIndent(AtcVarDecl stmt, int indentLevel) {
+            for (int i = 0; i < indentLevel; i++) {
+                stringBuilder.append(INDENT);
             }
+            stringBuilder.append(stmt.getVarName()).append(" = ");
+            print(stmt.getInitExpr());
+            stringBuilder.append(";\n");
         }
-        stringBuilder.append(INDENT).append(INDENT)
-                     .append("assert(").append(condCode).append(");\n");
-    }
     
-    private int countOccurrences(String str, String substr) {
-        int count = 0;
-        int index = 0;
-        while ((index = str.indexOf(substr, index)) != -1) {
-            count++;
-            index += substr.length();
+        private void visitWithIndent(AtcAssignStmt stmt, int indentLevel) {
+            for (int i = 0; i < indentLevel; i++) {
+                stringBuilder.append(INDENT);
+            }
+            stringBuilder.append(stmt.getVarName()).append(" = ");
+            print(stmt.getValueExpr());
+            stringBuilder.append(";\n");
         }
-        return count;
-    }
     
-    private void extractMethodCallsFromString(String code, Map<String, MethodCallExpr> methodCallMap) {
-        java.util.regex.Pattern pattern = java.util.regex.Pattern.compile("Helper\\.update\\([^)]+\\)");
-        java.util.regex.Matcher matcher = pattern.matcher(code);
-        
-        String firstMatch = null;
-        while (matcher.find()) {
-            String match = matcher.group();
-            if (firstMatch == null) {
-                firstMatch = match;
-                java.util.regex.Pattern argPattern = java.util.regex.Pattern.compile("Helper\\.update\\(([^)]+)\\)");
-                java.util.regex.Matcher argMatcher = argPattern.matcher(match);
-                if (argMatcher.find()) {
-                    String argsStr = argMatcher.group(1);
-                    String[] args = argsStr.split(",");
-                    List<Expr> argExprs = new ArrayList<>();
-                    for (String arg : args) {
-                        argExprs.add(AstHelper.createNameExpr(arg.trim()));
-                    }
-                    MethodCallExpr updateCall = AstHelper.createMethodCallExpr(
-                        AstHelper.createNameExpr("Helper"), "update", argExprs);
-                    methodCallMap.put("expectedResult", updateCall);
-                    break;
-                }
+        private void visitWithIndent(AtcAssumeStmt stmt, int indentLevel) {
+            for (int i = 0; i < indentLevel; i++) {
+                stringBuilder.append(INDENT);
             }
+            stringBuilder.append("assume(");
+            print(stmt.getCondition());
+            stringBuilder.append(");\n");
         }
-    }
     
-    private Expr extractMethodCallsFromAssertion(Expr expr, Map<String, MethodCallExpr> methodCallMap) {
-        if (expr == null) {
-            return expr;
+        private void visitWithIndent(AtcAssertStmt stmt, int indentLevel) {
+            for (int i = 0; i < indentLevel; i++) {
+                stringBuilder.append(INDENT);
+            }
+            stringBuilder.append("assert(");
+            print(stmt.getCondition());
+            stringBuilder.append(");\n");
         }
+    
+        private void visitWithIndent(AtcSymbolicVarDecl stmt, int indentLevel) {
+            for (int i = 0; i < indentLevel; i++) {
+                stringBuilder.append(INDENT);
+            }
         
-        if (expr instanceof MethodCallExpr) {
-            MethodCallExpr methodCall = (MethodCallExpr) expr;
-            String varName = generateMethodCallVarName(methodCall, methodCallMap.size());
-            methodCallMap.put(varName, methodCall);
-            
-            return AstHelper.createNameExpr(varName);
-        }
+            TypeDescriptor type = stmt.getType();
+            String varName = stmt.getVarName();
         
-        try {
-            Class<?> binaryExprClass = Class.forName("in.ac.iiitb.plproject.ast.BinaryExpr");
-            if (binaryExprClass.isInstance(expr)) {
-                java.lang.reflect.Field leftField = binaryExprClass.getDeclaredField("left");
-                java.lang.reflect.Field rightField = binaryExprClass.getDeclaredField("right");
-                java.lang.reflect.Field opField = binaryExprClass.getDeclaredField("op");
-                leftField.setAccessible(true);
-                rightField.setAccessible(true);
-                opField.setAccessible(true);
-                
-                Expr left = (Expr) leftField.get(expr);
-                Expr right = (Expr) rightField.get(expr);
-                Object op = opField.get(expr);
-                
-                Expr processedLeft = extractMethodCallsFromAssertion(left, methodCallMap);
-                Expr processedRight = extractMethodCallsFromAssertion(right, methodCallMap);
-                
-                String opName = op.getClass().getMethod("name").invoke(op).toString();
-                
-                return AstHelper.createBinaryExpr(processedLeft, processedRight, opName);
+            switch (type.getSymbolicKind()) {
+                case INT:
+                    stringBuilder.append("int ").append(varName)
+                                 .append(" = Symbolic.input(\"").append(varName).append("\");\n");
+                    break;
+                case DOUBLE:
+                    stringBuilder.append("double ").append(varName)
+                                 .append(" = Symbolic.input(\"").append(varName).append("\");\n");
+                    break;
+                case STRING:
+                    stringBuilder.append("String ").append(varName)
+                                 .append(" = Symbolic.input(\"").append(varName).append("\");\n");
+                    break;
+                case BOOLEAN:
+                    stringBuilder.append("boolean ").append(varName)
+                                 .append(" = Symbolic.input(\"").append(varName).append("\");\n");
+                    break;
+                default:
+                    // Collections and other references: cast from the generic (wildcard) type
+                    String genericType = type.getGenericName();
+                    stringBuilder.append(genericType).append(" ").append(varName)
+                                 .append(" = (").append(genericType).append(") Symbolic.input(\"").append(varName).append("\");\n");
+                    break;
             }
-        } catch (Exception e) {
         }
-        
-        return expr;
-    }
+
+        private void visit(AtcSymbolicVarDecl stmt) {
+            visitWithIndent(stmt, 2);
+        }
+
+        private void visit(AtcVarDecl stmt) {
+            visitWithIndent(stmt, 2);
+        }
     
-    private String generateMethodCallVarName(MethodCallExpr methodCall, int index) {
-        String methodName = methodCall.name.identifier;
-        if (methodName.equals("update")) {
-            return "expectedResult";
-        } else {
-            return "temp" + index;
+        private void visitAsAssignment(AtcVarDecl stmt) {
+            stringBuilder.append(INDENT).append(INDENT)
+                         .append(stmt.getVarName()).append(" = ");
+            print(stmt.getInitExpr());
+            stringBuilder.append(";\n");
         }
-    }
     
-    private String inferReturnType(MethodCallExpr methodCall) {
-        String methodName = methodCall.name.identifier;
-        if (methodName.equals("update")) {
-            return "Map<?,?>";
+        private void visit(AtcAssignStmt stmt) {
+            stringBuilder.append(INDENT).append(INDENT)
+                         .append(stmt.getVarName()).append(" = ");
+            print(stmt.getValueExpr());
+            stringBuilder.append(";\n");
         }
-        return "Object";
-    }
 
+        private void visit(AtcAssumeStmt stmt) {
+            stringBuilder.append(INDENT).append(INDENT).append("assume(");
+            print(stmt.getCondition());
+            stringBuilder.append(");\n");
+        }
 
-    private void generateMainMethod(AtcClass atc) {
-        stringBuilder.append("\n");
-        stringBuilder.append(INDENT).append("public static void main(String[] args) {\n");
+        private void visit(AtcMethodCallStmt stmt) {
+            stringBuilder.append(INDENT).append(INDENT);
+            print(stmt.getCallExpr());
+            stringBuilder.append(";\n");
+        }
 
-        for (AtcStatement statement : atc.getMainMethodStatements()) {
-            if (statement instanceof AtcMethodCallStmt) {
-                String callCode = AstHelper.exprToJavaCode(((AtcMethodCallStmt) statement).getCallExpr());
-                stringBuilder.append(INDENT).append(INDENT)
-                             .append(callCode).append(";\n");
-            } else if (statement instanceof AtcVarDecl) {
-                String initCode = AstHelper.exprToJavaCode(((AtcVarDecl) statement).getInitExpr());
-                stringBuilder.append(INDENT).append(INDENT)
-                             .append(((AtcVarDecl) statement).getTypeName()).append(" ")
-                             .append(((AtcVarDecl) statement).getVarName()).append(" = ")
-                             .append(initCode).append(";\n");
+        private void visit(AtcAssertStmt stmt) {
+            visitWithIndent(stmt, 2);
+        }
+
+
+        private void generateMainMethod(AtcClass atc) {
+            stringBuilder.append("\n");
+            stringBuilder.append(INDENT).append("public static void main(String[] args) {\n");
+            types = AtcExprTypes.of(null, atc.getMainMethodStatements(), helperReturnTypes);
+
+            for (AtcStatement statement : atc.getMainMethodStatements()) {
+                visitBlockStatement(statement, 2);
             }
+            stringBuilder.append(INDENT).append("}\n");
         }
-        stringBuilder.append(INDENT).append("}\n");
     }
 }
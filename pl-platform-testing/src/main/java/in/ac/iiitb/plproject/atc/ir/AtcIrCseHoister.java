@@ -0,0 +1,258 @@
+package in.ac.iiitb.plproject.atc.ir;
+
+import in.ac.iiitb.plproject.ast.AstHelper;
+import in.ac.iiitb.plproject.ast.AssignExpr;
+import in.ac.iiitb.plproject.ast.BinaryExpr;
+import in.ac.iiitb.plproject.ast.Expr;
+import in.ac.iiitb.plproject.ast.ExprScanner;
+import in.ac.iiitb.plproject.ast.ExprTransformer;
+import in.ac.iiitb.plproject.ast.MethodCallExpr;
+import in.ac.iiitb.plproject.ast.NameExpr;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Common-subexpression elimination for assume/assert conditions.
+ *
+ * A method call that occurs more than once in one condition is hoisted into a typed temporary
+ * declared just before the statement, and every occurrence is replaced by the temporary:
+ *
+ *   assert(result.equals(Helper.update(result, data)) && Helper.update(result, data).size() > 0);
+ * becomes
+ *   Map<?,?> updateResult = Helper.update(result, data);
+ *   assert(result.equals(updateResult) && updateResult.size() > 0);
+ *
+ * Calls in spec conditions are pure (JML only allows pure methods in specs), so evaluating
+ * them once is equivalent. A call is only hoisted if at least one occurrence is evaluated
+ * unconditionally (not under the right-hand side of && or ||), so hoisting never evaluates
+ * a call the original condition would have skipped (e.g. x != null && x.size() > 0).
+ *
+ * The temporary's type is the call's return type, whatever the method is called (see
+ * AtcExprTypes), so result.get(k) on a Map<Integer, Integer> is an Integer. Receivers may be
+ * hoisted calls themselves. Calls whose return type is unknown (receivers of non-JDK types,
+ * overloads with different return types) are left in place.
+ *
+ * The hoister keeps no state between calls and can be shared between threads.
+ */
+public final class AtcIrCseHoister {
+
+    private final Map<String, String> helperReturnTypes;
+
+    public AtcIrCseHoister() {
+        this(Collections.<String, String>emptyMap());
+    }
+
+    /**
+     * @param helperReturnTypes Return type of each non-void method of the Helper class (the spec
+     *                          functions and Helper's own), for Helper.f(...) calls
+     */
+    public AtcIrCseHoister(Map<String, String> helperReturnTypes) {
+        this.helperReturnTypes = helperReturnTypes;
+    }
+
+    /**
+     * Hoist repeated calls out of the assume/assert statements of a method body
+     * (including statements inside if blocks). Returns the input list if nothing was hoisted.
+     */
+    public List<AtcStatement> hoist(List<AtcStatement> statements) {
+        return hoist(statements, null);
+    }
+
+    /**
+     * As hoist(statements), with the types of the method's parameters (may be null).
+     */
+    public List<AtcStatement> hoist(List<AtcStatement> statements, AtcSymbolTable symbols) {
+        Set<String> declaredNames = new HashSet<>();
+        collectDeclaredNames(statements, declaredNames);
+        return hoist(statements, declaredNames, AtcExprTypes.of(symbols, statements, helperReturnTypes));
+    }
+
+    private List<AtcStatement> hoist(List<AtcStatement> statements, Set<String> declaredNames,
+                                     AtcExprTypes types) {
+        List<AtcStatement> result = null;
+        for (int i = 0; i < statements.size(); i++) {
+            AtcStatement stmt = statements.get(i);
+            List<AtcStatement> replacement = hoistStatement(stmt, declaredNames, types);
+            if (replacement != null && result == null) {
+                result = new ArrayList<>(statements.subList(0, i));
+            }
+            if (result != null) {
+                if (replacement != null) {
+                    result.addAll(replacement);
+                } else {
+                    result.add(stmt);
+                }
+            }
+        }
+        return result != null ? result : statements;
+    }
+
+    /**
+     * Statements replacing stmt (temporaries first), or null if stmt is unchanged.
+     */
+    private List<AtcStatement> hoistStatement(AtcStatement stmt, Set<String> declaredNames,
+                                              AtcExprTypes types) {
+        if (stmt instanceof AtcAssertStmt || stmt instanceof AtcAssumeStmt) {
+            boolean isAssert = stmt instanceof AtcAssertStmt;
+            Expr condition = isAssert ? ((AtcAssertStmt) stmt).getCondition() : ((AtcAssumeStmt) stmt).getCondition();
+            List<AtcStatement> replacement = new ArrayList<>();
+            Expr rewritten = hoistCondition(condition, replacement, declaredNames, types);
+            if (rewritten == condition) {
+                return null;
+            }
+            replacement.add(isAssert ? new AtcAssertStmt(rewritten) : new AtcAssumeStmt(rewritten));
+            return replacement;
+        } else if (stmt instanceof AtcIfStmt) {
+            AtcIfStmt ifStmt = (AtcIfStmt) stmt;
+            List<AtcStatement> thenStatements = hoist(ifStmt.getThenStatements(), declaredNames, types);
+            if (thenStatements == ifStmt.getThenStatements()) {
+                return null;
+            }
+            return Collections.<AtcStatement>singletonList(
+                new AtcIfStmt(ifStmt.getCondition(), thenStatements, ifStmt.hasReturn()));
+        }
+        return null;
+    }
+
+    private Expr hoistCondition(Expr condition, List<AtcStatement> temporaries, Set<String> declaredNames,
+                                AtcExprTypes types) {
+        if (condition == null) {
+            return null;
+        }
+        CallCounter counter = new CallCounter();
+        counter.scan(condition);
+
+        // Temporaries in evaluation order: inner calls come before the calls containing them
+        Map<MethodCallExpr, NameExpr> hoisted = new LinkedHashMap<>();
+        for (Map.Entry<MethodCallExpr, CallStats> entry : counter.calls.entrySet()) {
+            MethodCallExpr call = entry.getKey();
+            CallStats stats = entry.getValue();
+            if (stats.occurrences > 1 && stats.unconditional && !counter.impure.contains(call)
+                    && types.typeOf(call) != null) {
+                String name = freshName(call.name.identifier + "Result", declaredNames);
+                hoisted.put(call, AstHelper.createNameExpr(name));
+            }
+        }
+        if (hoisted.isEmpty()) {
+            return condition;
+        }
+
+        Rewriter rewriter = new Rewriter(hoisted);
+        for (Map.Entry<MethodCallExpr, NameExpr> entry : hoisted.entrySet()) {
+            MethodCallExpr call = entry.getKey();
+            Expr init = rewriter.rewriteArguments(call);
+            temporaries.add(new AtcVarDecl(types.typeOf(call), AstHelper.getNameFromExpr(entry.getValue()), init));
+        }
+        return rewriter.transform(condition);
+    }
+
+    private static String freshName(String base, Set<String> declaredNames) {
+        String name = base;
+        for (int suffix = 2; declaredNames.contains(name); suffix++) {
+            name = base + suffix;
+        }
+        declaredNames.add(name);
+        return name;
+    }
+
+    /**
+     * Names declared or assigned in the statements.
+     */
+    private static void collectDeclaredNames(List<AtcStatement> statements, Set<String> names) {
+        for (AtcStatement stmt : statements) {
+            if (stmt instanceof AtcVarDecl) {
+                names.add(((AtcVarDecl) stmt).getVarName());
+            } else if (stmt instanceof AtcSymbolicVarDecl) {
+                names.add(((AtcSymbolicVarDecl) stmt).getVarName());
+            } else if (stmt instanceof AtcAssignStmt) {
+                names.add(((AtcAssignStmt) stmt).getVarName());
+            } else if (stmt instanceof AtcIfStmt) {
+                collectDeclaredNames(((AtcIfStmt) stmt).getThenStatements(), names);
+            }
+        }
+    }
+
+    private static final class CallStats {
+        int occurrences;
+        boolean unconditional;
+    }
+
+    /**
+     * Counts the occurrences of each call (post-order) and whether any occurrence is evaluated
+     * unconditionally. Calls containing an assignment are marked impure.
+     */
+    private static final class CallCounter extends ExprScanner<Void> {
+        final Map<MethodCallExpr, CallStats> calls = new LinkedHashMap<>();
+        final Set<MethodCallExpr> impure = new HashSet<>();
+        private final List<MethodCallExpr> enclosingCalls = new ArrayList<>();
+        private int conditionalDepth;
+
+        @Override
+        public Void visit(BinaryExpr expr) {
+            scan(expr.left);
+            boolean shortCircuit = expr.op == BinaryExpr.Operator.AND || expr.op == BinaryExpr.Operator.OR;
+            if (shortCircuit) {
+                conditionalDepth++;
+            }
+            scan(expr.right);
+            if (shortCircuit) {
+                conditionalDepth--;
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(AssignExpr expr) {
+            impure.addAll(enclosingCalls);
+            return super.visit(expr);
+        }
+
+        @Override
+        public Void visit(MethodCallExpr expr) {
+            enclosingCalls.add(expr);
+            super.visit(expr);
+            enclosingCalls.remove(enclosingCalls.size() - 1);
+            if (expr.name.identifier.equals("'")) {
+                return null; // Prime operator, not a call
+            }
+            CallStats stats = calls.get(expr);
+            if (stats == null) {
+                stats = new CallStats();
+                calls.put(expr, stats);
+            }
+            stats.occurrences++;
+            stats.unconditional |= conditionalDepth == 0;
+            return null;
+        }
+    }
+
+    /**
+     * Replaces hoisted calls by their temporaries.
+     */
+    private static final class Rewriter extends ExprTransformer {
+        private final Map<MethodCallExpr, NameExpr> hoisted;
+
+        Rewriter(Map<MethodCallExpr, NameExpr> hoisted) {
+            this.hoisted = hoisted;
+        }
+
+        /**
+         * The call itself, with hoisted calls in its scope and arguments replaced.
+         */
+        Expr rewriteArguments(MethodCallExpr call) {
+            return super.visit(call);
+        }
+
+        @Override
+        public Expr visit(MethodCallExpr expr) {
+            NameExpr temporary = hoisted.get(expr);
+            return temporary != null ? temporary : super.visit(expr);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package in.ac.iiitb.plproject.atc.ir;
+
+import java.util.List;
+
+/**
+ * Represents a bounded loop: for (int i = 0; i < 3; i++) { instance.push_helper(); }
+ * Used for repeated calls in the test sequence (see TestStringAst.compress()).
+ */
+public class AtcLoopStmt extends AtcStatement {
+    private String indexVarName;
+    private int iterations;
+    private List<AtcStatement> bodyStatements;
+
+    public AtcLoopStmt(String indexVarName, int iterations, List<AtcStatement> bodyStatements) {
+        this.indexVarName = indexVarName;
+        this.iterations = iterations;
+        this.bodyStatements = bodyStatements;
+    }
+
+    public String getIndexVarName() {
+        return indexVarName;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public List<AtcStatement> getBodyStatements() {
+        return bodyStatements;
+    }
+}
@@ -0,0 +1,64 @@
+package in.ac.iiitb.plproject.atc.ir;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rendered source of generated methods, keyed by method name and checked against the
+ * method's source hash (AtcTestMethod.getSourceHash()): a helper whose spec did not change
+ * is copied instead of rendered again. Methods without a source hash are never cached.
+ *
+ * Holds one entry per method name (the latest rendering), so it stays as large as the suite.
+ * Only use one cache for IR of one kind (e.g. JPF-transformed), since the key does not say
+ * which transformation the method went through. Thread-safe.
+ */
+public final class AtcMethodRenderCache {
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Rendered source of the method, or null if it has to be rendered.
+     */
+    public String get(AtcTestMethod method) {
+        if (method.getSourceHash() == null) {
+            return null;
+        }
+        Entry entry = entries.get(method.getMethodName());
+        if (entry != null && entry.sourceHash.equals(method.getSourceHash())) {
+            hits.incrementAndGet();
+            return entry.source;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(AtcTestMethod method, String source) {
+        if (method.getSourceHash() != null) {
+            entries.put(method.getMethodName(), new Entry(method.getSourceHash(), source));
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        final String sourceHash;
+        final String source;
+
+        Entry(String sourceHash, String source) {
+            this.sourceHash = sourceHash;
+            this.source = source;
+        }
+    }
+}
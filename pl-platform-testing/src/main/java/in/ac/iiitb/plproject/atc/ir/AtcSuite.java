@@ -0,0 +1,51 @@
+package in.ac.iiitb.plproject.atc.ir;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A generated test suite split over several classes (see NewGenATC.generateAtcSuite).
+ *
+ * Shard classes hold the helper methods. The index class holds the test sequence, chunked into
+ * static sequence methods, and a main that runs them in order. A suite small enough for one
+ * class has no shards: the index class is the usual GeneratedATCs with helpers and main.
+ */
+public class AtcSuite {
+    private final AtcClass indexClass;
+    private final List<AtcClass> shards;
+
+    public AtcSuite(AtcClass indexClass, List<AtcClass> shards) {
+        this.indexClass = indexClass;
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+    }
+
+    public AtcClass getIndexClass() {
+        return indexClass;
+    }
+
+    /**
+     * Classes holding the helper methods, in order (empty if the suite is a single class).
+     */
+    public List<AtcClass> getShards() {
+        return shards;
+    }
+
+    public boolean isSharded() {
+        return !shards.isEmpty();
+    }
+
+    /**
+     * All classes of the suite: the shards, then the index class.
+     */
+    public List<AtcClass> getClasses() {
+        List<AtcClass> classes = new ArrayList<>(shards);
+        classes.add(indexClass);
+        return classes;
+    }
+
+    @Override
+    public String toString() {
+        return "AtcSuite(index: " + indexClass.getClassName() + ", shards: " + shards.size() + ")";
+    }
+}
@@ -0,0 +1,106 @@
+package in.ac.iiitb.plproject.atc.ir;
+
+import in.ac.iiitb.plproject.parser.ast.Variable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parameters of one spec, resolved once: name -> TypeDescriptor, in declaration order.
+ *
+ * Built by NewGenATC when it generates a helper method and attached to the AtcTestMethod,
+ * so later passes (symbolic transformation, code generation) look types up by name instead
+ * of rescanning the parameter list.
+ */
+public final class AtcSymbolTable {
+    private final Map<String, TypeDescriptor> types;
+    private final Set<String> arrayAccessed;
+    private final List<String> collectionNames;
+
+    private AtcSymbolTable(Map<String, TypeDescriptor> types, Set<String> arrayAccessed) {
+        this.types = Collections.unmodifiableMap(types);
+        this.arrayAccessed = Collections.unmodifiableSet(arrayAccessed);
+        List<String> collections = new ArrayList<>();
+        for (Map.Entry<String, TypeDescriptor> entry : types.entrySet()) {
+            if (entry.getValue().isCollection()) {
+                collections.add(entry.getKey());
+            }
+        }
+        this.collectionNames = Collections.unmodifiableList(collections);
+    }
+
+    /**
+     * @param params        Parameters in declaration order (the first declaration of a name wins)
+     * @param arrayAccessed Parameters used with array syntax (x[0]) in the spec
+     */
+    public static AtcSymbolTable of(List<Variable> params, Set<String> arrayAccessed) {
+        Map<String, TypeDescriptor> types = new LinkedHashMap<>();
+        for (Variable param : params) {
+            types.putIfAbsent(param.getName(), TypeDescriptor.of(param.getTypeName()));
+        }
+        return new AtcSymbolTable(types, new HashSet<>(arrayAccessed));
+    }
+
+    /**
+     * Type of a parameter, or null if there is no such parameter.
+     */
+    public TypeDescriptor lookup(String name) {
+        return types.get(name);
+    }
+
+    /**
+     * Type of a parameter, or the given default if there is no such parameter.
+     */
+    public TypeDescriptor typeOf(String name, TypeDescriptor defaultType) {
+        TypeDescriptor type = types.get(name);
+        return type != null ? type : defaultType;
+    }
+
+    public boolean contains(String name) {
+        return types.containsKey(name);
+    }
+
+    /**
+     * Parameter names in declaration order.
+     */
+    public Set<String> getNames() {
+        return types.keySet();
+    }
+
+    /**
+     * Collection-typed parameters in declaration order.
+     */
+    public List<String> getCollectionNames() {
+        return collectionNames;
+    }
+
+    public boolean isArrayAccessed(String name) {
+        return arrayAccessed.contains(name);
+    }
+
+    /**
+     * Type the parameter is declared with in the helper: primitives accessed as arrays
+     * (x[0] in the spec) are declared as arrays.
+     */
+    public TypeDescriptor declaredType(String name) {
+        TypeDescriptor type = types.get(name);
+        if (type != null && type.isPrimitive() && arrayAccessed.contains(name)) {
+            return type.arrayOf();
+        }
+        return type;
+    }
+
+    public int size() {
+        return types.size();
+    }
+
+    @Override
+    public String toString() {
+        return types.toString();
+    }
+}
@@ -6,16 +6,26 @@ package in.ac.iiitb.plproject.atc.ir;
 public class AtcSymbolicVarDecl extends AtcStatement {
     public String typeName;
     public String varName;
+    public TypeDescriptor type;
 
     public AtcSymbolicVarDecl(String typeName, String varName) {
-        this.typeName = typeName;
+        this(TypeDescriptor.of(typeName), varName);
+    }
+
+    public AtcSymbolicVarDecl(TypeDescriptor type, String varName) {
+        this.typeName = type.getName();
         this.varName = varName;
+        this.type = type;
     }
 
     public String getTypeName() {
         return typeName;
     }
 
+    public TypeDescriptor getType() {
+        return type;
+    }
+
     public String getVarName() {
         return varName;
     }
@@ -11,12 +11,19 @@ public class AtcTestMethod {
     public boolean isTestAnnotated = true; // All generated methods are @Test
     public boolean isStatic = false;
     public boolean isMain = false;
+    public AtcSymbolTable symbolTable; // Parameters of the spec behind this method (null if none)
+    public String sourceHash; // Content hash of what the method was generated from (null if unknown)
 
     public AtcTestMethod(String methodName, List<AtcStatement> statements) {
         this.methodName = methodName;
         this.statements = statements;
     }
 
+    public AtcTestMethod(String methodName, List<AtcStatement> statements, AtcSymbolTable symbolTable) {
+        this(methodName, statements);
+        this.symbolTable = symbolTable;
+    }
+
     public AtcTestMethod(String methodName, List<AtcStatement> statements, boolean isStatic, boolean isMain) {
         this.methodName = methodName;
         this.statements = statements;
@@ -25,6 +32,12 @@ public class AtcTestMethod {
         this.isTestAnnotated = !isMain; // Main method is not @Test annotated
     }
 
+    public AtcTestMethod(String methodName, List<AtcStatement> statements, boolean isStatic, boolean isMain,
+                         AtcSymbolTable symbolTable) {
+        this(methodName, statements, isStatic, isMain);
+        this.symbolTable = symbolTable;
+    }
+
     public String getMethodName() {
         return methodName;
     }
@@ -44,4 +57,16 @@ public class AtcTestMethod {
     public boolean isMain() {
         return isMain;
     }
+
+    public AtcSymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    /**
+     * Hash of the inputs the method was generated from: methods with the same name and
+     * source hash have the same IR (see AtcMethodRenderCache).
+     */
+    public String getSourceHash() {
+        return sourceHash;
+    }
 }
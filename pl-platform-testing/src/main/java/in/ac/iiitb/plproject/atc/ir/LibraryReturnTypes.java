@@ -0,0 +1,189 @@
+package in.ac.iiitb.plproject.atc.ir;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Return types of calls on JDK types, as source text, from the declared (generic) signature:
+ * receiver "Map<Integer, Integer>", get/1 gives "Integer"; "Set<Integer>", size/0 gives "int".
+ *
+ * Receiver classes are looked up in java.lang and java.util (or by qualified name, java.* only)
+ * without initializing them. The type variables of the receiver class are replaced by its type
+ * arguments (Object for a raw type). A call resolves only if every public method with that name
+ * and argument count returns the same type; overloads returning different types, methods with
+ * their own type variables and void methods give null. Types are printed for a file importing
+ * java.util.*: simple names for java.lang and java.util, qualified names otherwise.
+ *
+ * Results are cached; the class can be shared between threads.
+ */
+final class LibraryReturnTypes {
+    private static final String UNRESOLVED = "";
+    private static final ConcurrentMap<String, String> CACHE = new ConcurrentHashMap<>();
+
+    private LibraryReturnTypes() {
+    }
+
+    /**
+     * Return type of receiverType.methodName(argCount arguments), or null if it is not known.
+     */
+    static String returnType(String receiverType, String methodName, int argCount) {
+        String key = receiverType + "#" + methodName + "/" + argCount;
+        String type = CACHE.get(key);
+        if (type == null) {
+            type = resolve(receiverType.trim(), methodName, argCount);
+            CACHE.putIfAbsent(key, type != null ? type : UNRESOLVED);
+        }
+        return type == null || type.equals(UNRESOLVED) ? null : type;
+    }
+
+    private static String resolve(String receiverType, String methodName, int argCount) {
+        if (receiverType.endsWith("[]")) {
+            return null;
+        }
+        int angle = receiverType.indexOf('<');
+        Class<?> receiverClass = loadClass(angle >= 0 ? receiverType.substring(0, angle).trim() : receiverType);
+        if (receiverClass == null) {
+            return null;
+        }
+        TypeVariable<?>[] parameters = receiverClass.getTypeParameters();
+        List<String> arguments = angle >= 0 && receiverType.endsWith(">")
+            ? splitTypeArguments(receiverType.substring(angle + 1, receiverType.length() - 1))
+            : new ArrayList<String>();
+        if (!arguments.isEmpty() && arguments.size() != parameters.length) {
+            return null;
+        }
+        Map<String, String> bindings = new HashMap<>();
+        for (int i = 0; i < parameters.length; i++) {
+            bindings.put(parameters[i].getName(), arguments.isEmpty() ? "Object" : arguments.get(i));
+        }
+
+        String result = null;
+        for (Method method : receiverClass.getMethods()) {
+            if (!method.getName().equals(methodName) || method.getParameterCount() != argCount
+                    || Modifier.isStatic(method.getModifiers()) || method.isBridge()) {
+                continue;
+            }
+            if (method.getTypeParameters().length > 0 || method.getReturnType() == void.class) {
+                return null;
+            }
+            String type = typeName(method.getGenericReturnType(), bindings);
+            if (type == null || (result != null && !result.equals(type))) {
+                return null;
+            }
+            result = type;
+        }
+        // A wildcard type argument (Map<?,?>.get) is not a declarable type
+        return result != null && result.startsWith("?") ? null : result;
+    }
+
+    private static Class<?> loadClass(String name) {
+        List<String> candidates = new ArrayList<>();
+        if (name.startsWith("java.")) {
+            candidates.add(name);
+        } else {
+            candidates.add("java.lang." + name);
+            candidates.add("java.util." + name);
+        }
+        for (String candidate : candidates) {
+            // Nested classes: Map.Entry -> java.util.Map$Entry
+            String binaryName = candidate;
+            while (true) {
+                try {
+                    return Class.forName(binaryName, false, LibraryReturnTypes.class.getClassLoader());
+                } catch (ClassNotFoundException | LinkageError e) {
+                    int dot = binaryName.lastIndexOf('.');
+                    if (dot < 0 || !Character.isUpperCase(binaryName.charAt(binaryName.lastIndexOf('.', dot - 1) + 1))) {
+                        break;
+                    }
+                    binaryName = binaryName.substring(0, dot) + "$" + binaryName.substring(dot + 1);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String typeName(Type type, Map<String, String> bindings) {
+        if (type instanceof Class) {
+            Class<?> c = (Class<?>) type;
+            if (c.isArray()) {
+                String component = typeName(c.getComponentType(), bindings);
+                return component != null ? component + "[]" : null;
+            }
+            return sourceName(c);
+        } else if (type instanceof TypeVariable) {
+            return bindings.get(((TypeVariable<?>) type).getName());
+        } else if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            StringBuilder sb = new StringBuilder(sourceName((Class<?>) parameterized.getRawType())).append('<');
+            Type[] arguments = parameterized.getActualTypeArguments();
+            for (int i = 0; i < arguments.length; i++) {
+                String argument = typeName(arguments[i], bindings);
+                if (argument == null) {
+                    return null;
+                }
+                sb.append(i > 0 ? ", " : "").append(argument);
+            }
+            return sb.append('>').toString();
+        } else if (type instanceof WildcardType) {
+            WildcardType wildcard = (WildcardType) type;
+            if (wildcard.getLowerBounds().length > 0) {
+                String bound = typeName(wildcard.getLowerBounds()[0], bindings);
+                return bound != null ? "? super " + bound : null;
+            }
+            Type upper = wildcard.getUpperBounds()[0];
+            if (upper == Object.class) {
+                return "?";
+            }
+            String bound = typeName(upper, bindings);
+            return bound != null ? "? extends " + bound : null;
+        } else if (type instanceof GenericArrayType) {
+            String component = typeName(((GenericArrayType) type).getGenericComponentType(), bindings);
+            return component != null ? component + "[]" : null;
+        }
+        return null;
+    }
+
+    private static String sourceName(Class<?> c) {
+        String name = c.getCanonicalName();
+        if (name == null) {
+            return null;
+        }
+        for (String prefix : new String[] {"java.lang.", "java.util."}) {
+            // Only classes of the package itself (and their nested classes), not subpackages
+            if (name.startsWith(prefix) && Character.isUpperCase(name.charAt(prefix.length()))) {
+                return name.substring(prefix.length());
+            }
+        }
+        return name;
+    }
+
+    private static List<String> splitTypeArguments(String text) {
+        List<String> arguments = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '<') {
+                depth++;
+            } else if (c == '>') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                arguments.add(text.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        arguments.add(text.substring(start).trim());
+        return arguments;
+    }
+}
@@ -0,0 +1,148 @@
+package in.ac.iiitb.plproject.atc.ir;
+
+import in.ac.iiitb.plproject.symex.TypeMapper;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolved form of a type name as written in a spec ("int", "Set<Integer>", "int[]", ...).
+ *
+ * Descriptors are interned: TypeDescriptor.of(name) returns the same instance for the same
+ * name, so all classification (primitive, collection, array, how to make it symbolic) is
+ * done once per distinct type instead of by string tests at every use.
+ */
+public final class TypeDescriptor {
+
+    /**
+     * How a symbolic value of this type is created (Symbolic.input / Debug.makeSymbolic*).
+     */
+    public enum SymbolicKind {
+        INT, DOUBLE, STRING, BOOLEAN, COLLECTION, REFERENCE
+    }
+
+    private static final ConcurrentMap<String, TypeDescriptor> INTERNED = new ConcurrentHashMap<>();
+
+    public static final TypeDescriptor INT = of("int");
+    public static final TypeDescriptor OBJECT = of("Object");
+
+    private final String name;
+    private final String baseName;     // without type arguments: "Set<Integer>" -> "Set"
+    private final boolean primitive;   // primitive or wrapper (String is not)
+    private final boolean unboxed;     // primitive and not a wrapper
+    private final boolean collection;
+    private final boolean array;
+    private final SymbolicKind symbolicKind;
+    private final String genericName;  // e.g. "Set" -> "Set<?>"
+
+    private TypeDescriptor(String name) {
+        this.name = name;
+        int angle = name.indexOf('<');
+        this.baseName = angle >= 0 ? name.substring(0, angle) : name;
+        this.primitive = isPrimitiveName(name);
+        this.unboxed = primitive && Character.isLowerCase(name.charAt(0));
+        this.collection = TypeMapper.isCollectionType(baseName);
+        this.array = name.endsWith("[]");
+        this.symbolicKind = classify(name, collection);
+        this.genericName = TypeMapper.getGenericType(name);
+    }
+
+    /**
+     * Interned descriptor for a type name (null is treated as Object).
+     */
+    public static TypeDescriptor of(String typeName) {
+        if (typeName == null) {
+            typeName = "Object";
+        }
+        TypeDescriptor descriptor = INTERNED.get(typeName);
+        return descriptor != null ? descriptor : INTERNED.computeIfAbsent(typeName, TypeDescriptor::new);
+    }
+
+    /**
+     * Array of this type ("int" -> "int[]").
+     */
+    public TypeDescriptor arrayOf() {
+        return of(name + "[]");
+    }
+
+    /**
+     * True for primitive type names and their wrappers ("int", "Integer", ...; not "String").
+     */
+    public static boolean isPrimitiveName(String name) {
+        switch (name) {
+            case "int": case "Integer":
+            case "double": case "Double":
+            case "float": case "Float":
+            case "long": case "Long":
+            case "short": case "Short":
+            case "byte": case "Byte":
+            case "boolean": case "Boolean":
+            case "char": case "Character":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static SymbolicKind classify(String name, boolean collection) {
+        if (collection) {
+            return SymbolicKind.COLLECTION;
+        } else if (name.equalsIgnoreCase("int") || name.equals("Integer")) {
+            return SymbolicKind.INT;
+        } else if (name.equalsIgnoreCase("double") || name.equals("Double")) {
+            return SymbolicKind.DOUBLE;
+        } else if (name.equalsIgnoreCase("String")) {
+            return SymbolicKind.STRING;
+        } else if (name.equalsIgnoreCase("boolean") || name.equals("Boolean")) {
+            return SymbolicKind.BOOLEAN;
+        }
+        return SymbolicKind.REFERENCE;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getBaseName() {
+        return baseName;
+    }
+
+    public boolean isPrimitive() {
+        return primitive;
+    }
+
+    /**
+     * int, double, boolean, ... themselves, not their wrapper classes (== compares values).
+     */
+    public boolean isUnboxedPrimitive() {
+        return unboxed;
+    }
+
+    public boolean isString() {
+        return name.equals("String");
+    }
+
+    public boolean isCollection() {
+        return collection;
+    }
+
+    public boolean isArray() {
+        return array;
+    }
+
+    public SymbolicKind getSymbolicKind() {
+        return symbolicKind;
+    }
+
+    /**
+     * Declared type with wildcard type arguments for raw collections (TypeMapper.getGenericType).
+     */
+    public String getGenericName() {
+        return genericName;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
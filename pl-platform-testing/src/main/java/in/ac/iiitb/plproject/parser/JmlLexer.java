@@ -0,0 +1,337 @@
+package in.ac.iiitb.plproject.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Hand-written lexer for JML specification text.
+ *
+ * Reads from a Reader through a fixed-size buffer, so memory stays bounded no matter how
+ * large the input is. JML comment markers are treated as layout:
+ * - "/*@" opens an annotation that runs to the end of the comment
+ * - "//@" opens an annotation that ends at the end of the line
+ * - '@' characters at the start of an annotation line are decoration
+ * Ordinary Java comments are skipped entirely.
+ */
+final class JmlLexer {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private boolean eof;
+    private long charsRead;
+
+    private int line = 1;
+    private int column = 1;
+    private boolean inBlockAnnotation;
+    private boolean lineStart = true; // only layout seen so far on the current line
+
+    private final StringBuilder text = new StringBuilder(64);
+
+    JmlLexer(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Number of characters pulled from the underlying Reader so far.
+     */
+    long getCharsRead() {
+        return charsRead;
+    }
+
+    int getLine() {
+        return line;
+    }
+
+    /**
+     * Read the next token. Throws JmlParseException for malformed input; the offending
+     * character has already been consumed, so calling nextToken() again makes progress.
+     */
+    JmlToken nextToken() throws IOException {
+        skipLayout();
+        lineStart = false;
+
+        int startLine = line;
+        int startColumn = column;
+        int c = peek(0);
+        if (c < 0) {
+            return new JmlToken(JmlToken.Kind.EOF, "", startLine, startColumn);
+        }
+
+        if (Character.isJavaIdentifierStart(c)
+                || (c == '\\' && peek(1) >= 0 && Character.isJavaIdentifierStart(peek(1)))) {
+            return identifier(startLine, startColumn);
+        }
+        if (isDigit(c) || (c == '.' && isDigit(peek(1)))) {
+            return number(startLine, startColumn);
+        }
+        if (c == '"') {
+            return stringLiteral(startLine, startColumn);
+        }
+        return operator(c, startLine, startColumn);
+    }
+
+    private void skipLayout() throws IOException {
+        while (true) {
+            int c = peek(0);
+            if (c < 0) {
+                return;
+            }
+            if (c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '\f') {
+                advance();
+            } else if (c == '/' && peek(1) == '*') {
+                if (peek(2) == '@') {
+                    advance(3);
+                    inBlockAnnotation = true;
+                    lineStart = true;
+                } else {
+                    skipBlockComment();
+                }
+            } else if (c == '/' && peek(1) == '/') {
+                if (peek(2) == '@') {
+                    // The annotation simply runs to the end of the line
+                    advance(3);
+                    lineStart = true;
+                } else {
+                    while (peek(0) >= 0 && peek(0) != '\n') {
+                        advance();
+                    }
+                }
+            } else if (inBlockAnnotation && c == '@' && peek(1) == '*' && peek(2) == '/') {
+                advance(3);
+                inBlockAnnotation = false;
+            } else if (inBlockAnnotation && c == '*' && peek(1) == '/') {
+                advance(2);
+                inBlockAnnotation = false;
+            } else if (inBlockAnnotation && c == '@' && lineStart) {
+                advance();
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void skipBlockComment() throws IOException {
+        int startLine = line;
+        advance(2);
+        while (true) {
+            int c = peek(0);
+            if (c < 0) {
+                throw new JmlParseException("unterminated comment", startLine, 0);
+            }
+            if (c == '*' && peek(1) == '/') {
+                advance(2);
+                return;
+            }
+            advance();
+        }
+    }
+
+    private JmlToken identifier(int startLine, int startColumn) throws IOException {
+        text.setLength(0);
+        text.append((char) advance());
+        while (peek(0) >= 0 && Character.isJavaIdentifierPart(peek(0))) {
+            text.append((char) advance());
+        }
+        return new JmlToken(JmlToken.Kind.IDENT, text.toString(), startLine, startColumn);
+    }
+
+    private JmlToken number(int startLine, int startColumn) throws IOException {
+        text.setLength(0);
+        boolean isDouble = false;
+        while (isDigit(peek(0))) {
+            text.append((char) advance());
+        }
+        if (peek(0) == '.' && isDigit(peek(1))) {
+            isDouble = true;
+            text.append((char) advance());
+            while (isDigit(peek(0))) {
+                text.append((char) advance());
+            }
+        }
+        if (peek(0) == 'e' || peek(0) == 'E') {
+            int next = peek(1);
+            if (isDigit(next) || ((next == '+' || next == '-') && isDigit(peek(2)))) {
+                isDouble = true;
+                text.append((char) advance());
+                text.append((char) advance());
+                while (isDigit(peek(0))) {
+                    text.append((char) advance());
+                }
+            }
+        }
+        int suffix = peek(0);
+        if (suffix == 'l' || suffix == 'L') {
+            advance();
+        } else if (suffix == 'd' || suffix == 'D' || suffix == 'f' || suffix == 'F') {
+            advance();
+            isDouble = true;
+        }
+        return new JmlToken(isDouble ? JmlToken.Kind.DOUBLE_LITERAL : JmlToken.Kind.INT_LITERAL,
+                text.toString(), startLine, startColumn);
+    }
+
+    private JmlToken stringLiteral(int startLine, int startColumn) throws IOException {
+        text.setLength(0);
+        advance(); // opening quote
+        while (true) {
+            int c = peek(0);
+            if (c < 0 || c == '\n') {
+                throw new JmlParseException("unterminated string literal", startLine, startColumn);
+            }
+            advance();
+            if (c == '"') {
+                break;
+            }
+            text.append((char) c);
+            if (c == '\\' && peek(0) >= 0 && peek(0) != '\n') {
+                // Keep escapes as written so the literal prints back unchanged
+                text.append((char) advance());
+            }
+        }
+        return new JmlToken(JmlToken.Kind.STRING_LITERAL, text.toString(), startLine, startColumn);
+    }
+
+    private JmlToken operator(int c, int startLine, int startColumn) throws IOException {
+        JmlToken.Kind kind;
+        String op;
+        switch (c) {
+            case '(': kind = JmlToken.Kind.LPAREN; op = "("; break;
+            case ')': kind = JmlToken.Kind.RPAREN; op = ")"; break;
+            case '{': kind = JmlToken.Kind.LBRACE; op = "{"; break;
+            case '}': kind = JmlToken.Kind.RBRACE; op = "}"; break;
+            case '[': kind = JmlToken.Kind.LBRACKET; op = "["; break;
+            case ']': kind = JmlToken.Kind.RBRACKET; op = "]"; break;
+            case ',': kind = JmlToken.Kind.COMMA; op = ","; break;
+            case ';': kind = JmlToken.Kind.SEMICOLON; op = ";"; break;
+            case '.': kind = JmlToken.Kind.DOT; op = "."; break;
+            case '@': kind = JmlToken.Kind.AT; op = "@"; break;
+            case '\'': kind = JmlToken.Kind.PRIME; op = "'"; break;
+            case '?': kind = JmlToken.Kind.QUESTION; op = "?"; break;
+            case ':': kind = JmlToken.Kind.COLON; op = ":"; break;
+            case '+': kind = JmlToken.Kind.PLUS; op = "+"; break;
+            case '-': kind = JmlToken.Kind.MINUS; op = "-"; break;
+            case '*': kind = JmlToken.Kind.STAR; op = "*"; break;
+            case '/': kind = JmlToken.Kind.SLASH; op = "/"; break;
+            case '%': kind = JmlToken.Kind.PERCENT; op = "%"; break;
+            case '!':
+                if (peek(1) == '=') {
+                    kind = JmlToken.Kind.NE; op = "!=";
+                } else {
+                    kind = JmlToken.Kind.BANG; op = "!";
+                }
+                break;
+            case '=':
+                if (peek(1) == '=' && peek(2) == '>') {
+                    kind = JmlToken.Kind.IMPLIES; op = "==>";
+                } else if (peek(1) == '=') {
+                    kind = JmlToken.Kind.EQ; op = "==";
+                } else {
+                    kind = JmlToken.Kind.ASSIGN; op = "=";
+                }
+                break;
+            case '<':
+                if (peek(1) == '=' && peek(2) == '=' && peek(3) == '>') {
+                    kind = JmlToken.Kind.EQUIVALENT; op = "<==>";
+                } else if (peek(1) == '=') {
+                    kind = JmlToken.Kind.LE; op = "<=";
+                } else {
+                    kind = JmlToken.Kind.LT; op = "<";
+                }
+                break;
+            case '>':
+                if (peek(1) == '=') {
+                    kind = JmlToken.Kind.GE; op = ">=";
+                } else {
+                    kind = JmlToken.Kind.GT; op = ">";
+                }
+                break;
+            case '&':
+                if (peek(1) == '&') {
+                    kind = JmlToken.Kind.AND; op = "&&";
+                    break;
+                }
+                advance();
+                throw new JmlParseException("unsupported operator '&'", startLine, startColumn);
+            case '|':
+                if (peek(1) == '|') {
+                    kind = JmlToken.Kind.OR; op = "||";
+                    break;
+                }
+                advance();
+                throw new JmlParseException("unsupported operator '|'", startLine, startColumn);
+            default:
+                advance();
+                throw new JmlParseException("unexpected character '" + (char) c + "'", startLine, startColumn);
+        }
+        advance(op.length());
+        return new JmlToken(kind, op, startLine, startColumn);
+    }
+
+    // ===================================
+    // Character buffer
+    // ===================================
+
+    /**
+     * Look at the character offset positions ahead without consuming it (-1 at end of input).
+     */
+    private int peek(int offset) throws IOException {
+        int index = pos + offset;
+        if (index < limit) {
+            return buffer[index];
+        }
+        fill(offset + 1);
+        index = pos + offset;
+        return index < limit ? buffer[index] : -1;
+    }
+
+    /**
+     * Make at least 'needed' characters available from pos, compacting the buffer first.
+     */
+    private void fill(int needed) throws IOException {
+        if (pos > 0) {
+            System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+        }
+        while (limit < needed && !eof) {
+            int n = in.read(buffer, limit, buffer.length - limit);
+            if (n < 0) {
+                eof = true;
+            } else {
+                limit += n;
+                charsRead += n;
+            }
+        }
+    }
+
+    private int advance() throws IOException {
+        if (pos >= limit) {
+            fill(1);
+            if (pos >= limit) {
+                return -1;
+            }
+        }
+        char c = buffer[pos++];
+        if (c == '\n') {
+            line++;
+            column = 1;
+            lineStart = true;
+        } else {
+            column++;
+        }
+        return c;
+    }
+
+    private void advance(int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            advance();
+        }
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+}
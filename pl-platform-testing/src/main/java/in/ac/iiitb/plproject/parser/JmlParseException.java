@@ -0,0 +1,26 @@
+package in.ac.iiitb.plproject.parser;
+
+/**
+ * Syntax error in JML specification text, with the source position where it was detected.
+ * JmlSpecParser records these per spec and keeps going with the next one.
+ */
+public class JmlParseException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int line;
+    private final int column;
+
+    public JmlParseException(String message, int line, int column) {
+        super("line " + line + (column > 0 ? ":" + column : "") + ": " + message);
+        this.line = line;
+        this.column = column;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+}
@@ -0,0 +1,400 @@
+package in.ac.iiitb.plproject.parser;
+
+import in.ac.iiitb.plproject.parser.ast.JmlFunctionSpec;
+import in.ac.iiitb.plproject.parser.ast.JmlSpecAst;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Extracts JML method specs from annotated Java source trees.
+ *
+ * Walks a source root on a work-stealing ForkJoinPool (one task per directory and per file).
+ * In each .java file, JML comments that contain requires/ensures clauses and directly precede
+ * a method declaration are cut out together with the signature and handed to JmlSpecParser.
+ * JML statements inside method bodies (//@ assume, //@ assert, ...) are ignored.
+ *
+ * Results are merged in path order, so the JmlSpecAst is the same regardless of how the work
+ * was scheduled.
+ */
+public class JmlSourceScanner {
+    private final ForkJoinPool pool;
+
+    public JmlSourceScanner() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public JmlSourceScanner(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Scan a source root (or a single .java file) and merge all specs into one JmlSpecAst.
+     */
+    public static JmlSpecAst scanSpecs(Path root) throws IOException {
+        return new JmlSourceScanner().scan(root).getSpecAst();
+    }
+
+    public ScanResult scan(Path root) throws IOException {
+        long start = System.nanoTime();
+        List<FileResult> fileResults;
+        try {
+            fileResults = Files.isDirectory(root)
+                ? pool.invoke(new DirectoryTask(root))
+                : Collections.singletonList(pool.invoke(new FileTask(root)));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        // Deterministic merge: files in path order, specs in source order within a file
+        List<FileResult> sorted = new ArrayList<>(fileResults);
+        sorted.sort((a, b) -> a.file.compareTo(b.file));
+        List<JmlFunctionSpec> specs = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        int filesWithSpecs = 0;
+        for (FileResult result : sorted) {
+            specs.addAll(result.specs);
+            errors.addAll(result.errors);
+            if (!result.specs.isEmpty()) {
+                filesWithSpecs++;
+            }
+        }
+        return new ScanResult(new JmlSpecAst(specs), errors, sorted.size(), filesWithSpecs,
+            System.nanoTime() - start);
+    }
+
+    /**
+     * Extract the specs of one source file (sequentially, on the calling thread).
+     */
+    static FileResult extractFile(Path file) {
+        String source;
+        try {
+            source = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return new FileResult(file, Collections.<JmlFunctionSpec>emptyList(),
+                Collections.singletonList(file + ": cannot read file: " + e.getMessage()));
+        }
+        if (source.indexOf("/*@") < 0 && source.indexOf("//@") < 0) {
+            return new FileResult(file, Collections.<JmlFunctionSpec>emptyList(), Collections.<String>emptyList());
+        }
+
+        String specText = extractSpecText(source);
+        List<JmlFunctionSpec> specs = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        try (JmlSpecParser parser = new JmlSpecParser(specText)) {
+            parser.forEach(specs::add);
+            for (JmlParseException error : parser.getErrors()) {
+                errors.add(file + ": " + error.getMessage());
+            }
+        } catch (IOException e) {
+            errors.add(file + ": " + e.getMessage());
+        }
+        return new FileResult(file, specs, errors);
+    }
+
+    /**
+     * Cut the JML method specs out of a Java source file.
+     *
+     * Each qualifying JML comment block is copied with its signature (terminated by ';'),
+     * and everything else is replaced by blank lines so parser errors keep the line numbers
+     * of the original file.
+     */
+    static String extractSpecText(String source) {
+        StringBuilder out = new StringBuilder();
+        int outLine = 1;
+        int line = 1;
+        int pendingStart = -1;   // start of the current run of JML comments
+        int pendingLine = 0;
+        int lastCodeLine = 0;
+        boolean pendingHasClauses = false;
+        int length = source.length();
+        int i = 0;
+
+        while (i < length) {
+            char c = source.charAt(i);
+            if (c == '\n') {
+                line++;
+                i++;
+            } else if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '/' && i + 1 < length && (source.charAt(i + 1) == '*' || source.charAt(i + 1) == '/')) {
+                boolean block = source.charAt(i + 1) == '*';
+                boolean jml = i + 2 < length && source.charAt(i + 2) == '@';
+                int end = block ? source.indexOf("*/", i + 2) : source.indexOf('\n', i + 2);
+                end = end < 0 ? length : (block ? end + 2 : end);
+                // A JML comment after code on the same line annotates that code (e.g. a field)
+                if (jml && line != lastCodeLine) {
+                    if (pendingStart < 0) {
+                        pendingStart = i;
+                        pendingLine = line;
+                    }
+                    pendingHasClauses |= containsClauseKeyword(source, i + 3, end);
+                }
+                line += countNewlines(source, i, end);
+                i = end;
+            } else {
+                int end;
+                if (pendingStart >= 0 && pendingHasClauses) {
+                    end = findDeclarationEnd(source, i);
+                    if (looksLikeMethod(source, i, end)) {
+                        while (outLine < pendingLine) {
+                            out.append('\n');
+                            outLine++;
+                        }
+                        // JML comments and whatever separates them from the signature
+                        out.append(source, pendingStart, end).append(";\n");
+                        outLine += countNewlines(source, pendingStart, end) + 1;
+                    }
+                } else {
+                    end = skipCode(source, i);
+                }
+                pendingStart = -1;
+                pendingHasClauses = false;
+                line += countNewlines(source, i, end);
+                lastCodeLine = line;
+                i = end;
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Skip one token of ordinary code, treating string and char literals as a unit.
+     */
+    private static int skipCode(String source, int i) {
+        char c = source.charAt(i);
+        if (c == '"' || c == '\'') {
+            return skipLiteral(source, i);
+        }
+        return i + 1;
+    }
+
+    private static int skipLiteral(String source, int i) {
+        char quote = source.charAt(i);
+        int j = i + 1;
+        while (j < source.length()) {
+            char c = source.charAt(j);
+            if (c == '\\') {
+                j += 2;
+            } else if (c == quote || c == '\n') {
+                return j + 1;
+            } else {
+                j++;
+            }
+        }
+        return source.length();
+    }
+
+    /**
+     * Position of the '{' or ';' that ends a declaration header (not included).
+     */
+    private static int findDeclarationEnd(String source, int i) {
+        int depth = 0;
+        int length = source.length();
+        while (i < length) {
+            char c = source.charAt(i);
+            if (c == '"' || c == '\'') {
+                i = skipLiteral(source, i);
+                continue;
+            }
+            if (c == '/' && i + 1 < length && source.charAt(i + 1) == '/') {
+                int end = source.indexOf('\n', i);
+                i = end < 0 ? length : end;
+                continue;
+            }
+            if (c == '/' && i + 1 < length && source.charAt(i + 1) == '*') {
+                int end = source.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+                continue;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (depth <= 0 && (c == '{' || c == ';')) {
+                return i;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    /**
+     * A method header has a parameter list and no initializer at the top level
+     * (which rules out fields, class declarations and statements).
+     */
+    private static boolean looksLikeMethod(String source, int start, int end) {
+        boolean hasParameters = false;
+        int depth = 0;
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (c == '(') {
+                hasParameters = true;
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '=' && depth == 0) {
+                return false;
+            }
+        }
+        if (!hasParameters || end >= source.length()) {
+            return false;
+        }
+        String firstWord = firstWord(source, start, end);
+        return !"if".equals(firstWord) && !"while".equals(firstWord) && !"for".equals(firstWord)
+            && !"switch".equals(firstWord) && !"return".equals(firstWord) && !"new".equals(firstWord);
+    }
+
+    private static String firstWord(String source, int start, int end) {
+        int i = start;
+        while (i < end && Character.isJavaIdentifierPart(source.charAt(i))) {
+            i++;
+        }
+        return source.substring(start, i);
+    }
+
+    private static boolean containsClauseKeyword(String source, int start, int end) {
+        return containsWord(source, "requires", start, end) || containsWord(source, "ensures", start, end);
+    }
+
+    private static boolean containsWord(String source, String word, int start, int end) {
+        int index = source.indexOf(word, start);
+        while (index >= 0 && index + word.length() <= end) {
+            boolean startsWord = index == 0 || !Character.isJavaIdentifierPart(source.charAt(index - 1));
+            int after = index + word.length();
+            boolean endsWord = after >= source.length() || !Character.isJavaIdentifierPart(source.charAt(after));
+            if (startsWord && endsWord) {
+                return true;
+            }
+            index = source.indexOf(word, after);
+        }
+        return false;
+    }
+
+    private static int countNewlines(String source, int start, int end) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if (source.charAt(i) == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // ===================================
+    // Fork/join tasks
+    // ===================================
+
+    private static final class DirectoryTask extends RecursiveTask<List<FileResult>> {
+        private static final long serialVersionUID = 1L;
+
+        private final Path directory;
+
+        DirectoryTask(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        protected List<FileResult> compute() {
+            List<DirectoryTask> subdirectories = new ArrayList<>();
+            List<FileTask> files = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    if (Files.isDirectory(entry)) {
+                        subdirectories.add(new DirectoryTask(entry));
+                    } else if (entry.getFileName().toString().endsWith(".java")) {
+                        files.add(new FileTask(entry));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            invokeAll(subdirectories);
+            invokeAll(files);
+            List<FileResult> results = new ArrayList<>();
+            for (DirectoryTask task : subdirectories) {
+                results.addAll(task.join());
+            }
+            for (FileTask task : files) {
+                results.add(task.join());
+            }
+            return results;
+        }
+    }
+
+    private static final class FileTask extends RecursiveTask<FileResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final Path file;
+
+        FileTask(Path file) {
+            this.file = file;
+        }
+
+        @Override
+        protected FileResult compute() {
+            return extractFile(file);
+        }
+    }
+
+    static final class FileResult {
+        final Path file;
+        final List<JmlFunctionSpec> specs;
+        final List<String> errors;
+
+        FileResult(Path file, List<JmlFunctionSpec> specs, List<String> errors) {
+            this.file = file;
+            this.specs = specs;
+            this.errors = errors;
+        }
+    }
+
+    /**
+     * Merged specs of a scan plus per-file parse errors ("file: line N:M: message").
+     */
+    public static final class ScanResult {
+        private final JmlSpecAst specAst;
+        private final List<String> errors;
+        private final int filesScanned;
+        private final int filesWithSpecs;
+        private final long elapsedNanos;
+
+        ScanResult(JmlSpecAst specAst, List<String> errors, int filesScanned, int filesWithSpecs, long elapsedNanos) {
+            this.specAst = specAst;
+            this.errors = Collections.unmodifiableList(errors);
+            this.filesScanned = filesScanned;
+            this.filesWithSpecs = filesWithSpecs;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public JmlSpecAst getSpecAst() {
+            return specAst;
+        }
+
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        public int getFilesScanned() {
+            return filesScanned;
+        }
+
+        public int getFilesWithSpecs() {
+            return filesWithSpecs;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,585 @@
+package in.ac.iiitb.plproject.parser;
+
+import in.ac.iiitb.plproject.ast.AssignExpr;
+import in.ac.iiitb.plproject.ast.AstHelper;
+import in.ac.iiitb.plproject.ast.BinaryExpr;
+import in.ac.iiitb.plproject.ast.BooleanLiteralExpr;
+import in.ac.iiitb.plproject.ast.DoubleLiteralExpr;
+import in.ac.iiitb.plproject.ast.Expr;
+import in.ac.iiitb.plproject.ast.ExprInterner;
+import in.ac.iiitb.plproject.ast.ExprVisitor;
+import in.ac.iiitb.plproject.ast.FieldAccessExpr;
+import in.ac.iiitb.plproject.ast.IntegerLiteralExpr;
+import in.ac.iiitb.plproject.ast.MapExpr;
+import in.ac.iiitb.plproject.ast.MethodCallExpr;
+import in.ac.iiitb.plproject.ast.NameExpr;
+import in.ac.iiitb.plproject.ast.ObjectCreationExpr;
+import in.ac.iiitb.plproject.ast.Pair;
+import in.ac.iiitb.plproject.ast.SetExpr;
+import in.ac.iiitb.plproject.ast.StringLiteralExpr;
+import in.ac.iiitb.plproject.ast.ThisExpr;
+import in.ac.iiitb.plproject.ast.TupleExpr;
+import in.ac.iiitb.plproject.ast.UnaryExpr;
+import in.ac.iiitb.plproject.parser.ast.FunctionSignature;
+import in.ac.iiitb.plproject.parser.ast.JmlFunctionSpec;
+import in.ac.iiitb.plproject.parser.ast.JmlSpecAst;
+import in.ac.iiitb.plproject.parser.ast.Variable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary format for a parsed JmlSpecAst, so a warm start can skip parsing.
+ *
+ * Layout (all counts and indexes are unsigned varints):
+ *   magic "JMLS", format version (int)
+ *   string table: count, then each string as UTF-8 length + bytes
+ *   spec count, then per spec:
+ *     name, signature flag [name, return type, params (name, type)*],
+ *     requires clauses, ensures clauses (each an Expr tree)
+ *   Expr trees are pre-order: a one-byte node tag followed by the node's fields,
+ *   with names, literals and operators stored as string table indexes.
+ *
+ * Strings are written once, so repeated names and types cost one varint each. Reading maps
+ * the file into memory and decodes it with the AstHelper factories. Every count is checked
+ * against the bytes left (each element takes at least one), so corrupt input fails with an
+ * IOException instead of a huge allocation.
+ */
+public class JmlSpecAstSerializer {
+    public static final int MAGIC = 0x4A4D4C53; // "JMLS"
+    public static final int VERSION = 1;
+
+    private static final int NO_STRING = 0; // string indexes are stored +1 so 0 can mean null
+
+    // Node tags
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_INTEGER = 1;
+    private static final byte TAG_DOUBLE = 2;
+    private static final byte TAG_STRING = 3;
+    private static final byte TAG_TRUE = 4;
+    private static final byte TAG_FALSE = 5;
+    private static final byte TAG_NAME = 6;
+    private static final byte TAG_FIELD_ACCESS = 7;
+    private static final byte TAG_THIS = 8;
+    private static final byte TAG_BINARY = 9;
+    private static final byte TAG_ASSIGN = 10;
+    private static final byte TAG_METHOD_CALL = 11;
+    private static final byte TAG_OBJECT_CREATION = 12;
+    private static final byte TAG_UNARY = 13;
+    private static final byte TAG_SET = 14;
+    private static final byte TAG_TUPLE = 15;
+    private static final byte TAG_MAP = 16;
+
+    /**
+     * Warm start: load the specs from the cache file if it is newer than the source, otherwise
+     * parse the source (a spec file, or a Java source tree via JmlSourceScanner) and refresh
+     * the cache. A cache that cannot be read is ignored and rebuilt.
+     */
+    public static JmlSpecAst parseWithCache(Path source, Path cacheFile) throws IOException {
+        if (Files.isRegularFile(cacheFile) && !Files.isDirectory(source)
+                && Files.getLastModifiedTime(cacheFile).compareTo(Files.getLastModifiedTime(source)) >= 0) {
+            try {
+                return read(cacheFile);
+            } catch (IOException e) {
+                System.err.println("Warning: ignoring spec cache " + cacheFile + ": " + e.getMessage());
+            }
+        }
+
+        JmlSpecAst specAst;
+        if (Files.isDirectory(source)) {
+            specAst = JmlSourceScanner.scanSpecs(source);
+        } else {
+            try (JmlSpecParser parser = JmlSpecParser.open(source)) {
+                specAst = parser.parseAll();
+                for (JmlParseException error : parser.getErrors()) {
+                    System.err.println("Warning: " + source + ": " + error.getMessage());
+                }
+            }
+        }
+        write(specAst, cacheFile);
+        return specAst;
+    }
+
+    // ===================================
+    // Writing
+    // ===================================
+
+    /**
+     * Write the specs to a file. The file is replaced atomically, so readers never see
+     * a partially written cache.
+     */
+    public static void write(JmlSpecAst specAst, Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                write(specAst, out);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public static void write(JmlSpecAst specAst, OutputStream out) throws IOException {
+        out.write(toBytes(specAst));
+    }
+
+    public static byte[] toBytes(JmlSpecAst specAst) {
+        Encoder encoder = new Encoder();
+        List<JmlFunctionSpec> specs = specAst.getSpecs();
+        encoder.body.writeVarint(specs.size());
+        for (JmlFunctionSpec spec : specs) {
+            encoder.writeSpec(spec);
+        }
+
+        ByteSink header = new ByteSink();
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeVarint(encoder.strings.size());
+        for (String s : encoder.strings) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            header.writeVarint(bytes.length);
+            header.write(bytes, 0, bytes.length);
+        }
+        header.write(encoder.body.buffer(), 0, encoder.body.size());
+        return header.toByteArray();
+    }
+
+    /**
+     * Encodes specs into the body while collecting the string table.
+     */
+    private static final class Encoder implements ExprVisitor<Void> {
+        final ByteSink body = new ByteSink();
+        final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> stringIndexes = new HashMap<>();
+
+        void writeSpec(JmlFunctionSpec spec) {
+            writeString(spec.getName());
+            FunctionSignature signature = spec.getSignature();
+            if (signature == null) {
+                body.write(0);
+            } else {
+                body.write(1);
+                writeString(signature.getName());
+                writeString(signature.getReturnTypeName());
+                List<Variable> params = signature.getParameters();
+                if (params == null) {
+                    body.writeVarint(0);
+                } else {
+                    body.writeVarint(params.size() + 1);
+                    for (Variable param : params) {
+                        writeString(param.getName());
+                        writeString(param.getTypeName());
+                    }
+                }
+            }
+            writeExprs(spec.getRequiresClauses());
+            writeExprs(spec.getEnsuresClauses());
+        }
+
+        void writeString(String s) {
+            if (s == null) {
+                body.writeVarint(NO_STRING);
+                return;
+            }
+            Integer index = stringIndexes.get(s);
+            if (index == null) {
+                index = strings.size();
+                strings.add(s);
+                stringIndexes.put(s, index);
+            }
+            body.writeVarint(index + 1);
+        }
+
+        void writeExpr(Expr expr) {
+            if (expr == null) {
+                body.write(TAG_NULL);
+            } else {
+                expr.accept(this);
+            }
+        }
+
+        void writeExprs(List<Expr> exprs) {
+            body.writeVarint(exprs.size());
+            for (Expr expr : exprs) {
+                writeExpr(expr);
+            }
+        }
+
+        @Override
+        public Void visit(IntegerLiteralExpr expr) {
+            body.write(TAG_INTEGER);
+            body.writeVarint((expr.value << 1) ^ (expr.value >> 31)); // zigzag
+            return null;
+        }
+
+        @Override
+        public Void visit(DoubleLiteralExpr expr) {
+            body.write(TAG_DOUBLE);
+            long bits = Double.doubleToLongBits(expr.value);
+            body.writeInt((int) (bits >>> 32));
+            body.writeInt((int) bits);
+            return null;
+        }
+
+        @Override
+        public Void visit(StringLiteralExpr expr) {
+            body.write(TAG_STRING);
+            writeString(expr.value);
+            return null;
+        }
+
+        @Override
+        public Void visit(BooleanLiteralExpr expr) {
+            body.write(expr.value ? TAG_TRUE : TAG_FALSE);
+            return null;
+        }
+
+        @Override
+        public Void visit(NameExpr expr) {
+            body.write(TAG_NAME);
+            writeString(expr.name.identifier);
+            return null;
+        }
+
+        @Override
+        public Void visit(FieldAccessExpr expr) {
+            body.write(TAG_FIELD_ACCESS);
+            writeExpr(expr.scope);
+            writeString(expr.field.identifier);
+            return null;
+        }
+
+        @Override
+        public Void visit(ThisExpr expr) {
+            body.write(TAG_THIS);
+            return null;
+        }
+
+        @Override
+        public Void visit(BinaryExpr expr) {
+            body.write(TAG_BINARY);
+            writeString(expr.op.name());
+            writeExpr(expr.left);
+            writeExpr(expr.right);
+            return null;
+        }
+
+        @Override
+        public Void visit(AssignExpr expr) {
+            body.write(TAG_ASSIGN);
+            writeExpr(expr.target);
+            writeExpr(expr.value);
+            return null;
+        }
+
+        @Override
+        public Void visit(MethodCallExpr expr) {
+            body.write(TAG_METHOD_CALL);
+            writeExpr(expr.scope);
+            writeString(expr.name.identifier);
+            writeExprs(expr.args);
+            return null;
+        }
+
+        @Override
+        public Void visit(ObjectCreationExpr expr) {
+            body.write(TAG_OBJECT_CREATION);
+            writeString(expr.getTypeName());
+            writeExprs(expr.args);
+            return null;
+        }
+
+        @Override
+        public Void visit(UnaryExpr expr) {
+            body.write(TAG_UNARY);
+            writeString(expr.op.name());
+            writeExpr(expr.expr);
+            return null;
+        }
+
+        @Override
+        public Void visit(SetExpr expr) {
+            body.write(TAG_SET);
+            writeExprs(expr.elements);
+            return null;
+        }
+
+        @Override
+        public Void visit(TupleExpr expr) {
+            body.write(TAG_TUPLE);
+            writeExprs(expr.elements);
+            return null;
+        }
+
+        @Override
+        public Void visit(MapExpr expr) {
+            body.write(TAG_MAP);
+            body.writeVarint(expr.entries.size());
+            for (Pair<NameExpr, Expr> entry : expr.entries) {
+                writeExpr(entry.key);
+                writeExpr(entry.value);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Growable byte array with varint/int helpers (ByteArrayOutputStream without copies).
+     */
+    private static final class ByteSink extends ByteArrayOutputStream {
+        ByteSink() {
+            super(4096);
+        }
+
+        void writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        void writeInt(int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+
+    // ===================================
+    // Reading
+    // ===================================
+
+    /**
+     * Read specs from a file by memory-mapping it.
+     */
+    public static JmlSpecAst read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public static JmlSpecAst read(byte[] bytes) throws IOException {
+        return read(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Decode specs; input that is not a valid cache (truncated, corrupt, or too deeply nested
+     * to decode) fails with an IOException.
+     */
+    public static JmlSpecAst read(ByteBuffer buffer) throws IOException {
+        try {
+            return new Decoder(buffer).readSpecAst();
+        } catch (RuntimeException | StackOverflowError e) {
+            // BufferUnderflowException, or a node factory rejecting a decoded operator or name
+            throw new IOException("Corrupt spec cache: " + e, e);
+        }
+    }
+
+    private static final class Decoder {
+        private final ByteBuffer in;
+        private String[] strings;
+
+        Decoder(ByteBuffer in) {
+            this.in = in;
+        }
+
+        JmlSpecAst readSpecAst() throws IOException {
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Not a spec cache file (bad magic number)");
+            }
+            int version = in.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported spec cache version " + version + " (expected " + VERSION + ")");
+            }
+
+            strings = new String[readCount()];
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < strings.length; i++) {
+                int length = readCount();
+                if (length > scratch.length) {
+                    scratch = new byte[Math.max(length, scratch.length * 2)];
+                }
+                in.get(scratch, 0, length);
+                strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+
+            int count = readCount();
+            List<JmlFunctionSpec> specs = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                specs.add(readSpec());
+            }
+            return new JmlSpecAst(specs);
+        }
+
+        private JmlFunctionSpec readSpec() throws IOException {
+            String name = readString();
+            FunctionSignature signature = null;
+            if (in.get() != 0) {
+                String signatureName = readString();
+                String returnType = readString();
+                int paramCount = readCount();
+                List<Variable> params = null;
+                if (paramCount > 0) {
+                    params = new ArrayList<>(paramCount - 1);
+                    for (int i = 0; i < paramCount - 1; i++) {
+                        String paramName = readString();
+                        params.add(new Variable(paramName, readString()));
+                    }
+                }
+                signature = new FunctionSignature(signatureName, params, returnType);
+            }
+            List<Expr> requiresClauses = readExprs();
+            List<Expr> ensuresClauses = readExprs();
+            return new JmlFunctionSpec(name, signature, requiresClauses, ensuresClauses);
+        }
+
+        private List<Expr> readExprs() throws IOException {
+            int count = readCount();
+            List<Expr> exprs = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                exprs.add(readExpr());
+            }
+            return exprs;
+        }
+
+        private Expr readExpr() throws IOException {
+            byte tag = in.get();
+            switch (tag) {
+                case TAG_NULL:
+                    return null;
+                case TAG_INTEGER: {
+                    int zigzag = readVarint();
+                    return AstHelper.createIntegerLiteralExpr((zigzag >>> 1) ^ -(zigzag & 1));
+                }
+                case TAG_DOUBLE: {
+                    long high = in.getInt() & 0xFFFFFFFFL;
+                    long low = in.getInt() & 0xFFFFFFFFL;
+                    return AstHelper.createDoubleLiteralExpr(Double.longBitsToDouble((high << 32) | low));
+                }
+                case TAG_STRING:
+                    return AstHelper.createStringLiteralExpr(readString());
+                case TAG_TRUE:
+                    return AstHelper.createBooleanLiteralExpr(true);
+                case TAG_FALSE:
+                    return AstHelper.createBooleanLiteralExpr(false);
+                case TAG_NAME:
+                    return AstHelper.createNameExpr(readString());
+                case TAG_FIELD_ACCESS: {
+                    Expr scope = readExpr();
+                    return AstHelper.createFieldAccessExpr(scope, readString());
+                }
+                case TAG_THIS:
+                    return AstHelper.createThisExpr();
+                case TAG_BINARY: {
+                    String op = readString();
+                    Expr left = readExpr();
+                    return AstHelper.createBinaryExpr(left, readExpr(), op);
+                }
+                case TAG_ASSIGN: {
+                    Expr target = readExpr();
+                    return ExprInterner.intern(new AssignExpr(target, readExpr()));
+                }
+                case TAG_METHOD_CALL: {
+                    Expr scope = readExpr();
+                    String methodName = readString();
+                    return AstHelper.createMethodCallExpr(scope, methodName, readExprs());
+                }
+                case TAG_OBJECT_CREATION: {
+                    String typeName = readString();
+                    return AstHelper.createObjectCreationExpr(typeName, readExprs());
+                }
+                case TAG_UNARY: {
+                    String op = readString();
+                    return AstHelper.createUnaryExpr(readExpr(), op);
+                }
+                case TAG_SET:
+                    return AstHelper.createSetExpr(readExprs());
+                case TAG_TUPLE:
+                    return ExprInterner.intern(new TupleExpr(readExprs()));
+                case TAG_MAP: {
+                    int count = readCount();
+                    List<Pair<NameExpr, Expr>> entries = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        int offset = in.position();
+                        Expr key = readExpr();
+                        if (!(key instanceof NameExpr)) {
+                            throw new IOException("Corrupt spec cache: map key at offset " + offset + " is not a name");
+                        }
+                        entries.add(new Pair<>((NameExpr) key, readExpr()));
+                    }
+                    return ExprInterner.intern(new MapExpr(entries));
+                }
+                default:
+                    throw new IOException("Corrupt spec cache: unknown node tag " + tag + " at offset " + (in.position() - 1));
+            }
+        }
+
+        private String readString() throws IOException {
+            int offset = in.position();
+            int index = readVarint();
+            if (index < 0 || index > strings.length) {
+                throw new IOException("Corrupt spec cache: string index " + index + " at offset " + offset
+                    + " outside the table of " + strings.length);
+            }
+            return index == NO_STRING ? null : strings[index - 1];
+        }
+
+        /**
+         * A count or length: at most the number of bytes left, since every element takes at
+         * least one byte.
+         */
+        private int readCount() throws IOException {
+            int offset = in.position();
+            int count = readVarint();
+            if (count < 0 || count > in.remaining()) {
+                throw new IOException("Corrupt spec cache: count " + count + " at offset " + offset
+                    + " exceeds the " + in.remaining() + " bytes left");
+            }
+            return count;
+        }
+
+        private int readVarint() throws IOException {
+            int value = 0;
+            int shift = 0;
+            while (true) {
+                byte b = in.get();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+                shift += 7;
+                if (shift > 28) {
+                    throw new IOException("Corrupt spec cache: varint too long at offset " + (in.position() - 5));
+                }
+            }
+        }
+    }
+}
@@ -1 +1,850 @@
-// Placeholder for JmlSpecParser.java
+package in.ac.iiitb.plproject.parser;
+
+import in.ac.iiitb.plproject.ast.AstHelper;
+import in.ac.iiitb.plproject.ast.Expr;
+import in.ac.iiitb.plproject.ast.IntegerLiteralExpr;
+import in.ac.iiitb.plproject.ast.NameExpr;
+import in.ac.iiitb.plproject.parser.ast.FunctionSignature;
+import in.ac.iiitb.plproject.parser.ast.JmlFunctionSpec;
+import in.ac.iiitb.plproject.parser.ast.JmlSpecAst;
+import in.ac.iiitb.plproject.parser.ast.Variable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Streaming parser for JML specification files.
+ *
+ * A spec is a run of clauses followed by the method signature they describe:
+ *
+ *   //@ requires x[0] > 0;
+ *   //@ ensures x[0] > '(x[0]);
+ *   void increment(int[] x);
+ *
+ * Both JML comment styles are accepted and the markers are optional, so the same text
+ * also parses without them. Supported clauses are requires/ensures (several of each are
+ * combined with AND); assignable, signals and similar clauses are skipped. Expressions are built directly with the AstHelper factories,
+ * following the conventions used by hand-written specs:
+ * - '(e) and e' are the prime (post-state) operator, a MethodCallExpr named "'"
+ * - x[i] is a NameExpr "x[i]", null is a NameExpr "null"
+ * - a ==> b becomes !a || b, a <==> b becomes a == b
+ * - \old(e) and \result are normalized by PostconditionVisitor
+ *
+ * Specs are produced one at a time by next(), so memory use does not depend on the input size.
+ * A syntax error only drops the spec it occurs in: the parser skips to the end of that spec's
+ * signature, records the error and continues with the next one.
+ */
+public class JmlSpecParser implements Closeable {
+    private static final int MAX_RECORDED_ERRORS = 1000;
+    private static final int MAPPED_WINDOW_SIZE = 32 * 1024 * 1024;
+
+    private static final Set<String> SKIPPED_CLAUSES = new HashSet<>(Arrays.asList(
+        "assignable", "modifiable", "modifies", "signals", "signals_only", "diverges",
+        "accessible", "callable", "measured_by", "working_space", "duration", "when"
+    ));
+
+    // Java modifiers and JML spec-case keywords that can precede clauses or a signature
+    private static final Set<String> MODIFIERS = new HashSet<>(Arrays.asList(
+        "public", "private", "protected", "static", "final", "abstract", "synchronized",
+        "native", "strictfp", "default", "also", "normal_behavior", "normal_behaviour",
+        "exceptional_behavior", "exceptional_behaviour", "behavior", "behaviour",
+        "pure", "helper", "model", "spec_public", "spec_protected", "nullable", "non_null"
+    ));
+
+    private final JmlLexer lexer;
+    private final Reader reader;
+    private final PostconditionVisitor postconditionVisitor = new PostconditionVisitor();
+
+    private JmlToken current;
+    private JmlToken lookahead;
+    private boolean inSignature;
+
+    private final List<JmlParseException> errors = new ArrayList<>();
+    private long errorCount;
+    private long specCount;
+    private long startNanos = -1;
+    private long endNanos = -1;
+
+    public JmlSpecParser(Reader reader) {
+        this.reader = reader;
+        this.lexer = new JmlLexer(reader);
+    }
+
+    public JmlSpecParser(String text) {
+        this(new StringReader(text));
+    }
+
+    /**
+     * Open a spec file through a memory-mapped, incrementally decoded (UTF-8) reader.
+     */
+    public static JmlSpecParser open(Path file) throws IOException {
+        return new JmlSpecParser(new MappedFileReader(file));
+    }
+
+    /**
+     * Parse the next spec, or return null at end of input.
+     * Specs with syntax errors are skipped (see getErrors()).
+     */
+    public JmlFunctionSpec next() throws IOException {
+        if (startNanos < 0) {
+            startNanos = System.nanoTime();
+        }
+        while (current == null) {
+            try {
+                current = nextToken();
+            } catch (JmlParseException e) {
+                recordError(e);
+            }
+        }
+        while (!current.is(JmlToken.Kind.EOF)) {
+            try {
+                JmlFunctionSpec spec = parseSpec();
+                if (spec != null) {
+                    specCount++;
+                    return spec;
+                }
+            } catch (JmlParseException e) {
+                recordError(e);
+                recover();
+            }
+        }
+        if (endNanos < 0) {
+            endNanos = System.nanoTime();
+        }
+        return null;
+    }
+
+    /**
+     * Stream every remaining spec to the consumer. Returns the number of specs parsed.
+     */
+    public long forEach(Consumer<JmlFunctionSpec> consumer) throws IOException {
+        long count = 0;
+        JmlFunctionSpec spec;
+        while ((spec = next()) != null) {
+            consumer.accept(spec);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Parse all remaining specs into a JmlSpecAst (keeps every spec in memory).
+     */
+    public JmlSpecAst parseAll() throws IOException {
+        List<JmlFunctionSpec> specs = new ArrayList<>();
+        forEach(specs::add);
+        return new JmlSpecAst(specs);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // ===================================
+    // Statistics
+    // ===================================
+
+    public long getSpecCount() {
+        return specCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Recorded syntax errors (the first MAX_RECORDED_ERRORS; getErrorCount() has the total).
+     */
+    public List<JmlParseException> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    public long getCharsRead() {
+        return lexer.getCharsRead();
+    }
+
+    public long getElapsedNanos() {
+        if (startNanos < 0) {
+            return 0;
+        }
+        return (endNanos >= 0 ? endNanos : System.nanoTime()) - startNanos;
+    }
+
+    /**
+     * Parse throughput in MB/s, counting one byte per character read.
+     */
+    public double getMegabytesPerSecond() {
+        long nanos = getElapsedNanos();
+        if (nanos <= 0) {
+            return 0.0;
+        }
+        return (getCharsRead() / (1024.0 * 1024.0)) / (nanos / 1_000_000_000.0);
+    }
+
+    // ===================================
+    // Specs and signatures
+    // ===================================
+
+    private JmlFunctionSpec parseSpec() throws IOException {
+        List<Expr> requiresClauses = new ArrayList<>();
+        List<Expr> ensuresClauses = new ArrayList<>();
+        inSignature = false;
+
+        while (true) {
+            if (current.isIdent("requires") || current.isIdent("pre")) {
+                advance();
+                requiresClauses.add(parseExpression());
+                expect(JmlToken.Kind.SEMICOLON);
+            } else if (current.isIdent("ensures") || current.isIdent("post")) {
+                advance();
+                ensuresClauses.add(postconditionVisitor.normalize(parseExpression()));
+                expect(JmlToken.Kind.SEMICOLON);
+            } else if (current.is(JmlToken.Kind.IDENT) && SKIPPED_CLAUSES.contains(current.text)) {
+                skipStatement();
+            } else if (current.is(JmlToken.Kind.IDENT) && MODIFIERS.contains(current.text)) {
+                advance();
+            } else if (current.is(JmlToken.Kind.AT)) {
+                skipAnnotation();
+            } else if (current.is(JmlToken.Kind.SEMICOLON)) {
+                advance();
+            } else if (current.is(JmlToken.Kind.EOF)) {
+                if (!requiresClauses.isEmpty() || !ensuresClauses.isEmpty()) {
+                    throw error("specification is missing its method signature");
+                }
+                return null;
+            } else {
+                break;
+            }
+        }
+
+        inSignature = true;
+        FunctionSignature signature = parseSignature();
+        inSignature = false;
+        return new JmlFunctionSpec(signature.getName(), signature, requiresClauses, ensuresClauses);
+    }
+
+    private FunctionSignature parseSignature() throws IOException {
+        skipModifiers();
+        if (current.is(JmlToken.Kind.LT)) {
+            skipBalanced(JmlToken.Kind.LT, JmlToken.Kind.GT); // generic method type parameters
+        }
+        String returnType = parseType();
+        String name;
+        if (current.is(JmlToken.Kind.LPAREN)) {
+            // Constructor: the "type" we just read is the name
+            name = returnType;
+            returnType = "void";
+        } else {
+            name = expectIdentifier();
+        }
+
+        expect(JmlToken.Kind.LPAREN);
+        List<Variable> parameters = new ArrayList<>();
+        if (!current.is(JmlToken.Kind.RPAREN)) {
+            do {
+                skipModifiers();
+                String type = parseType();
+                if (current.is(JmlToken.Kind.DOT)) {
+                    // varargs: T... name
+                    expect(JmlToken.Kind.DOT);
+                    expect(JmlToken.Kind.DOT);
+                    expect(JmlToken.Kind.DOT);
+                    type = type + "[]";
+                }
+                String paramName = expectIdentifier();
+                while (current.is(JmlToken.Kind.LBRACKET)) {
+                    advance();
+                    expect(JmlToken.Kind.RBRACKET);
+                    type = type + "[]";
+                }
+                parameters.add(new Variable(paramName, type));
+            } while (accept(JmlToken.Kind.COMMA));
+        }
+        expect(JmlToken.Kind.RPAREN);
+
+        if (current.isIdent("throws")) {
+            advance();
+            parseType();
+            while (accept(JmlToken.Kind.COMMA)) {
+                parseType();
+            }
+        }
+        if (current.is(JmlToken.Kind.LBRACE)) {
+            skipBalanced(JmlToken.Kind.LBRACE, JmlToken.Kind.RBRACE); // method body
+        } else {
+            expect(JmlToken.Kind.SEMICOLON);
+        }
+        return new FunctionSignature(name, parameters, returnType);
+    }
+
+    /**
+     * Type name as written, normalized to "Map<Integer, Integer>" / "int[]" spacing.
+     */
+    private String parseType() throws IOException {
+        StringBuilder type = new StringBuilder(expectIdentifier());
+        while (current.is(JmlToken.Kind.DOT) && peek().is(JmlToken.Kind.IDENT)) {
+            advance();
+            type.append('.').append(expectIdentifier());
+        }
+        if (accept(JmlToken.Kind.LT)) {
+            type.append('<');
+            if (!current.is(JmlToken.Kind.GT)) {
+                do {
+                    if (type.charAt(type.length() - 1) != '<') {
+                        type.append(", ");
+                    }
+                    if (accept(JmlToken.Kind.QUESTION)) {
+                        type.append('?');
+                        if (current.isIdent("extends") || current.isIdent("super")) {
+                            type.append(' ').append(current.text).append(' ');
+                            advance();
+                            type.append(parseType());
+                        }
+                    } else {
+                        type.append(parseType());
+                    }
+                } while (accept(JmlToken.Kind.COMMA));
+            }
+            expect(JmlToken.Kind.GT);
+            type.append('>');
+        }
+        while (current.is(JmlToken.Kind.LBRACKET)) {
+            advance();
+            expect(JmlToken.Kind.RBRACKET);
+            type.append("[]");
+        }
+        return type.toString();
+    }
+
+    private void skipModifiers() throws IOException {
+        while (true) {
+            if (current.is(JmlToken.Kind.IDENT) && MODIFIERS.contains(current.text)) {
+                advance();
+            } else if (current.is(JmlToken.Kind.AT)) {
+                skipAnnotation();
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Skip a Java annotation such as @Override or @SuppressWarnings("x").
+     */
+    private void skipAnnotation() throws IOException {
+        expect(JmlToken.Kind.AT);
+        parseType();
+        if (current.is(JmlToken.Kind.LPAREN)) {
+            skipBalanced(JmlToken.Kind.LPAREN, JmlToken.Kind.RPAREN);
+        }
+    }
+
+    // ===================================
+    // Expressions (lowest to highest precedence)
+    // ===================================
+
+    private Expr parseExpression() throws IOException {
+        Expr left = parseImplication();
+        while (accept(JmlToken.Kind.EQUIVALENT)) {
+            left = AstHelper.createBinaryExpr(left, parseImplication(), "EQUALS");
+        }
+        return left;
+    }
+
+    private Expr parseImplication() throws IOException {
+        Expr left = parseOr();
+        if (accept(JmlToken.Kind.IMPLIES)) {
+            // Right associative: a ==> b ==> c is a ==> (b ==> c)
+            Expr right = parseImplication();
+            return AstHelper.createBinaryExpr(AstHelper.createUnaryExpr(left, "LOGICAL_COMPLEMENT"), right, "OR");
+        }
+        return left;
+    }
+
+    private Expr parseOr() throws IOException {
+        Expr left = parseAnd();
+        while (accept(JmlToken.Kind.OR)) {
+            left = AstHelper.createBinaryExpr(left, parseAnd(), "OR");
+        }
+        return left;
+    }
+
+    private Expr parseAnd() throws IOException {
+        Expr left = parseEquality();
+        while (accept(JmlToken.Kind.AND)) {
+            left = AstHelper.createBinaryExpr(left, parseEquality(), "AND");
+        }
+        return left;
+    }
+
+    private Expr parseEquality() throws IOException {
+        Expr left = parseRelational();
+        while (true) {
+            if (accept(JmlToken.Kind.EQ)) {
+                left = AstHelper.createBinaryExpr(left, parseRelational(), "EQUALS");
+            } else if (accept(JmlToken.Kind.NE)) {
+                left = AstHelper.createBinaryExpr(left, parseRelational(), "NOT_EQUALS");
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Expr parseRelational() throws IOException {
+        Expr left = parseAdditive();
+        while (true) {
+            String operator;
+            if (current.is(JmlToken.Kind.LT)) {
+                operator = "LESS_THAN";
+            } else if (current.is(JmlToken.Kind.LE)) {
+                operator = "LESS_THAN_OR_EQUAL";
+            } else if (current.is(JmlToken.Kind.GT)) {
+                operator = "GREATER_THAN";
+            } else if (current.is(JmlToken.Kind.GE)) {
+                operator = "GREATER_THAN_OR_EQUAL";
+            } else {
+                return left;
+            }
+            advance();
+            left = AstHelper.createBinaryExpr(left, parseAdditive(), operator);
+        }
+    }
+
+    private Expr parseAdditive() throws IOException {
+        Expr left = parseMultiplicative();
+        while (true) {
+            if (accept(JmlToken.Kind.PLUS)) {
+                left = AstHelper.createBinaryExpr(left, parseMultiplicative(), "PLUS");
+            } else if (accept(JmlToken.Kind.MINUS)) {
+                left = AstHelper.createBinaryExpr(left, parseMultiplicative(), "MINUS");
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Expr parseMultiplicative() throws IOException {
+        Expr left = parseUnary();
+        while (true) {
+            if (accept(JmlToken.Kind.STAR)) {
+                left = AstHelper.createBinaryExpr(left, parseUnary(), "MULTIPLY");
+            } else if (accept(JmlToken.Kind.SLASH)) {
+                left = AstHelper.createBinaryExpr(left, parseUnary(), "DIVIDE");
+            } else if (current.is(JmlToken.Kind.PERCENT)) {
+                throw error("operator '%' is not supported in specs");
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Expr parseUnary() throws IOException {
+        if (accept(JmlToken.Kind.BANG)) {
+            return AstHelper.createUnaryExpr(parseUnary(), "LOGICAL_COMPLEMENT");
+        }
+        if (accept(JmlToken.Kind.MINUS)) {
+            return AstHelper.createUnaryExpr(parseUnary(), "MINUS");
+        }
+        if (accept(JmlToken.Kind.PLUS)) {
+            return AstHelper.createUnaryExpr(parseUnary(), "PLUS");
+        }
+        return parsePostfix(parsePrimary());
+    }
+
+    private Expr parsePostfix(Expr expr) throws IOException {
+        while (true) {
+            if (accept(JmlToken.Kind.DOT)) {
+                String member = expectIdentifier();
+                if (current.is(JmlToken.Kind.LPAREN)) {
+                    expr = AstHelper.createMethodCallExpr(expr, member, parseArguments());
+                } else {
+                    expr = AstHelper.createFieldAccessExpr(expr, member);
+                }
+            } else if (current.is(JmlToken.Kind.LBRACKET)) {
+                expr = parseIndex(expr);
+            } else if (accept(JmlToken.Kind.PRIME)) {
+                expr = prime(expr);
+            } else {
+                return expr;
+            }
+        }
+    }
+
+    /**
+     * Array access is encoded in the name itself ("x[0]"), matching hand-written specs.
+     */
+    private Expr parseIndex(Expr array) throws IOException {
+        JmlToken bracket = current;
+        advance();
+        Expr index = parseExpression();
+        expect(JmlToken.Kind.RBRACKET);
+        String arrayName = AstHelper.getNameFromExpr(array);
+        if (arrayName == null) {
+            throw new JmlParseException("only named arrays can be indexed", bracket.line, bracket.column);
+        }
+        String indexText;
+        if (index instanceof IntegerLiteralExpr) {
+            indexText = String.valueOf(((IntegerLiteralExpr) index).value);
+        } else if (index instanceof NameExpr) {
+            indexText = AstHelper.getNameFromExpr(index);
+        } else {
+            indexText = AstHelper.exprToJavaCode(index);
+        }
+        return AstHelper.createNameExpr(arrayName + "[" + indexText + "]");
+    }
+
+    private Expr parsePrimary() throws IOException {
+        JmlToken token = current;
+        switch (token.kind) {
+            case INT_LITERAL:
+                advance();
+                try {
+                    return AstHelper.createIntegerLiteralExpr(Integer.parseInt(token.text));
+                } catch (NumberFormatException e) {
+                    throw new JmlParseException("integer literal out of range: " + token.text, token.line, token.column);
+                }
+            case DOUBLE_LITERAL:
+                advance();
+                return AstHelper.createDoubleLiteralExpr(Double.parseDouble(token.text));
+            case STRING_LITERAL:
+                advance();
+                return AstHelper.createStringLiteralExpr(token.text);
+            case PRIME: {
+                advance();
+                expect(JmlToken.Kind.LPAREN);
+                Expr inner = parseExpression();
+                expect(JmlToken.Kind.RPAREN);
+                return prime(inner);
+            }
+            case LPAREN: {
+                advance();
+                Expr inner = parseExpression();
+                expect(JmlToken.Kind.RPAREN);
+                return inner;
+            }
+            case LBRACE: {
+                advance();
+                List<Expr> elements = new ArrayList<>();
+                if (!current.is(JmlToken.Kind.RBRACE)) {
+                    do {
+                        elements.add(parseExpression());
+                    } while (accept(JmlToken.Kind.COMMA));
+                }
+                expect(JmlToken.Kind.RBRACE);
+                return AstHelper.createSetExpr(elements);
+            }
+            case IDENT:
+                return parseIdentifierExpression();
+            default:
+                throw error("expected an expression but found " + token);
+        }
+    }
+
+    private Expr parseIdentifierExpression() throws IOException {
+        JmlToken token = current;
+        advance();
+        switch (token.text) {
+            case "true":
+                return AstHelper.createBooleanLiteralExpr(true);
+            case "false":
+                return AstHelper.createBooleanLiteralExpr(false);
+            case "null":
+                return AstHelper.createNameExpr("null");
+            case "this":
+                return AstHelper.createThisExpr();
+            case "new": {
+                String typeName = parseType();
+                return AstHelper.createObjectCreationExpr(typeName, parseArguments());
+            }
+            case "\\result":
+                return AstHelper.createNameExpr("\\result");
+            case "\\old": {
+                // Kept as a call here; PostconditionVisitor strips it from ensures clauses
+                List<Expr> args = parseArguments();
+                if (args.size() != 1) {
+                    throw new JmlParseException("\\old takes exactly one argument", token.line, token.column);
+                }
+                return AstHelper.createMethodCallExpr(null, "\\old", args);
+            }
+            default:
+                break;
+        }
+        if (token.text.startsWith("\\")) {
+            throw new JmlParseException("unsupported JML construct " + token.text, token.line, token.column);
+        }
+        if (current.is(JmlToken.Kind.LPAREN)) {
+            return AstHelper.createMethodCallExpr(null, token.text, parseArguments());
+        }
+        return AstHelper.createNameExpr(token.text);
+    }
+
+    private List<Expr> parseArguments() throws IOException {
+        expect(JmlToken.Kind.LPAREN);
+        List<Expr> args = new ArrayList<>();
+        if (!current.is(JmlToken.Kind.RPAREN)) {
+            do {
+                args.add(parseExpression());
+            } while (accept(JmlToken.Kind.COMMA));
+        }
+        expect(JmlToken.Kind.RPAREN);
+        return args;
+    }
+
+    private static Expr prime(Expr expr) {
+        List<Expr> args = new ArrayList<>();
+        args.add(expr);
+        return AstHelper.createMethodCallExpr(null, "'", args);
+    }
+
+    // ===================================
+    // Error recovery
+    // ===================================
+
+    private void recordError(JmlParseException e) {
+        errorCount++;
+        if (errors.size() < MAX_RECORDED_ERRORS) {
+            errors.add(e);
+        }
+    }
+
+    /**
+     * Skip the rest of the broken spec: finish the statement the error happened in, then
+     * skip clause statements until the signature statement has been consumed.
+     */
+    private void recover() throws IOException {
+        boolean signatureSkipped = inSignature;
+        skipStatement();
+        while (!signatureSkipped && !current.is(JmlToken.Kind.EOF)) {
+            signatureSkipped = !skipStatement();
+        }
+        inSignature = false;
+    }
+
+    /**
+     * Skip tokens up to and including the next ';' at nesting depth 0, or through a method
+     * body. Returns true if the statement was a clause (contained a clause keyword).
+     */
+    private boolean skipStatement() throws IOException {
+        boolean clause = false;
+        int depth = 0;
+        while (!current.is(JmlToken.Kind.EOF)) {
+            JmlToken token = current;
+            if (depth == 0 && token.is(JmlToken.Kind.IDENT) && isClauseKeyword(token.text)) {
+                clause = true;
+            }
+            if (token.is(JmlToken.Kind.LPAREN) || token.is(JmlToken.Kind.LBRACKET)) {
+                depth++;
+            } else if ((token.is(JmlToken.Kind.RPAREN) || token.is(JmlToken.Kind.RBRACKET)) && depth > 0) {
+                depth--;
+            } else if (depth == 0 && token.is(JmlToken.Kind.SEMICOLON)) {
+                advanceSkippingErrors();
+                return clause;
+            } else if (depth == 0 && token.is(JmlToken.Kind.LBRACE) && !clause) {
+                skipBalancedSkippingErrors();
+                return false;
+            }
+            advanceSkippingErrors();
+        }
+        return clause;
+    }
+
+    private static boolean isClauseKeyword(String word) {
+        return "requires".equals(word) || "ensures".equals(word) || "pre".equals(word)
+            || "post".equals(word) || SKIPPED_CLAUSES.contains(word);
+    }
+
+    private void skipBalancedSkippingErrors() throws IOException {
+        int depth = 0;
+        while (!current.is(JmlToken.Kind.EOF)) {
+            if (current.is(JmlToken.Kind.LBRACE)) {
+                depth++;
+            } else if (current.is(JmlToken.Kind.RBRACE)) {
+                depth--;
+            }
+            advanceSkippingErrors();
+            if (depth == 0) {
+                return;
+            }
+        }
+    }
+
+    private void advanceSkippingErrors() throws IOException {
+        while (true) {
+            try {
+                advance();
+                return;
+            } catch (JmlParseException e) {
+                // Malformed characters inside a spec we are already discarding
+            }
+        }
+    }
+
+    // ===================================
+    // Token helpers
+    // ===================================
+
+    private JmlToken nextToken() throws IOException {
+        return lexer.nextToken();
+    }
+
+    private void advance() throws IOException {
+        if (lookahead != null) {
+            current = lookahead;
+            lookahead = null;
+        } else {
+            current = nextToken();
+        }
+    }
+
+    private JmlToken peek() throws IOException {
+        if (lookahead == null) {
+            lookahead = nextToken();
+        }
+        return lookahead;
+    }
+
+    private boolean accept(JmlToken.Kind kind) throws IOException {
+        if (current.is(kind)) {
+            advance();
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(JmlToken.Kind kind) throws IOException {
+        if (!current.is(kind)) {
+            throw error("expected " + describe(kind) + " but found " + current);
+        }
+        advance();
+    }
+
+    private String expectIdentifier() throws IOException {
+        if (!current.is(JmlToken.Kind.IDENT)) {
+            throw error("expected an identifier but found " + current);
+        }
+        String text = current.text;
+        advance();
+        return text;
+    }
+
+    /**
+     * Skip a balanced open ... close group, starting at the opening token.
+     */
+    private void skipBalanced(JmlToken.Kind open, JmlToken.Kind close) throws IOException {
+        int depth = 0;
+        do {
+            if (current.is(JmlToken.Kind.EOF)) {
+                throw error("unbalanced " + describe(open));
+            }
+            if (current.is(open)) {
+                depth++;
+            } else if (current.is(close)) {
+                depth--;
+            }
+            advance();
+        } while (depth > 0);
+    }
+
+    private JmlParseException error(String message) {
+        return new JmlParseException(message, current.line, current.column);
+    }
+
+    private static String describe(JmlToken.Kind kind) {
+        switch (kind) {
+            case LPAREN: return "'('";
+            case RPAREN: return "')'";
+            case LBRACE: return "'{'";
+            case RBRACE: return "'}'";
+            case LBRACKET: return "'['";
+            case RBRACKET: return "']'";
+            case COMMA: return "','";
+            case SEMICOLON: return "';'";
+            case DOT: return "'.'";
+            case AT: return "'@'";
+            case LT: return "'<'";
+            case GT: return "'>'";
+            default: return kind.name();
+        }
+    }
+
+    // ===================================
+    // Memory-mapped input
+    // ===================================
+
+    /**
+     * Reader over a memory-mapped file. The file is mapped in windows and decoded
+     * incrementally, so arbitrarily large files can be parsed without loading them.
+     */
+    private static final class MappedFileReader extends Reader {
+        private final FileChannel channel;
+        private final long size;
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private long windowStart;
+        private MappedByteBuffer window;
+        private boolean finished;
+
+        MappedFileReader(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.size = channel.size();
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+            while (out.position() == off) {
+                if (finished) {
+                    return -1;
+                }
+                if (window == null) {
+                    long length = Math.min(MAPPED_WINDOW_SIZE, size - windowStart);
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+                }
+                boolean lastWindow = windowStart + window.limit() >= size;
+                CoderResult result = decoder.decode(window, out, lastWindow);
+                if (result.isError()) {
+                    result.throwException();
+                }
+                if (result.isUnderflow()) {
+                    if (lastWindow) {
+                        decoder.flush(out);
+                        finished = true;
+                    } else {
+                        // Remap from the first undecoded byte (may split a multi-byte char)
+                        windowStart += window.position();
+                        window = null;
+                    }
+                }
+            }
+            return out.position() - off;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
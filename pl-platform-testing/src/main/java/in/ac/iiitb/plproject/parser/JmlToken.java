@@ -0,0 +1,49 @@
+package in.ac.iiitb.plproject.parser;
+
+/**
+ * A single token produced by JmlLexer.
+ * Tokens carry their source position so parse errors can point at the spec that failed.
+ */
+final class JmlToken {
+
+    enum Kind {
+        IDENT,          // foo, \old, \result (JML backslash keywords are identifiers)
+        INT_LITERAL,
+        DOUBLE_LITERAL,
+        STRING_LITERAL, // text is the raw contents between the quotes
+        LPAREN, RPAREN, LBRACE, RBRACE, LBRACKET, RBRACKET,
+        COMMA, SEMICOLON, DOT, AT, PRIME, QUESTION, COLON,
+        PLUS, MINUS, STAR, SLASH, PERCENT,
+        BANG, ASSIGN,
+        EQ, NE, LT, LE, GT, GE,
+        AND, OR,
+        IMPLIES,        // ==>
+        EQUIVALENT,     // <==>
+        EOF
+    }
+
+    final Kind kind;
+    final String text;
+    final int line;
+    final int column;
+
+    JmlToken(Kind kind, String text, int line, int column) {
+        this.kind = kind;
+        this.text = text;
+        this.line = line;
+        this.column = column;
+    }
+
+    boolean is(Kind kind) {
+        return this.kind == kind;
+    }
+
+    boolean isIdent(String identifier) {
+        return kind == Kind.IDENT && text.equals(identifier);
+    }
+
+    @Override
+    public String toString() {
+        return kind == Kind.EOF ? "end of input" : "'" + text + "'";
+    }
+}
@@ -1 +1,43 @@
-// Placeholder for PostconditionVisitor.java
+package in.ac.iiitb.plproject.parser;
+
+import in.ac.iiitb.plproject.ast.AstHelper;
+import in.ac.iiitb.plproject.ast.Expr;
+import in.ac.iiitb.plproject.ast.ExprTransformer;
+import in.ac.iiitb.plproject.ast.MethodCallExpr;
+import in.ac.iiitb.plproject.ast.NameExpr;
+
+/**
+ * Rewrites JML postcondition notation into the form used by the rest of the pipeline.
+ *
+ * In our specs unprimed variables already denote the pre-state and '(x) denotes the
+ * post-state, so:
+ * - \old(e)  -> e
+ * - \result  -> result
+ * Everything else (including the prime operator) is left untouched.
+ */
+public class PostconditionVisitor extends ExprTransformer {
+    public static final String RESULT_NAME = "result";
+
+    /**
+     * Normalize one ensures clause. Returns the same instance if nothing needed rewriting.
+     */
+    public Expr normalize(Expr postcondition) {
+        return transform(postcondition);
+    }
+
+    @Override
+    public Expr visit(MethodCallExpr expr) {
+        if (expr.scope == null && "\\old".equals(expr.name.identifier) && expr.args.size() == 1) {
+            return transform(expr.args.get(0));
+        }
+        return super.visit(expr);
+    }
+
+    @Override
+    public Expr visit(NameExpr expr) {
+        if ("\\result".equals(AstHelper.getNameFromExpr(expr))) {
+            return AstHelper.createNameExpr(RESULT_NAME);
+        }
+        return expr;
+    }
+}
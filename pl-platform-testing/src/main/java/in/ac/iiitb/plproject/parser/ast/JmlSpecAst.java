@@ -1,33 +1,118 @@
 package in.ac.iiitb.plproject.parser.ast;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Collection of all parsed JML function specs.
+ *
+ * The name -> spec index is built once at construction and never changes afterwards (first
+ * spec with a given name wins, matching the old linear scan). Overloads (same name, different
+ * number of parameters) are allowed; names declared more than once with the same number of
+ * parameters are reported via getDuplicateSpecNames().
+ */
 public class JmlSpecAst {
-    private List<JmlFunctionSpec> specs;
+    private final List<JmlFunctionSpec> specs;
+    private final Map<String, JmlFunctionSpec> specsByName;
+    private final Set<String> duplicateSpecNames;
 
     public JmlSpecAst(List<JmlFunctionSpec> specs) {
-        this.specs = specs;
+        this.specs = specs != null
+            ? Collections.unmodifiableList(new ArrayList<>(specs))
+            : Collections.<JmlFunctionSpec>emptyList();
+
+        Map<String, JmlFunctionSpec> byName = new HashMap<>(capacityFor(this.specs.size()));
+        Set<String> signatures = new HashSet<>(capacityFor(this.specs.size()));
+        Set<String> duplicates = new LinkedHashSet<>();
+        for (JmlFunctionSpec spec : this.specs) {
+            String name = spec.getName();
+            byName.putIfAbsent(name, spec);
+            if (!signatures.add(name + "/" + arityOf(spec))) {
+                duplicates.add(name);
+            }
+        }
+        this.specsByName = Collections.unmodifiableMap(byName);
+        this.duplicateSpecNames = Collections.unmodifiableSet(duplicates);
     }
 
+    /**
+     * Find the spec for a function name (first one if the name is duplicated).
+     */
     public JmlFunctionSpec findSpecFor(String functionName) {
-        // Placeholder implementation
-        for (JmlFunctionSpec spec : specs) {
-            if (spec.getName().equals(functionName)) {
-                return spec;
+        return specsByName.get(functionName);
+    }
+
+    /**
+     * Bulk lookup: resolves each distinct name once, preserving first-occurrence order.
+     * Names without a spec are left out of the result.
+     */
+    public Map<String, JmlFunctionSpec> findSpecsFor(Collection<String> functionNames) {
+        Map<String, JmlFunctionSpec> result = new LinkedHashMap<>();
+        for (String functionName : functionNames) {
+            if (!result.containsKey(functionName)) {
+                JmlFunctionSpec spec = specsByName.get(functionName);
+                if (spec != null) {
+                    result.put(functionName, spec);
+                }
             }
         }
-        return null;
+        return result;
+    }
+
+    public boolean hasSpecFor(String functionName) {
+        return specsByName.containsKey(functionName);
+    }
+
+    /**
+     * All specs in declaration order (read-only).
+     */
+    public List<JmlFunctionSpec> getSpecs() {
+        return specs;
+    }
+
+    public int size() {
+        return specs.size();
+    }
+
+    /**
+     * Spec names declared more than once with the same number of parameters, in order of first
+     * duplicate. Overloads with different numbers of parameters are not duplicates.
+     */
+    public Set<String> getDuplicateSpecNames() {
+        return duplicateSpecNames;
+    }
+
+    public boolean hasDuplicateSpecNames() {
+        return !duplicateSpecNames.isEmpty();
+    }
+
+    private static int arityOf(JmlFunctionSpec spec) {
+        FunctionSignature signature = spec.getSignature();
+        if (signature == null || signature.getParameters() == null) {
+            return 0;
+        }
+        return signature.getParameters().size();
+    }
+
+    private static int capacityFor(int size) {
+        return Math.max(16, (int) (size / 0.75f) + 1);
     }
-    
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append("JmlSpecAst[");
-        if (specs != null) {
-            for (int i = 0; i < specs.size(); i++) {
-                if (i > 0) sb.append(", ");
-                sb.append(specs.get(i));
-            }
+        for (int i = 0; i < specs.size(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(specs.get(i));
         }
         sb.append("]");
         return sb.toString();
@@ -1,5 +1,7 @@
 package in.ac.iiitb.plproject.parser.ast;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -7,6 +9,9 @@ import java.util.List;
  * Example: ["PUSH_OK", "POP_OK", "PUSH_OK"]
  */
 public class TestStringAst {
+    // Longest repeated subsequence looked for by compress()
+    public static final int DEFAULT_MAX_PERIOD = 16;
+
     private List<String> calls;
 
     public TestStringAst(List<String> calls) {
@@ -16,5 +21,92 @@ public class TestStringAst {
     public List<String> getCalls() {
         return calls;
     }
-}
 
+    /**
+     * A run of the test string: calls repeated a number of times (1 for calls that do not repeat).
+     */
+    public static final class Segment {
+        private final List<String> calls;
+        private final int repeats;
+
+        public Segment(List<String> calls, int repeats) {
+            this.calls = Collections.unmodifiableList(calls);
+            this.repeats = repeats;
+        }
+
+        public List<String> getCalls() {
+            return calls;
+        }
+
+        public int getRepeats() {
+            return repeats;
+        }
+
+        public boolean isLoop() {
+            return repeats > 1;
+        }
+
+        @Override
+        public String toString() {
+            return repeats > 1 ? repeats + " x " + calls : calls.toString();
+        }
+    }
+
+    public List<Segment> compress() {
+        return compress(DEFAULT_MAX_PERIOD);
+    }
+
+    /**
+     * Run-length encoding of the test string over repeated subsequences:
+     * [a, a, a, b, c, b, c, d] -> [3 x [a], 2 x [b, c], [d]].
+     *
+     * Greedy from left to right: at each position the repetition (period up to maxPeriod)
+     * covering the most calls is taken, preferring the shorter period on ties. A repetition is
+     * only worth a loop if it covers at least 3 calls. Non-repeating calls are merged into one
+     * segment with repeats 1. Expanding the segments gives back the original sequence.
+     */
+    public List<Segment> compress(int maxPeriod) {
+        List<Segment> segments = new ArrayList<>();
+        List<String> literal = new ArrayList<>();
+        int n = calls.size();
+        int i = 0;
+        while (i < n) {
+            int bestPeriod = 0;
+            int bestRepeats = 0;
+            for (int period = 1; period <= maxPeriod && i + 2 * period <= n; period++) {
+                int repeats = 1;
+                while (i + (repeats + 1) * period <= n && sameBlock(i, i + repeats * period, period)) {
+                    repeats++;
+                }
+                if (repeats > 1 && period * repeats >= 3 && period * repeats > bestPeriod * bestRepeats) {
+                    bestPeriod = period;
+                    bestRepeats = repeats;
+                }
+            }
+            if (bestPeriod == 0) {
+                literal.add(calls.get(i));
+                i++;
+                continue;
+            }
+            if (!literal.isEmpty()) {
+                segments.add(new Segment(literal, 1));
+                literal = new ArrayList<>();
+            }
+            segments.add(new Segment(new ArrayList<>(calls.subList(i, i + bestPeriod)), bestRepeats));
+            i += bestPeriod * bestRepeats;
+        }
+        if (!literal.isEmpty()) {
+            segments.add(new Segment(literal, 1));
+        }
+        return segments;
+    }
+
+    private boolean sameBlock(int first, int second, int length) {
+        for (int k = 0; k < length; k++) {
+            if (!calls.get(first + k).equals(calls.get(second + k))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,124 @@
+package in.ac.iiitb.plproject.parser.ast;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prefix trie over many test strings: test strings sharing a prefix share its nodes.
+ * Example: [a, b, c] and [a, b, d] -> a -> b -> {c, d}
+ *
+ * Used by NewGenATC.generateAtcFile(JmlSpecAst, List) to run a shared prefix once and branch
+ * where the test strings diverge.
+ */
+public class TestStringTrie {
+    private final Node root = new Node(null);
+    private final Set<String> distinctCalls = new LinkedHashSet<>();
+    private int testStringCount;
+    private int nodeCount;
+    private long totalCalls;
+
+    public static TestStringTrie of(Collection<TestStringAst> testStrings) {
+        TestStringTrie trie = new TestStringTrie();
+        for (TestStringAst testString : testStrings) {
+            trie.add(testString);
+        }
+        return trie;
+    }
+
+    public void add(TestStringAst testString) {
+        Node node = root;
+        for (String call : testString.getCalls()) {
+            Node child = node.children.get(call);
+            if (child == null) {
+                child = new Node(call);
+                node.children.put(call, child);
+                nodeCount++;
+            }
+            node = child;
+            distinctCalls.add(call);
+        }
+        node.endCount++;
+        testStringCount++;
+        totalCalls += testString.getCalls().size();
+    }
+
+    /**
+     * The root has no call; its children are the first calls of the test strings.
+     */
+    public Node getRoot() {
+        return root;
+    }
+
+    /**
+     * Every call name used by some test string, in first-occurrence order.
+     */
+    public Set<String> getDistinctCalls() {
+        return Collections.unmodifiableSet(distinctCalls);
+    }
+
+    public int getTestStringCount() {
+        return testStringCount;
+    }
+
+    /**
+     * Calls left after sharing prefixes (one per node).
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Calls of all test strings, as if each were run on its own.
+     */
+    public long getTotalCalls() {
+        return totalCalls;
+    }
+
+    @Override
+    public String toString() {
+        return "TestStringTrie(" + testStringCount + " test strings, " + totalCalls + " calls, " + nodeCount + " nodes)";
+    }
+
+    public static final class Node {
+        private final String call;
+        // Insertion order, so generated code follows the order the test strings were added in
+        private final Map<String, Node> children = new LinkedHashMap<>();
+        private int endCount;
+
+        private Node(String call) {
+            this.call = call;
+        }
+
+        public String getCall() {
+            return call;
+        }
+
+        public Collection<Node> getChildren() {
+            return Collections.unmodifiableCollection(children.values());
+        }
+
+        public int getChildCount() {
+            return children.size();
+        }
+
+        /**
+         * Number of test strings ending at this node (0 for nodes only on the way to longer ones).
+         */
+        public int getEndCount() {
+            return endCount;
+        }
+
+        public boolean isEnd() {
+            return endCount > 0;
+        }
+
+        @Override
+        public String toString() {
+            return call + (isEnd() ? "(end)" : "") + " -> " + children.keySet();
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package in.ac.iiitb.plproject.symex;
+
+import in.ac.iiitb.plproject.parser.ast.JmlFunctionSpec;
+import in.ac.iiitb.plproject.parser.ast.JmlSpecAst;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles generated ATC sources in memory (javax.tools), so a broken generation is found when
+ * it is generated instead of when the outputs are compiled for SPF.
+ *
+ * All sources are compiled in one compiler task; nothing is read from or written to disk except
+ * the JDK and the class path. Diagnostics are mapped back to the generated method and, for
+ * helpers ("<spec>_helper"), to the JmlFunctionSpec they were generated from.
+ *
+ * If gov.nasa.jpf.symbc.Debug is not on the class path, a compile-only stub with SPF's
+ * signatures is added to the task; its bytecode is not part of the result.
+ *
+ * Needs a JDK (ToolProvider.getSystemJavaCompiler()); see isAvailable(). Thread-safe: each
+ * compile() uses its own file manager. A compiler task has a fixed setup cost of tens of
+ * milliseconds even on a warm JVM, so compile a whole suite per call rather than class by class.
+ */
+public final class AtcCompiler {
+    private static final String DEBUG_CLASS_NAME = "gov.nasa.jpf.symbc.Debug";
+    private static final String DEBUG_STUB_SOURCE =
+        "package gov.nasa.jpf.symbc;\n\n"
+        + "public class Debug {\n"
+        + "    public static int makeSymbolicInteger(String name) { return 0; }\n"
+        + "    public static long makeSymbolicLong(String name) { return 0; }\n"
+        + "    public static short makeSymbolicShort(String name) { return 0; }\n"
+        + "    public static byte makeSymbolicByte(String name) { return 0; }\n"
+        + "    public static char makeSymbolicChar(String name) { return 0; }\n"
+        + "    public static double makeSymbolicDouble(String name) { return 0; }\n"
+        + "    public static boolean makeSymbolicBoolean(String name) { return false; }\n"
+        + "    public static String makeSymbolicString(String name) { return null; }\n"
+        + "    public static Object makeSymbolicRef(String name, Object v) { return v; }\n"
+        + "    public static void assume(boolean c) { }\n"
+        + "    public static void printPC(String msg) { }\n"
+        + "}\n";
+    // A member declaration of the generated code: four spaces of indent, "... name(...) {"
+    private static final Pattern METHOD_HEADER = Pattern.compile("^ {4}\\S.*?(\\w+)\\s*\\([^)]*\\)\\s*\\{\\s*$");
+    private static final String HELPER_SUFFIX = "_helper";
+
+    private final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    private final List<String> options = compilerOptions(compiler);
+
+    /**
+     * Options for Java 8 bytecode, which JPF/SPF loads from the class files SpfWrapper writes:
+     * --release 8 where the compiler supports it (JDK 9+), else -source/-target 1.8.
+     */
+    private static List<String> compilerOptions(JavaCompiler compiler) {
+        List<String> options = new ArrayList<>(Arrays.asList("-proc:none", "-g", "-Xlint:none"));
+        if (compiler != null && compiler.isSupportedOption("--release") >= 0) {
+            options.addAll(Arrays.asList("--release", "8"));
+        } else {
+            options.addAll(Arrays.asList("-source", "1.8", "-target", "1.8"));
+        }
+        return options;
+    }
+
+    /**
+     * False when running on a JRE without the compiler; compile() then fails.
+     */
+    public boolean isAvailable() {
+        return compiler != null;
+    }
+
+    /**
+     * Compile the sources (fully qualified class name -> source) in one task.
+     *
+     * @param specAst Specs the sources were generated from, for mapping diagnostics (may be null)
+     */
+    public Result compile(Map<String, ? extends CharSequence> sources, JmlSpecAst specAst) {
+        if (compiler == null) {
+            throw new IllegalStateException("No system Java compiler; run on a JDK to compile generated ATCs");
+        }
+        long start = System.nanoTime();
+        List<JavaFileObject> units = new ArrayList<>();
+        for (Map.Entry<String, ? extends CharSequence> entry : sources.entrySet()) {
+            units.add(new SourceFile(entry.getKey(), entry.getValue().toString()));
+        }
+        boolean debugStub = !isOnClassPath(DEBUG_CLASS_NAME);
+        if (debugStub) {
+            units.add(new SourceFile(DEBUG_CLASS_NAME, DEBUG_STUB_SOURCE));
+        }
+
+        DiagnosticCollector<JavaFileObject> collector = new DiagnosticCollector<>();
+        Map<String, byte[]> classBytes = new ConcurrentHashMap<>();
+        boolean success;
+        try (StandardJavaFileManager standard = compiler.getStandardFileManager(collector, null, StandardCharsets.UTF_8);
+             MemoryFileManager fileManager = new MemoryFileManager(standard, classBytes)) {
+            success = compiler.getTask(null, fileManager, collector, options, null, units).call();
+        } catch (IOException e) {
+            throw new IllegalStateException("Error closing in-memory file manager: " + e.getMessage(), e);
+        }
+        if (debugStub) {
+            classBytes.remove(DEBUG_CLASS_NAME);
+        }
+
+        Map<String, JmlFunctionSpec> specsByName = new HashMap<>();
+        if (specAst != null) {
+            for (JmlFunctionSpec spec : specAst.getSpecs()) {
+                specsByName.put(spec.getName(), spec);
+            }
+        }
+        Map<String, TreeMap<Long, String>> methodLines = new HashMap<>();
+        List<CompileDiagnostic> diagnostics = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : collector.getDiagnostics()) {
+            String className = null;
+            String methodName = null;
+            if (diagnostic.getSource() instanceof SourceFile) {
+                SourceFile source = (SourceFile) diagnostic.getSource();
+                className = source.className;
+                TreeMap<Long, String> lines = methodLines.computeIfAbsent(className, name -> methodLines(source.content));
+                Map.Entry<Long, String> method = lines.floorEntry(diagnostic.getLineNumber());
+                methodName = method != null ? method.getValue() : null;
+            }
+            JmlFunctionSpec spec = methodName != null && methodName.endsWith(HELPER_SUFFIX)
+                ? specsByName.get(methodName.substring(0, methodName.length() - HELPER_SUFFIX.length()))
+                : null;
+            diagnostics.add(new CompileDiagnostic(diagnostic.getKind(), className, methodName, spec,
+                diagnostic.getLineNumber(), diagnostic.getMessage(null)));
+        }
+        return new Result(success, new TreeMap<>(classBytes), diagnostics, System.nanoTime() - start);
+    }
+
+    private static boolean isOnClassPath(String className) {
+        try {
+            Class.forName(className, false, AtcCompiler.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Line number of each method declaration in the source -> method name.
+     */
+    private static TreeMap<Long, String> methodLines(String source) {
+        TreeMap<Long, String> lines = new TreeMap<>();
+        long lineNumber = 0;
+        for (String line : source.split("\n", -1)) {
+            lineNumber++;
+            Matcher matcher = METHOD_HEADER.matcher(line);
+            if (matcher.matches()) {
+                lines.put(lineNumber, matcher.group(1));
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Outcome of one compile(): the bytecode of every compiled class and the diagnostics.
+     */
+    public static final class Result {
+        private final boolean success;
+        private final Map<String, byte[]> classBytes;
+        private final List<CompileDiagnostic> diagnostics;
+        private final long elapsedNanos;
+
+        Result(boolean success, Map<String, byte[]> classBytes, List<CompileDiagnostic> diagnostics, long elapsedNanos) {
+            this.success = success;
+            this.classBytes = Collections.unmodifiableMap(classBytes);
+            this.diagnostics = Collections.unmodifiableList(diagnostics);
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * True if there were no errors.
+         */
+        public boolean isSuccess() {
+            return success;
+        }
+
+        /**
+         * Fully qualified class name (including nested classes) -> class file bytes.
+         */
+        public Map<String, byte[]> getClassBytes() {
+            return classBytes;
+        }
+
+        public List<CompileDiagnostic> getDiagnostics() {
+            return diagnostics;
+        }
+
+        public List<CompileDiagnostic> getErrors() {
+            List<CompileDiagnostic> errors = new ArrayList<>();
+            for (CompileDiagnostic diagnostic : diagnostics) {
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                    errors.add(diagnostic);
+                }
+            }
+            return errors;
+        }
+
+        /**
+         * Errors per spec name; errors outside helpers are under null.
+         */
+        public Map<String, List<CompileDiagnostic>> getErrorsBySpec() {
+            Map<String, List<CompileDiagnostic>> bySpec = new LinkedHashMap<>();
+            for (CompileDiagnostic error : getErrors()) {
+                String name = error.getSpec() != null ? error.getSpec().getName() : null;
+                bySpec.computeIfAbsent(name, key -> new ArrayList<>()).add(error);
+            }
+            return bySpec;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d class(es), %d error(s), %d diagnostic(s) in %d ms",
+                success ? "compiled" : "failed", classBytes.size(), getErrors().size(), diagnostics.size(),
+                elapsedNanos / 1_000_000);
+        }
+    }
+
+    /**
+     * A compiler diagnostic with the generated method and spec it belongs to.
+     */
+    public static final class CompileDiagnostic {
+        private final Diagnostic.Kind kind;
+        private final String className;
+        private final String methodName;
+        private final JmlFunctionSpec spec;
+        private final long line;
+        private final String message;
+
+        CompileDiagnostic(Diagnostic.Kind kind, String className, String methodName, JmlFunctionSpec spec,
+                          long line, String message) {
+            this.kind = kind;
+            this.className = className;
+            this.methodName = methodName;
+            this.spec = spec;
+            this.line = line;
+            this.message = message;
+        }
+
+        public Diagnostic.Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Fully qualified name of the class with the diagnostic (null if not in a source).
+         */
+        public String getClassName() {
+            return className;
+        }
+
+        /**
+         * Generated method containing the diagnostic (null if outside any method).
+         */
+        public String getMethodName() {
+            return methodName;
+        }
+
+        /**
+         * Spec the method was generated from (null for main, branch methods and unknown specs).
+         */
+        public JmlFunctionSpec getSpec() {
+            return spec;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            String where = className == null ? "" : className.substring(className.lastIndexOf('.') + 1)
+                + (methodName != null ? "." + methodName : "") + ":" + line;
+            return kind + " " + where + (spec != null ? " (spec " + spec.getName() + ")" : "") + ": "
+                + message.replaceAll("\\s*\n\\s*", "; ");
+        }
+    }
+
+    private static final class SourceFile extends SimpleJavaFileObject {
+        final String className;
+        final String content;
+
+        SourceFile(String className, String content) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.className = className;
+            this.content = content;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content;
+        }
+    }
+
+    private static final class ClassFile extends SimpleJavaFileObject {
+        private final String className;
+        private final Map<String, byte[]> classBytes;
+
+        ClassFile(String className, Map<String, byte[]> classBytes) {
+            super(URI.create("mem:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+            this.className = className;
+            this.classBytes = classBytes;
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return new ByteArrayOutputStream() {
+                @Override
+                public void close() {
+                    classBytes.put(className, toByteArray());
+                }
+            };
+        }
+    }
+
+    /**
+     * Keeps class output in memory; everything else goes to the standard file manager.
+     */
+    private static final class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        private final Map<String, byte[]> classBytes;
+
+        MemoryFileManager(StandardJavaFileManager fileManager, Map<String, byte[]> classBytes) {
+            super(fileManager);
+            this.classBytes = classBytes;
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                                                   FileObject sibling) throws IOException {
+            if (location == StandardLocation.CLASS_OUTPUT && kind == JavaFileObject.Kind.CLASS) {
+                return new ClassFile(className, classBytes);
+            }
+            return super.getJavaFileForOutput(location, className, kind, sibling);
+        }
+    }
+}
@@ -4,7 +4,6 @@ import in.ac.iiitb.plproject.atc.ir.*;
 import in.ac.iiitb.plproject.ast.AstHelper;
 import in.ac.iiitb.plproject.ast.Expr;
 import in.ac.iiitb.plproject.ast.MethodCallExpr;
-import in.ac.iiitb.plproject.symex.TypeMapper;
 import java.util.List;
 import java.util.ArrayList;
 
@@ -52,8 +51,11 @@ public class AtcIrToSymbolicIrTransformer {
         for (AtcStatement stmt : method.getStatements()) {
             transformedStatements.add(transformStatement(stmt));
         }
-        return new AtcTestMethod(method.getMethodName(), transformedStatements, 
-                                method.isStatic(), method.isMain());
+        AtcTestMethod transformed = new AtcTestMethod(method.getMethodName(), transformedStatements, 
+                                method.isStatic(), method.isMain(), method.getSymbolTable());
+        transformed.isTestAnnotated = method.isTestAnnotated();
+        transformed.sourceHash = method.getSourceHash();
+        return transformed;
     }
     
     private AtcStatement transformStatement(AtcStatement stmt) {
@@ -63,54 +65,77 @@ public class AtcIrToSymbolicIrTransformer {
             return transformAssumeStmt((AtcAssumeStmt) stmt);
         } else if (stmt instanceof AtcIfStmt) {
             return transformIfStmt((AtcIfStmt) stmt);
+        } else if (stmt instanceof AtcLoopStmt) {
+            return transformLoopStmt((AtcLoopStmt) stmt);
+        } else if (stmt instanceof AtcChoiceStmt) {
+            return transformChoiceStmt((AtcChoiceStmt) stmt);
         }
         return stmt;
     }
     
+    private AtcStatement transformLoopStmt(AtcLoopStmt stmt) {
+        List<AtcStatement> transformedBody = new ArrayList<>();
+        for (AtcStatement bodyStmt : stmt.getBodyStatements()) {
+            transformedBody.add(transformStatement(bodyStmt));
+        }
+        return new AtcLoopStmt(stmt.getIndexVarName(), stmt.getIterations(), transformedBody);
+    }
+    
+    private AtcStatement transformChoiceStmt(AtcChoiceStmt stmt) {
+        List<List<AtcStatement>> transformedBranches = new ArrayList<>();
+        for (List<AtcStatement> branch : stmt.getBranches()) {
+            List<AtcStatement> transformedBranch = new ArrayList<>();
+            for (AtcStatement branchStmt : branch) {
+                transformedBranch.add(transformStatement(branchStmt));
+            }
+            transformedBranches.add(transformedBranch);
+        }
+        return new AtcChoiceStmt(stmt.getChoiceVarName(), transformedBranches);
+    }
+    
     private AtcStatement transformSymbolicVarDecl(AtcSymbolicVarDecl stmt) {
-        String typeName = stmt.getTypeName();
+        TypeDescriptor type = stmt.getType();
         String varName = stmt.getVarName();
         
-        if (TypeMapper.isCollectionType(typeName)) {
-            String genericType = TypeMapper.getGenericType(typeName);
-            Expr debugCall = createDebugMakeSymbolicRefCall(typeName, varName);
-            return new AtcVarDecl(genericType, varName, debugCall);
+        if (type.isCollection()) {
+            Expr debugCall = createDebugMakeSymbolicRefCall(type, varName);
+            return new AtcVarDecl(type.getGenericName(), varName, debugCall);
         }
         
-        Expr debugCall = createDebugMakeSymbolicCall(typeName, varName);
-        return new AtcVarDecl(typeName, varName, debugCall);
+        Expr debugCall = createDebugMakeSymbolicCall(type, varName);
+        return new AtcVarDecl(type.getName(), varName, debugCall);
     }
     
-    private Expr createDebugMakeSymbolicCall(String typeName, String varName) {
+    private Expr createDebugMakeSymbolicCall(TypeDescriptor type, String varName) {
         List<Expr> args = new ArrayList<>();
         args.add(AstHelper.createStringLiteralExpr(varName));
         
-        if (typeName.equalsIgnoreCase("int") || typeName.equals("Integer")) {
-            return AstHelper.createMethodCallExpr(
-                AstHelper.createNameExpr("Debug"), "makeSymbolicInteger", args);
-        } else if (typeName.equalsIgnoreCase("double") || typeName.equals("Double")) {
-            return AstHelper.createMethodCallExpr(
-                AstHelper.createNameExpr("Debug"), "makeSymbolicDouble", args);
-        } else if (typeName.equalsIgnoreCase("String")) {
-            return AstHelper.createMethodCallExpr(
-                AstHelper.createNameExpr("Debug"), "makeSymbolicString", args);
-        } else if (typeName.equalsIgnoreCase("boolean") || typeName.equals("Boolean")) {
-            Expr intCall = AstHelper.createMethodCallExpr(
-                AstHelper.createNameExpr("Debug"), "makeSymbolicInteger", args);
-            Expr zero = AstHelper.createIntegerLiteralExpr(0);
-            return AstHelper.createBinaryExpr(intCall, zero, "NOT_EQUALS");
-        } else {
-            return createDebugMakeSymbolicRefCall(typeName, varName);
+        switch (type.getSymbolicKind()) {
+            case INT:
+                return AstHelper.createMethodCallExpr(
+                    AstHelper.createNameExpr("Debug"), "makeSymbolicInteger", args);
+            case DOUBLE:
+                return AstHelper.createMethodCallExpr(
+                    AstHelper.createNameExpr("Debug"), "makeSymbolicDouble", args);
+            case STRING:
+                return AstHelper.createMethodCallExpr(
+                    AstHelper.createNameExpr("Debug"), "makeSymbolicString", args);
+            case BOOLEAN:
+                Expr intCall = AstHelper.createMethodCallExpr(
+                    AstHelper.createNameExpr("Debug"), "makeSymbolicInteger", args);
+                Expr zero = AstHelper.createIntegerLiteralExpr(0);
+                return AstHelper.createBinaryExpr(intCall, zero, "NOT_EQUALS");
+            default:
+                return createDebugMakeSymbolicRefCall(type, varName);
         }
     }
     
-    private Expr createDebugMakeSymbolicRefCall(String typeName, String varName) {
+    private Expr createDebugMakeSymbolicRefCall(TypeDescriptor type, String varName) {
         List<Expr> args = new ArrayList<>();
         args.add(AstHelper.createStringLiteralExpr(varName));
         
-        String baseType = typeName.split("[<>]")[0].trim();
-        if (TypeMapper.isCollectionType(baseType)) {
-            Expr defaultValue = createCollectionInitExpr(baseType);
+        if (type.isCollection()) {
+            Expr defaultValue = createCollectionInitExpr(type.getBaseName());
             args.add(defaultValue);
         } else {
             args.add(AstHelper.createNameExpr("null"));
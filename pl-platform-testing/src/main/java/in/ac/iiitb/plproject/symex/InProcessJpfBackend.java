@@ -0,0 +1,321 @@
+package in.ac.iiitb.plproject.symex;
+
+import in.ac.iiitb.plproject.atc.ConcreteInput;
+import in.ac.iiitb.plproject.atc.ir.AtcClass;
+import in.ac.iiitb.plproject.parser.ast.JmlSpecAst;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SymbolicBackend that runs JPF inside this JVM instead of forking one JVM per .jpf file.
+ *
+ * JPF (jpf.jar, jpf-symbc.jar, ...) is loaded from a configured class path into its own class
+ * loader, isolated from this application's classes, and reused for every job. Each .jpf file is
+ * run through JPF's API (JPF.createConfig(args), new JPF(config).run(), getSearchErrors()),
+ * with the job's outputDir/bin as classpath. JPF keeps static state, so runs are sequential.
+ * JPF reports on System.out; during a run that is also fed to an SpfOutputParser (output of
+ * other threads printed meanwhile included).
+ *
+ * Files are prepared (saved, compiled, written to outputs/bin) by an SpfWrapper, which also
+ * provides the result cache (SpfResultCache) of unchanged helpers.
+ */
+public final class InProcessJpfBackend implements SymbolicBackend {
+    private final SpfWrapper preparer;
+    private final List<Path> jpfClasspath;
+    private final int timeLimitSeconds;
+    private JpfApi jpfApi; // Loaded on first use, reused across jobs
+    private volatile Object currentJpf;
+    private volatile boolean cancelled;
+
+    /**
+     * @param preparer     Prepares the files of each job (and collects its inputs)
+     * @param jpfClasspath Jars/directories of jpf-core and jpf-symbc
+     */
+    public InProcessJpfBackend(SpfWrapper preparer, List<Path> jpfClasspath, int timeLimitSeconds) {
+        this.preparer = preparer;
+        this.jpfClasspath = new ArrayList<>(jpfClasspath);
+        this.timeLimitSeconds = timeLimitSeconds;
+    }
+
+    /**
+     * Backend configured by system properties, or null if jpf.classpath (jars/directories,
+     * separated by the path separator) is not set. jpf.time_limit as for JpfProcessPool: it caps
+     * the .jpf files' own search.time_limit.
+     */
+    public static InProcessJpfBackend fromSystemProperties(SpfWrapper preparer) {
+        String classpath = System.getProperty("jpf.classpath");
+        if (classpath == null || classpath.trim().isEmpty()) {
+            return null;
+        }
+        List<Path> entries = new ArrayList<>();
+        for (String entry : classpath.trim().split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                entries.add(Paths.get(entry));
+            }
+        }
+        return new InProcessJpfBackend(preparer, entries, Integer.getInteger("jpf.time_limit", 120));
+    }
+
+    /**
+     * The settings results depend on, for result cache keys: the JPF class path and the time
+     * limit (see JpfProcessPool.getRunSettings()).
+     */
+    public String getRunSettings() {
+        StringBuilder settings = new StringBuilder("in-process");
+        for (Path entry : jpfClasspath) {
+            settings.append(' ').append(entry.toAbsolutePath().normalize());
+        }
+        return settings.append(" +search.time_limit=").append(timeLimitSeconds).toString();
+    }
+
+    @Override
+    public SymbolicJob prepare(AtcClass atcClass, JmlSpecAst specAst) {
+        return preparer.prepare(atcClass, specAst);
+    }
+
+    /**
+     * Run JPF on each .jpf file of the job, one after the other, in this JVM.
+     */
+    @Override
+    public synchronized void execute(SymbolicJob job) {
+        if (!job.isRunnable()) {
+            System.out.println("(SPF execution skipped: the generated classes do not compile)");
+            return;
+        }
+        cancelled = false;
+        long start = System.nanoTime();
+        String runSettings = getRunSettings();
+        Map<Path, JpfResult> cached = preparer.cachedResults(job, runSettings);
+        JpfApi api = null;
+        if (cached.size() < job.getJpfFiles().size()) {
+            try {
+                api = loadJpf();
+            } catch (ReflectiveOperationException | MalformedURLException e) {
+                System.err.println("Error loading JPF from " + jpfClasspath + ": " + e);
+                return;
+            }
+        }
+        System.out.println("\n=== Running SPF (in this JVM) ===");
+        String classpath = job.getOutputDir().resolve("bin").toAbsolutePath().toString();
+        List<JpfResult> results = new ArrayList<>();
+        List<JpfResult> runs = new ArrayList<>();
+        for (Path jpfFile : job.getJpfFiles()) {
+            JpfResult result = cached.get(jpfFile);
+            if (result == null) {
+                result = cancelled
+                    ? new JpfResult(jpfFile, JpfResult.Status.CANCELLED, -1, new ArrayList<String>(), new ArrayList<String>(), 0, 0)
+                    : runOne(api, jpfFile, classpath, new SpfOutputParser(job.getTargetMethod(jpfFile), input -> job.addInput(jpfFile, input)));
+                runs.add(result);
+            }
+            System.out.println("  " + result);
+            results.add(result);
+        }
+        preparer.cacheResults(job, runs, runSettings);
+        job.addResults(results);
+        System.out.println(JpfProcessPool.summarize(results, System.nanoTime() - start)
+            + (preparer.getResultCache() != null ? ", " + cached.size() + " from the result cache" : ""));
+        System.out.println(job.getInputs().size() + " concrete input(s)");
+    }
+
+    private JpfResult runOne(JpfApi api, Path jpfFile, String classpath, SpfOutputParser parser) {
+        long start = System.nanoTime();
+        String[] args = {"+classpath=" + classpath,
+            "+search.time_limit=" + JpfProcessPool.effectiveTimeLimit(jpfFile, timeLimitSeconds), jpfFile.toAbsolutePath().toString()};
+        List<String> errors = new ArrayList<>();
+        Thread thread = Thread.currentThread();
+        ClassLoader contextLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(api.loader);
+        PrintStream out = System.out;
+        LineTee tee = new LineTee(out, parser);
+        System.setOut(new PrintStream(tee, true));
+        try {
+            Object config = api.createConfig.invoke(null, (Object) args);
+            Object jpf = api.constructor.newInstance(config);
+            currentJpf = jpf;
+            if (cancelled) {
+                return new JpfResult(jpfFile, JpfResult.Status.CANCELLED, -1, errors, errors, 0, System.nanoTime() - start);
+            }
+            api.run.invoke(jpf);
+            for (Object error : (List<?>) api.getSearchErrors.invoke(jpf)) {
+                errors.add("error #" + (errors.size() + 1) + ": " + error.getClass().getMethod("getDescription").invoke(error));
+            }
+            JpfResult.Status status = !errors.isEmpty() ? JpfResult.Status.ERRORS
+                : cancelled ? JpfResult.Status.CANCELLED : JpfResult.Status.NO_ERRORS;
+            return new JpfResult(jpfFile, status, 0, errors, new ArrayList<String>(), 0, System.nanoTime() - start);
+        } catch (InvocationTargetException e) {
+            return failed(jpfFile, e.getCause(), start);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return failed(jpfFile, e, start);
+        } finally {
+            System.setOut(out);
+            tee.flushLine();
+            parser.finish();
+            currentJpf = null;
+            thread.setContextClassLoader(contextLoader);
+        }
+    }
+
+    private static JpfResult failed(Path jpfFile, Throwable cause, long start) {
+        return new JpfResult(jpfFile, JpfResult.Status.FAILED, -1, new ArrayList<String>(),
+            Collections.singletonList("JPF failed: " + cause), 0, System.nanoTime() - start);
+    }
+
+    @Override
+    public List<ConcreteInput> collect(SymbolicJob job) {
+        return preparer.collect(job);
+    }
+
+    /**
+     * Terminate the current search (JPF's Search.terminate()) and skip the remaining files.
+     */
+    @Override
+    public void cancel() {
+        cancelled = true;
+        Object jpf = currentJpf;
+        if (jpf != null) {
+            try {
+                Object search = jpf.getClass().getMethod("getSearch").invoke(jpf);
+                if (search != null) {
+                    search.getClass().getMethod("terminate").invoke(search);
+                }
+            } catch (ReflectiveOperationException e) {
+                System.err.println("Could not terminate the JPF search: " + e);
+            }
+        }
+    }
+
+    /**
+     * True once JPF has been loaded (by the first execute()).
+     */
+    public synchronized boolean isLoaded() {
+        return jpfApi != null;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (jpfApi != null) {
+            try {
+                jpfApi.loader.close();
+            } catch (IOException e) {
+                System.err.println("Error closing the JPF class loader: " + e.getMessage());
+            }
+            jpfApi = null;
+        }
+    }
+
+    private JpfApi loadJpf() throws ReflectiveOperationException, MalformedURLException {
+        if (jpfApi == null) {
+            URL[] urls = new URL[jpfClasspath.size()];
+            for (int i = 0; i < urls.length; i++) {
+                urls[i] = jpfClasspath.get(i).toUri().toURL();
+            }
+            // Parent is the platform (extension) loader: JDK classes only, none of this application's
+            URLClassLoader loader = new URLClassLoader(urls, ClassLoader.getSystemClassLoader().getParent());
+            try {
+                jpfApi = new JpfApi(loader);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                try {
+                    loader.close();
+                } catch (IOException closeError) {
+                    e.addSuppressed(closeError);
+                }
+                throw e;
+            }
+        }
+        return jpfApi;
+    }
+
+    /**
+     * Passes output through and splits it into lines for a parser.
+     */
+    private static final class LineTee extends OutputStream {
+        private final PrintStream target;
+        private final SpfOutputParser parser;
+        private byte[] line = new byte[256];
+        private int length;
+
+        LineTee(PrintStream target, SpfOutputParser parser) {
+            this.target = target;
+            this.parser = parser;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] bytes, int offset, int count) {
+            target.write(bytes, offset, count);
+            int start = offset;
+            for (int i = offset; i < offset + count; i++) {
+                if (bytes[i] == '\n') {
+                    append(bytes, start, i);
+                    flushLine();
+                    start = i + 1;
+                }
+            }
+            append(bytes, start, offset + count);
+        }
+
+        private void append(byte[] bytes, int from, int to) {
+            if (length + to - from > line.length) {
+                line = Arrays.copyOf(line, Math.max(line.length * 2, length + to - from));
+            }
+            System.arraycopy(bytes, from, line, length, to - from);
+            length += to - from;
+        }
+
+        @Override
+        public void flush() {
+            target.flush();
+        }
+
+        synchronized void flushLine() {
+            if (length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+            if (length > 0) {
+                parser.accept(new String(line, 0, length));
+            }
+            length = 0;
+        }
+    }
+
+    /**
+     * JPF's entry points, looked up once per class loader.
+     */
+    private static final class JpfApi {
+        final URLClassLoader loader;
+        final Method createConfig;
+        final Constructor<?> constructor;
+        final Method run;
+        final Method getSearchErrors;
+
+        JpfApi(URLClassLoader loader) throws ReflectiveOperationException {
+            this.loader = loader;
+            Class<?> jpfClass = Class.forName("gov.nasa.jpf.JPF", true, loader);
+            Class<?> configClass = Class.forName("gov.nasa.jpf.Config", true, loader);
+            this.createConfig = jpfClass.getMethod("createConfig", String[].class);
+            this.constructor = jpfClass.getConstructor(configClass);
+            this.run = jpfClass.getMethod("run");
+            this.getSearchErrors = jpfClass.getMethod("getSearchErrors");
+        }
+    }
+}
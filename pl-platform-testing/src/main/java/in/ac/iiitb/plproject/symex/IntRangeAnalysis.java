@@ -0,0 +1,632 @@
+package in.ac.iiitb.plproject.symex;
+
+import in.ac.iiitb.plproject.ast.BinaryExpr;
+import in.ac.iiitb.plproject.ast.BooleanLiteralExpr;
+import in.ac.iiitb.plproject.ast.Expr;
+import in.ac.iiitb.plproject.ast.IntegerLiteralExpr;
+import in.ac.iiitb.plproject.ast.MethodCallExpr;
+import in.ac.iiitb.plproject.ast.NameExpr;
+import in.ac.iiitb.plproject.ast.UnaryExpr;
+import in.ac.iiitb.plproject.atc.ir.AtcAssignStmt;
+import in.ac.iiitb.plproject.atc.ir.AtcAssumeStmt;
+import in.ac.iiitb.plproject.atc.ir.AtcChoiceStmt;
+import in.ac.iiitb.plproject.atc.ir.AtcIfStmt;
+import in.ac.iiitb.plproject.atc.ir.AtcLoopStmt;
+import in.ac.iiitb.plproject.atc.ir.AtcMethodCallStmt;
+import in.ac.iiitb.plproject.atc.ir.AtcStatement;
+import in.ac.iiitb.plproject.atc.ir.AtcSymbolicVarDecl;
+import in.ac.iiitb.plproject.atc.ir.AtcTestMethod;
+import in.ac.iiitb.plproject.atc.ir.AtcVarDecl;
+import in.ac.iiitb.plproject.atc.ir.TypeDescriptor;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Interval analysis of the symbolic int inputs of a generated method, for the
+ * symbolic.minint/maxint of its .jpf file.
+ *
+ * The spec's requires clause reaches the method as Debug.assume(...) (AtcAssumeStmt before
+ * the JPF transformation). Every top-level assume condition is assumed to hold, and the
+ * intervals of the symbolic ints are narrowed by its comparisons until nothing changes:
+ * && intersects, || joins, ! is pushed down to the comparisons, and a linear comparison
+ * (e.g. 2 * w + 1 <= y - 3) bounds each of its variables by the intervals of the others.
+ * Anything else (calls, fields, non-linear arithmetic) constrains nothing, so the result
+ * over-approximates the values the assumptions allow. Arithmetic is unbounded, as in JML specs.
+ *
+ * SPF has one range for all symbolic ints of a run, so the method's range is the hull of its
+ * variables' ranges. A variable bounded on one side only gets the default bound on the other,
+ * or HALF_OPEN_SPAN values past its bound if the default is on the wrong side (x > 1000 gives
+ * [1001, 1101]). Unconstrained variables and variables assigned in the method keep the default
+ * range; booleans (symbolic ints != 0) need [0, 1]. The range also bounds symbolic inputs
+ * the analysis does not see (array elements with symbolic.arrays, fields, ...), so it is only
+ * narrowed below the default if every symbolic input is an int or a boolean; otherwise it is
+ * widened to include the default range.
+ *
+ * The analysis keeps no state between calls and can be shared between threads.
+ */
+public final class IntRangeAnalysis {
+    public static final int DEFAULT_MIN = -100;
+    public static final int DEFAULT_MAX = 100;
+    public static final int HALF_OPEN_SPAN = 100;
+    public static final int DEFAULT_TIME_LIMIT = 120;
+    // Methods whose inputs are all ints with at most this many combinations get SMALL_DOMAIN_TIME_LIMIT
+    public static final long SMALL_DOMAIN = 10_000;
+    public static final int SMALL_DOMAIN_TIME_LIMIT = 60;
+
+    private static final int MAX_ROUNDS = 16;
+
+    /**
+     * Ranges of the symbolic ints of one method.
+     */
+    public static final class Result {
+        private final Map<String, Interval> inferred;
+        private final Set<String> booleans;
+        private final boolean unsatisfiable;
+        private final boolean onlyInts;
+
+        private Result(Map<String, Interval> inferred, Set<String> booleans, boolean unsatisfiable, boolean onlyInts) {
+            this.inferred = inferred;
+            this.booleans = booleans;
+            this.unsatisfiable = unsatisfiable;
+            this.onlyInts = onlyInts;
+        }
+
+        /**
+         * True if the method has symbolic ints (or booleans) whose range matters.
+         */
+        public boolean hasInts() {
+            return !inferred.isEmpty() || !booleans.isEmpty();
+        }
+
+        /**
+         * True if the method has symbolic inputs other than ints and booleans (arrays, objects,
+         * reals, strings); the range then includes the default range.
+         */
+        public boolean hasOtherInputs() {
+            return !onlyInts;
+        }
+
+        /**
+         * True if the assumptions cannot all hold; the default range is kept.
+         */
+        public boolean isUnsatisfiable() {
+            return unsatisfiable;
+        }
+
+        /**
+         * [min, max] SPF should search for one variable (null if it is not a symbolic int).
+         */
+        public int[] getBounds(String name) {
+            if (booleans.contains(name)) {
+                return new int[] {0, 1};
+            }
+            Interval interval = inferred.get(name);
+            if (interval == null) {
+                return null;
+            }
+            if (unsatisfiable) {
+                return new int[] {DEFAULT_MIN, DEFAULT_MAX};
+            }
+            long min = interval.lo;
+            long max = interval.hi;
+            if (min == Integer.MIN_VALUE && max == Integer.MAX_VALUE) {
+                return new int[] {DEFAULT_MIN, DEFAULT_MAX};
+            } else if (min == Integer.MIN_VALUE) {
+                min = Math.max(Integer.MIN_VALUE, Math.min(DEFAULT_MIN, max - HALF_OPEN_SPAN));
+            } else if (max == Integer.MAX_VALUE) {
+                max = Math.min(Integer.MAX_VALUE, Math.max(DEFAULT_MAX, min + HALF_OPEN_SPAN));
+            }
+            return new int[] {(int) min, (int) max};
+        }
+
+        /**
+         * symbolic.minint: the lowest bound of all variables (DEFAULT_MIN without ints), at most
+         * DEFAULT_MIN if there are other symbolic inputs.
+         */
+        public int getMinInt() {
+            int min = onlyInts ? Integer.MAX_VALUE : DEFAULT_MIN;
+            for (String name : names()) {
+                min = Math.min(min, getBounds(name)[0]);
+            }
+            return hasInts() ? min : DEFAULT_MIN;
+        }
+
+        /**
+         * symbolic.maxint: the highest bound of all variables (DEFAULT_MAX without ints), at
+         * least DEFAULT_MAX if there are other symbolic inputs.
+         */
+        public int getMaxInt() {
+            int max = onlyInts ? Integer.MIN_VALUE : DEFAULT_MAX;
+            for (String name : names()) {
+                max = Math.max(max, getBounds(name)[1]);
+            }
+            return hasInts() ? max : DEFAULT_MAX;
+        }
+
+        /**
+         * search.time_limit: SMALL_DOMAIN_TIME_LIMIT if every symbolic input is an int and
+         * their bounds allow at most SMALL_DOMAIN combinations, else DEFAULT_TIME_LIMIT.
+         */
+        public int getTimeLimit() {
+            if (!onlyInts || !hasInts() || unsatisfiable) {
+                return DEFAULT_TIME_LIMIT;
+            }
+            long combinations = 1;
+            for (String name : names()) {
+                int[] bounds = getBounds(name);
+                combinations *= (long) bounds[1] - bounds[0] + 1;
+                if (combinations > SMALL_DOMAIN) {
+                    return DEFAULT_TIME_LIMIT;
+                }
+            }
+            return SMALL_DOMAIN_TIME_LIMIT;
+        }
+
+        /**
+         * Inferred ranges for a .jpf comment, e.g. "x in [10, 20], y >= 1, b boolean".
+         */
+        public String describe() {
+            StringBuilder sb = new StringBuilder();
+            for (String name : names()) {
+                if (sb.length() > 0) {
+                    sb.append(", ");
+                }
+                Interval interval = inferred.get(name);
+                if (interval == null) {
+                    sb.append(name).append(" boolean");
+                } else if (interval.lo == Integer.MIN_VALUE && interval.hi == Integer.MAX_VALUE) {
+                    sb.append(name).append(" unconstrained");
+                } else if (interval.lo == Integer.MIN_VALUE) {
+                    sb.append(name).append(" <= ").append(interval.hi);
+                } else if (interval.hi == Integer.MAX_VALUE) {
+                    sb.append(name).append(" >= ").append(interval.lo);
+                } else {
+                    sb.append(name).append(" in [").append(interval.lo).append(", ").append(interval.hi).append(']');
+                }
+            }
+            return sb.toString();
+        }
+
+        private List<String> names() {
+            List<String> names = new ArrayList<>(inferred.keySet());
+            names.addAll(booleans);
+            return names;
+        }
+    }
+
+    /**
+     * Analyze a generated method, before or after the JPF transformation.
+     */
+    public Result analyze(AtcTestMethod method) {
+        Map<String, Interval> env = new LinkedHashMap<>();
+        Set<String> booleans = new LinkedHashSet<>();
+        boolean onlyInts = true;
+        List<Expr> assumptions = new ArrayList<>();
+        for (AtcStatement stmt : method.getStatements()) {
+            if (stmt instanceof AtcSymbolicVarDecl) {
+                TypeDescriptor.SymbolicKind kind = ((AtcSymbolicVarDecl) stmt).getType().getSymbolicKind();
+                String name = ((AtcSymbolicVarDecl) stmt).getVarName();
+                if (kind == TypeDescriptor.SymbolicKind.INT) {
+                    env.put(name, Interval.FULL);
+                } else if (kind == TypeDescriptor.SymbolicKind.BOOLEAN) {
+                    booleans.add(name);
+                } else {
+                    onlyInts = false;
+                }
+            } else if (stmt instanceof AtcVarDecl) {
+                Expr init = ((AtcVarDecl) stmt).getInitExpr();
+                String name = ((AtcVarDecl) stmt).getVarName();
+                if (isDebugCall(init, "makeSymbolicInteger")) {
+                    env.put(name, Interval.FULL);
+                } else if (init instanceof BinaryExpr && isDebugCall(((BinaryExpr) init).left, "makeSymbolicInteger")) {
+                    booleans.add(name);
+                } else if (init instanceof MethodCallExpr && ((MethodCallExpr) init).name.identifier.startsWith("makeSymbolic")
+                           && isDebugCall(init, ((MethodCallExpr) init).name.identifier)) {
+                    onlyInts = false;
+                }
+            } else if (stmt instanceof AtcAssumeStmt) {
+                assumptions.add(((AtcAssumeStmt) stmt).getCondition());
+            } else if (stmt instanceof AtcMethodCallStmt && isDebugCall(((AtcMethodCallStmt) stmt).getCallExpr(), "assume")
+                       && ((AtcMethodCallStmt) stmt).getCallExpr().args.size() == 1) {
+                assumptions.add(((AtcMethodCallStmt) stmt).getCallExpr().args.get(0));
+            }
+        }
+        // A symbolic int that is reassigned no longer holds its input: not narrowed
+        Set<String> assigned = new HashSet<>();
+        collectAssigned(method.getStatements(), assigned, new HashSet<String>());
+        Map<String, Interval> inferred = new LinkedHashMap<>(env);
+        env.keySet().removeAll(assigned);
+
+        boolean unsatisfiable = false;
+        for (int round = 0; round < MAX_ROUNDS && !env.isEmpty(); round++) {
+            Map<String, Interval> before = env;
+            for (Expr condition : assumptions) {
+                env = refine(condition, false, env);
+                if (env == null) {
+                    break;
+                }
+            }
+            if (env == null) {
+                unsatisfiable = true;
+                break;
+            }
+            if (env.equals(before)) {
+                break;
+            }
+        }
+        if (!unsatisfiable) {
+            inferred.putAll(env);
+        }
+        return new Result(inferred, booleans, unsatisfiable, onlyInts);
+    }
+
+    private static boolean isDebugCall(Expr expr, String name) {
+        if (!(expr instanceof MethodCallExpr)) {
+            return false;
+        }
+        MethodCallExpr call = (MethodCallExpr) expr;
+        return call.name.identifier.equals(name) && call.scope instanceof NameExpr
+            && ((NameExpr) call.scope).name.identifier.equals("Debug");
+    }
+
+    private static void collectAssigned(List<AtcStatement> statements, Set<String> assigned, Set<String> declared) {
+        for (AtcStatement stmt : statements) {
+            if (stmt instanceof AtcAssignStmt) {
+                assigned.add(((AtcAssignStmt) stmt).getVarName());
+            } else if (stmt instanceof AtcVarDecl || stmt instanceof AtcSymbolicVarDecl) {
+                String name = stmt instanceof AtcVarDecl ? ((AtcVarDecl) stmt).getVarName() : ((AtcSymbolicVarDecl) stmt).getVarName();
+                if (!declared.add(name)) {
+                    assigned.add(name);
+                }
+            } else if (stmt instanceof AtcIfStmt) {
+                collectAssigned(((AtcIfStmt) stmt).getThenStatements(), assigned, declared);
+            } else if (stmt instanceof AtcLoopStmt) {
+                collectAssigned(((AtcLoopStmt) stmt).getBodyStatements(), assigned, declared);
+            } else if (stmt instanceof AtcChoiceStmt) {
+                for (List<AtcStatement> branch : ((AtcChoiceStmt) stmt).getBranches()) {
+                    collectAssigned(branch, assigned, declared);
+                }
+            }
+        }
+    }
+
+    /**
+     * env narrowed by assuming condition (or its negation) holds; null if it cannot hold.
+     */
+    private static Map<String, Interval> refine(Expr condition, boolean negated, Map<String, Interval> env) {
+        if (condition instanceof UnaryExpr && ((UnaryExpr) condition).op == UnaryExpr.Operator.LOGICAL_COMPLEMENT) {
+            return refine(((UnaryExpr) condition).expr, !negated, env);
+        }
+        if (condition instanceof BooleanLiteralExpr) {
+            return ((BooleanLiteralExpr) condition).value != negated ? env : null;
+        }
+        if (!(condition instanceof BinaryExpr)) {
+            return env;
+        }
+        BinaryExpr binary = (BinaryExpr) condition;
+        BinaryExpr.Operator op = binary.op;
+        if (op == BinaryExpr.Operator.AND || op == BinaryExpr.Operator.OR) {
+            if ((op == BinaryExpr.Operator.AND) != negated) {
+                Map<String, Interval> left = refine(binary.left, negated, env);
+                return left == null ? null : refine(binary.right, negated, left);
+            }
+            return join(refine(binary.left, negated, env), refine(binary.right, negated, env));
+        }
+        if (negated) {
+            op = negate(op);
+            if (op == null) {
+                return env;
+            }
+        }
+        Linear left = linear(binary.left);
+        Linear right = linear(binary.right);
+        if (left == null || right == null) {
+            return env;
+        }
+        // left - right OP 0, with < and > as <= -1 and >= 1
+        Linear difference = left.plus(right.times(-1));
+        switch (op) {
+            case LESS_THAN:
+                return bound(difference.plus(Linear.constant(1)), true, false, env);
+            case LESS_THAN_OR_EQUAL:
+                return bound(difference, true, false, env);
+            case GREATER_THAN:
+                return bound(difference.plus(Linear.constant(-1)), false, true, env);
+            case GREATER_THAN_OR_EQUAL:
+                return bound(difference, false, true, env);
+            case EQUALS:
+                return bound(difference, true, true, env);
+            case NOT_EQUALS:
+                return exclude(difference, env);
+            default:
+                return env;
+        }
+    }
+
+    private static BinaryExpr.Operator negate(BinaryExpr.Operator op) {
+        switch (op) {
+            case LESS_THAN:
+                return BinaryExpr.Operator.GREATER_THAN_OR_EQUAL;
+            case LESS_THAN_OR_EQUAL:
+                return BinaryExpr.Operator.GREATER_THAN;
+            case GREATER_THAN:
+                return BinaryExpr.Operator.LESS_THAN_OR_EQUAL;
+            case GREATER_THAN_OR_EQUAL:
+                return BinaryExpr.Operator.LESS_THAN;
+            case EQUALS:
+                return BinaryExpr.Operator.NOT_EQUALS;
+            case NOT_EQUALS:
+                return BinaryExpr.Operator.EQUALS;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Narrow every tracked variable of e by e <= 0 (atMost) and/or e >= 0 (atLeast).
+     */
+    private static Map<String, Interval> bound(Linear e, boolean atMost, boolean atLeast, Map<String, Interval> env) {
+        Interval whole = e.evaluate(env);
+        if ((atMost && whole.lo > 0) || (atLeast && whole.hi < 0)) {
+            return null;
+        }
+        Map<String, Interval> result = env;
+        for (Map.Entry<String, Long> term : e.coefficients.entrySet()) {
+            Interval current = result.get(term.getKey());
+            if (current == null) {
+                continue;
+            }
+            long k = term.getValue();
+            // e = k * x + rest
+            Interval rest = e.without(term.getKey()).evaluate(result);
+            long lo = current.lo;
+            long hi = current.hi;
+            if (atMost && rest.lo != Interval.NEG_INF) {
+                // k * x <= -rest.lo
+                if (k > 0) {
+                    hi = Math.min(hi, Math.floorDiv(-rest.lo, k));
+                } else {
+                    lo = Math.max(lo, ceilDiv(-rest.lo, k));
+                }
+            }
+            if (atLeast && rest.hi != Interval.POS_INF) {
+                // k * x >= -rest.hi
+                if (k > 0) {
+                    lo = Math.max(lo, ceilDiv(-rest.hi, k));
+                } else {
+                    hi = Math.min(hi, Math.floorDiv(-rest.hi, k));
+                }
+            }
+            if (lo > hi) {
+                return null;
+            }
+            if (lo != current.lo || hi != current.hi) {
+                if (result == env) {
+                    result = new LinkedHashMap<>(env);
+                }
+                result.put(term.getKey(), new Interval(lo, hi));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * e != 0 for e = k * x + c: only trims x's interval if x = -c / k is one of its ends.
+     */
+    private static Map<String, Interval> exclude(Linear e, Map<String, Interval> env) {
+        if (e.coefficients.size() != 1) {
+            return env;
+        }
+        Map.Entry<String, Long> term = e.coefficients.entrySet().iterator().next();
+        Interval current = env.get(term.getKey());
+        if (current == null || e.constant % term.getValue() != 0) {
+            return env;
+        }
+        long value = -e.constant / term.getValue();
+        long lo = current.lo == value ? value + 1 : current.lo;
+        long hi = current.hi == value ? value - 1 : current.hi;
+        if (lo > hi) {
+            return null;
+        }
+        if (lo == current.lo && hi == current.hi) {
+            return env;
+        }
+        Map<String, Interval> result = new LinkedHashMap<>(env);
+        result.put(term.getKey(), new Interval(lo, hi));
+        return result;
+    }
+
+    private static Map<String, Interval> join(Map<String, Interval> a, Map<String, Interval> b) {
+        if (a == null || b == null) {
+            return a == null ? b : a;
+        }
+        Map<String, Interval> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Interval> entry : a.entrySet()) {
+            Interval other = b.get(entry.getKey());
+            result.put(entry.getKey(), new Interval(Math.min(entry.getValue().lo, other.lo), Math.max(entry.getValue().hi, other.hi)));
+        }
+        return result;
+    }
+
+    private static long ceilDiv(long a, long b) {
+        return -Math.floorDiv(-a, b);
+    }
+
+    /**
+     * Linear form of an int expression (sum of coefficient * name, plus a constant), or null.
+     */
+    private static Linear linear(Expr expr) {
+        if (expr instanceof IntegerLiteralExpr) {
+            return Linear.constant(((IntegerLiteralExpr) expr).value);
+        } else if (expr instanceof NameExpr) {
+            String name = ((NameExpr) expr).name.identifier;
+            if (name.equals("null") || name.equals("true") || name.equals("false")) {
+                return null;
+            }
+            Linear result = new Linear(0);
+            result.coefficients.put(name, 1L);
+            return result;
+        } else if (expr instanceof UnaryExpr) {
+            UnaryExpr unary = (UnaryExpr) expr;
+            Linear operand = linear(unary.expr);
+            if (operand == null || unary.op == UnaryExpr.Operator.LOGICAL_COMPLEMENT) {
+                return null;
+            }
+            return unary.op == UnaryExpr.Operator.MINUS ? operand.times(-1) : operand;
+        } else if (expr instanceof BinaryExpr) {
+            BinaryExpr binary = (BinaryExpr) expr;
+            Linear left = linear(binary.left);
+            Linear right = linear(binary.right);
+            if (left == null || right == null) {
+                return null;
+            }
+            switch (binary.op) {
+                case PLUS:
+                    return left.plus(right);
+                case MINUS:
+                    return left.plus(right.times(-1));
+                case MULTIPLY:
+                    if (left.coefficients.isEmpty()) {
+                        return right.times(left.constant);
+                    }
+                    return right.coefficients.isEmpty() ? left.times(right.constant) : null;
+                case DIVIDE:
+                    // Only constants: Java division truncates, which is not linear in a variable
+                    if (left.coefficients.isEmpty() && right.coefficients.isEmpty() && right.constant != 0) {
+                        return Linear.constant(left.constant / right.constant);
+                    }
+                    return null;
+                default:
+                    return null;
+            }
+        }
+        return null;
+    }
+
+    private static final class Linear {
+        final Map<String, Long> coefficients = new LinkedHashMap<>();
+        final long constant;
+
+        Linear(long constant) {
+            this.constant = constant;
+        }
+
+        static Linear constant(long value) {
+            return new Linear(value);
+        }
+
+        Linear plus(Linear other) {
+            Linear result = new Linear(Interval.add(constant, other.constant));
+            result.coefficients.putAll(coefficients);
+            for (Map.Entry<String, Long> term : other.coefficients.entrySet()) {
+                long k = Interval.add(result.coefficients.getOrDefault(term.getKey(), 0L), term.getValue());
+                if (k == 0) {
+                    result.coefficients.remove(term.getKey());
+                } else {
+                    result.coefficients.put(term.getKey(), k);
+                }
+            }
+            return result;
+        }
+
+        Linear times(long factor) {
+            Linear result = new Linear(Interval.multiply(constant, factor));
+            if (factor != 0) {
+                for (Map.Entry<String, Long> term : coefficients.entrySet()) {
+                    result.coefficients.put(term.getKey(), Interval.multiply(term.getValue(), factor));
+                }
+            }
+            return result;
+        }
+
+        Linear without(String name) {
+            Linear result = new Linear(constant);
+            result.coefficients.putAll(coefficients);
+            result.coefficients.remove(name);
+            return result;
+        }
+
+        /**
+         * Range of the expression over env; names not in env are unknown (any value).
+         */
+        Interval evaluate(Map<String, Interval> env) {
+            long lo = constant;
+            long hi = constant;
+            for (Map.Entry<String, Long> term : coefficients.entrySet()) {
+                Interval value = env.get(term.getKey());
+                if (value == null) {
+                    return new Interval(Interval.NEG_INF, Interval.POS_INF);
+                }
+                long k = term.getValue();
+                long a = Interval.multiply(value.lo, k);
+                long b = Interval.multiply(value.hi, k);
+                lo = Interval.add(lo, Math.min(a, b));
+                hi = Interval.add(hi, Math.max(a, b));
+            }
+            return new Interval(lo, hi);
+        }
+    }
+
+    /**
+     * Closed interval of longs; NEG_INF/POS_INF are unbounded ends (saturating arithmetic).
+     */
+    private static final class Interval {
+        static final long NEG_INF = Long.MIN_VALUE;
+        static final long POS_INF = Long.MAX_VALUE;
+        static final Interval FULL = new Interval(Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+        final long lo;
+        final long hi;
+
+        Interval(long lo, long hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        static long add(long a, long b) {
+            if (a == NEG_INF || b == NEG_INF) {
+                return a == POS_INF || b == POS_INF ? 0 : NEG_INF;
+            }
+            if (a == POS_INF || b == POS_INF) {
+                return POS_INF;
+            }
+            long sum = a + b;
+            // Overflow iff both operands have the sign opposite to the result
+            if (((a ^ sum) & (b ^ sum)) < 0) {
+                return a > 0 ? POS_INF : NEG_INF;
+            }
+            return sum;
+        }
+
+        static long multiply(long a, long b) {
+            if (a == 0 || b == 0) {
+                return 0;
+            }
+            boolean positive = (a > 0) == (b > 0);
+            if (a == NEG_INF || a == POS_INF || b == NEG_INF || b == POS_INF) {
+                return positive ? POS_INF : NEG_INF;
+            }
+            try {
+                return Math.multiplyExact(a, b);
+            } catch (ArithmeticException e) {
+                return positive ? POS_INF : NEG_INF;
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Interval && ((Interval) o).lo == lo && ((Interval) o).hi == hi;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(lo) * 31 + Long.hashCode(hi);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package in.ac.iiitb.plproject.symex;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs JPF/SPF on .jpf files in a bounded pool of child processes, one process per .jpf file,
+ * so the per-helper .jpf files of a suite run on all cores instead of one _main.jpf run.
+ *
+ * Each run is "<command> +search.time_limit=<seconds> <file.jpf>" in the given working
+ * directory (the .jpf files use classpath = ./bin, relative to it). The pool's time limit caps
+ * the .jpf file's own search.time_limit: a run gets the smaller of the two (see
+ * effectiveTimeLimit()). Output (stdout and stderr) is streamed line by line to an optional
+ * listener and scanned for JPF's results section. A run still going its time limit + kill
+ * grace after it started is killed.
+ *
+ * The command is the JPF launcher, e.g. java -Xmx1024m -jar jpf-core/build/RunJPF.jar (see
+ * forJpfCore()), or a stand-in such as scripts/jpf-stub.sh for tests. The heap and time limit
+ * are also passed to the command as JPF_HEAP_MB and JPF_TIME_LIMIT environment variables,
+ * for launchers that start the JVM themselves.
+ */
+public final class JpfProcessPool implements Closeable {
+    private static final String RESULTS_HEADER = "results";
+    private static final String NO_ERRORS = "no errors detected";
+    private static final String ERROR_PREFIX = "error #";
+    private static final int TAIL_LINES = 50;
+    private static final long DEFAULT_KILL_GRACE_MILLIS = 30_000; // JVM start-up and reporting
+    private static final Pattern TIME_LIMIT = Pattern.compile("^\\s*search\\.time_limit\\s*=\\s*(\\d+)\\s*$", Pattern.MULTILINE);
+
+    /**
+     * Receives every output line of every run; called concurrently from the pool's threads.
+     */
+    public interface OutputListener {
+        void onLine(Path jpfFile, String line);
+    }
+
+    private final List<String> command;
+    private final int concurrency;
+    private final int heapMegabytes;
+    private final int timeLimitSeconds;
+    private final long killGraceMillis;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService watchdog;
+    private final Set<Process> running = Collections.newSetFromMap(new ConcurrentHashMap<Process, Boolean>());
+    // Incremented by cancel(); runs started under an older value are cancelled
+    private final AtomicLong cancelGeneration = new AtomicLong();
+
+    public JpfProcessPool(List<String> command, int concurrency, int heapMegabytes, int timeLimitSeconds) {
+        this(command, concurrency, heapMegabytes, timeLimitSeconds, DEFAULT_KILL_GRACE_MILLIS);
+    }
+
+    /**
+     * @param command          JPF launcher; the time limit argument and the .jpf file are appended
+     * @param concurrency      Number of JPF processes running at once
+     * @param heapMegabytes    Heap per JPF process
+     * @param timeLimitSeconds Longest search.time_limit of a run (a .jpf file may set a shorter one)
+     * @param killGraceMillis  How long after the time limit a run is killed
+     */
+    public JpfProcessPool(List<String> command, int concurrency, int heapMegabytes, int timeLimitSeconds,
+                          long killGraceMillis) {
+        this.command = new ArrayList<>(command);
+        this.concurrency = concurrency;
+        this.heapMegabytes = heapMegabytes;
+        this.timeLimitSeconds = timeLimitSeconds;
+        this.killGraceMillis = killGraceMillis;
+        this.executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "jpf-runner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jpf-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Pool running jpf-core's RunJPF.jar (jpfCoreDir/build/RunJPF.jar) on this JVM's java.
+     */
+    public static JpfProcessPool forJpfCore(Path jpfCoreDir, int concurrency, int heapMegabytes, int timeLimitSeconds) {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        return new JpfProcessPool(Arrays.asList(java, "-Xmx" + heapMegabytes + "m", "-jar",
+            jpfCoreDir.resolve("build").resolve("RunJPF.jar").toString()), concurrency, heapMegabytes, timeLimitSeconds);
+    }
+
+    /**
+     * Pool configured by system properties, or null if JPF is not configured:
+     * jpf.core (jpf-core directory) or jpf.command (launcher, split at whitespace), and
+     * optionally jpf.concurrency (default: number of cores), jpf.heap (MB, default 1024) and
+     * jpf.time_limit (seconds, default 120; caps the .jpf files' own limits).
+     */
+    public static JpfProcessPool fromSystemProperties() {
+        int concurrency = Integer.getInteger("jpf.concurrency", Runtime.getRuntime().availableProcessors());
+        int heap = Integer.getInteger("jpf.heap", 1024);
+        int timeLimit = Integer.getInteger("jpf.time_limit", 120);
+        String jpfCore = System.getProperty("jpf.core");
+        if (jpfCore != null && !jpfCore.trim().isEmpty()) {
+            return forJpfCore(Paths.get(jpfCore.trim()), concurrency, heap, timeLimit);
+        }
+        String command = System.getProperty("jpf.command");
+        if (command != null && !command.trim().isEmpty()) {
+            return new JpfProcessPool(Arrays.asList(command.trim().split("\\s+")), concurrency, heap, timeLimit);
+        }
+        return null;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * The settings results depend on, for result cache keys: the launcher (which names the JPF
+     * installation) and the time limit. Concurrency and heap do not change a complete run.
+     */
+    public String getRunSettings() {
+        return String.join(" ", command) + " +search.time_limit=" + timeLimitSeconds;
+    }
+
+    /**
+     * search.time_limit of a run of jpfFile: the file's own search.time_limit, if it sets one,
+     * capped at limitSeconds (the pool's or backend's limit).
+     */
+    public static int effectiveTimeLimit(Path jpfFile, int limitSeconds) {
+        try {
+            Matcher matcher = TIME_LIMIT.matcher(new String(Files.readAllBytes(jpfFile), StandardCharsets.UTF_8));
+            if (matcher.find()) {
+                return (int) Math.min(limitSeconds, Long.parseLong(matcher.group(1)));
+            }
+        } catch (IOException | NumberFormatException e) {
+            // No readable limit: the run gets the pool's; JPF reports an unreadable file itself
+        }
+        return limitSeconds;
+    }
+
+    /**
+     * Run every .jpf file; returns the results in the order of jpfFiles.
+     *
+     * @param listener Receives the output lines (may be null)
+     */
+    public List<JpfResult> runAll(List<Path> jpfFiles, Path workingDir, OutputListener listener) {
+        long generation = cancelGeneration.get();
+        List<Future<JpfResult>> futures = new ArrayList<>();
+        for (Path jpfFile : jpfFiles) {
+            futures.add(executor.submit(() -> run(jpfFile, workingDir, listener, generation)));
+        }
+        List<JpfResult> results = new ArrayList<>();
+        try {
+            for (Future<JpfResult> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Future<JpfResult> future : futures) {
+                future.cancel(true);
+            }
+            throw new IllegalStateException("Interrupted while running JPF", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("JPF run failed: " + e.getCause(), e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * Run one .jpf file on the calling thread.
+     */
+    public JpfResult run(Path jpfFile, Path workingDir, OutputListener listener) {
+        return run(jpfFile, workingDir, listener, cancelGeneration.get());
+    }
+
+    /**
+     * Kill the running JPF processes and skip the queued ones; their results are CANCELLED.
+     * Runs started after cancel() are not affected.
+     */
+    public void cancel() {
+        cancelGeneration.incrementAndGet();
+        for (Process process : running) {
+            process.destroyForcibly();
+        }
+    }
+
+    private JpfResult run(Path jpfFile, Path workingDir, OutputListener listener, long generation) {
+        long start = System.nanoTime();
+        if (cancelGeneration.get() != generation) {
+            return new JpfResult(jpfFile, JpfResult.Status.CANCELLED, -1, new ArrayList<String>(),
+                new ArrayList<String>(), 0, 0);
+        }
+        int timeLimit = effectiveTimeLimit(jpfFile, timeLimitSeconds);
+        List<String> args = new ArrayList<>(command);
+        args.add("+search.time_limit=" + timeLimit);
+        args.add(jpfFile.toAbsolutePath().toString());
+        ProcessBuilder builder = new ProcessBuilder(args).directory(workingDir.toFile()).redirectErrorStream(true);
+        builder.environment().put("JPF_HEAP_MB", Integer.toString(heapMegabytes));
+        builder.environment().put("JPF_TIME_LIMIT", Integer.toString(timeLimit));
+
+        List<String> errors = new ArrayList<>();
+        Deque<String> tail = new ArrayDeque<>();
+        long lines = 0;
+        boolean inResults = false;
+        boolean noErrors = false;
+        Process process;
+        try {
+            process = builder.start();
+        } catch (IOException e) {
+            return new JpfResult(jpfFile, JpfResult.Status.FAILED, -1, errors,
+                Arrays.asList("Could not start " + args.get(0) + ": " + e.getMessage()), 0, System.nanoTime() - start);
+        }
+        running.add(process);
+        if (cancelGeneration.get() != generation) {
+            process.destroyForcibly(); // cancel() ran between the check above and add()
+        }
+        AtomicBoolean killed = new AtomicBoolean();
+        ScheduledFuture<?> kill = watchdog.schedule(() -> {
+            killed.set(true);
+            process.destroyForcibly();
+        }, timeLimit * 1000L + killGraceMillis, TimeUnit.MILLISECONDS);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            process.getOutputStream().close();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines++;
+                if (listener != null) {
+                    listener.onLine(jpfFile, line);
+                }
+                if (tail.size() == TAIL_LINES) {
+                    tail.removeFirst();
+                }
+                tail.addLast(line);
+                // Section headers look like "==================== results"
+                if (line.startsWith("=====")) {
+                    inResults = line.endsWith(" " + RESULTS_HEADER);
+                } else if (inResults && line.startsWith(ERROR_PREFIX)) {
+                    errors.add(line);
+                } else if (inResults && line.startsWith(NO_ERRORS)) {
+                    noErrors = true;
+                }
+            }
+            process.waitFor();
+        } catch (IOException e) {
+            tail.addLast("Error reading JPF output: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+        } finally {
+            kill.cancel(false);
+            running.remove(process);
+        }
+
+        JpfResult.Status status;
+        if (killed.get()) {
+            status = JpfResult.Status.TIMED_OUT;
+        } else if (!noErrors && errors.isEmpty()
+                && (cancelGeneration.get() != generation || Thread.currentThread().isInterrupted())) {
+            status = JpfResult.Status.CANCELLED;
+        } else if (!errors.isEmpty()) {
+            status = JpfResult.Status.ERRORS;
+        } else if (noErrors) {
+            status = JpfResult.Status.NO_ERRORS;
+        } else {
+            status = JpfResult.Status.FAILED;
+        }
+        int exitCode = process.isAlive() || killed.get() || status == JpfResult.Status.CANCELLED ? -1 : process.exitValue();
+        return new JpfResult(jpfFile, status, exitCode, errors, new ArrayList<>(tail), lines, System.nanoTime() - start);
+    }
+
+    /**
+     * One line over a batch of results: counts per status, wall time and total run time.
+     */
+    public static String summarize(List<JpfResult> results, long wallNanos) {
+        int[] counts = new int[JpfResult.Status.values().length];
+        long runNanos = 0;
+        for (JpfResult result : results) {
+            counts[result.getStatus().ordinal()]++;
+            runNanos += result.getElapsedNanos();
+        }
+        String summary = String.format("%d JPF run(s) in %d ms (%d ms of runs): %d without errors, %d with errors, %d failed, %d timed out",
+            results.size(), wallNanos / 1_000_000, runNanos / 1_000_000, counts[JpfResult.Status.NO_ERRORS.ordinal()],
+            counts[JpfResult.Status.ERRORS.ordinal()], counts[JpfResult.Status.FAILED.ordinal()],
+            counts[JpfResult.Status.TIMED_OUT.ordinal()]);
+        int cancelled = counts[JpfResult.Status.CANCELLED.ordinal()];
+        return cancelled > 0 ? summary + ", " + cancelled + " cancelled" : summary;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        watchdog.shutdownNow();
+    }
+}
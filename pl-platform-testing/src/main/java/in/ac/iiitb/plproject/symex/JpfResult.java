@@ -0,0 +1,100 @@
+package in.ac.iiitb.plproject.symex;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of one JPF run (one .jpf file), in a child process (JpfProcessPool) or in this JVM
+ * (InProcessJpfBackend).
+ */
+public final class JpfResult {
+    public enum Status {
+        /** JPF finished and reported "no errors detected" */
+        NO_ERRORS,
+        /** JPF finished and reported property violations (e.g. a failing assert) */
+        ERRORS,
+        /** JPF could not be started, or exited without a results section */
+        FAILED,
+        /** Killed after the time limit */
+        TIMED_OUT,
+        /** Stopped or skipped by cancel() */
+        CANCELLED
+    }
+
+    private final Path jpfFile;
+    private final Status status;
+    private final int exitCode;
+    private final List<String> errors;
+    private final List<String> outputTail;
+    private final long outputLines;
+    private final long elapsedNanos;
+    private final boolean cached;
+
+    JpfResult(Path jpfFile, Status status, int exitCode, List<String> errors, List<String> outputTail,
+              long outputLines, long elapsedNanos) {
+        this(jpfFile, status, exitCode, errors, outputTail, outputLines, elapsedNanos, false);
+    }
+
+    JpfResult(Path jpfFile, Status status, int exitCode, List<String> errors, List<String> outputTail,
+              long outputLines, long elapsedNanos, boolean cached) {
+        this.jpfFile = jpfFile;
+        this.status = status;
+        this.exitCode = exitCode;
+        this.errors = Collections.unmodifiableList(errors);
+        this.outputTail = Collections.unmodifiableList(outputTail);
+        this.outputLines = outputLines;
+        this.elapsedNanos = elapsedNanos;
+        this.cached = cached;
+    }
+
+    public Path getJpfFile() {
+        return jpfFile;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Exit code of the JPF process (-1 if it was not started or was killed).
+     */
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    /**
+     * The "error #N: ..." lines of the results section.
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Last lines of the output (stdout and stderr), for reporting failures.
+     */
+    public List<String> getOutputTail() {
+        return outputTail;
+    }
+
+    public long getOutputLines() {
+        return outputLines;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * True if the result comes from the SpfResultCache instead of a JPF run.
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    @Override
+    public String toString() {
+        return jpfFile.getFileName() + ": " + status + (errors.isEmpty() ? "" : " " + errors)
+            + (cached ? " (cached)" : " in " + elapsedNanos / 1_000_000 + " ms");
+    }
+}
@@ -0,0 +1,230 @@
+package in.ac.iiitb.plproject.symex;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Content hashes of the files generated into an output directory, kept in outputDir/.manifest.
+ *
+ * write() only touches a file whose content changed since the last run (or that is missing or
+ * has a different size on disk), so regenerating an unchanged suite rewrites nothing and does
+ * not retrigger downstream compilation or SPF runs. Files are written to a temp file and
+ * renamed into place, so readers never see a partially written file. A new file gets the
+ * default permissions of a newly created file; a replaced file keeps its permissions.
+ *
+ * The manifest also records the source hash of each generated helper method (see
+ * AtcTestMethod.getSourceHash()), so a run can report which helpers changed. Once a class's
+ * methods have been recorded in a run, entries for its methods that were not recorded (removed
+ * or renamed helpers) are dropped on save().
+ *
+ * Not thread-safe; use one manifest per output directory and thread.
+ */
+public final class OutputManifest {
+    public static final String FILE_NAME = ".manifest";
+
+    private static final String FILE_PREFIX = "file ";
+    private static final String METHOD_PREFIX = "method ";
+
+    private final Path outputDir;
+    // Sorted, so the manifest file itself only changes when an entry does
+    private final Map<String, String> entries = new TreeMap<>();
+    // Classes whose methods were recorded since loading, and the recorded method entries
+    private final Set<String> recordedClasses = new HashSet<>();
+    private final Set<String> recordedMethods = new HashSet<>();
+    private boolean dirty;
+    private int writtenCount;
+    private int unchangedCount;
+
+    private OutputManifest(Path outputDir) {
+        this.outputDir = outputDir;
+    }
+
+    /**
+     * Manifest of outputDir; empty if there is none yet or it cannot be read.
+     */
+    public static OutputManifest load(Path outputDir) {
+        OutputManifest manifest = new OutputManifest(outputDir);
+        Path file = outputDir.resolve(FILE_NAME);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.lastIndexOf(' '); // Paths may contain spaces, hashes do not
+                if (separator > 0) {
+                    manifest.entries.put(line.substring(0, separator), line.substring(separator + 1));
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // First run into this directory
+        } catch (IOException e) {
+            System.err.println("Warning: ignoring output manifest " + file + ": " + e.getMessage());
+            manifest.entries.clear();
+        }
+        return manifest;
+    }
+
+    public Path getOutputDir() {
+        return outputDir;
+    }
+
+    /**
+     * Write content (UTF-8) to outputDir/relativePath unless the file already has it.
+     * Returns true if the file was written.
+     */
+    public boolean write(String relativePath, CharSequence content) throws IOException {
+        return write(relativePath, content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Write bytes (e.g. a class file) to outputDir/relativePath unless the file already has them.
+     * Returns true if the file was written.
+     */
+    public boolean write(String relativePath, byte[] bytes) throws IOException {
+        String key = FILE_PREFIX + relativePath.replace('\\', '/');
+        String hash = hash(bytes);
+        Path file = outputDir.resolve(relativePath);
+        if (hash.equals(entries.get(key)) && Files.isRegularFile(file) && Files.size(file) == bytes.length) {
+            unchangedCount++;
+            return false;
+        }
+        writeAtomically(file, bytes);
+        entries.put(key, hash);
+        dirty = true;
+        writtenCount++;
+        return true;
+    }
+
+    /**
+     * Record the source hash of a generated method. Returns true if it differs from the last
+     * run (or the method is new, or has no source hash).
+     */
+    public boolean updateMethod(String className, String methodName, String sourceHash) {
+        recordedClasses.add(className);
+        if (sourceHash == null) {
+            return true;
+        }
+        String key = METHOD_PREFIX + className + "." + methodName;
+        recordedMethods.add(key);
+        String previous = entries.put(key, sourceHash);
+        if (sourceHash.equals(previous)) {
+            return false;
+        }
+        dirty = true;
+        return true;
+    }
+
+    /**
+     * Write the manifest (atomically) if any entry changed, first dropping the entries of
+     * methods that no longer exist in the classes recorded by updateMethod().
+     */
+    public void save() throws IOException {
+        Iterator<String> keys = entries.keySet().iterator();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            if (key.startsWith(METHOD_PREFIX) && !recordedMethods.contains(key)
+                    && recordedClasses.contains(key.substring(METHOD_PREFIX.length(), key.lastIndexOf('.')))) {
+                keys.remove();
+                dirty = true;
+            }
+        }
+        if (!dirty) {
+            return;
+        }
+        StringBuilder content = new StringBuilder();
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            content.append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+        }
+        writeAtomically(outputDir.resolve(FILE_NAME), content.toString().getBytes(StandardCharsets.UTF_8));
+        dirty = false;
+    }
+
+    /**
+     * Files written by write() since the manifest was loaded.
+     */
+    public int getWrittenCount() {
+        return writtenCount;
+    }
+
+    /**
+     * Files write() left alone because their content was unchanged.
+     */
+    public int getUnchangedCount() {
+        return unchangedCount;
+    }
+
+    /**
+     * SHA-256 of the bytes, in hex.
+     */
+    public static String hash(byte[] bytes) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e); // Required on every JVM
+        }
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest(bytes)) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Write to a temp file next to file and rename it into place.
+     *
+     * The temp file is created like any new file (not with Files.createTempFile, whose files are
+     * owner-only), and takes over the permissions of the file it replaces.
+     */
+    static void writeAtomically(Path file, byte[] bytes) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = createTemp(parent, file.getFileName().toString());
+        try {
+            Files.write(temp, bytes);
+            if (Files.exists(file) && Files.getFileStore(temp).supportsFileAttributeView(PosixFileAttributeView.class)) {
+                Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(file));
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * New empty file parent/prefix.<random>.tmp, with default permissions.
+     */
+    private static Path createTemp(Path parent, String prefix) throws IOException {
+        while (true) {
+            Path temp = parent.resolve(prefix + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+            try {
+                return Files.createFile(temp);
+            } catch (FileAlreadyExistsException e) {
+                // Taken by another writer, try another name
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "OutputManifest(" + outputDir + ": " + writtenCount + " written, " + unchangedCount + " unchanged)";
+    }
+}
@@ -0,0 +1,517 @@
+package in.ac.iiitb.plproject.symex;
+
+import in.ac.iiitb.plproject.atc.ConcreteInput;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Streaming parser for the console output of SPF runs. ConcreteInputs are extracted from:
+ * - the "Method Summaries" section (SymbolicListener): an "Inputs: x_1_SYMINT,y_2_SYMREAL"
+ *   line, then one "pkg.Class.method(3,0.5)  --> Return Value: 4" line per path
+ * - the "Method Sequences" section (SymbolicSequenceListener): one "[push(3), pop()]" line per
+ *   path; every call of the sequence is an input
+ * - path conditions as Debug.printPC prints them: "constraint # = N", then one constraint per
+ *   line ("x_1_SYMINT[3] > CONST_0 &&"), solved values in brackets
+ *
+ * Each path yields one input. SPF prints a path's condition when the path ends and the method
+ * summaries after the search, so path conditions are held (one per distinct set of solved
+ * values) until then: a summary line takes the condition whose values it repeats, and the
+ * conditions no summary line took are passed on after the section (or by finish() if there is
+ * none). Other inputs go to the consumer as soon as they are complete; memory grows with the
+ * number of distinct paths, not with the size of the log.
+ *
+ * Lines are fed one at a time (accept(), or ByFile as a JpfProcessPool listener) or read from
+ * a Reader. Most lines of an SPF log
+ * (program output, search progress) are rejected on their first character; parse(Reader) does
+ * not create Strings for them at all.
+ *
+ * Not thread-safe: one parser per output stream.
+ */
+public final class SpfOutputParser {
+    private static final String SECTION_PREFIX = "=====";
+    private static final String SUMMARIES = " Method Summaries";
+    private static final String SEQUENCES = " Method Sequences";
+    private static final String SYSTEM_UNDER_TEST = " system under test";
+    private static final String INPUTS = "Inputs:";
+    private static final String ARROW = "  --> ";
+    private static final String RETURN_VALUE = "Return Value:";
+    private static final String PC_HEADER = "constraint # = ";
+    private static final String SYMBOL_MARK = "_SYM";
+    private static final int BUFFER_CHARS = 64 * 1024;
+
+    private enum Section { OTHER, SYSTEM_UNDER_TEST, SUMMARIES, SEQUENCES }
+
+    private final Consumer<ConcreteInput> sink;
+    private String method;
+    private Section section = Section.OTHER;
+    private String[] inputNames = new String[0];
+    private String[] inputTypes = new String[0];
+    private boolean inPathCondition;
+    private final StringBuilder pathCondition = new StringBuilder();
+    private final Map<String, Object> pathValues = new LinkedHashMap<>();
+    private final Map<Map<String, Object>, ConcreteInput> pathInputs = new LinkedHashMap<>();
+    private long lines;
+    private long inputs;
+
+    /**
+     * @param method Method the path conditions belong to (e.g. the symbolic.method of the run);
+     *               null = the target of the "system under test" section
+     * @param sink   Receives every input as soon as it is parsed
+     */
+    public SpfOutputParser(String method, Consumer<ConcreteInput> sink) {
+        this.method = method;
+        this.sink = sink;
+    }
+
+    /**
+     * Parse everything the reader returns, then finish().
+     */
+    public void parse(Reader reader) throws IOException {
+        char[] buffer = new char[BUFFER_CHARS];
+        int length = 0; // chars in buffer; [0, length) is the start of a line
+        int read;
+        while ((read = reader.read(buffer, length, buffer.length - length)) >= 0) {
+            int lineStart = lines(buffer, length, length + read);
+            length += read;
+            int rest = length - lineStart;
+            if (rest == buffer.length) {
+                // One line fills the buffer: skip the rest of it if it is not wanted, otherwise make room
+                if (!wanted(buffer, 0, rest)) {
+                    length = skipLine(reader, buffer);
+                    lineStart = lines(buffer, 0, length);
+                    System.arraycopy(buffer, lineStart, buffer, 0, length - lineStart);
+                    length -= lineStart;
+                    continue;
+                }
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            System.arraycopy(buffer, lineStart, buffer, 0, rest);
+            length = rest;
+        }
+        if (length > 0) {
+            line(buffer, 0, length);
+        }
+        finish();
+    }
+
+    /**
+     * Handle the complete lines in buffer; the chars before from contain no line terminator.
+     * Returns the start of the incomplete last line.
+     */
+    private int lines(char[] buffer, int from, int to) {
+        int lineStart = 0;
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == '\n') {
+                line(buffer, lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+        return lineStart;
+    }
+
+    /**
+     * Read past the end of the current line; the chars after it are moved to the start of
+     * buffer and their number returned.
+     */
+    private int skipLine(Reader reader, char[] buffer) throws IOException {
+        lines++;
+        int read;
+        while ((read = reader.read(buffer, 0, buffer.length)) >= 0) {
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    System.arraycopy(buffer, i + 1, buffer, 0, read - i - 1);
+                    return read - i - 1;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private void line(char[] buffer, int from, int to) {
+        if (to > from && buffer[to - 1] == '\r') {
+            to--;
+        }
+        if (wanted(buffer, from, to)) {
+            accept(new String(buffer, from, to - from));
+        } else {
+            lines++;
+        }
+    }
+
+    /**
+     * True if the line can start or continue anything the parser extracts.
+     */
+    private boolean wanted(char[] buffer, int from, int to) {
+        if (inPathCondition || section == Section.SYSTEM_UNDER_TEST || section == Section.SUMMARIES) {
+            return true;
+        }
+        if (to == from) {
+            return false;
+        }
+        char first = buffer[from];
+        if (first == '=' || (first == '[' && section == Section.SEQUENCES)) {
+            return true;
+        }
+        if (first != 'c' || to - from < PC_HEADER.length()) {
+            return false;
+        }
+        for (int i = 1; i < PC_HEADER.length(); i++) {
+            if (buffer[from + i] != PC_HEADER.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Feed one line of output (without the line terminator).
+     */
+    public void accept(String line) {
+        lines++;
+        if (inPathCondition) {
+            pathConditionLine(line);
+            return;
+        }
+        if (line.isEmpty()) {
+            return;
+        }
+        char first = line.charAt(0);
+        if (first == '=' && line.startsWith(SECTION_PREFIX)) {
+            if (section == Section.SUMMARIES) {
+                emitPathInputs();
+            }
+            section = line.endsWith(SUMMARIES) ? Section.SUMMARIES
+                : line.endsWith(SEQUENCES) ? Section.SEQUENCES
+                : line.endsWith(SYSTEM_UNDER_TEST) ? Section.SYSTEM_UNDER_TEST : Section.OTHER;
+            if (section == Section.SUMMARIES) {
+                inputNames = new String[0];
+                inputTypes = new String[0];
+            }
+        } else if (first == 'c' && line.startsWith(PC_HEADER)) {
+            startPathCondition(line);
+        } else if (section == Section.SYSTEM_UNDER_TEST) {
+            // "pkg.Class.main()"
+            int paren = line.indexOf('(');
+            if (method == null && paren > 0) {
+                method = line.substring(0, paren).trim();
+            }
+            section = Section.OTHER;
+        } else if (section == Section.SUMMARIES) {
+            summaryLine(line);
+        } else if (section == Section.SEQUENCES && first == '[') {
+            sequenceLine(line);
+        }
+    }
+
+    /**
+     * Complete what the output ended in the middle of (a path condition without its last line)
+     * and pass on the path conditions no method summary took.
+     */
+    public void finish() {
+        if (inPathCondition) {
+            endPathCondition();
+        }
+        emitPathInputs();
+    }
+
+    public long getLineCount() {
+        return lines;
+    }
+
+    public long getInputCount() {
+        return inputs;
+    }
+
+    private void startPathCondition(String line) {
+        pathCondition.setLength(0);
+        pathValues.clear();
+        int count;
+        try {
+            count = Integer.parseInt(line.substring(PC_HEADER.length()).trim());
+        } catch (NumberFormatException e) {
+            return;
+        }
+        if (count == 0) {
+            pathCondition.append("true");
+            endPathCondition();
+        } else {
+            inPathCondition = true;
+        }
+    }
+
+    private void pathConditionLine(String line) {
+        String constraint = line.trim();
+        boolean more = constraint.endsWith("&&");
+        if (more) {
+            constraint = constraint.substring(0, constraint.length() - 2).trim();
+        }
+        if (pathCondition.length() > 0) {
+            pathCondition.append(" && ");
+        }
+        pathCondition.append(constraint);
+        collectSolvedSymbols(constraint, pathValues);
+        if (!more) {
+            endPathCondition();
+        }
+    }
+
+    private void endPathCondition() {
+        inPathCondition = false;
+        ConcreteInput input = new ConcreteInput(method, pathValues, pathCondition.toString(), ConcreteInput.Outcome.PASSED, null);
+        pathInputs.putIfAbsent(input.getValues(), input);
+    }
+
+    /**
+     * Condition of the held path whose solved values all appear in values (no longer held
+     * afterwards), or null.
+     */
+    private String takePathCondition(Map<String, Object> values) {
+        Iterator<ConcreteInput> held = pathInputs.values().iterator();
+        while (held.hasNext()) {
+            ConcreteInput input = held.next();
+            if (values.entrySet().containsAll(input.getValues().entrySet())) {
+                held.remove();
+                return input.getPathCondition();
+            }
+        }
+        return null;
+    }
+
+    private void emitPathInputs() {
+        for (ConcreteInput input : pathInputs.values()) {
+            emit(input);
+        }
+        pathInputs.clear();
+    }
+
+    /**
+     * "Inputs: x_1_SYMINT,y_2_SYMREAL" or "pkg.Class.method(3,0.5)  --> <outcome>".
+     */
+    private void summaryLine(String line) {
+        if (line.startsWith(INPUTS)) {
+            List<String> symbols = splitArguments(line, INPUTS.length(), line.length());
+            inputNames = new String[symbols.size()];
+            inputTypes = new String[symbols.size()];
+            for (int i = 0; i < symbols.size(); i++) {
+                String symbol = symbols.get(i);
+                int mark = symbol.lastIndexOf(SYMBOL_MARK);
+                inputNames[i] = mark > 0 ? variableName(symbol, 0, mark) : symbol;
+                inputTypes[i] = mark > 0 ? symbol.substring(mark + SYMBOL_MARK.length()) : null;
+            }
+            return;
+        }
+        int arrow = line.indexOf(ARROW);
+        if (arrow < 0) {
+            return;
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        String called = call(line, 0, arrow, values, true);
+        if (called == null) {
+            return;
+        }
+        String result = line.substring(arrow + ARROW.length()).trim();
+        String pc = takePathCondition(values);
+        if (result.startsWith(RETURN_VALUE)) {
+            emit(new ConcreteInput(called, values, pc, ConcreteInput.Outcome.PASSED,
+                result.substring(RETURN_VALUE.length()).trim()));
+        } else {
+            emit(new ConcreteInput(called, values, pc, ConcreteInput.Outcome.FAILED, unquote(result)));
+        }
+    }
+
+    /**
+     * "[pkg.Class.push(3), pkg.Class.pop()]": one input per call.
+     */
+    private void sequenceLine(String line) {
+        int end = line.lastIndexOf(']');
+        if (end < 0) {
+            return;
+        }
+        for (String step : splitArguments(line, 1, end)) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            String called = call(step, 0, step.length(), values, false);
+            if (called != null) {
+                emit(new ConcreteInput(called, values, null, ConcreteInput.Outcome.PASSED, null));
+            }
+        }
+    }
+
+    /**
+     * Method name of "name(arg,...)" in text[from, to), with the arguments added to values
+     * (named after the summary's Inputs line if useInputs, else arg0, arg1, ...).
+     */
+    private String call(String text, int from, int to, Map<String, Object> values, boolean useInputs) {
+        int open = text.indexOf('(', from);
+        int close = text.lastIndexOf(')', to - 1);
+        if (open < 0 || close < open || close >= to) {
+            return null;
+        }
+        List<String> arguments = splitArguments(text, open + 1, close);
+        boolean named = useInputs && arguments.size() == inputNames.length;
+        for (int i = 0; i < arguments.size(); i++) {
+            values.put(named ? inputNames[i] : "arg" + i, typedValue(arguments.get(i), named ? inputTypes[i] : null));
+        }
+        return text.substring(from, open).trim();
+    }
+
+    private void emit(ConcreteInput input) {
+        inputs++;
+        sink.accept(input);
+    }
+
+    /**
+     * Adds name -> value for every "name_N_SYMTYPE[value]" in the constraint.
+     */
+    static void collectSolvedSymbols(String constraint, Map<String, Object> values) {
+        int mark = constraint.indexOf(SYMBOL_MARK);
+        while (mark > 0) {
+            int typeEnd = mark + SYMBOL_MARK.length();
+            while (typeEnd < constraint.length() && Character.isUpperCase(constraint.charAt(typeEnd))) {
+                typeEnd++;
+            }
+            if (typeEnd < constraint.length() && constraint.charAt(typeEnd) == '[') {
+                int close = constraint.indexOf(']', typeEnd);
+                int start = mark;
+                while (start > 0 && Character.isJavaIdentifierPart(constraint.charAt(start - 1))) {
+                    start--;
+                }
+                if (close > typeEnd && start < mark) {
+                    String name = variableName(constraint, start, mark);
+                    if (!values.containsKey(name)) {
+                        values.put(name, typedValue(constraint.substring(typeEnd + 1, close),
+                            constraint.substring(mark + SYMBOL_MARK.length(), typeEnd)));
+                    }
+                }
+            }
+            mark = constraint.indexOf(SYMBOL_MARK, typeEnd);
+        }
+    }
+
+    /**
+     * "x_12" in symbol[start, mark) -> "x" (SPF numbers every symbolic variable it creates).
+     */
+    private static String variableName(String symbol, int start, int mark) {
+        int i = mark;
+        while (i > start && Character.isDigit(symbol.charAt(i - 1))) {
+            i--;
+        }
+        return i < mark && i - 1 > start && symbol.charAt(i - 1) == '_' ? symbol.substring(start, i - 1)
+            : symbol.substring(start, mark);
+    }
+
+    /**
+     * @param type INT, REAL, STRING, ... (the SYM suffix), or null to guess from the text
+     */
+    static Object typedValue(String text, String type) {
+        String value = text.trim();
+        if ("STRING".equals(type) || (value.length() >= 2 && value.charAt(0) == '"')) {
+            return unquote(value);
+        }
+        try {
+            if ("REAL".equals(type)) {
+                return Double.valueOf(value);
+            }
+            if ("INT".equals(type) || type == null) {
+                long number = Long.parseLong(value);
+                return number == (int) number ? (Object) (int) number : (Object) number;
+            }
+        } catch (NumberFormatException e) {
+            if (type == null) {
+                try {
+                    return Double.valueOf(value);
+                } catch (NumberFormatException notReal) {
+                    return value;
+                }
+            }
+        }
+        return value;
+    }
+
+    private static String unquote(String text) {
+        return text.length() >= 2 && text.charAt(0) == '"' && text.charAt(text.length() - 1) == '"'
+            ? text.substring(1, text.length() - 1) : text;
+    }
+
+    /**
+     * Comma-separated items of text[from, to), not splitting inside quotes or brackets.
+     */
+    private static List<String> splitArguments(String text, int from, int to) {
+        List<String> items = new ArrayList<>();
+        int depth = 0;
+        boolean quoted = false;
+        int start = from;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == '(' || c == '[' || c == '{') {
+                depth++;
+            } else if (c == ')' || c == ']' || c == '}') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                addItem(text, start, i, items);
+                start = i + 1;
+            }
+        }
+        addItem(text, start, to, items);
+        return items;
+    }
+
+    private static void addItem(String text, int from, int to, List<String> items) {
+        String item = text.substring(from, to).trim();
+        if (!item.isEmpty()) {
+            items.add(item);
+        }
+    }
+
+    /**
+     * JpfProcessPool listener with one parser per .jpf file (runs are interleaved); the sink
+     * gets the .jpf file with each input and is called from the pool's threads.
+     */
+    public static final class ByFile implements JpfProcessPool.OutputListener {
+        private final Function<Path, String> methodOfFile;
+        private final BiConsumer<Path, ConcreteInput> sink;
+        private final Map<Path, SpfOutputParser> parsers = new ConcurrentHashMap<>();
+
+        /**
+         * @param methodOfFile Method of a .jpf file's path conditions (see SpfOutputParser())
+         */
+        public ByFile(Function<Path, String> methodOfFile, BiConsumer<Path, ConcreteInput> sink) {
+            this.methodOfFile = methodOfFile;
+            this.sink = sink;
+        }
+
+        @Override
+        public void onLine(Path jpfFile, String line) {
+            parsers.computeIfAbsent(jpfFile, file -> new SpfOutputParser(methodOfFile.apply(file),
+                input -> sink.accept(file, input))).accept(line);
+        }
+
+        /**
+         * Finish every parser; call after the runs.
+         */
+        public void finish() {
+            for (SpfOutputParser parser : parsers.values()) {
+                parser.finish();
+            }
+        }
+    }
+}
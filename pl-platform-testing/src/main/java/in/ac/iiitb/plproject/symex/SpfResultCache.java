@@ -0,0 +1,426 @@
+package in.ac.iiitb.plproject.symex;
+
+import in.ac.iiitb.plproject.atc.ConcreteInput;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Results of SPF runs on local disk, keyed by a hash of everything a run depends on (see key()):
+ * the rendered helper, the Helper class under test and the .jpf settings. A helper that did not
+ * change gets its status, errors and ConcreteInputs back without running JPF again.
+ *
+ * One file per entry, <key>.spf, written atomically. The first line holds a SHA-256 of the rest;
+ * an entry that does not match it (truncated, edited, disk error) is deleted and treated as a
+ * miss. The total size is bounded: when it is exceeded the least recently used entries (by file
+ * modification time, which get() updates) are evicted, so the order survives restarts.
+ *
+ * Only complete runs (NO_ERRORS, ERRORS) should be stored; a timed out or failed run says
+ * nothing about the helper. Input values come back as Integer, Long, Double, Boolean or String;
+ * values of other types as their toString(). Thread-safe within one process; processes sharing
+ * a directory see each other's entries, but each bounds the size by the entries it knows of.
+ */
+public final class SpfResultCache {
+    private static final String SUFFIX = ".spf";
+    private static final String HEADER = "spf-result 1 ";
+    private static final String NULL = "\\N";
+
+    /**
+     * A cached run: its status, "error #N" lines and inputs.
+     */
+    public static final class Entry {
+        private final JpfResult.Status status;
+        private final List<String> errors;
+        private final List<ConcreteInput> inputs;
+
+        Entry(JpfResult.Status status, List<String> errors, List<ConcreteInput> inputs) {
+            this.status = status;
+            this.errors = Collections.unmodifiableList(errors);
+            this.inputs = Collections.unmodifiableList(inputs);
+        }
+
+        public JpfResult.Status getStatus() {
+            return status;
+        }
+
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        public List<ConcreteInput> getInputs() {
+            return inputs;
+        }
+    }
+
+    private final Path dir;
+    private final long maxBytes;
+    // Key -> file size, least recently used first
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private long hits;
+    private long misses;
+    private long corrupt;
+    private long evictions;
+
+    private SpfResultCache(Path dir, long maxBytes) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Cache in dir (created if missing), holding at most maxBytes of entries.
+     */
+    public static SpfResultCache open(Path dir, long maxBytes) throws IOException {
+        Files.createDirectories(dir);
+        SpfResultCache cache = new SpfResultCache(dir, maxBytes);
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Map<Path, FileTime> modified = new LinkedHashMap<>();
+        for (Path file : files) {
+            try {
+                modified.put(file, Files.getLastModifiedTime(file));
+            } catch (NoSuchFileException e) {
+                // Evicted by another process meanwhile
+            }
+        }
+        List<Path> byAge = new ArrayList<>(modified.keySet());
+        byAge.sort((a, b) -> modified.get(a).compareTo(modified.get(b)));
+        synchronized (cache) {
+            for (Path file : byAge) {
+                String name = file.getFileName().toString();
+                try {
+                    cache.add(name.substring(0, name.length() - SUFFIX.length()), Files.size(file));
+                } catch (NoSuchFileException e) {
+                    // Evicted by another process meanwhile
+                }
+            }
+            cache.evict();
+        }
+        return cache;
+    }
+
+    /**
+     * Cache configured by system properties, or null if spf.cache.dir is not set;
+     * spf.cache.max_mb bounds its size (default 256).
+     */
+    public static SpfResultCache fromSystemProperties() {
+        String dir = System.getProperty("spf.cache.dir");
+        if (dir == null || dir.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return open(Paths.get(dir.trim()), Long.getLong("spf.cache.max_mb", 256) * 1024 * 1024);
+        } catch (IOException e) {
+            System.err.println("Warning: SPF result cache " + dir + " disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Key of a run: SHA-256 over the parts, each prefixed with its length so that moving text
+     * from one part to the next changes the key.
+     */
+    public static String key(String... parts) {
+        StringBuilder text = new StringBuilder("spf-result-key 2\n");
+        for (String part : parts) {
+            String value = part == null ? "" : part;
+            text.append(part == null ? -1 : value.length()).append(':').append(value).append('\n');
+        }
+        return OutputManifest.hash(text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Cached run for the key, or null (missing, or failed its integrity check and was removed).
+     */
+    public synchronized Entry get(String key) {
+        Path file = file(key);
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            forget(key);
+            misses++;
+            return null;
+        } catch (IOException e) {
+            System.err.println("Warning: cannot read SPF result cache entry " + file + ": " + e.getMessage());
+            misses++;
+            return null;
+        }
+        Entry entry = decode(new String(bytes, StandardCharsets.UTF_8));
+        if (entry == null) {
+            corrupt++;
+            misses++;
+            remove(key);
+            return null;
+        }
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Evicted meanwhile; the entry was read already
+        }
+        if (!index.containsKey(key)) {
+            add(key, bytes.length); // Written by another process
+            evict();
+        } else {
+            index.get(key); // Most recently used now
+        }
+        hits++;
+        return entry;
+    }
+
+    /**
+     * Store a run; entries over the size bound on their own are not stored.
+     */
+    public synchronized void put(String key, JpfResult.Status status, List<String> errors, List<ConcreteInput> inputs) {
+        byte[] bytes = encode(status, errors, inputs).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > maxBytes) {
+            return;
+        }
+        try {
+            OutputManifest.writeAtomically(file(key), bytes);
+        } catch (IOException e) {
+            System.err.println("Warning: cannot write SPF result cache entry " + file(key) + ": " + e.getMessage());
+            return;
+        }
+        forget(key);
+        add(key, bytes.length);
+        evict();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Entries removed because they failed their integrity check.
+     */
+    public synchronized long getCorrupt() {
+        return corrupt;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public Path getDir() {
+        return dir;
+    }
+
+    /**
+     * Path of the entry file of a key (for tools and tests).
+     */
+    public Path file(String key) {
+        return dir.resolve(key + SUFFIX);
+    }
+
+    private void add(String key, long bytes) {
+        index.put(key, bytes);
+        totalBytes += bytes;
+    }
+
+    private void forget(String key) {
+        Long bytes = index.remove(key);
+        if (bytes != null) {
+            totalBytes -= bytes;
+        }
+    }
+
+    private void remove(String key) {
+        forget(key);
+        try {
+            Files.deleteIfExists(file(key));
+        } catch (IOException e) {
+            System.err.println("Warning: cannot delete SPF result cache entry " + file(key) + ": " + e.getMessage());
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> oldest = index.entrySet().iterator();
+        while (totalBytes > maxBytes && oldest.hasNext()) {
+            Map.Entry<String, Long> entry = oldest.next();
+            oldest.remove();
+            totalBytes -= entry.getValue();
+            evictions++;
+            try {
+                Files.deleteIfExists(file(entry.getKey()));
+            } catch (IOException e) {
+                System.err.println("Warning: cannot evict SPF result cache entry " + entry.getKey() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /*
+     * Entry format, after the header line "spf-result 1 <SHA-256 of the body>":
+     *   status <Status>
+     *   error <text>
+     *   input <method> \t <outcome> \t <path condition> \t <detail>
+     *   value <name> \t <type> \t <text>          (values of the preceding input)
+     * Fields are escaped (backslash, tab, CR, LF); \N is null. Types: I(nteger), L(ong),
+     * D(ouble), B(oolean), S(tring), N(ull).
+     */
+
+    private static String encode(JpfResult.Status status, List<String> errors, List<ConcreteInput> inputs) {
+        StringBuilder body = new StringBuilder();
+        body.append("status ").append(status.name()).append('\n');
+        for (String error : errors) {
+            body.append("error ").append(escape(error)).append('\n');
+        }
+        for (ConcreteInput input : inputs) {
+            body.append("input ").append(escape(input.getMethod())).append('\t').append(input.getOutcome().name())
+                .append('\t').append(escape(input.getPathCondition())).append('\t').append(escape(input.getDetail()))
+                .append('\n');
+            for (Map.Entry<String, Object> value : input.getValues().entrySet()) {
+                Object v = value.getValue();
+                char type = v == null ? 'N' : v instanceof Integer ? 'I' : v instanceof Long ? 'L'
+                    : v instanceof Double ? 'D' : v instanceof Boolean ? 'B' : 'S';
+                body.append("value ").append(escape(value.getKey())).append('\t').append(type).append('\t')
+                    .append(escape(v == null ? null : v.toString())).append('\n');
+            }
+        }
+        String text = body.toString();
+        return HEADER + OutputManifest.hash(text.getBytes(StandardCharsets.UTF_8)) + "\n" + text;
+    }
+
+    /**
+     * The entry, or null if the text is not a valid entry.
+     */
+    private static Entry decode(String text) {
+        int headerEnd = text.indexOf('\n');
+        if (!text.startsWith(HEADER) || headerEnd < 0) {
+            return null;
+        }
+        String body = text.substring(headerEnd + 1);
+        if (!text.substring(HEADER.length(), headerEnd).equals(OutputManifest.hash(body.getBytes(StandardCharsets.UTF_8)))) {
+            return null;
+        }
+        try {
+            JpfResult.Status status = null;
+            List<String> errors = new ArrayList<>();
+            List<ConcreteInput> inputs = new ArrayList<>();
+            String[] pending = null; // Fields of the input whose values are being read
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (String line : body.split("\n")) {
+                if (line.startsWith("status ")) {
+                    status = JpfResult.Status.valueOf(line.substring(7));
+                } else if (line.startsWith("error ")) {
+                    errors.add(unescape(line.substring(6)));
+                } else if (line.startsWith("input ")) {
+                    addInput(pending, values, inputs);
+                    pending = line.substring(6).split("\t", -1);
+                    values = new LinkedHashMap<>();
+                } else if (line.startsWith("value ") && pending != null) {
+                    String[] fields = line.substring(6).split("\t", -1);
+                    values.put(unescape(fields[0]), value(fields[1].charAt(0), unescape(fields[2])));
+                } else if (!line.isEmpty()) {
+                    return null;
+                }
+            }
+            addInput(pending, values, inputs);
+            return status == null ? null : new Entry(status, errors, inputs);
+        } catch (RuntimeException e) {
+            return null; // Checksum matched but the content is not an entry (e.g. another version)
+        }
+    }
+
+    private static void addInput(String[] fields, Map<String, Object> values, List<ConcreteInput> inputs) {
+        if (fields != null) {
+            inputs.add(new ConcreteInput(unescape(fields[0]), values, unescape(fields[2]),
+                ConcreteInput.Outcome.valueOf(fields[1]), unescape(fields[3])));
+        }
+    }
+
+    private static Object value(char type, String text) {
+        switch (type) {
+            case 'I':
+                return Integer.valueOf(text);
+            case 'L':
+                return Long.valueOf(text);
+            case 'D':
+                return Double.valueOf(text);
+            case 'B':
+                return Boolean.valueOf(text);
+            case 'N':
+                return null;
+            default:
+                return text;
+        }
+    }
+
+    private static String escape(String text) {
+        if (text == null) {
+            return NULL;
+        }
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\':
+                    escaped.append("\\\\");
+                    break;
+                case '\t':
+                    escaped.append("\\t");
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                case '\r':
+                    escaped.append("\\r");
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String unescape(String text) {
+        if (NULL.equals(text)) {
+            return null;
+        }
+        StringBuilder unescaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                unescaped.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                unescaped.append(c);
+            }
+        }
+        return unescaped.toString();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("SpfResultCache(%s: %d entries, %d bytes; %d hits, %d misses, %d corrupt, %d evicted)",
+            dir, index.size(), totalBytes, hits, misses, corrupt, evictions);
+    }
+}
@@ -4,22 +4,121 @@ import in.ac.iiitb.plproject.atc.ConcreteInput;
 import in.ac.iiitb.plproject.atc.ir.AtcClass;
 import in.ac.iiitb.plproject.atc.ir.AtcTestMethod;
 import in.ac.iiitb.plproject.atc.ir.AtcIrCodeGenerator;
+import in.ac.iiitb.plproject.atc.ir.AtcMethodRenderCache;
+import in.ac.iiitb.plproject.atc.ir.AtcSuite;
+import in.ac.iiitb.plproject.parser.ast.JmlSpecAst;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.ArrayList;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 
-public class SpfWrapper {
+/**
+ * The file-generating SymbolicBackend: writes the JPF-transformed class, its .jpf files and
+ * Helper.java to outputs/, compiles them in memory, and runs JPF in child processes.
+ */
+public class SpfWrapper implements SymbolicBackend {
+    
+    // Mock implementations of the functions under test, called by the generated helpers
+    private static final String HELPER_SOURCE =
+        "package in.ac.iiitb.plproject.atc.generated;\n\n"
+        + "import java.util.Set;\n"
+        + "import java.util.Map;\n"
+        + "import java.util.HashSet;\n"
+        + "import java.util.HashMap;\n\n"
+        + "public class Helper {\n"
+        + "    public static void appendExclamation(String s) {\n"
+        + "        if (s != null) {\n"
+        + "        }\n"
+        + "    }\n\n"
+        + "    public static void increment(int[] x) {\n"
+        + "        if (x != null && x.length > 0) {\n"
+        + "            x[0] = x[0] + 1;\n"
+        + "        }\n"
+        + "    }\n\n"
+        + "    public static void process(Set<Integer> data, Map<Integer, Integer> result) {\n"
+        + "        if (data != null && result != null) {\n"
+        + "            for (Integer item : data) {\n"
+        + "                result.put(item, item * 2);\n"
+        + "            }\n"
+        + "        }\n"
+        + "    }\n\n"
+        + "    public static Map<?,?> update(Map<Integer, Integer> result, Set<Integer> data) {\n"
+        + "        if (result == null) {\n"
+        + "            return new HashMap<>();\n"
+        + "        }\n"
+        + "        Map<Integer, Integer> updated = new HashMap<>(result);\n"
+        + "        if (data != null) {\n"
+        + "            for (Integer item : data) {\n"
+        + "                updated.put(item, item * 2);\n"
+        + "            }\n"
+        + "        }\n"
+        + "        return updated;\n"
+        + "    }\n"
+        + "}\n";
+    private static final String HELPER_CLASS_NAME = "in.ac.iiitb.plproject.atc.generated.Helper";
+    private static final Map<String, String> HELPER_RETURN_TYPES = declaredReturnTypes(HELPER_SOURCE);
     
     private AtcIrToSymbolicIrTransformer transformer;
     private AtcIrCodeGenerator codeGenerator;
+    // Rendered JPF-transformed helpers, reused while their spec does not change
+    private final AtcMethodRenderCache renderCache = new AtcMethodRenderCache();
+    private final AtcCompiler compiler = new AtcCompiler();
+    private final IntRangeAnalysis rangeAnalysis = new IntRangeAnalysis();
+    // Runs JPF on the generated .jpf files (null = configured by system properties, if at all)
+    private JpfProcessPool jpfPool;
+    private volatile JpfProcessPool runningPool;
+    // Results of earlier SPF runs (null = configured by system properties, if at all)
+    private SpfResultCache resultCache;
+    private boolean resultCacheResolved;
     
     public SpfWrapper() {
+        this(new AtcIrCodeGenerator(HELPER_RETURN_TYPES));
+    }
+    
+    /**
+     * Use a shared code generator (AtcIrCodeGenerator is stateless and thread-safe).
+     */
+    public SpfWrapper(AtcIrCodeGenerator codeGenerator) {
         this.transformer = new AtcIrToSymbolicIrTransformer();
-        this.codeGenerator = new AtcIrCodeGenerator();
+        this.codeGenerator = codeGenerator;
+    }
+    
+    /**
+     * Return type of each non-void method of the generated Helper class (name -> type), as
+     * declared in its source; used to type calls like Helper.update(...) in conditions.
+     */
+    public static Map<String, String> getHelperReturnTypes() {
+        return HELPER_RETURN_TYPES;
+    }
+    
+    /**
+     * "public static <type> <name>(" declarations of a class source, one per line.
+     */
+    private static Map<String, String> declaredReturnTypes(String source) {
+        Map<String, String> types = new LinkedHashMap<>();
+        String prefix = "public static ";
+        for (String line : source.split("\n")) {
+            line = line.trim();
+            int paren = line.indexOf('(');
+            if (!line.startsWith(prefix) || paren < 0) {
+                continue;
+            }
+            String declaration = line.substring(prefix.length(), paren).trim();
+            int space = declaration.lastIndexOf(' ');
+            String type = space > 0 ? declaration.substring(0, space).trim() : "void";
+            if (!type.equals("void")) {
+                types.put(declaration.substring(space + 1), type);
+            }
+        }
+        return Collections.unmodifiableMap(types);
     }
     
     private String extractMethodSignature(String javaCode, String methodName) {
@@ -109,25 +208,25 @@ public class SpfWrapper {
     }
     
     public void printBothVersions(AtcClass atcClass) {
-        String simpleJavaCode = codeGenerator.generateJavaFile(atcClass);
-        AtcClass symbolicIr = transformer.transform(atcClass);
-        String jpfCode = codeGenerator.generateSymbolicJavaFile(symbolicIr);
-        printBothVersions(simpleJavaCode, jpfCode, atcClass);
+        printBothVersions(atcClass, transformer.transform(atcClass));
     }
     
-    private void printBothVersions(String simpleJavaCode, String jpfCode, AtcClass atcClass) {
+    /**
+     * Prints both versions, streaming the generated code straight to System.out.
+     */
+    private void printBothVersions(AtcClass atcClass, AtcClass symbolicIr) {
         String separator = "================================================================================";
         
         System.out.println("\n" + separator);
         System.out.println("ORIGINAL ATC CODE (Generated by NewGenATC - Non-Symbolic):");
         System.out.println(separator);
-        System.out.println(simpleJavaCode);
+        printJavaFile(atcClass);
         System.out.println();
         
         System.out.println(separator);
         System.out.println("JPF-TRANSFORMED CODE (Ready for Symbolic PathFinder):");
         System.out.println(separator);
-        System.out.println(jpfCode);
+        printJavaFile(symbolicIr);
         System.out.println();
         
         String packageName = atcClass.getPackageName();
@@ -136,22 +235,17 @@ public class SpfWrapper {
             ? packageName + "." + className 
             : className;
         
-        List<String> testMethods = new ArrayList<>();
-        for (AtcTestMethod method : atcClass.getTestMethods()) {
-            if (method.isTestAnnotated() && !method.isMain()) {
-                testMethods.add(method.getMethodName());
-            }
-        }
+        List<AtcTestMethod> testMethods = getJpfTestMethods(symbolicIr);
         
         if (fullClassName != null && !testMethods.isEmpty()) {
             System.out.println(separator);
             System.out.println("GENERATED .JPF CONFIGURATION FILES:");
             System.out.println(separator);
             
-            String firstMethod = testMethods.get(0);
+            AtcTestMethod firstMethod = testMethods.get(0);
             try {
-                String jpfContent = generateJpfFile(fullClassName, firstMethod, null, null, null, jpfCode);
-                System.out.println("# Example .jpf file for: " + fullClassName + "." + firstMethod + "()");
+                String jpfContent = generateJpfFile(fullClassName, firstMethod, null, null, null);
+                System.out.println("# Example .jpf file for: " + fullClassName + "." + firstMethod.getMethodName() + "()");
                 System.out.println(jpfContent);
                 System.out.println();
                 
@@ -164,30 +258,384 @@ public class SpfWrapper {
         }
     }
     
+    /**
+     * Run JPF through the given pool (owned by the caller) instead of one configured by
+     * system properties (see JpfProcessPool.fromSystemProperties()).
+     */
+    public void setJpfPool(JpfProcessPool jpfPool) {
+        this.jpfPool = jpfPool;
+    }
+    
+    /**
+     * Reuse the results of unchanged helpers from this cache (null = no caching) instead of one
+     * configured by system properties (see SpfResultCache.fromSystemProperties()).
+     */
+    public synchronized void setResultCache(SpfResultCache resultCache) {
+        this.resultCache = resultCache;
+        this.resultCacheResolved = true;
+    }
+    
+    public synchronized SpfResultCache getResultCache() {
+        if (!resultCacheResolved) {
+            resultCache = SpfResultCache.fromSystemProperties();
+            resultCacheResolved = true;
+        }
+        return resultCache;
+    }
+    
     public List<ConcreteInput> run(AtcClass atcClass) {
-        printBothVersions(atcClass);
-        
+        return run(atcClass, null);
+    }
+    
+    /**
+     * prepare(), execute() and collect() in one call.
+     *
+     * @param specAst Specs the class was generated from, to map compile errors back to them (may be null)
+     */
+    public List<ConcreteInput> run(AtcClass atcClass, JmlSpecAst specAst) {
+        SymbolicJob job = prepare(atcClass, specAst);
+        execute(job);
+        return collect(job);
+    }
+    
+    /**
+     * Print the class (plain and JPF-transformed), save the outputs/ files, compile the
+     * generated classes in memory and write them to outputs/bin for JPF.
+     */
+    @Override
+    public SymbolicJob prepare(AtcClass atcClass, JmlSpecAst specAst) {
+        // Transform once; each output (console, saved file) renders the IR exactly once
         AtcClass symbolicIr = transformer.transform(atcClass);
-        String jpfCode = codeGenerator.generateSymbolicJavaFile(symbolicIr);
-        String simpleJavaCode = codeGenerator.generateJavaFile(atcClass);
+        printBothVersions(atcClass, symbolicIr);
         
+        Path outputDir = Paths.get("outputs");
         try {
-            saveOutputFiles(simpleJavaCode, jpfCode, symbolicIr);
+            saveOutputFiles(symbolicIr);
         } catch (IOException e) {
             System.err.println("Error saving output files: " + e.getMessage());
             e.printStackTrace();
         }
         
-        System.out.println("(SPF execution not yet implemented)");
-        return new ArrayList<ConcreteInput>();
+        System.out.println("\n=== Compiling generated classes (in memory) ===");
+        AtcCompiler.Result result = null;
+        if (compiler.isAvailable()) {
+            result = compileTransformed(Collections.singletonList(symbolicIr), specAst);
+            for (AtcCompiler.CompileDiagnostic diagnostic : result.getDiagnostics()) {
+                System.out.println("  " + diagnostic);
+            }
+            System.out.println(result.isSuccess() ? "Compiled: " + result.getClassBytes().keySet()
+                : "Compilation failed: " + result.getErrors().size() + " error(s)");
+            if (result.isSuccess()) {
+                try {
+                    writeClasses(result, outputDir);
+                } catch (IOException e) {
+                    System.err.println("Error writing compiled classes: " + e.getMessage());
+                }
+            }
+        } else {
+            System.out.println("Skipped: no system Java compiler (running on a JRE)");
+        }
+        
+        List<Path> jpfFiles = new ArrayList<>();
+        for (AtcTestMethod method : getJpfTestMethods(symbolicIr)) {
+            jpfFiles.add(outputDir.resolve(symbolicIr.getClassName() + "_" + method.getMethodName() + ".jpf"));
+        }
+        if (jpfFiles.isEmpty()) {
+            jpfFiles.add(outputDir.resolve(symbolicIr.getClassName() + "_main.jpf"));
+        }
+        Map<Path, String> cacheKeys = new HashMap<>();
+        if (getResultCache() != null) {
+            try {
+                cacheKeys = cacheKeys(symbolicIr, jpfFiles);
+            } catch (IOException e) {
+                System.err.println("Error computing SPF result cache keys: " + e.getMessage());
+            }
+        }
+        return new SymbolicJob(symbolicIr, specAst, outputDir, jpfFiles, result, cacheKeys);
+    }
+    
+    /**
+     * SpfResultCache key of each .jpf file: the rendered helper, the class's other generated
+     * methods (e.g. choice branches the helper calls), Helper.java and the .jpf file's settings.
+     * main() only calls the helpers, so adding or reordering calls does not invalidate them.
+     * For a class without helpers (_main.jpf), the whole class. Entries are stored under this
+     * key combined with the backend's run settings (SymbolicJob.getCacheKey(jpfFile, runSettings)),
+     * so a run cut short by a shorter time limit or made by another JPF is not reused.
+     */
+    private Map<Path, String> cacheKeys(AtcClass symbolicIr, List<Path> jpfFiles) throws IOException {
+        String packageName = symbolicIr.getPackageName();
+        String fullClassName = (packageName != null && !packageName.isEmpty())
+            ? packageName + "." + symbolicIr.getClassName() : symbolicIr.getClassName();
+        List<AtcTestMethod> helpers = getJpfTestMethods(symbolicIr);
+        Map<Path, String> keys = new HashMap<>();
+        if (helpers.isEmpty()) {
+            keys.put(jpfFiles.get(0), SpfResultCache.key(fullClassName, codeGenerator.generateJavaFile(symbolicIr), HELPER_SOURCE,
+                generateJpfFile(fullClassName, "main", null, "./bin", null, null)));
+            return keys;
+        }
+        StringBuilder shared = new StringBuilder();
+        for (String anImport : symbolicIr.getImports()) {
+            shared.append("import ").append(anImport).append(";\n");
+        }
+        for (AtcTestMethod method : symbolicIr.getTestMethods()) {
+            if (!helpers.contains(method)) {
+                shared.append(codeGenerator.renderMethod(method));
+            }
+        }
+        for (int i = 0; i < helpers.size(); i++) {
+            AtcTestMethod helper = helpers.get(i);
+            keys.put(jpfFiles.get(i), SpfResultCache.key(fullClassName, codeGenerator.renderMethod(helper), shared.toString(),
+                HELPER_SOURCE, generateJpfFile(fullClassName, helper, null, "./bin", null)));
+        }
+        return keys;
+    }
+    
+    /**
+     * Run JPF on the job's .jpf files in child processes (see setJpfPool()), if JPF is configured.
+     */
+    @Override
+    public void execute(SymbolicJob job) {
+        JpfProcessPool pool = jpfPool != null ? jpfPool : JpfProcessPool.fromSystemProperties();
+        if (pool == null) {
+            System.out.println("(SPF execution skipped: set -Djpf.core=<jpf-core dir> or -Djpf.command=<launcher> to run JPF)");
+            return;
+        }
+        try {
+            if (!job.isRunnable()) {
+                System.out.println("(SPF execution skipped: the generated classes do not compile)");
+                return;
+            }
+            long start = System.nanoTime();
+            String runSettings = pool.getRunSettings();
+            Map<Path, JpfResult> cached = cachedResults(job, runSettings);
+            List<Path> toRun = new ArrayList<>();
+            for (Path jpfFile : job.getJpfFiles()) {
+                if (!cached.containsKey(jpfFile)) {
+                    toRun.add(jpfFile);
+                }
+            }
+            System.out.println("\n=== Running SPF ===");
+            Map<Path, JpfResult> ran = new HashMap<>();
+            if (!toRun.isEmpty()) {
+                runningPool = pool;
+                SpfOutputParser.ByFile parsers = new SpfOutputParser.ByFile(job::getTargetMethod, job::addInput);
+                List<JpfResult> runs = pool.runAll(toRun, job.getOutputDir(), parsers);
+                parsers.finish();
+                cacheResults(job, runs, runSettings);
+                for (JpfResult run : runs) {
+                    ran.put(run.getJpfFile(), run);
+                }
+            }
+            List<JpfResult> results = new ArrayList<>();
+            for (Path jpfFile : job.getJpfFiles()) {
+                results.add(cached.containsKey(jpfFile) ? cached.get(jpfFile) : ran.get(jpfFile));
+            }
+            job.addResults(results);
+            for (JpfResult jpfResult : results) {
+                System.out.println("  " + jpfResult);
+            }
+            System.out.println(JpfProcessPool.summarize(results, System.nanoTime() - start)
+                + (getResultCache() != null ? ", " + cached.size() + " from the result cache" : ""));
+            System.out.println(job.getInputs().size() + " concrete input(s)");
+        } finally {
+            runningPool = null;
+            if (pool != jpfPool) {
+                pool.close();
+            }
+        }
+    }
+    
+    /**
+     * Inputs parsed from the output of the job's JPF runs (method summaries, method sequences
+     * and printed path conditions, see SpfOutputParser).
+     */
+    @Override
+    public List<ConcreteInput> collect(SymbolicJob job) {
+        return job.getInputs();
+    }
+    
+    /**
+     * Results of the job's .jpf files that are in the result cache for these run settings, by
+     * file (none if there is no cache); their inputs are added to the job.
+     */
+    Map<Path, JpfResult> cachedResults(SymbolicJob job, String runSettings) {
+        Map<Path, JpfResult> cached = new HashMap<>();
+        SpfResultCache cache = getResultCache();
+        if (cache == null) {
+            return cached;
+        }
+        for (Path jpfFile : job.getJpfFiles()) {
+            String key = job.getCacheKey(jpfFile, runSettings);
+            SpfResultCache.Entry entry = key != null ? cache.get(key) : null;
+            if (entry != null) {
+                cached.put(jpfFile, new JpfResult(jpfFile, entry.getStatus(), 0, new ArrayList<>(entry.getErrors()),
+                    new ArrayList<String>(), 0, 0, true));
+                for (ConcreteInput input : entry.getInputs()) {
+                    job.addInput(jpfFile, input);
+                }
+            }
+        }
+        return cached;
+    }
+    
+    /**
+     * Store the complete runs (NO_ERRORS, ERRORS) among results, with their inputs, in the result
+     * cache under the run settings they were made with.
+     */
+    void cacheResults(SymbolicJob job, List<JpfResult> results, String runSettings) {
+        SpfResultCache cache = getResultCache();
+        if (cache == null) {
+            return;
+        }
+        for (JpfResult result : results) {
+            String key = job.getCacheKey(result.getJpfFile(), runSettings);
+            if (key != null && (result.getStatus() == JpfResult.Status.NO_ERRORS || result.getStatus() == JpfResult.Status.ERRORS)) {
+                cache.put(key, result.getStatus(), result.getErrors(),
+                    job.getInputs(result.getJpfFile()));
+            }
+        }
+    }
+    
+    @Override
+    public void cancel() {
+        JpfProcessPool pool = runningPool;
+        if (pool != null) {
+            pool.cancel();
+        }
+    }
+    
+    /**
+     * Nothing to release; a pool passed to setJpfPool() belongs to the caller.
+     */
+    @Override
+    public void close() {
+    }
+    
+    /**
+     * Write the compiled classes to outputDir/bin (the classpath of the generated .jpf files;
+     * unchanged class files are not rewritten) and run JPF on each .jpf file in the pool, with
+     * outputDir as working directory. Returns the results in the order of jpfFiles.
+     */
+    public List<JpfResult> runJpf(List<Path> jpfFiles, Path outputDir,
+                                  AtcCompiler.Result compiled, JpfProcessPool pool) throws IOException {
+        writeClasses(compiled, outputDir);
+        return pool.runAll(jpfFiles, outputDir, null);
+    }
+    
+    private static void writeClasses(AtcCompiler.Result compiled, Path outputDir) throws IOException {
+        OutputManifest manifest = OutputManifest.load(outputDir);
+        for (Map.Entry<String, byte[]> entry : compiled.getClassBytes().entrySet()) {
+            manifest.write("bin/" + entry.getKey().replace('.', '/') + ".class", entry.getValue());
+        }
+        manifest.save();
+    }
+    
+    /**
+     * Save a sharded suite for SPF: the JPF-transformed source of every class, a _main.jpf per
+     * class (the index class runs the whole sequence, each shard runs its helpers once) and a
+     * .jpf per helper. Shards are independent, so their runs can be distributed.
+     * Files whose content did not change are not rewritten (see OutputManifest).
+     * Returns the generated .jpf files.
+     */
+    public List<String> saveSuite(AtcSuite suite, String outputDir) throws IOException {
+        return saveSuite(suite, outputDir, null);
+    }
+    
+    /**
+     * saveSuite(suite, outputDir), also adding the paths of the generated .java files to
+     * sourceFiles (if it is not null).
+     */
+    public List<String> saveSuite(AtcSuite suite, String outputDir, List<String> sourceFiles) throws IOException {
+        List<String> jpfFiles = new ArrayList<>();
+        Path outputPath = Paths.get(outputDir);
+        OutputManifest manifest = OutputManifest.load(outputPath);
+        for (AtcClass atcClass : suite.getClasses()) {
+            AtcClass symbolicIr = transformer.transform(atcClass);
+            String className = symbolicIr.getClassName();
+            String fullClassName = symbolicIr.getPackageName() + "." + className;
+            StringBuilder javaCode = new StringBuilder();
+            codeGenerator.writeJavaFile(symbolicIr, javaCode, renderCache);
+            String javaFileName = symbolicIr.getPackageName().replace('.', '/') + "/" + className + ".java";
+            manifest.write(javaFileName, javaCode);
+            if (sourceFiles != null) {
+                sourceFiles.add(outputPath.resolve(javaFileName).toString());
+            }
+
+            String mainJpfFileName = className + "_main.jpf";
+            manifest.write(mainJpfFileName, generateJpfFile(fullClassName, "main", null, "./bin", null, null));
+            jpfFiles.add(outputPath.resolve(mainJpfFileName).toString());
+            for (AtcTestMethod method : getJpfTestMethods(symbolicIr)) {
+                String jpfFileName = className + "_" + method.getMethodName() + ".jpf";
+                manifest.write(jpfFileName, generateJpfFile(fullClassName, method, null, "./bin", null));
+                jpfFiles.add(outputPath.resolve(jpfFileName).toString());
+            }
+        }
+        manifest.save();
+        return jpfFiles;
+    }
+    
+    /**
+     * Compile the JPF-transformed classes of the suite and Helper in memory, in one compiler
+     * task (see AtcCompiler). Nothing is written; the bytecode is in the result.
+     *
+     * @param specAst Specs the suite was generated from, to map compile errors back to them (may be null)
+     */
+    public AtcCompiler.Result compileSuite(AtcSuite suite, JmlSpecAst specAst) {
+        List<AtcClass> symbolicClasses = new ArrayList<>();
+        for (AtcClass atcClass : suite.getClasses()) {
+            symbolicClasses.add(transformer.transform(atcClass));
+        }
+        return compileTransformed(symbolicClasses, specAst);
+    }
+    
+    private AtcCompiler.Result compileTransformed(List<AtcClass> symbolicClasses, JmlSpecAst specAst) {
+        Map<String, CharSequence> sources = new LinkedHashMap<>();
+        for (AtcClass symbolicIr : symbolicClasses) {
+            StringBuilder javaCode = new StringBuilder();
+            try {
+                codeGenerator.writeJavaFile(symbolicIr, javaCode, renderCache);
+            } catch (IOException e) {
+                throw new IllegalStateException(e); // StringBuilder does not throw
+            }
+            sources.put(symbolicIr.getPackageName() + "." + symbolicIr.getClassName(), javaCode);
+        }
+        sources.put(HELPER_CLASS_NAME, HELPER_SOURCE);
+        return compiler.compile(sources, specAst);
     }
     
     public String transformIrToJpfCode(AtcClass atcClass) {
         AtcClass symbolicIr = transformer.transform(atcClass);
-        return codeGenerator.generateSymbolicJavaFile(symbolicIr);
+        return codeGenerator.generateJavaFile(symbolicIr);
+    }
+    
+    private void printJavaFile(AtcClass atcClass) {
+        try {
+            codeGenerator.writeJavaFile(atcClass, System.out);
+        } catch (IOException e) {
+            System.err.println("Error printing generated code: " + e.getMessage());
+        }
+        System.out.println();
     }
     
-    private void saveOutputFiles(String simpleJavaCode, String jpfCode, AtcClass atcClass) throws IOException {
+    /**
+     * Test methods that get their own .jpf file (the @Test helpers, not main).
+     */
+    private List<AtcTestMethod> getJpfTestMethods(AtcClass atcClass) {
+        List<AtcTestMethod> testMethods = new ArrayList<>();
+        for (AtcTestMethod method : atcClass.getTestMethods()) {
+            if (method.isTestAnnotated() && !method.isMain()) {
+                testMethods.add(method);
+            }
+        }
+        return testMethods;
+    }
+    
+    /**
+     * Save the JPF-transformed class, its .jpf files and Helper.java under outputs/.
+     * Only files whose content changed since the last run are rewritten, and helpers whose
+     * spec did not change are not rendered again (see OutputManifest, AtcMethodRenderCache).
+     */
+    private void saveOutputFiles(AtcClass atcClass) throws IOException {
         System.out.println("\n=== Saving output files ===");
         String outputDir = "outputs";
         java.io.File outputDirFile = new java.io.File(outputDir);
@@ -197,6 +645,7 @@ public class SpfWrapper {
         } else {
             System.out.println("Outputs directory already exists: " + outputDirFile.getAbsolutePath());
         }
+        OutputManifest manifest = OutputManifest.load(Paths.get(outputDir));
         
         String packageName = atcClass.getPackageName();
         String className = atcClass.getClassName();
@@ -204,82 +653,64 @@ public class SpfWrapper {
             ? packageName + "." + className 
             : className;
         
-        List<String> testMethods = new ArrayList<>();
-        for (AtcTestMethod method : atcClass.getTestMethods()) {
-            if (method.isTestAnnotated() && !method.isMain()) {
-                testMethods.add(method.getMethodName());
+        List<AtcTestMethod> testMethods = getJpfTestMethods(atcClass);
+        int changedHelpers = 0;
+        for (AtcTestMethod method : testMethods) {
+            if (manifest.updateMethod(fullClassName, method.getMethodName(), method.getSourceHash())) {
+                changedHelpers++;
             }
         }
         
         String packagePath = packageName.replace('.', java.io.File.separatorChar);
         java.io.File packageDir = new java.io.File(outputDir, packagePath);
-        packageDir.mkdirs();
         String javaFilePath = Paths.get(packageDir.getAbsolutePath(), className + ".java").toString();
-        try (FileWriter writer = new FileWriter(javaFilePath)) {
-            writer.write(jpfCode);
+        StringBuilder javaCode = new StringBuilder();
+        codeGenerator.writeJavaFile(atcClass, javaCode, renderCache);
+        if (manifest.write(Paths.get(packagePath, className + ".java").toString(), javaCode)) {
             System.out.println("Saved JPF-transformed Java file: " + javaFilePath);
+        } else {
+            System.out.println("Unchanged JPF-transformed Java file: " + javaFilePath);
         }
         
         String mainJpfFileName = className + "_main.jpf";
         String mainJpfFilePath = Paths.get(outputDir, mainJpfFileName).toString();
         try {
-            generateJpfFile(fullClassName, "main", mainJpfFilePath, "./bin", null, jpfCode);
-            System.out.println("Generated main .jpf file: " + mainJpfFilePath);
+            if (manifest.write(mainJpfFileName, generateJpfFile(fullClassName, "main", null, "./bin", null, null))) {
+                System.out.println("Generated main .jpf file: " + mainJpfFilePath);
+            }
         } catch (IOException e) {
             System.err.println("Error generating main .jpf file: " + e.getMessage());
         }
         
         if (!testMethods.isEmpty() && fullClassName != null) {
-            List<String> jpfFiles = generateJpfFilesForMethods(fullClassName, testMethods, outputDir, "./bin", null, jpfCode);
-            System.out.println("Generated " + jpfFiles.size() + " additional .jpf file(s) for individual test methods:");
-            for (String jpfFile : jpfFiles) {
-                System.out.println("  - " + jpfFile);
+            List<String> jpfFiles = new ArrayList<>();
+            String simpleClassName = fullClassName.substring(fullClassName.lastIndexOf('.') + 1);
+            for (AtcTestMethod method : testMethods) {
+                String jpfFileName = simpleClassName + "_" + method.getMethodName() + ".jpf";
+                if (manifest.write(jpfFileName, generateJpfFile(fullClassName, method, null, "./bin", null))) {
+                    jpfFiles.add(Paths.get(outputDir, jpfFileName).toString());
+                }
+            }
+            if (!jpfFiles.isEmpty()) {
+                System.out.println("Generated " + jpfFiles.size() + " additional .jpf file(s) for individual test methods:");
+                for (String jpfFile : jpfFiles) {
+                    System.out.println("  - " + jpfFile);
+                }
             }
         }
         
         String helperJavaPath = Paths.get(outputDir, "in", "ac", "iiitb", "plproject", "atc", "generated", "Helper.java").toString();
-        java.io.File helperJavaFile = new java.io.File(helperJavaPath);
-        helperJavaFile.getParentFile().mkdirs();
-        try (FileWriter writer = new FileWriter(helperJavaPath)) {
-            writer.write("package in.ac.iiitb.plproject.atc.generated;\n\n");
-            writer.write("import java.util.Set;\n");
-            writer.write("import java.util.Map;\n");
-            writer.write("import java.util.HashSet;\n");
-            writer.write("import java.util.HashMap;\n\n");
-            writer.write("public class Helper {\n");
-            writer.write("    public static void appendExclamation(String s) {\n");
-            writer.write("        if (s != null) {\n");
-            writer.write("        }\n");
-            writer.write("    }\n\n");
-            writer.write("    public static void increment(int[] x) {\n");
-            writer.write("        if (x != null && x.length > 0) {\n");
-            writer.write("            x[0] = x[0] + 1;\n");
-            writer.write("        }\n");
-            writer.write("    }\n\n");
-            writer.write("    public static void process(Set<Integer> data, Map<Integer, Integer> result) {\n");
-            writer.write("        if (data != null && result != null) {\n");
-            writer.write("            for (Integer item : data) {\n");
-            writer.write("                result.put(item, item * 2);\n");
-            writer.write("            }\n");
-            writer.write("        }\n");
-            writer.write("    }\n\n");
-            writer.write("    public static Map<?,?> update(Map<Integer, Integer> result, Set<Integer> data) {\n");
-            writer.write("        if (result == null) {\n");
-            writer.write("            return new HashMap<>();\n");
-            writer.write("        }\n");
-            writer.write("        Map<Integer, Integer> updated = new HashMap<>(result);\n");
-            writer.write("        if (data != null) {\n");
-            writer.write("            for (Integer item : data) {\n");
-            writer.write("                updated.put(item, item * 2);\n");
-            writer.write("            }\n");
-            writer.write("        }\n");
-            writer.write("        return updated;\n");
-            writer.write("    }\n");
-            writer.write("}\n");
-            System.out.println("Generated Helper.java: " + helperJavaPath);
+        try {
+            if (manifest.write(Paths.get("in", "ac", "iiitb", "plproject", "atc", "generated", "Helper.java").toString(), HELPER_SOURCE)) {
+                System.out.println("Generated Helper.java: " + helperJavaPath);
+            }
         } catch (IOException e) {
             System.err.println("Error generating Helper.java: " + e.getMessage());
         }
+        
+        manifest.save();
+        System.out.println("Output files: " + manifest.getWrittenCount() + " written, " + manifest.getUnchangedCount()
+            + " unchanged; helpers changed since the last run: " + changedHelpers + " of " + testMethods.size());
     }
     
     public String getJpfCode(AtcClass atcClass) {
@@ -293,6 +724,36 @@ public class SpfWrapper {
     
     public String generateJpfFile(String className, String methodName, String outputPath, 
                                    String classpath, String sourcepath, String javaCode) throws IOException {
+        String methodSignature;
+        if (javaCode != null && !javaCode.isEmpty()) {
+            methodSignature = extractMethodSignature(javaCode, methodName);
+        } else {
+            methodSignature = methodName + "()";
+        }
+        return buildJpfFile(className, methodName, methodSignature, outputPath, classpath, sourcepath, null);
+    }
+    
+    /**
+     * Generate the .jpf file for a generated test method, taking its signature from the IR
+     * instead of re-parsing rendered code, and the range of its symbolic ints from its
+     * assumptions (see IntRangeAnalysis).
+     */
+    public String generateJpfFile(String className, AtcTestMethod method, String outputPath, 
+                                   String classpath, String sourcepath) throws IOException {
+        return buildJpfFile(className, method.getMethodName(), getMethodSignature(method),
+                            outputPath, classpath, sourcepath, rangeAnalysis.analyze(method));
+    }
+    
+    /**
+     * JPF signature of a generated method: AtcIrCodeGenerator emits every AtcTestMethod
+     * without parameters.
+     */
+    private String getMethodSignature(AtcTestMethod method) {
+        return method.getMethodName() + "()";
+    }
+    
+    private String buildJpfFile(String className, String methodName, String methodSignature, String outputPath, 
+                                String classpath, String sourcepath, IntRangeAnalysis.Result ranges) throws IOException {
         StringBuilder jpfContent = new StringBuilder();
         
         // 1. Always load the jpf-symbc extension at the top
@@ -326,21 +787,31 @@ public class SpfWrapper {
         jpfContent.append("symbolic.arrays = true\n\n");
         
         if (!"main".equals(methodName)) {
-            String methodSignature;
-            if (javaCode != null && !javaCode.isEmpty()) {
-                methodSignature = extractMethodSignature(javaCode, methodName);
-            } else {
-                methodSignature = methodName + "()";
-            }
-            
             jpfContent.append("# Define symbolic variables in the method under test\n");
             jpfContent.append("symbolic.method = ").append(className).append(".").append(methodSignature).append("\n\n");
         }
         
         jpfContent.append("# Integer ranges\n");
-        jpfContent.append("symbolic.minint = -100\n");
-        jpfContent.append("symbolic.maxint = 100\n");
-        jpfContent.append("symbolic.undefined = -1000\n\n");
+        int minInt = IntRangeAnalysis.DEFAULT_MIN;
+        int maxInt = IntRangeAnalysis.DEFAULT_MAX;
+        if (ranges != null && ranges.hasInts()) {
+            if (ranges.isUnsatisfiable()) {
+                jpfContent.append("# The assumptions cannot all hold; default range kept\n");
+            } else {
+                jpfContent.append("# From the assumptions: ").append(ranges.describe())
+                    .append(ranges.hasOtherInputs() ? "; default range kept for the other symbolic inputs" : "").append("\n");
+                minInt = ranges.getMinInt();
+                maxInt = ranges.getMaxInt();
+            }
+        }
+        jpfContent.append("symbolic.minint = ").append(minInt).append("\n");
+        jpfContent.append("symbolic.maxint = ").append(maxInt).append("\n");
+        // The value SPF reports for undefined results must lie outside the range
+        int undefined = -1000;
+        if (undefined >= minInt && undefined <= maxInt) {
+            undefined = minInt > Integer.MIN_VALUE ? minInt - 1 : maxInt + 1;
+        }
+        jpfContent.append("symbolic.undefined = ").append(undefined).append("\n\n");
         
         jpfContent.append("# Search bounds to prevent infinite exploration\n");
         if ("main".equals(methodName)) {
@@ -348,7 +819,8 @@ public class SpfWrapper {
             jpfContent.append("search.time_limit = 60\n");
         } else {
             jpfContent.append("search.depth_limit = 500\n");
-            jpfContent.append("search.time_limit = 120\n");
+            jpfContent.append("search.time_limit = ")
+                .append(ranges != null ? ranges.getTimeLimit() : IntRangeAnalysis.DEFAULT_TIME_LIMIT).append("\n");
         }
         jpfContent.append("search.multiple_errors = true\n");
         jpfContent.append("search.class = .search.heuristic.BFSHeuristic\n\n");
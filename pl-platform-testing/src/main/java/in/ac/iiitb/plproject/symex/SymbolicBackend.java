@@ -0,0 +1,50 @@
+package in.ac.iiitb.plproject.symex;
+
+import in.ac.iiitb.plproject.atc.ConcreteInput;
+import in.ac.iiitb.plproject.atc.ir.AtcClass;
+import in.ac.iiitb.plproject.parser.ast.JmlSpecAst;
+
+import java.io.Closeable;
+import java.util.List;
+
+/**
+ * Runs symbolic execution on a generated ATC class. TestGen drives a backend through
+ * prepare() -> execute() -> collect(); cancel() may be called from another thread.
+ *
+ * Implementations:
+ * - SpfWrapper: writes the JPF-transformed sources, .jpf files and compiled classes to outputs/
+ *   and runs JPF in child processes (JpfProcessPool), if configured
+ * - InProcessJpfBackend: prepares the same files, then runs JPF inside this JVM, loaded once
+ *   from a configured class path
+ */
+public interface SymbolicBackend extends Closeable {
+
+    /**
+     * Transform, save and compile the class; returns what execute() needs.
+     *
+     * @param specAst Specs the class was generated from, for reporting (may be null)
+     */
+    SymbolicJob prepare(AtcClass atcClass, JmlSpecAst specAst);
+
+    /**
+     * Run symbolic execution for the job (blocking); the results are stored in the job.
+     */
+    void execute(SymbolicJob job);
+
+    /**
+     * Concrete test inputs found by execute().
+     */
+    List<ConcreteInput> collect(SymbolicJob job);
+
+    /**
+     * Stop running and pending executions as soon as possible; execute() then returns with
+     * the remaining runs CANCELLED.
+     */
+    void cancel();
+
+    /**
+     * Release what the backend keeps between jobs (processes, class loaders).
+     */
+    @Override
+    void close();
+}
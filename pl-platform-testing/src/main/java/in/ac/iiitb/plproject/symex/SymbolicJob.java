@@ -0,0 +1,147 @@
+package in.ac.iiitb.plproject.symex;
+
+import in.ac.iiitb.plproject.atc.ConcreteInput;
+import in.ac.iiitb.plproject.atc.ir.AtcClass;
+import in.ac.iiitb.plproject.parser.ast.JmlSpecAst;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One class prepared for symbolic execution (see SymbolicBackend): the JPF-transformed IR,
+ * where its files were written, the .jpf files to run and, after execute(), their results
+ * and the concrete inputs parsed from their output.
+ */
+public final class SymbolicJob {
+    private final AtcClass symbolicIr;
+    private final JmlSpecAst specAst;
+    private final Path outputDir;
+    private final List<Path> jpfFiles;
+    private final AtcCompiler.Result compiled;
+    private final Map<Path, String> cacheKeys;
+    private final List<JpfResult> results = Collections.synchronizedList(new ArrayList<JpfResult>());
+    // Parsed inputs per .jpf file, in the order of the files' first input
+    private final Map<Path, List<ConcreteInput>> inputs = new LinkedHashMap<>();
+
+    SymbolicJob(AtcClass symbolicIr, JmlSpecAst specAst, Path outputDir, List<Path> jpfFiles, AtcCompiler.Result compiled,
+                Map<Path, String> cacheKeys) {
+        this.symbolicIr = symbolicIr;
+        this.specAst = specAst;
+        this.outputDir = outputDir;
+        this.jpfFiles = Collections.unmodifiableList(new ArrayList<>(jpfFiles));
+        this.compiled = compiled;
+        this.cacheKeys = Collections.unmodifiableMap(new LinkedHashMap<>(cacheKeys));
+    }
+
+    public AtcClass getSymbolicIr() {
+        return symbolicIr;
+    }
+
+    public JmlSpecAst getSpecAst() {
+        return specAst;
+    }
+
+    /**
+     * Directory with the generated files; compiled classes are in outputDir/bin.
+     */
+    public Path getOutputDir() {
+        return outputDir;
+    }
+
+    /**
+     * The .jpf file of every helper (or the _main.jpf if the class has no helpers).
+     */
+    public List<Path> getJpfFiles() {
+        return jpfFiles;
+    }
+
+    /**
+     * In-memory compilation of the generated classes (null if no compiler is available).
+     */
+    public AtcCompiler.Result getCompiled() {
+        return compiled;
+    }
+
+    /**
+     * True if the generated classes compiled, so JPF can run them.
+     */
+    public boolean isRunnable() {
+        return compiled != null && compiled.isSuccess();
+    }
+
+    /**
+     * Qualified method a .jpf file of this job runs: "<package>.<class>.<helper>" for
+     * "<class>_<helper>.jpf", "<package>.<class>.main" for the _main.jpf.
+     */
+    public String getTargetMethod(Path jpfFile) {
+        String className = symbolicIr.getClassName();
+        String fileName = jpfFile.getFileName().toString();
+        String method = fileName.startsWith(className + "_") && fileName.endsWith(".jpf")
+            ? fileName.substring(className.length() + 1, fileName.length() - ".jpf".length()) : "main";
+        String packageName = symbolicIr.getPackageName();
+        return (packageName == null || packageName.isEmpty() ? "" : packageName + ".") + className + "." + method;
+    }
+
+    /**
+     * SpfResultCache key of a .jpf file's content (null if results of this job are not cached).
+     */
+    public String getCacheKey(Path jpfFile) {
+        return cacheKeys.get(jpfFile);
+    }
+
+    /**
+     * SpfResultCache key of a .jpf file's results when run with the given settings (launcher or
+     * JPF class path and time limit, see JpfProcessPool.getRunSettings()); null if results of
+     * this job are not cached.
+     */
+    public String getCacheKey(Path jpfFile, String runSettings) {
+        String key = cacheKeys.get(jpfFile);
+        return key != null ? SpfResultCache.key(key, runSettings) : null;
+    }
+
+    public List<JpfResult> getResults() {
+        synchronized (results) {
+            return new ArrayList<>(results);
+        }
+    }
+
+    void addResults(List<JpfResult> newResults) {
+        results.addAll(newResults);
+    }
+
+    /**
+     * Inputs parsed from the JPF output of all runs so far (or taken from the result cache),
+     * without duplicates.
+     */
+    public List<ConcreteInput> getInputs() {
+        Set<ConcreteInput> all = new LinkedHashSet<>();
+        synchronized (inputs) {
+            for (List<ConcreteInput> fileInputs : inputs.values()) {
+                all.addAll(fileInputs);
+            }
+        }
+        return new ArrayList<>(all);
+    }
+
+    /**
+     * Inputs of one .jpf file's runs.
+     */
+    public List<ConcreteInput> getInputs(Path jpfFile) {
+        synchronized (inputs) {
+            List<ConcreteInput> fileInputs = inputs.get(jpfFile);
+            return fileInputs == null ? new ArrayList<ConcreteInput>() : new ArrayList<>(fileInputs);
+        }
+    }
+
+    void addInput(Path jpfFile, ConcreteInput input) {
+        synchronized (inputs) {
+            inputs.computeIfAbsent(jpfFile, file -> new ArrayList<>()).add(input);
+        }
+    }
+}
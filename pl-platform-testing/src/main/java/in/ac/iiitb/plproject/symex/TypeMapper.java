@@ -1,5 +1,7 @@
 package in.ac.iiitb.plproject.symex;
 
+import in.ac.iiitb.plproject.atc.ir.TypeDescriptor;
+
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -156,21 +158,14 @@ public class TypeMapper {
     }
     
     /**
-     * Checks if a type is a primitive or primitive wrapper.
+     * Checks if a type is a primitive or primitive wrapper (String is not).
+     * Same classification as TypeDescriptor.isPrimitive().
      * 
      * @param typeName The type name to check
      * @return true if it's a primitive type, false otherwise
      */
     public static boolean isPrimitiveType(String typeName) {
-        if (typeName == null) {
-            return false;
-        }
-        String lower = typeName.toLowerCase();
-        return lower.equals("int") || lower.equals("integer") ||
-               lower.equals("double") || lower.equals("float") ||
-               lower.equals("long") || lower.equals("short") ||
-               lower.equals("byte") || lower.equals("char") ||
-               lower.equals("boolean") || lower.equals("string");
+        return typeName != null && TypeDescriptor.isPrimitiveName(typeName);
     }
     
     /**